@@ -113,7 +113,7 @@ public class ReloadableProxyFactory<T> {
      * @return 代理对象
      */
     public T getDynamicProxy() {
-        return ProxyClientFactory.createProxy(clazz, new Class[] {Resource.class},
+        return ProxyClientFactory.createMethodBoundProxy(clazz, new Class[] {Resource.class},
                 new Object[] {null}, new DynamicProxyCallback<>(this));
     }
 
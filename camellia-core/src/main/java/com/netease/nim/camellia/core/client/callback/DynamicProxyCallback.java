@@ -11,7 +11,7 @@ import java.lang.reflect.Method;
  *
  * Created by caojiajun on 2019/11/25.
  */
-public class DynamicProxyCallback<T> implements MethodInterceptor {
+public class DynamicProxyCallback<T> implements MethodInterceptor, ProxyMethodCallback {
 
     private final ReloadableProxyFactory<T> factory;
 
@@ -27,4 +27,15 @@ public class DynamicProxyCallback<T> implements MethodInterceptor {
             throw ExceptionUtils.onError(e);
         }
     }
+
+    @Override
+    public MethodInterceptor bind(ProxyMethod method) {
+        return (obj, m, args, proxy) -> {
+            try {
+                return method.invoke(factory.getProxy(), args);
+            } catch (Exception e) {
+                throw ExceptionUtils.onError(e);
+            }
+        };
+    }
 }
@@ -22,7 +22,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
  *
  * Created by caojiajun on 2019/5/16.
  */
-public class OperationCallback<T> implements MethodInterceptor {
+public class OperationCallback<T> implements MethodInterceptor, ProxyMethodCallback {
 
     private static final Logger logger = LoggerFactory.getLogger(OperationCallback.class);
 
@@ -31,6 +31,7 @@ public class OperationCallback<T> implements MethodInterceptor {
     private final String className;
     private ProxyEnv env = ProxyEnv.defaultProxyEnv();
     private final ReadWriteOperationCache readWriteOperationCache = new ReadWriteOperationCache();
+    private final Map<Method, ProxyMethod> methodMap = new HashMap<>();
 
     public OperationCallback(ResourceOperation resourceOperation, Map<Resource, T> clientMap, Class<T> clazz, ProxyEnv env) {
         if (resourceOperation == null) {
@@ -44,6 +45,9 @@ public class OperationCallback<T> implements MethodInterceptor {
         }
         check(resourceOperation, clientMap);
         readWriteOperationCache.preheat(clazz);
+        for (ProxyMethod method : ProxyMethod.of(clazz)) {
+            methodMap.put(method.getMethod(), method);
+        }
         this.resourceOperation = resourceOperation;
         this.clientMap = clientMap;
         this.className = clazz.getName();
@@ -54,31 +58,44 @@ public class OperationCallback<T> implements MethodInterceptor {
 
     @Override
     public Object intercept(Object o, Method method, Object[] objects, MethodProxy methodProxy) throws Throwable {
+        ProxyMethod proxyMethod = methodMap.get(method);
+        if (proxyMethod == null || !proxyMethod.isOpMethod()) {
+            return methodProxy.invokeSuper(o, objects);
+        }
+        return intercept(proxyMethod, objects);
+    }
+
+    @Override
+    public MethodInterceptor bind(ProxyMethod method) {
+        if (!method.isOpMethod()) {
+            return null;
+        }
+        return (o, m, objects, methodProxy) -> intercept(method, objects);
+    }
+
+    private Object intercept(ProxyMethod method, Object[] objects) throws Throwable {
         try {
-            byte operationType = readWriteOperationCache.getOperationType(method);
-            if (operationType == ReadWriteOperationCache.WRITE) {
+            if (method.getOperationType() == ReadWriteOperationCache.WRITE) {
                 return write(objects, method);
-            }
-            if (operationType == ReadWriteOperationCache.READ) {
+            } else {
                 return read(objects, method);
             }
-            return methodProxy.invokeSuper(o, objects);
         } catch (Throwable e) {
             throw ExceptionUtils.onError(e);
         }
     }
 
     private void addFailedWriteTask(ResourceOperation.Type type, ResourceWriteOperation.Type writeType,
-                                    FailedReason failedReason, Throwable error, int index, Resource resource, Object client, Object[] objects, Method method) {
+                                    FailedReason failedReason, Throwable error, int index, Resource resource, Object client, Object[] objects, ProxyMethod method) {
         FailedWriteTaskQueue queue = env.getFailedWriteTaskQueue();
         if (queue != null) {
             FailedWriteTask task = new FailedWriteTask(type, writeType, failedReason, error, index, env,
-                    resource, client, className, method, objects, readWriteOperationCache);
+                    resource, client, className, method.getMethod(), objects, readWriteOperationCache);
             queue.offerQueue(task);
         }
     }
 
-    private Object write(final Object[] objects, final Method method) throws Throwable {
+    private Object write(final Object[] objects, final ProxyMethod method) throws Throwable {
         ResourceOperation.Type type = resourceOperation.getType();
         switch (type) {
             case SIMPLE: {
@@ -138,7 +155,7 @@ public class OperationCallback<T> implements MethodInterceptor {
                                             return method.invoke(client, objects);
                                         } catch (Throwable e) {
                                             logger.error("multi thread concurrent invoke error, class = {}, method = {}, resource = {}",
-                                                    className, method.getName(), resource.getUrl(), e);
+                                                    className, method.getMethod().getName(), resource.getUrl(), e);
                                             addFailedWriteTask(type, writeOperation.getType(), FailedReason.EXCEPTION, e, index, resource, client, objects, method);
                                             exception.set(true);
                                             throw e;
@@ -197,7 +214,7 @@ public class OperationCallback<T> implements MethodInterceptor {
                                             return method.invoke(client, objects);
                                         } catch (Throwable e) {
                                             logger.error("async multi thread invoke error, class = {}, method = {}, resource = {}",
-                                                    className, method.getName(), resource.getUrl(), e);
+                                                    className, method.getMethod().getName(), resource.getUrl(), e);
                                             addFailedWriteTask(type, writeOperation.getType(), FailedReason.EXCEPTION, e, index, resource, client, objects, method);
                                             exception.set(true);
                                             throw e;
@@ -209,7 +226,7 @@ public class OperationCallback<T> implements MethodInterceptor {
                                     }
                                     if (!first) {
                                         logger.error("submit async multi thread task error, class = {}, method = {}, resource = {}",
-                                                className, method.getName(), resource.getUrl(), e);
+                                                className, method.getMethod().getName(), resource.getUrl(), e);
                                     } else {
                                         throw e;
                                     }
@@ -249,7 +266,7 @@ public class OperationCallback<T> implements MethodInterceptor {
                                                 return method.invoke(client, objects);
                                             } catch (Throwable e) {
                                                 logger.error("async multi thread invoke error, class = {}, method = {}, resource = {}",
-                                                        className, method.getName(), resource.getUrl(), e);
+                                                        className, method.getMethod().getName(), resource.getUrl(), e);
                                                 addFailedWriteTask(type, writeOperation.getType(), FailedReason.EXCEPTION, e, index, resource, client, objects, method);
                                                 exception.set(true);
                                                 throw e;
@@ -257,7 +274,7 @@ public class OperationCallback<T> implements MethodInterceptor {
                                         }));
                                     } catch (Throwable e) {
                                         logger.error("submit async multi thread task error, class = {}, method = {}, resource = {}",
-                                                className, method.getName(), resource.getUrl(), e);
+                                                className, method.getMethod().getName(), resource.getUrl(), e);
                                         if (!exception.get()) {
                                             addFailedWriteTask(type, writeOperation.getType(), FailedReason.DISCARD, e, index, resource, client, objects, method);
                                         }
@@ -278,7 +295,7 @@ public class OperationCallback<T> implements MethodInterceptor {
         }
     }
 
-    private Object read(Object[] objects, Method method) throws Throwable {
+    private Object read(Object[] objects, ProxyMethod method) throws Throwable {
         ResourceOperation.Type type = resourceOperation.getType();
         switch (type) {
             case SIMPLE: {
@@ -329,15 +346,15 @@ public class OperationCallback<T> implements MethodInterceptor {
         }
     }
 
-    private void incrWrite(Resource resource, Method method) {
+    private void incrWrite(Resource resource, ProxyMethod method) {
         if (env != null && env.getMonitor() != null) {
-            env.getMonitor().incrWrite(resource.getUrl(), className, readWriteOperationCache.getMethodName(method));
+            env.getMonitor().incrWrite(resource.getUrl(), className, method.getMethodName());
         }
     }
 
-    private void incrRead(Resource resource, Method method) {
+    private void incrRead(Resource resource, ProxyMethod method) {
         if (env != null && env.getMonitor() != null) {
-            env.getMonitor().incrRead(resource.getUrl(), className, readWriteOperationCache.getMethodName(method));
+            env.getMonitor().incrRead(resource.getUrl(), className, method.getMethodName());
         }
     }
 
@@ -1,7 +1,11 @@
 package com.netease.nim.camellia.core.client.callback;
 
-import net.sf.cglib.proxy.Enhancer;
-import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.*;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -23,4 +27,56 @@ public class ProxyClientFactory {
         enhancer.setCallback(callback);
         return (T) enhancer.create();
     }
+
+    /**
+     * 生成代理对象，每个方法绑定到各自的MethodInterceptor上
+     */
+    public static <T> T createMethodBoundProxy(Class<T> clazz, Class<?>[] argumentTypes, final Object[] arguments, ProxyMethodCallback callback) {
+        List<ProxyMethod> methods = ProxyMethod.of(clazz);
+        Callback[] callbacks = new Callback[methods.size() + 1];
+        callbacks[0] = NoOp.INSTANCE;
+        for (ProxyMethod method : methods) {
+            MethodInterceptor interceptor = callback.bind(method);
+            callbacks[method.getIndex()] = interceptor == null ? NoOp.INSTANCE : interceptor;
+        }
+        Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(clazz);
+        enhancer.setCallbackFilter(new ProxyMethodFilter(clazz, methods));
+        enhancer.setCallbacks(callbacks);
+        return (T) enhancer.create(argumentTypes, arguments);
+    }
+
+    /**
+     * 方法到callback下标的映射只和clazz有关，因此equals/hashCode只比较clazz，使得cglib可以复用已经生成的代理类
+     */
+    private static class ProxyMethodFilter implements CallbackFilter {
+
+        private final Class<?> clazz;
+        private final Map<Method, Integer> indexMap = new HashMap<>();
+
+        ProxyMethodFilter(Class<?> clazz, List<ProxyMethod> methods) {
+            this.clazz = clazz;
+            for (ProxyMethod method : methods) {
+                indexMap.put(method.getMethod(), method.getIndex());
+            }
+        }
+
+        @Override
+        public int accept(Method method) {
+            Integer index = indexMap.get(method);
+            return index == null ? 0 : index;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            return clazz.equals(((ProxyMethodFilter) o).clazz);
+        }
+
+        @Override
+        public int hashCode() {
+            return clazz.hashCode();
+        }
+    }
 }
@@ -0,0 +1,121 @@
+package com.netease.nim.camellia.core.client.callback;
+
+import com.netease.nim.camellia.core.util.ReadWriteOperationCache;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 代理类的一个方法，在生成代理对象时预先计算好注解信息和MethodHandle，调用时不再需要反射和查缓存
+ * Created by caojiajun on 2024/7/31
+ */
+public class ProxyMethod {
+
+    private static final ConcurrentHashMap<Class<?>, List<ProxyMethod>> cache = new ConcurrentHashMap<>();
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final int index;
+    private final Method method;
+    private final MethodHandle invoker;
+    private final byte operationType;
+    private final String methodName;
+
+    private ProxyMethod(int index, Method method, ReadWriteOperationCache readWriteOperationCache) {
+        this.index = index;
+        this.method = method;
+        this.invoker = invoker(method);
+        this.operationType = readWriteOperationCache.getOperationType(method);
+        this.methodName = readWriteOperationCache.getMethodName(method);
+    }
+
+    /**
+     * 获取一个类的所有可以被代理的public方法，顺序固定（同一个类多次调用返回同一个列表）
+     * @param clazz clazz
+     * @return list
+     */
+    public static List<ProxyMethod> of(Class<?> clazz) {
+        List<ProxyMethod> list = cache.get(clazz);
+        if (list != null) {
+            return list;
+        }
+        return cache.computeIfAbsent(clazz, k -> {
+            ReadWriteOperationCache readWriteOperationCache = new ReadWriteOperationCache();
+            List<ProxyMethod> methods = new ArrayList<>();
+            for (Method method : clazz.getMethods()) {
+                int modifiers = method.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+                    continue;
+                }
+                //index=0保留给不拦截的方法
+                methods.add(new ProxyMethod(methods.size() + 1, method, readWriteOperationCache));
+            }
+            return Collections.unmodifiableList(methods);
+        });
+    }
+
+    /**
+     * 在代理类的callback数组中的下标
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * @return ReadWriteOperationCache.WRITE/READ/UNKNOWN
+     */
+    public byte getOperationType() {
+        return operationType;
+    }
+
+    public boolean isOpMethod() {
+        return operationType == ReadWriteOperationCache.WRITE || operationType == ReadWriteOperationCache.READ;
+    }
+
+    /**
+     * 用于监控的方法名，如get(String)
+     */
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * 调用target对象的该方法，不会包装成InvocationTargetException
+     * @param target target
+     * @param args args
+     * @return result
+     * @throws Exception error
+     */
+    public Object invoke(Object target, Object[] args) throws Exception {
+        try {
+            return invoker.invokeExact(target, args);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    private static MethodHandle invoker(Method method) {
+        try {
+            if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                method.setAccessible(true);
+            }
+            MethodHandle handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+            return handle.asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("unreflect method error, method = " + method, e);
+        }
+    }
+}
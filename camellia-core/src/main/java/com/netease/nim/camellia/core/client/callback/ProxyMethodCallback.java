@@ -0,0 +1,18 @@
+package com.netease.nim.camellia.core.client.callback;
+
+import net.sf.cglib.proxy.MethodInterceptor;
+
+/**
+ * 按方法绑定的callback，生成代理类时为每个方法生成一个MethodInterceptor，
+ * 代理类的每个方法直接调用自己的MethodInterceptor，调用时不需要再根据Method查找注解和缓存
+ * Created by caojiajun on 2024/7/31
+ */
+public interface ProxyMethodCallback {
+
+    /**
+     * 为某个方法生成拦截器
+     * @param method method
+     * @return 拦截器，返回null表示不拦截，直接调用父类方法
+     */
+    MethodInterceptor bind(ProxyMethod method);
+}
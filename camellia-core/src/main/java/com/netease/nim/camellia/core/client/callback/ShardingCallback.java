@@ -1,9 +1,7 @@
 package com.netease.nim.camellia.core.client.callback;
 
-import com.netease.nim.camellia.core.client.annotation.ReadOp;
 import com.netease.nim.camellia.core.client.annotation.ShardingConfig;
 import com.netease.nim.camellia.core.client.annotation.ShardingParam;
-import com.netease.nim.camellia.core.client.annotation.WriteOp;
 import com.netease.nim.camellia.core.client.env.ProxyEnv;
 import com.netease.nim.camellia.core.client.env.ThreadContextSwitchStrategy;
 import com.netease.nim.camellia.core.client.hub.IProxyHub;
@@ -24,15 +22,18 @@ import java.util.concurrent.atomic.AtomicBoolean;
  *
  * Created by caojiajun on 2019/5/17.
  */
-public class ShardingCallback<T> implements MethodInterceptor {
+public class ShardingCallback<T> implements MethodInterceptor, ProxyMethodCallback {
 
     private final IProxyHub<T> proxyHub;
     private ProxyEnv env = ProxyEnv.defaultProxyEnv();
+    private final Map<Method, ShardingMethod> methodMap = new HashMap<>();
 
     public ShardingCallback(IProxyHub<T> proxyHub, Class<T> clazz, ProxyEnv env) {
         this.proxyHub = proxyHub;
-        for (Method method : clazz.getMethods()) {
-            initCache(method);
+        for (ProxyMethod method : ProxyMethod.of(clazz)) {
+            if (method.isOpMethod()) {
+                methodMap.put(method.getMethod(), new ShardingMethod(method));
+            }
         }
         if (env != null) {
             this.env = env;
@@ -41,16 +42,30 @@ public class ShardingCallback<T> implements MethodInterceptor {
 
     @Override
     public Object intercept(Object o, final Method method, Object[] objects, MethodProxy methodProxy) throws Throwable {
+        ShardingMethod shardingMethod = methodMap.get(method);
+        if (shardingMethod == null) {
+            return methodProxy.invokeSuper(o, objects);
+        }
+        return intercept(shardingMethod, objects);
+    }
+
+    @Override
+    public MethodInterceptor bind(ProxyMethod method) {
+        ShardingMethod shardingMethod = methodMap.get(method.getMethod());
+        if (shardingMethod == null) {
+            return null;
+        }
+        return (o, m, objects, methodProxy) -> intercept(shardingMethod, objects);
+    }
+
+    private Object intercept(final ShardingMethod method, Object[] objects) throws Throwable {
         try {
-            if (!isOpMethod(method)) {
-                return methodProxy.invokeSuper(o, objects);
-            }
-            CollectionType collectionType = getCollectionType(method);
+            CollectionType collectionType = method.collectionType;
 
             if (collectionType == CollectionType.NOT_COLLECTION) {
                 byte[][] key = parseShardingSimple(method, objects);
                 T proxy = proxyHub.chooseProxy(key);
-                return method.invoke(proxy, objects);
+                return method.proxyMethod.invoke(proxy, objects);
             } else {
                 Map<T, List<Object[]>> proxyMap = new HashMap<>();
                 Map<byte[][], Object[]> map;
@@ -99,7 +114,7 @@ public class ShardingCallback<T> implements MethodInterceptor {
                     for (Map.Entry<T, Object[]> entry : finalProxyMap.entrySet()) {
                         T proxy = entry.getKey();
                         Object[] params = entry.getValue();
-                        return method.invoke(proxy, params);
+                        return method.proxyMethod.invoke(proxy, params);
                     }
                     throw new RuntimeException("will not invoke here");
                 } else {
@@ -114,7 +129,7 @@ public class ShardingCallback<T> implements MethodInterceptor {
                             final Object[] params = entry.getValue();
                             Future<Object> future = env.getShardingConcurrentExec().submit(strategy.wrapperCallable(() -> {
                                 try {
-                                    return method.invoke(proxy, params);
+                                    return method.proxyMethod.invoke(proxy, params);
                                 } catch (Throwable e) {
                                     invokeError[0] = e;
                                     isInvokeError.set(true);
@@ -136,7 +151,7 @@ public class ShardingCallback<T> implements MethodInterceptor {
                         for (Map.Entry<T, Object[]> entry : finalProxyMap.entrySet()) {
                             T proxy = entry.getKey();
                             Object[] params = entry.getValue();
-                            Object result = method.invoke(proxy, params);
+                            Object result = method.proxyMethod.invoke(proxy, params);
                             results.add(result);
                         }
                         return mergeResult(results, method);
@@ -148,16 +163,16 @@ public class ShardingCallback<T> implements MethodInterceptor {
         }
     }
 
-    private Map<T, Object[]> mergeProxyMapOfArray(Map<T, List<Object[]>> proxyMap, Method method, Object[] objects) {
+    private Map<T, Object[]> mergeProxyMapOfArray(Map<T, List<Object[]>> proxyMap, ShardingMethod method, Object[] objects) {
         Map<T, Object[]> finalProxyMap = new HashMap<>();
-        int collectionShardingIndex = getShardingCollectionParamIndex(method);
+        int collectionShardingIndex = method.collectionParamIndex;
         for (Map.Entry<T, List<Object[]>> entry : proxyMap.entrySet()) {
             T proxy = entry.getKey();
             List<Object[]> value = entry.getValue();
             Object[] param = copy(objects);
 
             Object arrayParam;
-            String name = getShardingCollectionParamArrayParamType(method);
+            String name = method.arrayParamType;
             switch (name) {
                 case "java.lang.String":
                     String[] strArrayParam = new String[value.size()];
@@ -240,9 +255,9 @@ public class ShardingCallback<T> implements MethodInterceptor {
         return finalProxyMap;
     }
 
-    private Map<T, Object[]> mergeProxyMapOfSet(Map<T, List<Object[]>> proxyMap, Method method, Object[] objects) {
+    private Map<T, Object[]> mergeProxyMapOfSet(Map<T, List<Object[]>> proxyMap, ShardingMethod method, Object[] objects) {
         Map<T, Object[]> finalProxyMap = new HashMap<>();
-        int collectionShardingIndex = getShardingCollectionParamIndex(method);
+        int collectionShardingIndex = method.collectionParamIndex;
         for (Map.Entry<T, List<Object[]>> entry : proxyMap.entrySet()) {
             T proxy = entry.getKey();
             List<Object[]> value = entry.getValue();
@@ -257,9 +272,9 @@ public class ShardingCallback<T> implements MethodInterceptor {
         return finalProxyMap;
     }
 
-    private Map<T, Object[]> mergeProxyMapOfMap(Map<T, List<Object[]>> proxyMap, Method method, Object[] objects) {
+    private Map<T, Object[]> mergeProxyMapOfMap(Map<T, List<Object[]>> proxyMap, ShardingMethod method, Object[] objects) {
         Map<T, Object[]> finalProxyMap = new HashMap<>();
-        int collectionShardingIndex = getShardingCollectionParamIndex(method);
+        int collectionShardingIndex = method.collectionParamIndex;
         for (Map.Entry<T, List<Object[]>> entry : proxyMap.entrySet()) {
             T proxy = entry.getKey();
             List<Object[]> value = entry.getValue();
@@ -274,9 +289,9 @@ public class ShardingCallback<T> implements MethodInterceptor {
         return finalProxyMap;
     }
 
-    private Map<T, Object[]> mergeProxyMapOfList(Map<T, List<Object[]>> proxyMap, Method method, Object[] objects) {
+    private Map<T, Object[]> mergeProxyMapOfList(Map<T, List<Object[]>> proxyMap, ShardingMethod method, Object[] objects) {
         Map<T, Object[]> finalProxyMap = new HashMap<>();
-        int collectionShardingIndex = getShardingCollectionParamIndex(method);
+        int collectionShardingIndex = method.collectionParamIndex;
         for (Map.Entry<T, List<Object[]>> entry : proxyMap.entrySet()) {
             T proxy = entry.getKey();
             List<Object[]> value = entry.getValue();
@@ -291,9 +306,9 @@ public class ShardingCallback<T> implements MethodInterceptor {
         return finalProxyMap;
     }
 
-    private Object mergeResult(List<Object> results, Method method) {
+    private Object mergeResult(List<Object> results, ShardingMethod method) {
         if (results.size() == 1) return results.get(0);
-        Class<?> returnType = method.getReturnType();
+        Class<?> returnType = method.returnType;
         if (Boolean.class.isAssignableFrom(returnType) || boolean.class.isAssignableFrom(returnType)) {
             for (Object result : results) {
                 if (result == null) continue;
@@ -351,16 +366,16 @@ public class ShardingCallback<T> implements MethodInterceptor {
         return copy;
     }
 
-    private Map<byte[][], Object[]> parseShardingArrayParam(Method method, Object[] objects) {
-        List<Integer> shardingParamIndex = getShardingParamIndex(method);
-        int shardingCollectionParamIndex = getShardingCollectionParamIndex(method);
+    private Map<byte[][], Object[]> parseShardingArrayParam(ShardingMethod method, Object[] objects) {
+        int[] shardingParamIndex = method.paramIndex;
+        int shardingCollectionParamIndex = method.collectionParamIndex;
 
         Map<byte[][], Object[]> map = new HashMap<>();
 
         List<Object> arrayParamList = new ArrayList<>();
         List<Object> arrayParamInnerList = new ArrayList<>();
         Object arrayParam = objects[shardingCollectionParamIndex];
-        String name = getShardingCollectionParamArrayParamType(method);
+        String name = method.arrayParamType;
         switch (name) {
             case "java.lang.String":
                 String[] strArr = (String[]) arrayParam;
@@ -424,11 +439,11 @@ public class ShardingCallback<T> implements MethodInterceptor {
         for (int i=0; i<arrayParamList.size(); i++) {
             Object c = arrayParamList.get(i);
             List<byte[]> shardingKey = new ArrayList<>();
-            byte[] prefix = getPrefix(method);
+            byte[] prefix = method.prefix;
             if (prefix != null && prefix.length > 0) {
                 shardingKey.add(prefix);
             }
-            for (Integer index : shardingParamIndex) {
+            for (int index : shardingParamIndex) {
                 if (index == shardingCollectionParamIndex) {
                     shardingKey.add(toBytes(arrayParamInnerList.get(i)));
                 } else {
@@ -449,20 +464,20 @@ public class ShardingCallback<T> implements MethodInterceptor {
         return map;
     }
 
-    private Map<byte[][], Object[]> parseShardingSetParam(Method method, Object[] objects) {
-        List<Integer> shardingParamIndex = getShardingParamIndex(method);
-        int shardingCollectionParamIndex = getShardingCollectionParamIndex(method);
+    private Map<byte[][], Object[]> parseShardingSetParam(ShardingMethod method, Object[] objects) {
+        int[] shardingParamIndex = method.paramIndex;
+        int shardingCollectionParamIndex = method.collectionParamIndex;
 
         Map<byte[][], Object[]> map = new HashMap<>();
 
         Set setParam = (Set) objects[shardingCollectionParamIndex];
         for (Object c : setParam) {
             List<byte[]> shardingKey = new ArrayList<>();
-            byte[] prefix = getPrefix(method);
+            byte[] prefix = method.prefix;
             if (prefix != null && prefix.length > 0) {
                 shardingKey.add(prefix);
             }
-            for (Integer index : shardingParamIndex) {
+            for (int index : shardingParamIndex) {
                 if (index == shardingCollectionParamIndex) {
                     shardingKey.add(toBytes(c));
                 } else {
@@ -485,20 +500,20 @@ public class ShardingCallback<T> implements MethodInterceptor {
         return map;
     }
 
-    private Map<byte[][], Object[]> parseShardingMapParam(Method method, Object[] objects) {
-        List<Integer> shardingParamIndex = getShardingParamIndex(method);
-        int shardingCollectionParamIndex = getShardingCollectionParamIndex(method);
+    private Map<byte[][], Object[]> parseShardingMapParam(ShardingMethod method, Object[] objects) {
+        int[] shardingParamIndex = method.paramIndex;
+        int shardingCollectionParamIndex = method.collectionParamIndex;
 
         Map<byte[][], Object[]> map = new HashMap<>();
 
         Map mapParam = (Map) objects[shardingCollectionParamIndex];
         for (Object k : mapParam.keySet()) {
             List<byte[]> shardingKey = new ArrayList<>();
-            byte[] prefix = getPrefix(method);
+            byte[] prefix = method.prefix;
             if (prefix != null && prefix.length > 0) {
                 shardingKey.add(prefix);
             }
-            for (Integer index : shardingParamIndex) {
+            for (int index : shardingParamIndex) {
                 if (index == shardingCollectionParamIndex) {
                     shardingKey.add(toBytes(k));
                 } else {
@@ -521,20 +536,20 @@ public class ShardingCallback<T> implements MethodInterceptor {
         return map;
     }
 
-    private Map<byte[][], Object[]> parseShardingListParam(Method method, Object[] objects) {
-        List<Integer> shardingParamIndex = getShardingParamIndex(method);
-        int shardingCollectionParamIndex = getShardingCollectionParamIndex(method);
+    private Map<byte[][], Object[]> parseShardingListParam(ShardingMethod method, Object[] objects) {
+        int[] shardingParamIndex = method.paramIndex;
+        int shardingCollectionParamIndex = method.collectionParamIndex;
 
         Map<byte[][], Object[]> map = new HashMap<>();
 
         List listParam = (List) objects[shardingCollectionParamIndex];
         for (Object c : listParam) {
             List<byte[]> shardingKey = new ArrayList<>();
-            byte[] prefix = getPrefix(method);
+            byte[] prefix = method.prefix;
             if (prefix != null && prefix.length > 0) {
                 shardingKey.add(prefix);
             }
-            for (Integer index : shardingParamIndex) {
+            for (int index : shardingParamIndex) {
                 if (index == shardingCollectionParamIndex) {
                     shardingKey.add(toBytes(c));
                 } else {
@@ -557,17 +572,18 @@ public class ShardingCallback<T> implements MethodInterceptor {
         return map;
     }
 
-    private byte[][] parseShardingSimple(Method method, Object[] objects) {
-        List<Integer> paramIndex = getShardingParamIndex(method);
-        List<byte[]> shardingKey = new ArrayList<>();
-        byte[] prefix = getPrefix(method);
-        if (prefix != null && prefix.length > 0) {
-            shardingKey.add(prefix);
+    private byte[][] parseShardingSimple(ShardingMethod method, Object[] objects) {
+        int[] paramIndex = method.paramIndex;
+        byte[] prefix = method.prefix;
+        int offset = prefix.length > 0 ? 1 : 0;
+        byte[][] shardingKey = new byte[paramIndex.length + offset][];
+        if (offset > 0) {
+            shardingKey[0] = prefix;
         }
-        for (Integer index : paramIndex) {
-            shardingKey.add(toBytes(objects[index]));
+        for (int i=0; i<paramIndex.length; i++) {
+            shardingKey[i + offset] = toBytes(objects[paramIndex[i]]);
         }
-        return shardingKey.toArray(new byte[0][0]);
+        return shardingKey;
     }
 
     private byte[] toBytes(Object object) {
@@ -579,49 +595,7 @@ public class ShardingCallback<T> implements MethodInterceptor {
         }
     }
 
-    private final Map<Method, List<Integer>> shardingParamIndex = new HashMap<>();
-    private final Map<Method, Integer> shardingCollectionParamIndex = new HashMap<>();
-    private final Map<Method, CollectionType> collectionTypeMap = new HashMap<>();
-    private final Map<Method, byte[]> prefixCache = new HashMap<>();
-    private final Map<Method, Boolean> isOpMethodCache = new HashMap<>();
-    private final Map<Method, String> shardingCollectionParamArrayParamType = new HashMap<>();
-
-    private byte[] getPrefix(Method method) {
-        byte[] prefix = prefixCache.get(method);
-        if (prefix != null) return prefix;
-        initCache(method);
-        return prefixCache.get(method);
-    }
-
-    private String getShardingCollectionParamArrayParamType(Method method) {
-        String name = shardingCollectionParamArrayParamType.get(method);
-        if (name != null) return name;
-        initCache(method);
-        return shardingCollectionParamArrayParamType.get(method);
-    }
-
-    private CollectionType getCollectionType(Method method) {
-        CollectionType collectionType = collectionTypeMap.get(method);
-        if (collectionType != null) return collectionType;
-        initCache(method);
-        return collectionTypeMap.get(method);
-    }
-
-    private int getShardingCollectionParamIndex(Method method) {
-        Integer index = shardingCollectionParamIndex.get(method);
-        if (index != null) return index;
-        initCache(method);
-        return shardingCollectionParamIndex.get(method);
-    }
-
-    private List<Integer> getShardingParamIndex(Method method) {
-        List<Integer> index = shardingParamIndex.get(method);
-        if (index != null) return index;
-        initCache(method);
-        return shardingParamIndex.get(method);
-    }
-
-    private ShardingParam getShardingParam(Annotation[] annotations) {
+    private static ShardingParam getShardingParam(Annotation[] annotations) {
         for (Annotation annotation : annotations) {
             if (ShardingParam.class.isAssignableFrom(annotation.annotationType())) {
                 return (ShardingParam) annotation;
@@ -630,67 +604,73 @@ public class ShardingCallback<T> implements MethodInterceptor {
         return null;
     }
 
-    private boolean isOpMethod(Method method) {
-        Boolean cache = isOpMethodCache.get(method);
-        if (cache != null) return cache;
-        cache = method.getAnnotation(WriteOp.class) != null || method.getAnnotation(ReadOp.class) != null;
-        isOpMethodCache.put(method, cache);
-        return cache;
-    }
-
-    private void initCache(Method method) {
-        if (!isOpMethod(method)) return;
-        int shardingCollectionParamIndexCount = 0;
-        List<Integer> paramIndex = new ArrayList<>();
-        Class<?>[] parameterTypes = method.getParameterTypes();
-        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
-        for (int i=0; i<parameterAnnotations.length; i++) {
-            Annotation[] annotations = parameterAnnotations[i];
-            ShardingParam shardingParam = getShardingParam(annotations);
-            if (shardingParam != null) {
-                if (shardingParam.type() == ShardingParam.Type.Collection) {
-                    shardingCollectionParamIndexCount ++;
-                    shardingCollectionParamIndex.put(method, i);
-                    if (List.class.isAssignableFrom(parameterTypes[i])) {
-                        collectionTypeMap.put(method, CollectionType.LIST);
-                    } else if (Set.class.isAssignableFrom(parameterTypes[i])) {
-                        collectionTypeMap.put(method, CollectionType.SET);
-                    } else if (Map.class.isAssignableFrom(parameterTypes[i])) {
-                        collectionTypeMap.put(method, CollectionType.Map);
-                    } else if (parameterTypes[i].isArray()) {
-                        collectionTypeMap.put(method, CollectionType.ARRAY);
-                        String name = parameterTypes[i].getComponentType().getName();
-                        shardingCollectionParamArrayParamType.put(method, name);
-                    } else {
-                        throw new UnsupportedOperationException("collection type param only support List/Set/Map/Array");
+    /**
+     * 一个读写方法的sharding信息，在初始化时解析好，调用时直接使用
+     */
+    private static class ShardingMethod {
+        private final ProxyMethod proxyMethod;
+        private final Class<?> returnType;
+        private final int[] paramIndex;
+        private int collectionParamIndex = -1;
+        private CollectionType collectionType = CollectionType.NOT_COLLECTION;
+        private String arrayParamType;
+        private final byte[] prefix;
+
+        ShardingMethod(ProxyMethod proxyMethod) {
+            this.proxyMethod = proxyMethod;
+            Method method = proxyMethod.getMethod();
+            this.returnType = method.getReturnType();
+            int shardingCollectionParamIndexCount = 0;
+            List<Integer> paramIndex = new ArrayList<>();
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+            for (int i=0; i<parameterAnnotations.length; i++) {
+                Annotation[] annotations = parameterAnnotations[i];
+                ShardingParam shardingParam = getShardingParam(annotations);
+                if (shardingParam != null) {
+                    if (shardingParam.type() == ShardingParam.Type.Collection) {
+                        shardingCollectionParamIndexCount ++;
+                        collectionParamIndex = i;
+                        if (List.class.isAssignableFrom(parameterTypes[i])) {
+                            collectionType = CollectionType.LIST;
+                        } else if (Set.class.isAssignableFrom(parameterTypes[i])) {
+                            collectionType = CollectionType.SET;
+                        } else if (Map.class.isAssignableFrom(parameterTypes[i])) {
+                            collectionType = CollectionType.Map;
+                        } else if (parameterTypes[i].isArray()) {
+                            collectionType = CollectionType.ARRAY;
+                            arrayParamType = parameterTypes[i].getComponentType().getName();
+                        } else {
+                            throw new UnsupportedOperationException("collection type param only support List/Set/Map/Array");
+                        }
                     }
+                    paramIndex.add(i);
                 }
-                paramIndex.add(i);
             }
-        }
-        if (shardingCollectionParamIndexCount > 1) {
-            throw new UnsupportedOperationException("only support one param is collection type");
-        }
-        shardingParamIndex.put(method, paramIndex);
-        if (!collectionTypeMap.containsKey(method)) {
-            collectionTypeMap.put(method, CollectionType.NOT_COLLECTION);
-        }
+            if (shardingCollectionParamIndexCount > 1) {
+                throw new UnsupportedOperationException("only support one param is collection type");
+            }
+            this.paramIndex = new int[paramIndex.size()];
+            for (int i=0; i<paramIndex.size(); i++) {
+                this.paramIndex[i] = paramIndex.get(i);
+            }
 
-        byte[] prefix = null;
-        ShardingConfig shardingConfig = method.getAnnotation(ShardingConfig.class);
-        if (shardingConfig == null) {
-            shardingConfig = method.getDeclaringClass().getAnnotation(ShardingConfig.class);
-        }
-        if (shardingConfig != null) {
-            String prefixStr = shardingConfig.prefix();
-            if (!prefixStr.isEmpty()) {
-                prefix = prefixStr.getBytes(StandardCharsets.UTF_8);
+            byte[] prefix = null;
+            ShardingConfig shardingConfig = method.getAnnotation(ShardingConfig.class);
+            if (shardingConfig == null) {
+                shardingConfig = method.getDeclaringClass().getAnnotation(ShardingConfig.class);
             }
+            if (shardingConfig != null) {
+                String prefixStr = shardingConfig.prefix();
+                if (!prefixStr.isEmpty()) {
+                    prefix = prefixStr.getBytes(StandardCharsets.UTF_8);
+                }
+            }
+            if (prefix == null) {
+                prefix = new byte[0];
+            }
+            this.prefix = prefix;
         }
-        if (prefix == null) {
-            prefix = new byte[0];
-        }
-        prefixCache.put(method, prefix);
     }
 
     private enum CollectionType {
@@ -51,7 +51,7 @@ public class StandardProxyGenerator<T> {
                 return standardProxyHub.chooseProxy(new byte[0]);
             case SHADING:
                 //此时有多个，需要根据sharding规则动态返回，此时再生成一个代理类，封装掉sharding逻辑
-                return ProxyClientFactory.createProxy(clazz, new Class[] {Resource.class}, new Object[] {null},
+                return ProxyClientFactory.createMethodBoundProxy(clazz, new Class[] {Resource.class}, new Object[] {null},
                         new ShardingCallback<>(standardProxyHub, clazz, env));
             default:
                 throw new IllegalArgumentException("ResourceTable type error");
@@ -47,7 +47,7 @@ public class StandardShardingProxyHub<T> implements IProxyHub<T> {
                 ResourceOperation resourceOperation = entry.getValue();
                 T proxy = map.get(resourceOperation);
                 if (proxy == null) {
-                    proxy = ProxyClientFactory.createProxy(clazz, new Class[]{Resource.class}, new Object[]{defaultResource},
+                    proxy = ProxyClientFactory.createMethodBoundProxy(clazz, new Class[]{Resource.class}, new Object[]{defaultResource},
                             new OperationCallback<>(resourceOperation, clientMap, clazz, env));
                 }
                 proxyMap.put(index, proxy);
@@ -42,7 +42,7 @@ public class StandardSimpleProxyHub<T> implements IProxyHub<T> {
                 T client = clazz.getConstructor(Resource.class).newInstance(resource);
                 clientMap.put(resource, client);
             }
-            T proxy = ProxyClientFactory.createProxy(clazz, new Class[]{Resource.class}, new Object[]{defaultResource},
+            T proxy = ProxyClientFactory.createMethodBoundProxy(clazz, new Class[]{Resource.class}, new Object[]{defaultResource},
                     new OperationCallback<>(simpleTable.getResourceOperation(), clientMap, clazz, env));
             this.proxyHub = new SimpleProxyHub<>(proxy);
         } catch (Exception e) {
@@ -0,0 +1,301 @@
+package com.netease.nim.camellia.redis.toolkit.freq;
+
+import com.alibaba.fastjson.JSONObject;
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.netease.nim.camellia.redis.CamelliaRedisTemplate;
+import com.netease.nim.camellia.tools.executor.CamelliaThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 集群频控的租约模式
+ * <p>
+ * 每个实例通过一次lua调用从redis中预占一批额度（租约），之后在本地扣减，用完了再去预占，而不是每次请求都访问redis
+ * 1、redis中用一个hash记录：已预占未上报的额度（r）、已上报的实际消耗（u）、本周期持有租约的实例，r + u不会超过threshold，因此整个集群通过的请求数不会超过threshold
+ * 2、实例在续租约或者空闲归还时上报实际消耗和未使用的额度
+ * 3、单次预占的额度不超过 剩余额度 / 本周期持有租约的实例数（且不超过threshold * maxLeaseRatio），租约很快用完时下次预占的额度翻倍，用得慢时减半
+ * 4、空闲的租约会定时归还给redis，其他实例可以继续使用
+ * 5、因为其他实例持有未使用的额度，某个实例可能在总请求数没有达到threshold之前就被拒绝，此时其他实例持有的额度之和不超过上一次预占时的剩余额度，
+ *    且这种情况下不会进入屏蔽状态，只会在本地短暂拒绝后（最多returnIntervalMillis）再去redis预占
+ * <p>
+ * 只有上报的实际消耗达到threshold后才会进入屏蔽状态，屏蔽后本实例在本地屏蔽直到redis中的key过期，屏蔽期间的请求不会访问redis，
+ * 因此delayBanEnable=true时，顺延只对本实例生效，redis中的屏蔽时间只在某个实例再次访问redis时才会顺延
+ * Created by caojiajun on 2024/7/31
+ */
+public class CamelliaClusterLeaseFreq {
+
+    private static final Logger logger = LoggerFactory.getLogger(CamelliaClusterLeaseFreq.class);
+
+    private static final double defaultMaxLeaseRatio = 0.1;
+    private static final long returnIntervalMillis = 200;
+
+    //ARGV: 预占额度、checkTime、threshold、banTime、delayBanEnable、上报的消耗、归还的额度、实例标识、本次请求的delta
+    //返回: 预占到的额度、预占后的总额度（r + u）、key的剩余过期时间、状态（0正常，1屏蔽中，2实际消耗已经达到threshold）
+    private static final String LEASE_SCRIPT = "local limit = tonumber(ARGV[3])\n" +
+            "if redis.call('hexists', KEYS[1], 'ban') == 1 then\n" +
+            "\tif ARGV[5] == '1' and tonumber(ARGV[4]) > 0 then\n" +
+            "\t\tredis.call('pexpire', KEYS[1], ARGV[4])\n" +
+            "\tend\n" +
+            "\treturn {0, limit, redis.call('pttl', KEYS[1]), 1}\n" +
+            "end\n" +
+            "local consumed = tonumber(ARGV[6])\n" +
+            "local r = tonumber(redis.call('hget', KEYS[1], 'r') or '0')\n" +
+            "local u = tonumber(redis.call('hget', KEYS[1], 'u') or '0') + consumed\n" +
+            "r = math.max(0, r - consumed - tonumber(ARGV[7]))\n" +
+            "redis.call('hmset', KEYS[1], 'r', r, 'u', u, ARGV[8], '1')\n" +
+            "local avail = limit - r - u\n" +
+            "local grant = 0\n" +
+            "if avail >= tonumber(ARGV[9]) then\n" +
+            "\tlocal holders = math.max(1, redis.call('hlen', KEYS[1]) - 2)\n" +
+            "\tlocal share = math.max(tonumber(ARGV[9]), math.ceil(avail / holders))\n" +
+            "\tgrant = math.min(tonumber(ARGV[1]), share, avail)\n" +
+            "\tr = r + grant\n" +
+            "\tredis.call('hset', KEYS[1], 'r', r)\n" +
+            "end\n" +
+            "local state = 0\n" +
+            "if grant == 0 and u >= limit then\n" +
+            "\tstate = 2\n" +
+            "\tif tonumber(ARGV[4]) > 0 then\n" +
+            "\t\tredis.call('hset', KEYS[1], 'ban', '1')\n" +
+            "\t\tredis.call('pexpire', KEYS[1], ARGV[4])\n" +
+            "\t\tstate = 1\n" +
+            "\tend\n" +
+            "end\n" +
+            "if redis.call('pttl', KEYS[1]) < 0 then\n" +
+            "\tredis.call('pexpire', KEYS[1], ARGV[2])\n" +
+            "end\n" +
+            "return {grant, r + u, redis.call('pttl', KEYS[1]), state}";
+
+    //ARGV: 上报的消耗、归还的额度、实例标识，已经进入屏蔽状态的key不归还
+    private static final String RETURN_SCRIPT = "if redis.call('pttl', KEYS[1]) > 0 and redis.call('hexists', KEYS[1], 'ban') == 0 then\n" +
+            "\tlocal r = tonumber(redis.call('hget', KEYS[1], 'r') or '0')\n" +
+            "\tredis.call('hset', KEYS[1], 'r', math.max(0, r - tonumber(ARGV[1]) - tonumber(ARGV[2])))\n" +
+            "\tredis.call('hincrby', KEYS[1], 'u', ARGV[1])\n" +
+            "\tredis.call('hdel', KEYS[1], ARGV[3])\n" +
+            "end\n" +
+            "return 1";
+
+    private final CamelliaRedisTemplate template;
+    private final double maxLeaseRatio;
+    private final ConcurrentLinkedHashMap<String, Lease> cache;
+    private final String holder = "i:" + UUID.randomUUID();
+    private volatile ScheduledExecutorService scheduler;
+
+    public CamelliaClusterLeaseFreq(CamelliaRedisTemplate template) {
+        this(template, 100000, defaultMaxLeaseRatio);
+    }
+
+    public CamelliaClusterLeaseFreq(CamelliaRedisTemplate template, int capacity, double maxLeaseRatio) {
+        if (maxLeaseRatio <= 0 || maxLeaseRatio > 1) {
+            throw new IllegalArgumentException("maxLeaseRatio should in (0, 1]");
+        }
+        this.template = template;
+        this.maxLeaseRatio = maxLeaseRatio;
+        this.cache = new ConcurrentLinkedHashMap.Builder<String, Lease>()
+                .initialCapacity(capacity).maximumWeightedCapacity(capacity).build();
+    }
+
+    public CamelliaFreqResponse checkFreqPass(String freqKey, CamelliaFreqConfig freqConfig) {
+        return checkFreqPass(freqKey, 1, freqConfig);
+    }
+
+    public CamelliaFreqResponse checkFreqPass(String freqKey, int delta, CamelliaFreqConfig freqConfig) {
+        try {
+            Lease lease = cache.get(freqKey);
+            if (lease == null) {
+                startIfNeed();
+                lease = new Lease();
+                Lease oldLease = cache.putIfAbsent(freqKey, lease);
+                if (oldLease != null) {
+                    lease = oldLease;
+                }
+            }
+            long now = System.currentTimeMillis();
+            CamelliaFreqResponse response = checkLocal(lease, delta, freqConfig, now);
+            if (response != null) {
+                return response;
+            }
+            synchronized (lease) {
+                //其他线程可能已经续上了租约
+                now = System.currentTimeMillis();
+                response = checkLocal(lease, delta, freqConfig, now);
+                if (response != null) {
+                    return response;
+                }
+                return renewLease(freqKey, lease, delta, freqConfig, now);
+            }
+        } catch (Throwable e) {
+            logger.error("checkFreqPass error, freqKey = {}, delta = {}, freqConfig = {}", freqKey, delta, JSONObject.toJSONString(freqConfig), e);
+        }
+        return CamelliaFreqResponse.DEFAULT_PASS;
+    }
+
+    private CamelliaFreqResponse checkLocal(Lease lease, int delta, CamelliaFreqConfig freqConfig, long now) {
+        if (now < lease.banUntil) {
+            if (freqConfig.getBanTime() > 0 && freqConfig.isDelayBanEnable()) {
+                lease.banUntil = now + freqConfig.getBanTime();
+            }
+            return new CamelliaFreqResponse(false, lease.current, CamelliaFreqType.CLUSTER_LEASE);
+        }
+        if (now >= lease.windowExpireTime) {
+            return null;
+        }
+        long remaining = lease.acquire(delta);
+        if (remaining >= 0) {
+            lease.lastUseTime = now;
+            return new CamelliaFreqResponse(true, lease.current - remaining, CamelliaFreqType.CLUSTER_LEASE);
+        }
+        if (now < lease.retryAfter) {
+            //额度被其他实例预占了，短暂拒绝，不进入屏蔽状态
+            return new CamelliaFreqResponse(false, lease.current, CamelliaFreqType.CLUSTER_LEASE);
+        }
+        return null;
+    }
+
+    private CamelliaFreqResponse renewLease(String freqKey, Lease lease, int delta, CamelliaFreqConfig freqConfig, long now) {
+        boolean sameWindow = now < lease.windowExpireTime;
+        long released = 0;
+        long consumed = 0;
+        if (sameWindow) {
+            //剩余的额度不够本次的delta，连同实际消耗一起上报
+            released = lease.remaining.getAndSet(0);
+            consumed = Math.max(0, lease.unreported - released);
+        } else {
+            //上一个周期剩余的额度作废
+            lease.remaining.set(0);
+            lease.leaseSize = 0;
+        }
+        lease.unreported = 0;
+        long leaseSize = nextLeaseSize(lease, delta, freqConfig, now, sameWindow);
+        Object reply = template.eval(LEASE_SCRIPT, 1, freqKey, String.valueOf(leaseSize), String.valueOf(freqConfig.getCheckTime()),
+                String.valueOf(freqConfig.getThreshold()), String.valueOf(freqConfig.getBanTime()), freqConfig.isDelayBanEnable() ? "1" : "0",
+                String.valueOf(consumed), String.valueOf(released), holder, String.valueOf(delta));
+        List<?> list = (List<?>) reply;
+        long grant = Long.parseLong(String.valueOf(list.get(0)));
+        long current = Long.parseLong(String.valueOf(list.get(1)));
+        long ttl = Long.parseLong(String.valueOf(list.get(2)));
+        long state = Long.parseLong(String.valueOf(list.get(3)));
+        if (ttl <= 0) {
+            ttl = freqConfig.getCheckTime();
+        }
+        lease.current = current;
+        lease.checkTime = freqConfig.getCheckTime();
+        lease.windowExpireTime = now + ttl;
+        lease.leaseTime = now;
+        lease.lastUseTime = now;
+        if (grant <= 0) {
+            if (state != 0) {
+                //实际消耗已经达到阈值，本地屏蔽直到redis中的key过期
+                lease.banUntil = now + ttl;
+            } else {
+                //额度被其他实例预占了，等其他实例上报或者归还
+                lease.retryAfter = now + Math.min(ttl, returnIntervalMillis);
+            }
+            return new CamelliaFreqResponse(false, current, CamelliaFreqType.CLUSTER_LEASE);
+        }
+        lease.leaseSize = grant;
+        lease.unreported = grant;
+        lease.remaining.addAndGet(grant);
+        long remaining = lease.acquire(delta);
+        if (remaining >= 0) {
+            return new CamelliaFreqResponse(true, current - remaining, CamelliaFreqType.CLUSTER_LEASE);
+        }
+        //剩余额度不够本次的delta，额度保留给后续的请求
+        return new CamelliaFreqResponse(false, current + delta, CamelliaFreqType.CLUSTER_LEASE);
+    }
+
+    private long nextLeaseSize(Lease lease, int delta, CamelliaFreqConfig freqConfig, long now, boolean sameWindow) {
+        long maxLeaseSize = Math.max(1, (long) (freqConfig.getThreshold() * maxLeaseRatio));
+        long leaseSize = lease.leaseSize;
+        if (leaseSize <= 0) {
+            leaseSize = Math.max(1, maxLeaseSize / 8);
+        } else if (sameWindow) {
+            long cost = now - lease.leaseTime;
+            if (cost < freqConfig.getCheckTime() / 16) {
+                leaseSize = leaseSize * 2;
+            } else if (cost > freqConfig.getCheckTime() / 2) {
+                leaseSize = leaseSize / 2;
+            }
+        }
+        leaseSize = Math.min(leaseSize, maxLeaseSize);
+        return Math.max(leaseSize, delta);
+    }
+
+    private void startIfNeed() {
+        if (scheduler != null) return;
+        synchronized (this) {
+            if (scheduler != null) return;
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new CamelliaThreadFactory("camellia-cluster-lease-freq", true));
+            scheduler.scheduleAtFixedRate(this::returnIdleLeases, returnIntervalMillis, returnIntervalMillis, TimeUnit.MILLISECONDS);
+            this.scheduler = scheduler;
+        }
+    }
+
+    /**
+     * 上报空闲租约的实际消耗并归还未使用的额度，并清理过期的租约
+     */
+    private void returnIdleLeases() {
+        for (Map.Entry<String, Lease> entry : cache.entrySet()) {
+            String freqKey = entry.getKey();
+            Lease lease = entry.getValue();
+            try {
+                long now = System.currentTimeMillis();
+                if (now > Math.max(lease.windowExpireTime, lease.banUntil) + lease.checkTime) {
+                    cache.remove(freqKey, lease);
+                    continue;
+                }
+                if (lease.unreported <= 0) continue;
+                if (now - lease.lastUseTime < lease.checkTime / 4) continue;
+                //快过期的就不归还了，避免归还到下一个周期
+                if (lease.windowExpireTime - now < lease.checkTime / 10) continue;
+                long returned;
+                long consumed;
+                synchronized (lease) {
+                    if (lease.unreported <= 0 || now >= lease.windowExpireTime) continue;
+                    returned = lease.remaining.getAndSet(0);
+                    consumed = Math.max(0, lease.unreported - returned);
+                    lease.unreported = 0;
+                    lease.leaseSize = 0;
+                }
+                template.eval(RETURN_SCRIPT, 1, freqKey, String.valueOf(consumed), String.valueOf(returned), holder);
+            } catch (Exception e) {
+                logger.error("return lease error, freqKey = {}", freqKey, e);
+            }
+        }
+    }
+
+    private static class Lease {
+        private final AtomicLong remaining = new AtomicLong();//本地剩余的额度
+        private volatile long windowExpireTime;//当前周期的过期时间（对应redis中key的过期时间）
+        private volatile long banUntil;//本地屏蔽的截止时间
+        private volatile long retryAfter;//额度被其他实例预占时，本地拒绝的截止时间
+        private volatile long unreported;//已预占但还没有上报（消耗或者归还）的额度
+        private volatile long current;//最近一次预占后redis中的总额度
+        private volatile long lastUseTime;
+        private volatile long checkTime;
+        private long leaseTime;//最近一次预占的时间
+        private long leaseSize;//最近一次预占的额度
+
+        /**
+         * 扣减本地额度
+         * @return 扣减后剩余的额度，不够扣减时返回-1
+         */
+        long acquire(int delta) {
+            while (true) {
+                long value = remaining.get();
+                if (value < delta) return -1;
+                if (remaining.compareAndSet(value, value - delta)) {
+                    return value - delta;
+                }
+            }
+        }
+    }
+}
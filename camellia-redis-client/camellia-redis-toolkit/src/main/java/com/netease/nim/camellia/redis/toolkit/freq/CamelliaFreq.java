@@ -14,15 +14,18 @@ public class CamelliaFreq {
 
     private final CamelliaStandaloneFreq standaloneFreq;
     private CamelliaClusterFreq clusterFreq;
+    private CamelliaClusterLeaseFreq clusterLeaseFreq;
 
     public CamelliaFreq(CamelliaRedisTemplate template, int standaloneCapacity) {
         this.standaloneFreq = new CamelliaStandaloneFreq(standaloneCapacity);
         this.clusterFreq = new CamelliaClusterFreq(template);
+        this.clusterLeaseFreq = new CamelliaClusterLeaseFreq(template);
     }
 
     public CamelliaFreq(CamelliaRedisTemplate template) {
         this.standaloneFreq = new CamelliaStandaloneFreq();
         this.clusterFreq = new CamelliaClusterFreq(template);
+        this.clusterLeaseFreq = new CamelliaClusterLeaseFreq(template);
     }
 
     public CamelliaFreq(int standaloneCapacity) {
@@ -65,6 +68,12 @@ public class CamelliaFreq {
                     return response;
                 }
                 return clusterFreq.checkFreqPass(freqKey, delta, freqConfig);
+            } else if (freqType == CamelliaFreqType.CLUSTER_LEASE) {
+                if (clusterLeaseFreq == null) {
+                    logger.warn("CamelliaClusterLeaseFreq not init, return pass, freqKey = {}, delta = {}, freqConfig = {}", freqKey, delta, JSONObject.toJSONString(freqConfig));
+                    return CamelliaFreqResponse.DEFAULT_PASS;
+                }
+                return clusterLeaseFreq.checkFreqPass(freqKey, delta, freqConfig);
             }
             return CamelliaFreqResponse.DEFAULT_PASS;
         } catch (Throwable e) {
@@ -13,5 +13,8 @@ public enum CamelliaFreqType {
     // 如果是普通的集群模式，则10w的QPS都会打到redis
     // 如果用混合模式，且一共有10个节点在处理，则穿透到redis最多是20*10=200QPS，最终通过的也只有20QPS，可以极大的降低redis的压力
     MISC,
+    //集群模式，租约方式，每个实例从redis中预占一批额度后在本地扣减，redis的访问量和请求量无关，详见CamelliaClusterLeaseFreq
+    //整个集群通过的请求数不会超过阈值，但是其他实例持有的未使用额度会导致提前拒绝（误差最多为：实例数 * 阈值 * maxLeaseRatio）
+    CLUSTER_LEASE,
     ;
 }
@@ -2,11 +2,12 @@ package com.netease.nim.camellia.redis.toolkit.lock;
 
 import com.netease.nim.camellia.redis.CamelliaRedisTemplate;
 import com.netease.nim.camellia.redis.base.utils.SafeEncoder;
+import com.netease.nim.camellia.tools.executor.CamelliaThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.UUID;
-import java.util.concurrent.Callable;
+import java.util.concurrent.*;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -26,9 +27,16 @@ public class CamelliaRedisLock {
     private boolean lockOk = false;//锁是否获取到了
     private long expireTimestamp = -1;//锁的过期时间戳
     private final ReentrantLock lock = new ReentrantLock();
+    private final CamelliaRedisLockNotifier notifier;//锁释放通知，为null则轮询等待
 
     private CamelliaRedisLock(CamelliaRedisTemplate template, byte[] lockKey, String lockId, long acquireTimeoutMillis, long expireTimeoutMillis, long tryLockIntervalMillis) {
+        this(template, lockKey, lockId, acquireTimeoutMillis, expireTimeoutMillis, tryLockIntervalMillis, null);
+    }
+
+    private CamelliaRedisLock(CamelliaRedisTemplate template, byte[] lockKey, String lockId, long acquireTimeoutMillis,
+                              long expireTimeoutMillis, long tryLockIntervalMillis, CamelliaRedisLockNotifier notifier) {
         this.template = template;
+        this.notifier = notifier;
         this.lockKey = lockKey;
         this.lockId = lockId;
         this.acquireTimeoutMillis = acquireTimeoutMillis;
@@ -120,6 +128,51 @@ public class CamelliaRedisLock {
         return new CamelliaRedisLock(template, lockKey, lockId, acquireTimeoutMillis, expireTimeoutMillis, tryLockIntervalMillis);
     }
 
+    /**
+     * 获取一个锁对象，等待锁时不再轮询，而是等待锁释放的通知
+     * @param notifier 锁释放通知，使用notifier的redis客户端
+     * @param lockKey 锁key
+     * @param lockId 锁id
+     * @param acquireTimeoutMillis 获取锁的超时时间
+     * @param expireTimeoutMillis 锁的过期时间
+     * @return 锁对象
+     */
+    public static CamelliaRedisLock newLock(CamelliaRedisLockNotifier notifier, byte[] lockKey, String lockId,
+                                            long acquireTimeoutMillis, long expireTimeoutMillis) {
+        return newLock(notifier, lockKey, lockId, acquireTimeoutMillis, expireTimeoutMillis, 5);
+    }
+
+    /**
+     * 获取一个锁对象，等待锁时不再轮询，而是等待锁释放的通知
+     * @param notifier 锁释放通知，使用notifier的redis客户端
+     * @param lockKey 锁key
+     * @param lockId 锁id
+     * @param acquireTimeoutMillis 获取锁的超时时间
+     * @param expireTimeoutMillis 锁的过期时间
+     * @param tryLockIntervalMillis 订阅断开期间兜底轮询的最大间隔
+     * @return 锁对象
+     */
+    public static CamelliaRedisLock newLock(CamelliaRedisLockNotifier notifier, byte[] lockKey, String lockId,
+                                            long acquireTimeoutMillis, long expireTimeoutMillis, long tryLockIntervalMillis) {
+        if (!notifier.match(lockKey)) {
+            throw new IllegalArgumentException("lockKey not match notifier prefix " + notifier.getPrefix());
+        }
+        return new CamelliaRedisLock(notifier.getTemplate(), lockKey, lockId, acquireTimeoutMillis, expireTimeoutMillis, tryLockIntervalMillis, notifier);
+    }
+
+    /**
+     * 获取一个锁对象，等待锁时不再轮询，而是等待锁释放的通知
+     * @param notifier 锁释放通知，使用notifier的redis客户端
+     * @param lockKey 锁key
+     * @param acquireTimeoutMillis 获取锁的超时时间
+     * @param expireTimeoutMillis 锁的过期时间
+     * @return 锁对象
+     */
+    public static CamelliaRedisLock newLock(CamelliaRedisLockNotifier notifier, String lockKey,
+                                            long acquireTimeoutMillis, long expireTimeoutMillis) {
+        return newLock(notifier, SafeEncoder.encode(lockKey), UUID.randomUUID().toString(), acquireTimeoutMillis, expireTimeoutMillis);
+    }
+
     /**
      * 尝试获取锁，若获取不到，则立即返回
      */
@@ -172,6 +225,13 @@ public class CamelliaRedisLock {
      */
     public boolean lock() {
         if (isLockOk()) return true;
+        if (notifier != null) {
+            //有其他本地等待者时直接排队，保证本地FIFO
+            if (!notifier.hasWaiters(lockKey) && tryLock()) {
+                return true;
+            }
+            return notifier.acquire(this, acquireTimeoutMillis).join();
+        }
         long start = System.currentTimeMillis();
         while (true) {
             boolean lockOk = tryLock();
@@ -189,6 +249,38 @@ public class CamelliaRedisLock {
         }
     }
 
+    /**
+     * 异步获取锁，直到acquireTimeoutMillis超时，不会占用调用线程
+     * @return 成功/失败
+     */
+    public CompletableFuture<Boolean> lockAsync() {
+        if (isLockOk()) return CompletableFuture.completedFuture(true);
+        if (notifier != null) {
+            return notifier.acquire(this, acquireTimeoutMillis);
+        }
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        long start = System.currentTimeMillis();
+        AsyncScheduler.INSTANCE.execute(() -> tryLockAsync(future, start));
+        return future;
+    }
+
+    private void tryLockAsync(CompletableFuture<Boolean> future, long start) {
+        if (tryLock()) {
+            future.complete(true);
+            return;
+        }
+        if (System.currentTimeMillis() - start > acquireTimeoutMillis) {
+            future.complete(false);
+            return;
+        }
+        AsyncScheduler.INSTANCE.schedule(() -> tryLockAsync(future, start), tryLockIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static class AsyncScheduler {
+        private static final ScheduledExecutorService INSTANCE = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(),
+                new CamelliaThreadFactory("camellia-redis-lock-async", true));
+    }
+
     private static final byte[] RENEW_SCRIPT = SafeEncoder.encode("if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end");
     /**
      * 尝试对锁进行renew，只能renew自己获取到的锁
@@ -228,6 +320,13 @@ public class CamelliaRedisLock {
         return expireTimestamp;
     }
 
+    /**
+     * 获取两次尝试获取锁时的间隔
+     */
+    public long getTryLockIntervalMillis() {
+        return tryLockIntervalMillis;
+    }
+
     /**
      * 获取LockKey
      * @return LockKey
@@ -245,6 +344,7 @@ public class CamelliaRedisLock {
     }
 
     private static final byte[] RELEASE_SCRIPT = SafeEncoder.encode("if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end");
+    private static final byte[] RELEASE_AND_NOTIFY_SCRIPT = SafeEncoder.encode("if redis.call('get', KEYS[1]) == ARGV[1] then redis.call('del', KEYS[1]) redis.call('publish', ARGV[2], KEYS[1]) return 1 else return 0 end");
     /**
      * 释放锁，只能释放自己获取到的锁
      * @return 成功/失败
@@ -253,10 +353,19 @@ public class CamelliaRedisLock {
         lock.lock();
         try {
             if (!lockOk) return false;
-            Object eval = template.eval(RELEASE_SCRIPT, 1, lockKey, SafeEncoder.encode(lockId));
+            Object eval;
+            if (notifier != null) {
+                eval = template.eval(RELEASE_AND_NOTIFY_SCRIPT, 1, lockKey, SafeEncoder.encode(lockId), notifier.getChannel());
+            } else {
+                eval = template.eval(RELEASE_SCRIPT, 1, lockKey, SafeEncoder.encode(lockId));
+            }
             if (eval != null && String.valueOf(eval).equals("1")) {
                 lockOk = false;
                 expireTimestamp = -1;
+                if (notifier != null) {
+                    //本地的等待者不需要等redis的通知
+                    notifier.onUnlock(lockKey);
+                }
                 return true;
             }
             lockOk = false;
@@ -280,6 +389,9 @@ public class CamelliaRedisLock {
             boolean ok = template.del(lockKey) > 0;
             lockOk = false;
             expireTimestamp = -1;
+            if (ok && notifier != null) {
+                notifier.onUnlock(lockKey);
+            }
             return ok;
         } catch (Exception e) {
             logger.error("clear error, lockKey = {}, lockId = {}", lockKey, lockId, e);
@@ -7,6 +7,7 @@ import com.netease.nim.camellia.redis.CamelliaRedisTemplate;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.*;
 
 /**
@@ -28,6 +29,7 @@ public class CamelliaRedisLockManager {
     private final long expireTimeoutMillis;
 
     private final ConcurrentHashMap<LockKey, LockInfo> lockInfoMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CamelliaRedisLockNotifier> notifierMap = new ConcurrentHashMap<>();
 
     private static final CamelliaRedisLockManager INSTANCE = new CamelliaRedisLockManager();
 
@@ -58,6 +60,30 @@ public class CamelliaRedisLockManager {
         return INSTANCE;
     }
 
+    /**
+     * 开启锁释放通知，该前缀的锁共享一个订阅，等待锁时不再轮询
+     * 只对使用本manager的redis客户端的锁生效
+     * @param prefix 锁key前缀
+     * @return notifier
+     */
+    public CamelliaRedisLockNotifier enableUnlockNotify(String prefix) {
+        if (template == null) {
+            throw new IllegalArgumentException("camellia redis template is null");
+        }
+        return notifierMap.computeIfAbsent(prefix, k -> new CamelliaRedisLockNotifier(template, prefix));
+    }
+
+    /**
+     * 关闭锁释放通知
+     * @param prefix 锁key前缀
+     */
+    public void disableUnlockNotify(String prefix) {
+        CamelliaRedisLockNotifier notifier = notifierMap.remove(prefix);
+        if (notifier != null) {
+            notifier.close();
+        }
+    }
+
     private static class LockInfo {
         CamelliaRedisLock lock;
         CamelliaScheduleExecutor.Task task;
@@ -260,6 +286,38 @@ public class CamelliaRedisLockManager {
         return tryLockAndRun(template, new LockKey(lockKey), callable, acquireTimeoutMillis, expireTimeoutMillis);
     }
 
+    public CompletableFuture<Boolean> lockAsync(CamelliaRedisTemplate template, byte[] lockKey) {
+        return lockAsync(template, new LockKey(lockKey), acquireTimeoutMillis, expireTimeoutMillis);
+    }
+
+    public CompletableFuture<Boolean> lockAsync(CamelliaRedisTemplate template, byte[] lockKey, long acquireTimeoutMillis, long expireTimeoutMillis) {
+        return lockAsync(template, new LockKey(lockKey), acquireTimeoutMillis, expireTimeoutMillis);
+    }
+
+    public CompletableFuture<Boolean> lockAsync(CamelliaRedisTemplate template, String lockKey) {
+        return lockAsync(template, new LockKey(lockKey), acquireTimeoutMillis, expireTimeoutMillis);
+    }
+
+    public CompletableFuture<Boolean> lockAsync(CamelliaRedisTemplate template, String lockKey, long acquireTimeoutMillis, long expireTimeoutMillis) {
+        return lockAsync(template, new LockKey(lockKey), acquireTimeoutMillis, expireTimeoutMillis);
+    }
+
+    public CompletableFuture<Boolean> lockAsync(byte[] lockKey) {
+        return lockAsync(template, new LockKey(lockKey), acquireTimeoutMillis, expireTimeoutMillis);
+    }
+
+    public CompletableFuture<Boolean> lockAsync(byte[] lockKey, long acquireTimeoutMillis, long expireTimeoutMillis) {
+        return lockAsync(template, new LockKey(lockKey), acquireTimeoutMillis, expireTimeoutMillis);
+    }
+
+    public CompletableFuture<Boolean> lockAsync(String lockKey) {
+        return lockAsync(template, new LockKey(lockKey), acquireTimeoutMillis, expireTimeoutMillis);
+    }
+
+    public CompletableFuture<Boolean> lockAsync(String lockKey, long acquireTimeoutMillis, long expireTimeoutMillis) {
+        return lockAsync(template, new LockKey(lockKey), acquireTimeoutMillis, expireTimeoutMillis);
+    }
+
     public boolean release(String lockKey) {
         return release(new LockKey(lockKey));
     }
@@ -299,48 +357,62 @@ public class CamelliaRedisLockManager {
 
     private boolean lock(CamelliaRedisTemplate template, LockKey lockKey,
                         long acquireTimeoutMillis, long expireTimeoutMillis) {
-        if (template == null) {
-            throw new IllegalArgumentException("camellia redis template is null");
-        }
         //尝试获取一个锁，并且会定时续约该锁，以避免锁在中途被释放
-        final CamelliaRedisLock lock = CamelliaRedisLock.newLock(template, lockKey.getKey(), acquireTimeoutMillis, expireTimeoutMillis);
+        final CamelliaRedisLock lock = newLock(template, lockKey, acquireTimeoutMillis, expireTimeoutMillis);
         boolean lockOk = lock.lock();
         if (lockOk) {
-            CamelliaScheduleExecutor.Task task = scheduleExecutor.scheduleAtFixedRate(lock::renew, expireTimeoutMillis / 5, expireTimeoutMillis / 5, TimeUnit.MILLISECONDS);
-            LockInfo oldLockInfo = lockInfoMap.put(lockKey, new LockInfo(lock, task));
-            if (oldLockInfo != null) {
-                if (oldLockInfo.lock != null) {
-                    oldLockInfo.lock.release();
-                }
-                if (oldLockInfo.task != null) {
-                    oldLockInfo.task.cancel();
-                }
-            }
+            onLockOk(lockKey, lock, expireTimeoutMillis);
         }
         return lockOk;
     }
 
+    private CompletableFuture<Boolean> lockAsync(CamelliaRedisTemplate template, LockKey lockKey,
+                                                 long acquireTimeoutMillis, long expireTimeoutMillis) {
+        final CamelliaRedisLock lock = newLock(template, lockKey, acquireTimeoutMillis, expireTimeoutMillis);
+        return lock.lockAsync().thenApply(lockOk -> {
+            if (lockOk) {
+                onLockOk(lockKey, lock, expireTimeoutMillis);
+            }
+            return lockOk;
+        });
+    }
+
     private boolean tryLock(CamelliaRedisTemplate template, LockKey lockKey,
                          long acquireTimeoutMillis, long expireTimeoutMillis) {
-        if (template == null) {
-            throw new IllegalArgumentException("camellia redis template is null");
-        }
         //尝试获取一个锁，并且会定时续约该锁，以避免锁在中途被释放
-        final CamelliaRedisLock lock = CamelliaRedisLock.newLock(template, lockKey.getKey(), acquireTimeoutMillis, expireTimeoutMillis);
+        final CamelliaRedisLock lock = newLock(template, lockKey, acquireTimeoutMillis, expireTimeoutMillis);
         boolean lockOk = lock.tryLock();
         if (lockOk) {
-            CamelliaScheduleExecutor.Task task = scheduleExecutor.scheduleAtFixedRate(lock::renew, expireTimeoutMillis / 5, expireTimeoutMillis / 5, TimeUnit.MILLISECONDS);
-            LockInfo oldLockInfo = lockInfoMap.put(lockKey, new LockInfo(lock, task));
-            if (oldLockInfo != null) {
-                if (oldLockInfo.lock != null) {
-                    oldLockInfo.lock.release();
-                }
-                if (oldLockInfo.task != null) {
-                    oldLockInfo.task.cancel();
+            onLockOk(lockKey, lock, expireTimeoutMillis);
+        }
+        return lockOk;
+    }
+
+    private CamelliaRedisLock newLock(CamelliaRedisTemplate template, LockKey lockKey, long acquireTimeoutMillis, long expireTimeoutMillis) {
+        if (template == null) {
+            throw new IllegalArgumentException("camellia redis template is null");
+        }
+        if (!notifierMap.isEmpty()) {
+            for (CamelliaRedisLockNotifier notifier : notifierMap.values()) {
+                if (notifier.getTemplate() == template && notifier.match(lockKey.getKey())) {
+                    return CamelliaRedisLock.newLock(notifier, lockKey.getKey(), UUID.randomUUID().toString(), acquireTimeoutMillis, expireTimeoutMillis);
                 }
             }
         }
-        return lockOk;
+        return CamelliaRedisLock.newLock(template, lockKey.getKey(), acquireTimeoutMillis, expireTimeoutMillis);
+    }
+
+    private void onLockOk(LockKey lockKey, CamelliaRedisLock lock, long expireTimeoutMillis) {
+        CamelliaScheduleExecutor.Task task = scheduleExecutor.scheduleAtFixedRate(lock::renew, expireTimeoutMillis / 5, expireTimeoutMillis / 5, TimeUnit.MILLISECONDS);
+        LockInfo oldLockInfo = lockInfoMap.put(lockKey, new LockInfo(lock, task));
+        if (oldLockInfo != null) {
+            if (oldLockInfo.lock != null) {
+                oldLockInfo.lock.release();
+            }
+            if (oldLockInfo.task != null) {
+                oldLockInfo.task.cancel();
+            }
+        }
     }
 
     private CamelliaRedisLock getLock(LockKey lockKey) {
@@ -0,0 +1,416 @@
+package com.netease.nim.camellia.redis.toolkit.lock;
+
+import com.netease.nim.camellia.core.model.Resource;
+import com.netease.nim.camellia.redis.CamelliaRedisTemplate;
+import com.netease.nim.camellia.redis.base.utils.SafeEncoder;
+import com.netease.nim.camellia.redis.util.CamelliaRedisInitializer;
+import com.netease.nim.camellia.tools.executor.CamelliaThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.BinaryJedisPubSub;
+import redis.clients.jedis.Jedis;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * 锁释放通知
+ * <p>
+ * 同一个前缀的锁共享一个订阅（channel = camellia_redis_lock_unlock|prefix），释放锁时通过lua脚本publish锁key，
+ * 本地等待者按锁key组成FIFO队列，只有队头会去尝试加锁，收到通知后立即唤醒队头，而不是每隔tryLockIntervalMillis轮询一次
+ * <p>
+ * 释放锁的lua脚本在锁key所在的分片上publish，因此会在每个写资源（分片/双写）上各自订阅一次channel，
+ * 写资源变化时（动态路由）定时刷新订阅
+ * <p>
+ * 锁过期（没有release）时不会有通知，此时依赖兜底轮询，间隔为fallbackIntervalMillis，
+ * 订阅断开期间（任意一个写资源）通知可能丢失，兜底轮询的间隔为min(fallbackIntervalMillis, tryLockIntervalMillis)
+ * Created by caojiajun on 2024/7/31
+ */
+public class CamelliaRedisLockNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(CamelliaRedisLockNotifier.class);
+
+    private static final String CHANNEL_PREFIX = "camellia_redis_lock_unlock|";
+    private static final long defaultFallbackIntervalMillis = 200;
+    private static final long resubscribeIntervalMillis = 1000;
+
+    private final CamelliaRedisTemplate template;
+    private final String prefix;
+    private final byte[] prefixBytes;
+    private final byte[] channel;
+    private final long fallbackIntervalMillis;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentHashMap<ByteBuffer, WaiterQueue> queueMap = new ConcurrentHashMap<>();
+
+    private volatile boolean started = false;
+    private volatile boolean closed = false;
+    private final ConcurrentHashMap<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+    public CamelliaRedisLockNotifier(CamelliaRedisTemplate template, String prefix) {
+        this(template, prefix, defaultFallbackIntervalMillis, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CamelliaRedisLockNotifier(CamelliaRedisTemplate template, String prefix, long fallbackIntervalMillis, int poolSize) {
+        if (template == null) {
+            throw new IllegalArgumentException("camellia redis template is null");
+        }
+        this.template = template;
+        this.prefix = prefix;
+        this.prefixBytes = SafeEncoder.encode(prefix);
+        this.channel = SafeEncoder.encode(CHANNEL_PREFIX + prefix);
+        this.fallbackIntervalMillis = fallbackIntervalMillis;
+        this.scheduler = Executors.newScheduledThreadPool(poolSize, new CamelliaThreadFactory("camellia-redis-lock-notifier", true));
+    }
+
+    public CamelliaRedisTemplate getTemplate() {
+        return template;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public byte[] getChannel() {
+        return channel;
+    }
+
+    /**
+     * 锁key是否由该notifier负责
+     */
+    public boolean match(byte[] lockKey) {
+        if (lockKey.length < prefixBytes.length) return false;
+        for (int i=0; i<prefixBytes.length; i++) {
+            if (lockKey[i] != prefixBytes[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 本地是否有等待者
+     */
+    public boolean hasWaiters(byte[] lockKey) {
+        WaiterQueue queue = queueMap.get(ByteBuffer.wrap(lockKey));
+        if (queue == null) return false;
+        synchronized (queue) {
+            return !queue.waiters.isEmpty();
+        }
+    }
+
+    /**
+     * 加入等待队列，直到获取到锁或者超时
+     * @param lock 锁对象
+     * @param acquireTimeoutMillis 获取锁的超时时间
+     * @return 成功/失败
+     */
+    public CompletableFuture<Boolean> acquire(CamelliaRedisLock lock, long acquireTimeoutMillis) {
+        if (closed) {
+            throw new IllegalStateException("camellia redis lock notifier closed");
+        }
+        startIfNeed();
+        Waiter waiter = new Waiter(lock, System.currentTimeMillis() + acquireTimeoutMillis);
+        ByteBuffer key = ByteBuffer.wrap(lock.getLockKey());
+        while (true) {
+            WaiterQueue queue = queueMap.computeIfAbsent(key, k -> new WaiterQueue(key));
+            synchronized (queue) {
+                if (queue.removed) continue;
+                queue.waiters.addLast(waiter);
+                waiter.timeoutTask = scheduler.schedule(() -> timeout(queue, waiter), acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+                if (queue.waiters.peekFirst() == waiter) {
+                    schedule(queue, waiter, 0);
+                }
+                return waiter.future;
+            }
+        }
+    }
+
+    /**
+     * 锁被释放了，唤醒队头
+     * @param lockKey 锁key
+     */
+    public void onUnlock(byte[] lockKey) {
+        WaiterQueue queue = queueMap.get(ByteBuffer.wrap(lockKey));
+        if (queue == null) return;
+        synchronized (queue) {
+            Waiter head = queue.waiters.peekFirst();
+            if (head != null) {
+                schedule(queue, head, 0);
+            }
+        }
+    }
+
+    public void close() {
+        closed = true;
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.stop();
+        }
+        subscribers.clear();
+        for (WaiterQueue queue : new ArrayList<>(queueMap.values())) {
+            List<Waiter> list;
+            synchronized (queue) {
+                list = new ArrayList<>(queue.waiters);
+                queue.waiters.clear();
+            }
+            for (Waiter waiter : list) {
+                waiter.future.complete(false);
+            }
+        }
+        scheduler.shutdown();
+    }
+
+    //调用方需要持有queue的锁
+    private void schedule(WaiterQueue queue, Waiter waiter, long delayMillis) {
+        if (waiter.attempting) {
+            //正在尝试加锁，失败后立即重试
+            waiter.wakeup = true;
+            return;
+        }
+        if (waiter.attemptTask != null) {
+            if (delayMillis > 0 && !waiter.attemptTask.isDone()) return;
+            waiter.attemptTask.cancel(false);
+        }
+        waiter.attemptTask = scheduler.schedule(() -> attempt(queue, waiter), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void attempt(WaiterQueue queue, Waiter waiter) {
+        synchronized (queue) {
+            if (waiter.attempting || waiter.future.isDone() || queue.waiters.peekFirst() != waiter) return;
+            waiter.attempting = true;
+            waiter.wakeup = false;
+            waiter.attemptTask = null;
+        }
+        boolean ok = false;
+        try {
+            ok = waiter.lock.tryLock();
+        } catch (Exception e) {
+            logger.error("tryLock error, lockKey = {}", SafeEncoder.encode(waiter.lock.getLockKey()), e);
+        }
+        boolean acquired = false;
+        synchronized (queue) {
+            waiter.attempting = false;
+            if (waiter.future.isDone()) {
+                //已经超时了
+                if (ok) {
+                    waiter.lock.release();
+                }
+                return;
+            }
+            if (ok) {
+                acquired = true;
+                remove(queue, waiter);
+                //锁被本进程持有，下一个等待者等待release的通知
+                Waiter next = queue.waiters.peekFirst();
+                if (next != null) {
+                    schedule(queue, next, fallbackIntervalMillis(next));
+                }
+            } else {
+                long remaining = waiter.deadline - System.currentTimeMillis();
+                if (remaining > 0) {
+                    schedule(queue, waiter, waiter.wakeup ? 0 : Math.min(fallbackIntervalMillis(waiter), remaining));
+                }
+            }
+        }
+        if (acquired) {
+            waiter.future.complete(true);
+        }
+    }
+
+    //订阅断开期间兜底轮询不能比tryLockIntervalMillis更慢
+    private long fallbackIntervalMillis(Waiter waiter) {
+        if (isSubscribed()) {
+            return fallbackIntervalMillis;
+        }
+        return Math.max(1, Math.min(fallbackIntervalMillis, waiter.lock.getTryLockIntervalMillis()));
+    }
+
+    private boolean isSubscribed() {
+        if (subscribers.isEmpty()) return false;
+        for (Subscriber subscriber : subscribers.values()) {
+            if (!subscriber.subscribed) return false;
+        }
+        return true;
+    }
+
+    private void timeout(WaiterQueue queue, Waiter waiter) {
+        synchronized (queue) {
+            if (waiter.attempting) {
+                //等本次尝试结束
+                waiter.timeoutTask = scheduler.schedule(() -> timeout(queue, waiter), 1, TimeUnit.MILLISECONDS);
+                return;
+            }
+            if (waiter.future.isDone()) return;
+            boolean head = queue.waiters.peekFirst() == waiter;
+            remove(queue, waiter);
+            if (head) {
+                //锁的状态未知，下一个等待者立即尝试
+                Waiter next = queue.waiters.peekFirst();
+                if (next != null) {
+                    schedule(queue, next, 0);
+                }
+            }
+        }
+        waiter.future.complete(false);
+    }
+
+    //调用方需要持有queue的锁
+    private void remove(WaiterQueue queue, Waiter waiter) {
+        queue.waiters.remove(waiter);
+        if (waiter.attemptTask != null) {
+            waiter.attemptTask.cancel(false);
+        }
+        if (waiter.timeoutTask != null) {
+            waiter.timeoutTask.cancel(false);
+        }
+        if (queue.waiters.isEmpty()) {
+            queue.removed = true;
+            queueMap.remove(queue.key, queue);
+        }
+    }
+
+    private void startIfNeed() {
+        if (started) return;
+        synchronized (this) {
+            if (started) return;
+            refreshSubscribers();
+            scheduler.scheduleWithFixedDelay(this::refreshSubscribers, resubscribeIntervalMillis, resubscribeIntervalMillis, TimeUnit.MILLISECONDS);
+            started = true;
+        }
+    }
+
+    /**
+     * 每个写资源各自订阅一次，写资源变化时新增/停止对应的订阅
+     */
+    private void refreshSubscribers() {
+        if (closed) return;
+        try {
+            List<Resource> resources = template.getAllWriteResources();
+            Set<String> urls = new HashSet<>();
+            for (Resource resource : resources) {
+                urls.add(resource.getUrl());
+                if (subscribers.containsKey(resource.getUrl())) continue;
+                Subscriber subscriber = new Subscriber(resource);
+                if (subscribers.putIfAbsent(resource.getUrl(), subscriber) == null) {
+                    subscriber.start();
+                }
+            }
+            for (Subscriber subscriber : new ArrayList<>(subscribers.values())) {
+                if (!urls.contains(subscriber.resource.getUrl())) {
+                    subscribers.remove(subscriber.resource.getUrl(), subscriber);
+                    subscriber.stop();
+                }
+            }
+        } catch (Exception e) {
+            logger.error("refresh subscribers error, channel = {}", SafeEncoder.encode(channel), e);
+        }
+    }
+
+    private void wakeupAll() {
+        for (WaiterQueue queue : queueMap.values()) {
+            synchronized (queue) {
+                Waiter head = queue.waiters.peekFirst();
+                if (head != null) {
+                    schedule(queue, head, 0);
+                }
+            }
+        }
+    }
+
+    private class Subscriber {
+        private final Resource resource;
+        private volatile boolean stopped = false;
+        private volatile boolean subscribed = false;
+        private volatile BinaryJedisPubSub pubSub;
+
+        Subscriber(Resource resource) {
+            this.resource = resource;
+        }
+
+        void start() {
+            Thread thread = new Thread(this::subscribeLoop, "camellia-redis-lock-subscribe-" + prefix);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void stop() {
+            stopped = true;
+            BinaryJedisPubSub pubSub = this.pubSub;
+            if (pubSub != null && pubSub.isSubscribed()) {
+                try {
+                    pubSub.unsubscribe();
+                } catch (Exception e) {
+                    logger.warn("unsubscribe error, channel = {}, resource = {}", SafeEncoder.encode(channel), resource.getUrl(), e);
+                }
+            }
+        }
+
+        private void subscribeLoop() {
+            while (!closed && !stopped) {
+                try {
+                    BinaryJedisPubSub pubSub = new BinaryJedisPubSub() {
+                        @Override
+                        public void onMessage(byte[] channel, byte[] message) {
+                            onUnlock(message);
+                        }
+
+                        @Override
+                        public void onSubscribe(byte[] channel, int subscribedChannels) {
+                            if (closed || stopped) {
+                                //stop()时还没有订阅成功，没有unsubscribe，这里补上，否则会一直阻塞在subscribe并占用连接
+                                unsubscribe();
+                                return;
+                            }
+                            subscribed = true;
+                            logger.info("camellia redis lock notifier subscribe success, channel = {}, resource = {}", SafeEncoder.encode(channel), resource.getUrl());
+                            //订阅之前的通知可能丢了，唤醒所有队头
+                            wakeupAll();
+                        }
+                    };
+                    this.pubSub = pubSub;
+                    if (stopped) break;
+                    try (Jedis jedis = CamelliaRedisInitializer.init(resource, template.getRedisEnv()).getJedis(channel)) {
+                        jedis.subscribe(pubSub, channel);
+                    }
+                } catch (Exception e) {
+                    logger.error("camellia redis lock notifier subscribe error, channel = {}, resource = {}", SafeEncoder.encode(channel), resource.getUrl(), e);
+                }
+                subscribed = false;
+                if (closed || stopped) break;
+                wakeupAll();
+                try {
+                    TimeUnit.MILLISECONDS.sleep(resubscribeIntervalMillis);
+                } catch (InterruptedException e) {
+                    logger.error("sleep error", e);
+                }
+            }
+        }
+    }
+
+    private static class WaiterQueue {
+        private final ByteBuffer key;
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        private boolean removed = false;
+
+        WaiterQueue(ByteBuffer key) {
+            this.key = key;
+        }
+    }
+
+    private static class Waiter {
+        private final CamelliaRedisLock lock;
+        private final long deadline;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        private ScheduledFuture<?> attemptTask;
+        private ScheduledFuture<?> timeoutTask;
+        private boolean attempting;
+        private boolean wakeup;
+
+        Waiter(CamelliaRedisLock lock, long deadline) {
+            this.lock = lock;
+            this.deadline = deadline;
+        }
+    }
+}
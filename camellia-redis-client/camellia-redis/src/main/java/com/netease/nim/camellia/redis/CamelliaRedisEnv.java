@@ -2,6 +2,7 @@ package com.netease.nim.camellia.redis;
 
 
 import com.netease.nim.camellia.core.client.env.ProxyEnv;
+import com.netease.nim.camellia.redis.async.RedisAsyncClientFactory;
 import com.netease.nim.camellia.redis.intercept.RedisInterceptor;
 import com.netease.nim.camellia.tools.executor.CamelliaThreadFactory;
 import com.netease.nim.camellia.redis.conf.CamelliaRedisConstants;
@@ -36,6 +37,11 @@ public class CamelliaRedisEnv {
     //redis cluster的pipeline可能触发MOVED/ASK转向，此时重试的次数
     private int pipelineMaxAttempts = CamelliaRedisConstants.Misc.pipelineMaxAttempts;
 
+    //异步客户端工厂
+    private RedisAsyncClientFactory redisAsyncClientFactory = RedisAsyncClientFactory.DEFAULT;
+    //mget/mset/del/exists等多key命令是否走异步客户端批量执行（按分片和slot分组后并行pipeline，不占用并发线程池），仅redis和redis-cluster支持
+    private boolean asyncBatchEnable = CamelliaRedisConstants.Misc.asyncBatchEnable;
+
     private ProxyEnv proxyEnv = ProxyEnv.defaultProxyEnv();
 
     private List<RedisInterceptor> interceptorList = new ArrayList<>();
@@ -46,7 +52,8 @@ public class CamelliaRedisEnv {
 
     private CamelliaRedisEnv(JedisPoolFactory jedisPoolFactory, JedisClusterFactory jedisClusterFactory,
                              int concurrentExecPoolSize, int pipelinePoolSize, boolean pipelineConcurrentEnable,
-                             int pipelineMaxAttempts, ProxyEnv proxyEnv, List<RedisInterceptor> interceptorList) {
+                             int pipelineMaxAttempts, ProxyEnv proxyEnv, List<RedisInterceptor> interceptorList,
+                             RedisAsyncClientFactory redisAsyncClientFactory, boolean asyncBatchEnable) {
         this.jedisPoolFactory = jedisPoolFactory;
         this.jedisClusterFactory = jedisClusterFactory;
         this.concurrentExecPoolSize = concurrentExecPoolSize;
@@ -57,6 +64,8 @@ public class CamelliaRedisEnv {
             this.proxyEnv = proxyEnv;
         }
         this.interceptorList = interceptorList;
+        this.redisAsyncClientFactory = redisAsyncClientFactory;
+        this.asyncBatchEnable = asyncBatchEnable;
         initExec();
     }
 
@@ -93,6 +102,14 @@ public class CamelliaRedisEnv {
         return pipelineMaxAttempts;
     }
 
+    public RedisAsyncClientFactory getRedisAsyncClientFactory() {
+        return redisAsyncClientFactory;
+    }
+
+    public boolean isAsyncBatchEnable() {
+        return asyncBatchEnable;
+    }
+
     public ProxyEnv getProxyEnv() {
         return proxyEnv;
     }
@@ -110,7 +127,8 @@ public class CamelliaRedisEnv {
         public Builder(CamelliaRedisEnv redisEnv) {
             this.redisEnv = new CamelliaRedisEnv(redisEnv.jedisPoolFactory, redisEnv.jedisClusterFactory,
                     redisEnv.concurrentExecPoolSize, redisEnv.pipelinePoolSize, redisEnv.pipelineConcurrentEnable,
-                    redisEnv.pipelineMaxAttempts, redisEnv.proxyEnv, redisEnv.interceptorList);
+                    redisEnv.pipelineMaxAttempts, redisEnv.proxyEnv, redisEnv.interceptorList, redisEnv.redisAsyncClientFactory,
+                    redisEnv.asyncBatchEnable);
             this.redisEnv.concurrentExec = redisEnv.concurrentExec;
         }
 
@@ -124,6 +142,18 @@ public class CamelliaRedisEnv {
             return this;
         }
 
+        public Builder redisAsyncClientFactory(RedisAsyncClientFactory redisAsyncClientFactory) {
+            if (redisAsyncClientFactory != null) {
+                redisEnv.redisAsyncClientFactory = redisAsyncClientFactory;
+            }
+            return this;
+        }
+
+        public Builder asyncBatchEnable(boolean asyncBatchEnable) {
+            redisEnv.asyncBatchEnable = asyncBatchEnable;
+            return this;
+        }
+
         public Builder pipelinePoolSize(int pipelinePoolSize) {
             if (pipelinePoolSize > 0) {
                 redisEnv.pipelinePoolSize = pipelinePoolSize;
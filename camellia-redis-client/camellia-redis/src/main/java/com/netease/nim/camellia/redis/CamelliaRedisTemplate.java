@@ -16,6 +16,7 @@ import com.netease.nim.camellia.core.util.ResourceSelector;
 import com.netease.nim.camellia.core.util.ResourceTableUtil;
 import com.netease.nim.camellia.core.util.ResourceTransferUtil;
 import com.netease.nim.camellia.redis.base.exception.CamelliaRedisException;
+import com.netease.nim.camellia.redis.async.CamelliaRedisAsyncTemplate;
 import com.netease.nim.camellia.redis.pipeline.*;
 import com.netease.nim.camellia.redis.resource.*;
 import com.netease.nim.camellia.redis.util.CamelliaRedisInitializer;
@@ -27,6 +28,8 @@ import redis.clients.jedis.params.sortedset.ZAddParams;
 import redis.clients.jedis.params.sortedset.ZIncrByParams;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 
 /**
@@ -44,6 +47,8 @@ public class CamelliaRedisTemplate implements ICamelliaRedisTemplate {
     private final CamelliaApi service;
     private String md5;
     private PipelinePool pipelinePool;
+    private String asyncMd5;
+    private CamelliaRedisAsyncTemplate asyncTemplate;
 
     public CamelliaRedisTemplate(CamelliaRedisEnv env, CamelliaApi service, long bid, String bgroup,
                                  boolean monitorEnable, long checkIntervalMillis) {
@@ -170,6 +175,39 @@ public class CamelliaRedisTemplate implements ICamelliaRedisTemplate {
         return service;
     }
 
+    /**
+     * 非阻塞的异步客户端，路由规则与当前template一致，资源表变更后会重建
+     * @return CamelliaRedisAsyncTemplate
+     */
+    public CamelliaRedisAsyncTemplate async() {
+        CamelliaRedisAsyncTemplate asyncTemplate = this.asyncTemplate;
+        CamelliaApiResponse response = factory.getResponse();
+        if (asyncTemplate == null || !Objects.equals(response.getMd5(), this.asyncMd5)) {
+            asyncTemplate = new CamelliaRedisAsyncTemplate(env, response.getResourceTable());
+            this.asyncTemplate = asyncTemplate;
+            this.asyncMd5 = response.getMd5();
+        }
+        return asyncTemplate;
+    }
+
+    private CamelliaRedisAsyncTemplate asyncBatch() {
+        if (!env.isAsyncBatchEnable()) return null;
+        CamelliaRedisAsyncTemplate asyncTemplate = async();
+        return asyncTemplate.isBatchSupport() ? asyncTemplate : null;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new CamelliaRedisException(cause);
+        }
+    }
+
     @Override
     public ICamelliaRedisPipeline pipelined() {
         PipelinePool pipelinePool = this.pipelinePool;
@@ -1541,6 +1579,10 @@ public class CamelliaRedisTemplate implements ICamelliaRedisTemplate {
     public Long del(byte[]... keys) {
         if (keys == null) return 0L;
         if (keys.length == 0) return 0L;
+        CamelliaRedisAsyncTemplate asyncBatch = asyncBatch();
+        if (asyncBatch != null) {
+            return join(asyncBatch.del(keys));
+        }
         return factory.getProxy().del(keys);
     }
 
@@ -1548,6 +1590,10 @@ public class CamelliaRedisTemplate implements ICamelliaRedisTemplate {
     public Long exists(byte[]... keys) {
         if (keys == null) return 0L;
         if (keys.length == 0) return 0L;
+        CamelliaRedisAsyncTemplate asyncBatch = asyncBatch();
+        if (asyncBatch != null) {
+            return join(asyncBatch.exists(keys));
+        }
         return factory.getProxy().exists(keys);
     }
 
@@ -1555,6 +1601,10 @@ public class CamelliaRedisTemplate implements ICamelliaRedisTemplate {
     public List<byte[]> mget(byte[]... keys) {
         if (keys == null) return Collections.emptyList();
         if (keys.length == 0) return Collections.emptyList();
+        CamelliaRedisAsyncTemplate asyncBatch = asyncBatch();
+        if (asyncBatch != null) {
+            return join(asyncBatch.mget(keys));
+        }
         Map<byte[], byte[]> mget = factory.getProxy().mget(keys);
         if (mget == null) return null;
         List<byte[]> list = new ArrayList<>(keys.length);
@@ -1576,6 +1626,10 @@ public class CamelliaRedisTemplate implements ICamelliaRedisTemplate {
         if (keysvalues.length % 2 != 0) {
             throw new CamelliaRedisException("keysvalues not match");
         }
+        CamelliaRedisAsyncTemplate asyncBatch = asyncBatch();
+        if (asyncBatch != null) {
+            return join(asyncBatch.mset(keysvalues));
+        }
         Map<byte[], byte[]> map = new HashMap<>();
         for (int i = 0; i < keysvalues.length / 2; i++) {
             map.put(keysvalues[i * 2], keysvalues[i * 2 + 1]);
@@ -1590,6 +1644,10 @@ public class CamelliaRedisTemplate implements ICamelliaRedisTemplate {
         if (keysvalues.length % 2 != 0) {
             throw new CamelliaRedisException("keysvalues not match");
         }
+        CamelliaRedisAsyncTemplate asyncBatch = asyncBatch();
+        if (asyncBatch != null) {
+            return join(asyncBatch.mset(keysvalues));
+        }
         Map<byte[], byte[]> map = new HashMap<>();
         for (int i = 0; i < keysvalues.length / 2; i++) {
             map.put(SafeEncoder.encode(keysvalues[i * 2]), SafeEncoder.encode(keysvalues[i * 2 + 1]));
@@ -1601,6 +1659,10 @@ public class CamelliaRedisTemplate implements ICamelliaRedisTemplate {
     public Long del(String... keys) {
         if (keys == null) return 0L;
         if (keys.length == 0) return 0L;
+        CamelliaRedisAsyncTemplate asyncBatch = asyncBatch();
+        if (asyncBatch != null) {
+            return join(asyncBatch.del(keys));
+        }
         return factory.getProxy().del(keys);
     }
 
@@ -1608,6 +1670,10 @@ public class CamelliaRedisTemplate implements ICamelliaRedisTemplate {
     public Long exists(String... keys) {
         if (keys == null) return 0L;
         if (keys.length == 0) return 0L;
+        CamelliaRedisAsyncTemplate asyncBatch = asyncBatch();
+        if (asyncBatch != null) {
+            return join(asyncBatch.exists(keys));
+        }
         return factory.getProxy().exists(keys);
     }
 
@@ -1615,6 +1681,10 @@ public class CamelliaRedisTemplate implements ICamelliaRedisTemplate {
     public List<String> mget(String... keys) {
         if (keys == null) return Collections.emptyList();
         if (keys.length == 0) return Collections.emptyList();
+        CamelliaRedisAsyncTemplate asyncBatch = asyncBatch();
+        if (asyncBatch != null) {
+            return join(asyncBatch.mget(keys));
+        }
         Map<String, String> mget = factory.getProxy().mget(keys);
         if (mget == null) return null;
         List<String> list = new ArrayList<>(keys.length);
@@ -1888,6 +1958,13 @@ public class CamelliaRedisTemplate implements ICamelliaRedisTemplate {
         return jedisList;
     }
 
+    /**
+     * 获取所有的写资源（分片或者双写时有多个）
+     */
+    public List<Resource> getAllWriteResources() {
+        return factory.getResourceSelector().getAllWriteResources();
+    }
+
     @Override
     public <T> T executeRead(CamelliaRedisCommandTask<T> task, String... keys) {
         return executeRead(task, SafeEncoder.encodeMany(keys));
@@ -0,0 +1,322 @@
+package com.netease.nim.camellia.redis.async;
+
+import com.netease.nim.camellia.core.model.Resource;
+import com.netease.nim.camellia.core.model.ResourceTable;
+import com.netease.nim.camellia.core.util.ResourceSelector;
+import com.netease.nim.camellia.redis.CamelliaRedisEnv;
+import com.netease.nim.camellia.redis.base.exception.CamelliaRedisException;
+import redis.clients.util.SafeEncoder;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 非阻塞的redis客户端，基于netty，命令在连接上pipeline发送，返回CompletableFuture
+ * <p>
+ * 分片/双写/读写分离的路由规则与CamelliaRedisTemplate一致，双写时返回第一个写地址的结果
+ * <p>
+ * 注意：future在io线程中完成，回调里不要有阻塞操作；不支持阻塞型命令（如blpop）和事务
+ * Created by caojiajun on 2024/7/31
+ */
+public class CamelliaRedisAsyncTemplate {
+
+    private static final byte[] GET = SafeEncoder.encode("get");
+    private static final byte[] SET = SafeEncoder.encode("set");
+    private static final byte[] SETEX = SafeEncoder.encode("setex");
+    private static final byte[] DEL = SafeEncoder.encode("del");
+    private static final byte[] EXISTS = SafeEncoder.encode("exists");
+    private static final byte[] EXPIRE = SafeEncoder.encode("expire");
+    private static final byte[] TTL = SafeEncoder.encode("ttl");
+    private static final byte[] INCR = SafeEncoder.encode("incr");
+    private static final byte[] INCRBY = SafeEncoder.encode("incrby");
+    private static final byte[] HGET = SafeEncoder.encode("hget");
+    private static final byte[] HSET = SafeEncoder.encode("hset");
+    private static final byte[] HDEL = SafeEncoder.encode("hdel");
+    private static final byte[] HGETALL = SafeEncoder.encode("hgetall");
+    private static final byte[] SADD = SafeEncoder.encode("sadd");
+    private static final byte[] SMEMBERS = SafeEncoder.encode("smembers");
+    private static final byte[] ZADD = SafeEncoder.encode("zadd");
+    private static final byte[] ZSCORE = SafeEncoder.encode("zscore");
+    private static final byte[] LPUSH = SafeEncoder.encode("lpush");
+    private static final byte[] LRANGE = SafeEncoder.encode("lrange");
+    private static final byte[] EVAL = SafeEncoder.encode("eval");
+    private static final byte[] NX = SafeEncoder.encode("nx");
+    private static final byte[] EX = SafeEncoder.encode("ex");
+
+    private final RedisAsyncClientFactory factory;
+    private final ResourceSelector resourceSelector;
+    private final RedisAsyncBatchExecutor batchExecutor;
+    private final boolean batchSupport;
+
+    public CamelliaRedisAsyncTemplate(CamelliaRedisEnv env, ResourceTable resourceTable) {
+        this.factory = env.getRedisAsyncClientFactory();
+        this.resourceSelector = new ResourceSelector(resourceTable, env.getProxyEnv());
+        this.batchExecutor = new RedisAsyncBatchExecutor(factory, resourceSelector);
+        boolean batchSupport = true;
+        for (Resource resource : resourceSelector.getAllResources()) {
+            if (!factory.isSupport(resource)) {
+                batchSupport = false;
+                break;
+            }
+        }
+        this.batchSupport = batchSupport;
+    }
+
+    /**
+     * 路由表中的所有资源是否都支持异步访问
+     * @return true/false
+     */
+    public boolean isBatchSupport() {
+        return batchSupport;
+    }
+
+    /**
+     * 发送一个读命令
+     * @param key 用于路由的key
+     * @param args 命令及参数
+     * @return reply，bulk/status为byte[]，integer为Long，array为List，nil为null
+     */
+    public CompletableFuture<Object> read(byte[] key, byte[]... args) {
+        Resource resource = resourceSelector.getReadResource(key);
+        return factory.get(resource).sendCommand(key, args);
+    }
+
+    /**
+     * 发送一个写命令，双写时返回第一个写地址的结果
+     * @param key 用于路由的key
+     * @param args 命令及参数
+     * @return reply
+     */
+    public CompletableFuture<Object> write(byte[] key, byte[]... args) {
+        List<Resource> resources = resourceSelector.getWriteResources(key);
+        if (resources == null || resources.isEmpty()) {
+            throw new CamelliaRedisException("write resources is empty");
+        }
+        CompletableFuture<Object> future = null;
+        for (Resource resource : resources) {
+            CompletableFuture<Object> f = factory.get(resource).sendCommand(key, args);
+            if (future == null) {
+                future = f;
+            }
+        }
+        return future;
+    }
+
+    public CompletableFuture<String> get(String key) {
+        byte[] k = SafeEncoder.encode(key);
+        return read(k, GET, k).thenApply(CamelliaRedisAsyncTemplate::toStr);
+    }
+
+    public CompletableFuture<byte[]> get(byte[] key) {
+        return read(key, GET, key).thenApply(reply -> (byte[]) reply);
+    }
+
+    public CompletableFuture<String> set(String key, String value) {
+        byte[] k = SafeEncoder.encode(key);
+        return write(k, SET, k, SafeEncoder.encode(value)).thenApply(CamelliaRedisAsyncTemplate::toStr);
+    }
+
+    public CompletableFuture<String> set(byte[] key, byte[] value) {
+        return write(key, SET, key, value).thenApply(CamelliaRedisAsyncTemplate::toStr);
+    }
+
+    /**
+     * set key value nx ex seconds
+     * @return OK表示设置成功，null表示key已存在
+     */
+    public CompletableFuture<String> setnxex(String key, String value, long seconds) {
+        byte[] k = SafeEncoder.encode(key);
+        return write(k, SET, k, SafeEncoder.encode(value), NX, EX, SafeEncoder.encode(String.valueOf(seconds)))
+                .thenApply(CamelliaRedisAsyncTemplate::toStr);
+    }
+
+    public CompletableFuture<String> setex(String key, int seconds, String value) {
+        byte[] k = SafeEncoder.encode(key);
+        return write(k, SETEX, k, SafeEncoder.encode(String.valueOf(seconds)), SafeEncoder.encode(value))
+                .thenApply(CamelliaRedisAsyncTemplate::toStr);
+    }
+
+    public CompletableFuture<Long> del(String key) {
+        byte[] k = SafeEncoder.encode(key);
+        return write(k, DEL, k).thenApply(reply -> (Long) reply);
+    }
+
+    public CompletableFuture<Boolean> exists(String key) {
+        byte[] k = SafeEncoder.encode(key);
+        return read(k, EXISTS, k).thenApply(reply -> reply != null && (Long) reply > 0);
+    }
+
+    public CompletableFuture<Long> expire(String key, int seconds) {
+        byte[] k = SafeEncoder.encode(key);
+        return write(k, EXPIRE, k, SafeEncoder.encode(String.valueOf(seconds))).thenApply(reply -> (Long) reply);
+    }
+
+    public CompletableFuture<Long> ttl(String key) {
+        byte[] k = SafeEncoder.encode(key);
+        return read(k, TTL, k).thenApply(reply -> (Long) reply);
+    }
+
+    public CompletableFuture<Long> incr(String key) {
+        byte[] k = SafeEncoder.encode(key);
+        return write(k, INCR, k).thenApply(reply -> (Long) reply);
+    }
+
+    public CompletableFuture<Long> incrBy(String key, long integer) {
+        byte[] k = SafeEncoder.encode(key);
+        return write(k, INCRBY, k, SafeEncoder.encode(String.valueOf(integer))).thenApply(reply -> (Long) reply);
+    }
+
+    public CompletableFuture<String> hget(String key, String field) {
+        byte[] k = SafeEncoder.encode(key);
+        return read(k, HGET, k, SafeEncoder.encode(field)).thenApply(CamelliaRedisAsyncTemplate::toStr);
+    }
+
+    public CompletableFuture<Long> hset(String key, String field, String value) {
+        byte[] k = SafeEncoder.encode(key);
+        return write(k, HSET, k, SafeEncoder.encode(field), SafeEncoder.encode(value)).thenApply(reply -> (Long) reply);
+    }
+
+    public CompletableFuture<Long> hdel(String key, String... fields) {
+        byte[] k = SafeEncoder.encode(key);
+        return write(k, args(HDEL, k, fields)).thenApply(reply -> (Long) reply);
+    }
+
+    public CompletableFuture<Map<String, String>> hgetAll(String key) {
+        byte[] k = SafeEncoder.encode(key);
+        return read(k, HGETALL, k).thenApply(reply -> {
+            List<?> list = (List<?>) reply;
+            Map<String, String> map = new HashMap<>(list.size());
+            for (int i=0; i<list.size(); i+=2) {
+                map.put(toStr(list.get(i)), toStr(list.get(i + 1)));
+            }
+            return map;
+        });
+    }
+
+    public CompletableFuture<Long> sadd(String key, String... members) {
+        byte[] k = SafeEncoder.encode(key);
+        return write(k, args(SADD, k, members)).thenApply(reply -> (Long) reply);
+    }
+
+    public CompletableFuture<Set<String>> smembers(String key) {
+        byte[] k = SafeEncoder.encode(key);
+        return read(k, SMEMBERS, k).thenApply(reply -> new HashSet<>(toStrList(reply)));
+    }
+
+    public CompletableFuture<Long> zadd(String key, double score, String member) {
+        byte[] k = SafeEncoder.encode(key);
+        return write(k, ZADD, k, SafeEncoder.encode(String.valueOf(score)), SafeEncoder.encode(member)).thenApply(reply -> (Long) reply);
+    }
+
+    public CompletableFuture<Double> zscore(String key, String member) {
+        byte[] k = SafeEncoder.encode(key);
+        return read(k, ZSCORE, k, SafeEncoder.encode(member)).thenApply(reply -> reply == null ? null : Double.valueOf(toStr(reply)));
+    }
+
+    public CompletableFuture<Long> lpush(String key, String... values) {
+        byte[] k = SafeEncoder.encode(key);
+        return write(k, args(LPUSH, k, values)).thenApply(reply -> (Long) reply);
+    }
+
+    public CompletableFuture<List<String>> lrange(String key, long start, long end) {
+        byte[] k = SafeEncoder.encode(key);
+        return read(k, LRANGE, k, SafeEncoder.encode(String.valueOf(start)), SafeEncoder.encode(String.valueOf(end)))
+                .thenApply(CamelliaRedisAsyncTemplate::toStrList);
+    }
+
+    public CompletableFuture<List<byte[]>> mget(byte[]... keys) {
+        return batchExecutor.mget(keys);
+    }
+
+    public CompletableFuture<List<String>> mget(String... keys) {
+        return batchExecutor.mget(encode(keys)).thenApply(CamelliaRedisAsyncTemplate::toStrList);
+    }
+
+    public CompletableFuture<String> mset(byte[]... keysvalues) {
+        return batchExecutor.mset(keysvalues);
+    }
+
+    public CompletableFuture<String> mset(String... keysvalues) {
+        return batchExecutor.mset(encode(keysvalues));
+    }
+
+    public CompletableFuture<Long> del(byte[]... keys) {
+        return batchExecutor.del(keys);
+    }
+
+    public CompletableFuture<Long> del(String... keys) {
+        return batchExecutor.del(encode(keys));
+    }
+
+    public CompletableFuture<Long> exists(byte[]... keys) {
+        return batchExecutor.exists(keys);
+    }
+
+    public CompletableFuture<Long> exists(String... keys) {
+        return batchExecutor.exists(encode(keys));
+    }
+
+    /**
+     * 多个key的hmget
+     * @param keys keys
+     * @param fields fields
+     * @return key -> hmget结果
+     */
+    public CompletableFuture<Map<String, List<String>>> hmget(List<String> keys, String... fields) {
+        String[] keyArray = keys.toArray(new String[0]);
+        return batchExecutor.hmget(encode(keyArray), encode(fields)).thenApply(list -> {
+            Map<String, List<String>> map = new HashMap<>(keyArray.length);
+            for (int i=0; i<keyArray.length; i++) {
+                map.put(keyArray[i], toStrList(list.get(i)));
+            }
+            return map;
+        });
+    }
+
+    /**
+     * eval脚本，当作写命令处理，按第一个key路由
+     */
+    public CompletableFuture<Object> eval(byte[] script, int keyCount, byte[]... params) {
+        if (keyCount <= 0) {
+            throw new CamelliaRedisException("eval keyCount should > 0");
+        }
+        byte[][] args = new byte[params.length + 3][];
+        args[0] = EVAL;
+        args[1] = script;
+        args[2] = SafeEncoder.encode(String.valueOf(keyCount));
+        System.arraycopy(params, 0, args, 3, params.length);
+        return write(params[0], args);
+    }
+
+    private static byte[][] args(byte[] command, byte[] key, String... params) {
+        byte[][] args = new byte[params.length + 2][];
+        args[0] = command;
+        args[1] = key;
+        for (int i=0; i<params.length; i++) {
+            args[i + 2] = SafeEncoder.encode(params[i]);
+        }
+        return args;
+    }
+
+    private static byte[][] encode(String... array) {
+        byte[][] result = new byte[array.length][];
+        for (int i=0; i<array.length; i++) {
+            result[i] = SafeEncoder.encode(array[i]);
+        }
+        return result;
+    }
+
+    private static String toStr(Object reply) {
+        if (reply == null) return null;
+        return SafeEncoder.encode((byte[]) reply);
+    }
+
+    private static List<String> toStrList(Object reply) {
+        List<?> list = (List<?>) reply;
+        List<String> result = new ArrayList<>(list.size());
+        for (Object item : list) {
+            result.add(toStr(item));
+        }
+        return result;
+    }
+}
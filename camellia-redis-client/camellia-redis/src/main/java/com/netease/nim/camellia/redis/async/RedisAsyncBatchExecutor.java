@@ -0,0 +1,241 @@
+package com.netease.nim.camellia.redis.async;
+
+import com.netease.nim.camellia.core.model.Resource;
+import com.netease.nim.camellia.core.util.ResourceSelector;
+import com.netease.nim.camellia.redis.base.exception.CamelliaRedisException;
+import redis.clients.util.SafeEncoder;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多key命令的批量执行
+ * <p>
+ * 先按分片（resource）分组，再按slot分组（redis-cluster），同一组的key合并成一个多key命令（如mget），
+ * 各组的命令直接在对应节点的连接上pipeline发送，所有分组都返回之后在io线程中合并结果，不需要额外的线程切换
+ * Created by caojiajun on 2024/7/31
+ */
+public class RedisAsyncBatchExecutor {
+
+    private static final byte[] MGET = SafeEncoder.encode("mget");
+    private static final byte[] MSET = SafeEncoder.encode("mset");
+    private static final byte[] DEL = SafeEncoder.encode("del");
+    private static final byte[] EXISTS = SafeEncoder.encode("exists");
+    private static final byte[] HMGET = SafeEncoder.encode("hmget");
+
+    private final RedisAsyncClientFactory factory;
+    private final ResourceSelector resourceSelector;
+
+    public RedisAsyncBatchExecutor(RedisAsyncClientFactory factory, ResourceSelector resourceSelector) {
+        this.factory = factory;
+        this.resourceSelector = resourceSelector;
+    }
+
+    /**
+     * mget
+     * @param keys keys
+     * @return 和keys顺序一致的value列表
+     */
+    public CompletableFuture<List<byte[]>> mget(byte[]... keys) {
+        Collection<Group> groups = group(keys, false);
+        byte[][] result = new byte[keys.length][];
+        return execute(groups, group -> {
+            byte[][] args = new byte[group.indexes.size() + 1][];
+            args[0] = MGET;
+            for (int i=0; i<group.indexes.size(); i++) {
+                args[i + 1] = keys[group.indexes.get(i)];
+            }
+            return args;
+        }, (group, reply) -> {
+            List<?> list = (List<?>) reply;
+            for (int i=0; i<group.indexes.size(); i++) {
+                result[group.indexes.get(i)] = (byte[]) list.get(i);
+            }
+        }).thenApply(v -> Arrays.asList(result));
+    }
+
+    /**
+     * mset
+     * @param keysvalues k1,v1,k2,v2...
+     * @return OK
+     */
+    public CompletableFuture<String> mset(byte[]... keysvalues) {
+        if (keysvalues.length % 2 != 0) {
+            throw new CamelliaRedisException("keysvalues not match");
+        }
+        byte[][] keys = new byte[keysvalues.length / 2][];
+        for (int i=0; i<keys.length; i++) {
+            keys[i] = keysvalues[i * 2];
+        }
+        Collection<Group> groups = group(keys, true);
+        return execute(groups, group -> {
+            byte[][] args = new byte[group.indexes.size() * 2 + 1][];
+            args[0] = MSET;
+            for (int i=0; i<group.indexes.size(); i++) {
+                int index = group.indexes.get(i);
+                args[i * 2 + 1] = keysvalues[index * 2];
+                args[i * 2 + 2] = keysvalues[index * 2 + 1];
+            }
+            return args;
+        }, (group, reply) -> {
+        }).thenApply(v -> "OK");
+    }
+
+    /**
+     * del
+     * @param keys keys
+     * @return 删除的key数量，双写时以第一个写地址为准
+     */
+    public CompletableFuture<Long> del(byte[]... keys) {
+        return count(DEL, true, keys);
+    }
+
+    /**
+     * exists
+     * @param keys keys
+     * @return 存在的key数量
+     */
+    public CompletableFuture<Long> exists(byte[]... keys) {
+        return count(EXISTS, false, keys);
+    }
+
+    /**
+     * 多个key的hmget，每个key一个hmget命令，按分片和slot分组后pipeline发送
+     * @param keys keys
+     * @param fields fields
+     * @return 和keys顺序一致，每个元素是对应key的hmget结果
+     */
+    public CompletableFuture<List<List<byte[]>>> hmget(byte[][] keys, byte[]... fields) {
+        Collection<Group> groups = group(keys, false);
+        List<CompletableFuture<Object>> futures = new ArrayList<>(keys.length);
+        for (int i=0; i<keys.length; i++) {
+            futures.add(null);
+        }
+        for (Group group : groups) {
+            for (int index : group.indexes) {
+                byte[][] args = new byte[fields.length + 2][];
+                args[0] = HMGET;
+                args[1] = keys[index];
+                System.arraycopy(fields, 0, args, 2, fields.length);
+                futures.set(index, group.client.sendCommand(keys[index], args));
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(v -> {
+            List<List<byte[]>> result = new ArrayList<>(keys.length);
+            for (CompletableFuture<Object> future : futures) {
+                List<?> list = (List<?>) future.join();
+                List<byte[]> values = new ArrayList<>(list.size());
+                for (Object value : list) {
+                    values.add((byte[]) value);
+                }
+                result.add(values);
+            }
+            return result;
+        });
+    }
+
+    private CompletableFuture<Long> count(byte[] command, boolean write, byte[]... keys) {
+        Collection<Group> groups = group(keys, write);
+        long[] count = new long[1];
+        return execute(groups, group -> {
+            byte[][] args = new byte[group.indexes.size() + 1][];
+            args[0] = command;
+            for (int i=0; i<group.indexes.size(); i++) {
+                args[i + 1] = keys[group.indexes.get(i)];
+            }
+            return args;
+        }, (group, reply) -> {
+            if (group.primary) {
+                synchronized (count) {
+                    count[0] += (Long) reply;
+                }
+            }
+        }).thenApply(v -> count[0]);
+    }
+
+    private CompletableFuture<Void> execute(Collection<Group> groups, CommandBuilder builder, ReplyMerger merger) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (groups.isEmpty()) {
+            future.complete(null);
+            return future;
+        }
+        AtomicInteger remaining = new AtomicInteger(groups.size());
+        for (Group group : groups) {
+            byte[][] args = builder.build(group);
+            group.client.sendCommand(args[1], args).whenComplete((reply, e) -> {
+                if (e != null) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+                try {
+                    merger.merge(group, reply);
+                } catch (Exception ex) {
+                    future.completeExceptionally(ex);
+                    return;
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    future.complete(null);
+                }
+            });
+        }
+        return future;
+    }
+
+    /**
+     * 按resource + slot分组，写命令在双写时会分到多个resource上，只有第一个写地址的分组为primary
+     */
+    private Collection<Group> group(byte[][] keys, boolean write) {
+        Map<Resource, Map<Integer, Group>> primaryMap = new HashMap<>();
+        Map<Resource, Map<Integer, Group>> secondaryMap = new HashMap<>();
+        List<Group> groups = new ArrayList<>();
+        for (int i=0; i<keys.length; i++) {
+            byte[] key = keys[i];
+            if (write) {
+                List<Resource> resources = resourceSelector.getWriteResources(key);
+                if (resources == null || resources.isEmpty()) {
+                    throw new CamelliaRedisException("write resources is empty");
+                }
+                for (int j=0; j<resources.size(); j++) {
+                    boolean primary = j == 0;
+                    group(primary ? primaryMap : secondaryMap, groups, resources.get(j), key, i, primary);
+                }
+            } else {
+                group(primaryMap, groups, resourceSelector.getReadResource(key), key, i, true);
+            }
+        }
+        return groups;
+    }
+
+    private void group(Map<Resource, Map<Integer, Group>> map, List<Group> groups, Resource resource, byte[] key, int index, boolean primary) {
+        RedisAsyncClient client = factory.get(resource);
+        Map<Integer, Group> subMap = map.computeIfAbsent(resource, k -> new HashMap<>());
+        int slot = client.slot(key);
+        Group group = subMap.get(slot);
+        if (group == null) {
+            group = new Group(client, primary);
+            subMap.put(slot, group);
+            groups.add(group);
+        }
+        group.indexes.add(index);
+    }
+
+    private static class Group {
+        private final RedisAsyncClient client;
+        private final boolean primary;
+        private final List<Integer> indexes = new ArrayList<>();
+
+        Group(RedisAsyncClient client, boolean primary) {
+            this.client = client;
+            this.primary = primary;
+        }
+    }
+
+    private interface CommandBuilder {
+        byte[][] build(Group group);
+    }
+
+    private interface ReplyMerger {
+        void merge(Group group, Object reply);
+    }
+}
@@ -0,0 +1,32 @@
+package com.netease.nim.camellia.redis.async;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步redis客户端，一个redis资源（redis、redis-cluster等）对应一个客户端
+ * Created by caojiajun on 2024/7/31
+ */
+public interface RedisAsyncClient {
+
+    /**
+     * 发送命令
+     * @param key 用于路由的key（redis-cluster下计算slot），没有key的命令可以为null
+     * @param args 命令和参数
+     * @return future，redis返回错误时以JedisDataException异常完成，连接异常时以JedisConnectionException异常完成
+     */
+    CompletableFuture<Object> sendCommand(byte[] key, byte[]... args);
+
+    /**
+     * key所属的分组，同一个分组的多个key可以合并到一个多key命令（如mget）中发送
+     * @param key key
+     * @return redis-cluster下为slot，其他情况为0
+     */
+    int slot(byte[] key);
+
+    /**
+     * 检查命令超时，由RedisAsyncClientFactory定时调用
+     */
+    void checkTimeout();
+
+    void close();
+}
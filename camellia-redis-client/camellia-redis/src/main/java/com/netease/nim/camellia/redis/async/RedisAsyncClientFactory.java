@@ -0,0 +1,115 @@
+package com.netease.nim.camellia.redis.async;
+
+import com.netease.nim.camellia.core.model.Resource;
+import com.netease.nim.camellia.redis.base.exception.CamelliaRedisException;
+import com.netease.nim.camellia.redis.base.resource.RedisClusterResource;
+import com.netease.nim.camellia.redis.base.resource.RedisResource;
+import com.netease.nim.camellia.redis.resource.RedisClientResourceUtil;
+import com.netease.nim.camellia.tools.executor.CamelliaThreadFactory;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步客户端工厂
+ * Created by caojiajun on 2024/7/31
+ */
+public interface RedisAsyncClientFactory {
+
+    /**
+     * 获取RedisAsyncClient对象
+     * @param resource 资源定义，当前支持redis://和redis-cluster://
+     * @return RedisAsyncClient对象
+     */
+    RedisAsyncClient get(Resource resource);
+
+    /**
+     * 是否支持该资源
+     * @param resource 资源定义
+     * @return 是否支持
+     */
+    boolean isSupport(Resource resource);
+
+    /**
+     * 一个默认实现
+     */
+    RedisAsyncClientFactory DEFAULT = new DefaultRedisAsyncClientFactory();
+
+    /**
+     * 一个默认实现，io线程和超时检查线程在第一次使用时才创建
+     */
+    class DefaultRedisAsyncClientFactory implements RedisAsyncClientFactory {
+
+        private static final Logger logger = LoggerFactory.getLogger(DefaultRedisAsyncClientFactory.class);
+
+        private final RedisAsyncConfig config;
+        private final ConcurrentHashMap<String, RedisAsyncClient> map = new ConcurrentHashMap<>();
+        private EventLoopGroup eventLoopGroup;
+
+        public DefaultRedisAsyncClientFactory() {
+            this(new RedisAsyncConfig.Builder().build());
+        }
+
+        public DefaultRedisAsyncClientFactory(RedisAsyncConfig config) {
+            this.config = config;
+        }
+
+        @Override
+        public RedisAsyncClient get(Resource resource) {
+            RedisAsyncClient client = map.get(resource.getUrl());
+            if (client != null) {
+                return client;
+            }
+            synchronized (map) {
+                client = map.get(resource.getUrl());
+                if (client != null) {
+                    return client;
+                }
+                Resource redisResource = RedisClientResourceUtil.parseResourceByUrl(resource);
+                if (redisResource instanceof RedisResource) {
+                    client = new RedisAsyncStandaloneClient(eventLoopGroup(), (RedisResource) redisResource, config);
+                } else if (redisResource instanceof RedisClusterResource) {
+                    client = new RedisAsyncClusterClient(eventLoopGroup(), (RedisClusterResource) redisResource, config);
+                } else {
+                    throw new CamelliaRedisException("resource = " + resource.getUrl() + " not support async");
+                }
+                map.put(resource.getUrl(), client);
+                logger.info("redis async client init success, resource = {}", resource.getUrl());
+                return client;
+            }
+        }
+
+        @Override
+        public boolean isSupport(Resource resource) {
+            try {
+                Resource redisResource = RedisClientResourceUtil.parseResourceByUrl(resource);
+                return redisResource instanceof RedisResource || redisResource instanceof RedisClusterResource;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        private EventLoopGroup eventLoopGroup() {
+            if (eventLoopGroup == null) {
+                eventLoopGroup = new NioEventLoopGroup(config.getEventLoopThreads(), new CamelliaThreadFactory("camellia-redis-async", true));
+                ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new CamelliaThreadFactory("camellia-redis-async-timeout", true));
+                scheduler.scheduleAtFixedRate(() -> {
+                    for (RedisAsyncClient client : map.values()) {
+                        try {
+                            client.checkTimeout();
+                        } catch (Exception e) {
+                            logger.error("redis async client check timeout error", e);
+                        }
+                    }
+                }, 100, 100, TimeUnit.MILLISECONDS);
+            }
+            return eventLoopGroup;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.netease.nim.camellia.redis.async;
+
+import com.netease.nim.camellia.redis.base.resource.RedisClusterResource;
+import io.netty.channel.EventLoopGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.exceptions.JedisClusterException;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.JedisClusterCRC16;
+import redis.clients.util.SafeEncoder;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * redis-cluster://
+ * <p>
+ * 根据CLUSTER SLOTS维护slot到节点的映射，收到MOVED时更新对应slot并异步刷新整个映射，收到ASK时发送ASKING + command到目标节点
+ * Created by caojiajun on 2024/7/31
+ */
+public class RedisAsyncClusterClient implements RedisAsyncClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisAsyncClusterClient.class);
+
+    private static final int SLOT_SIZE = 16384;
+    private static final long RENEW_INTERVAL_MILLIS = 200;
+    private static final byte[][] CLUSTER_SLOTS = new byte[][]{SafeEncoder.encode("cluster"), SafeEncoder.encode("slots")};
+    private static final byte[][] ASKING = new byte[][]{SafeEncoder.encode("asking")};
+
+    private final EventLoopGroup eventLoopGroup;
+    private final RedisClusterResource resource;
+    private final RedisAsyncConfig config;
+    private final ConcurrentHashMap<String, RedisAsyncConnectionPool> nodes = new ConcurrentHashMap<>();
+    private volatile RedisAsyncConnectionPool[] slots = new RedisAsyncConnectionPool[SLOT_SIZE];
+    private CompletableFuture<Void> renewFuture;
+    private long lastRenewTime;
+
+    public RedisAsyncClusterClient(EventLoopGroup eventLoopGroup, RedisClusterResource resource, RedisAsyncConfig config) {
+        this.eventLoopGroup = eventLoopGroup;
+        this.resource = resource;
+        this.config = config;
+        renew();
+    }
+
+    @Override
+    public CompletableFuture<Object> sendCommand(byte[] key, byte[]... args) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        RedisAsyncConnectionPool pool = route(key);
+        if (pool != null) {
+            send(pool, false, key, args, future, 1);
+            return future;
+        }
+        //slot映射还没有初始化
+        renew().whenComplete((v, e) -> {
+            RedisAsyncConnectionPool target = route(key);
+            if (target == null) {
+                future.completeExceptionally(new JedisClusterException("no reachable node in cluster, url = " + resource.getUrl()));
+                return;
+            }
+            send(target, false, key, args, future, 1);
+        });
+        return future;
+    }
+
+    @Override
+    public int slot(byte[] key) {
+        return JedisClusterCRC16.getSlot(key);
+    }
+
+    private RedisAsyncConnectionPool route(byte[] key) {
+        if (key != null) {
+            return slots[JedisClusterCRC16.getSlot(key)];
+        }
+        List<RedisAsyncConnectionPool> list = new ArrayList<>(nodes.values());
+        if (list.isEmpty()) {
+            return null;
+        }
+        return list.get(ThreadLocalRandom.current().nextInt(list.size()));
+    }
+
+    private void send(RedisAsyncConnectionPool pool, boolean asking, byte[] key, byte[][] args, CompletableFuture<Object> future, int attempts) {
+        CompletableFuture<Object> raw = new CompletableFuture<>();
+        raw.whenComplete((reply, e) -> {
+            if (e != null) {
+                if (e instanceof JedisConnectionException) {
+                    renew();
+                }
+                future.completeExceptionally(e);
+                return;
+            }
+            if (!(reply instanceof RedisAsyncError)) {
+                future.complete(reply);
+                return;
+            }
+            String error = ((RedisAsyncError) reply).getError();
+            if (attempts < config.getMaxAttempts()) {
+                if (error.startsWith("MOVED ")) {
+                    String[] split = error.split(" ");
+                    RedisAsyncConnectionPool target = node(split[2]);
+                    RedisAsyncConnectionPool[] slots = this.slots;
+                    slots[Integer.parseInt(split[1])] = target;
+                    renew();
+                    send(target, false, key, args, future, attempts + 1);
+                    return;
+                }
+                if (error.startsWith("ASK ")) {
+                    String[] split = error.split(" ");
+                    send(node(split[2]), true, key, args, future, attempts + 1);
+                    return;
+                }
+            }
+            future.completeExceptionally(new JedisDataException(error));
+        });
+        if (asking) {
+            pool.sendCommands(Arrays.asList(ASKING, args), Arrays.asList(new CompletableFuture<>(), raw));
+        } else {
+            pool.sendCommands(Collections.singletonList(args), Collections.singletonList(raw));
+        }
+    }
+
+    private RedisAsyncConnectionPool node(String addr) {
+        RedisAsyncConnectionPool pool = nodes.get(addr);
+        if (pool != null) {
+            return pool;
+        }
+        return nodes.computeIfAbsent(addr, k -> {
+            int index = addr.lastIndexOf(":");
+            String host = addr.substring(0, index);
+            int port = Integer.parseInt(addr.substring(index + 1));
+            return new RedisAsyncConnectionPool(eventLoopGroup, host, port, resource.getUserName(), resource.getPassword(), 0, config);
+        });
+    }
+
+    /**
+     * 刷新slot映射，同一时间只有一个刷新任务，且两次刷新之间有最小间隔
+     * @return future
+     */
+    private CompletableFuture<Void> renew() {
+        CompletableFuture<Void> future;
+        synchronized (this) {
+            future = this.renewFuture;
+            if (future != null && (!future.isDone() || System.currentTimeMillis() - lastRenewTime < RENEW_INTERVAL_MILLIS)) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            this.renewFuture = future;
+            this.lastRenewTime = System.currentTimeMillis();
+        }
+        Set<String> seeds = new LinkedHashSet<>(nodes.keySet());
+        for (RedisClusterResource.Node node : resource.getNodes()) {
+            seeds.add(node.getHost() + ":" + node.getPort());
+        }
+        List<String> list = new ArrayList<>(seeds);
+        Collections.shuffle(list);
+        renew(list, 0, future);
+        return future;
+    }
+
+    private void renew(List<String> seeds, int index, CompletableFuture<Void> future) {
+        if (index >= seeds.size()) {
+            logger.warn("redis async cluster renew fail, url = {}", resource.getUrl());
+            future.completeExceptionally(new JedisClusterException("cluster slots renew fail, url = " + resource.getUrl()));
+            return;
+        }
+        String seed = seeds.get(index);
+        CompletableFuture<Object> raw = new CompletableFuture<>();
+        raw.whenComplete((reply, e) -> {
+            if (e != null || !(reply instanceof List)) {
+                logger.warn("redis async cluster slots fail, url = {}, node = {}, reply = {}", resource.getUrl(), seed, reply, e);
+                renew(seeds, index + 1, future);
+                return;
+            }
+            try {
+                String seedHost = seed.substring(0, seed.lastIndexOf(":"));
+                RedisAsyncConnectionPool[] newSlots = new RedisAsyncConnectionPool[SLOT_SIZE];
+                for (Object item : (List<?>) reply) {
+                    List<?> slotInfo = (List<?>) item;
+                    int start = ((Long) slotInfo.get(0)).intValue();
+                    int end = ((Long) slotInfo.get(1)).intValue();
+                    List<?> master = (List<?>) slotInfo.get(2);
+                    String host = SafeEncoder.encode((byte[]) master.get(0));
+                    if (host.isEmpty()) {
+                        host = seedHost;
+                    }
+                    RedisAsyncConnectionPool pool = node(host + ":" + master.get(1));
+                    for (int i=start; i<=end; i++) {
+                        newSlots[i] = pool;
+                    }
+                }
+                this.slots = newSlots;
+                future.complete(null);
+            } catch (Exception ex) {
+                logger.warn("redis async cluster slots parse fail, url = {}, node = {}", resource.getUrl(), seed, ex);
+                renew(seeds, index + 1, future);
+            }
+        });
+        node(seed).sendCommands(Collections.singletonList(CLUSTER_SLOTS), Collections.singletonList(raw));
+    }
+
+    @Override
+    public void checkTimeout() {
+        for (RedisAsyncConnectionPool pool : nodes.values()) {
+            pool.checkTimeout();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (RedisAsyncConnectionPool pool : nodes.values()) {
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.netease.nim.camellia.redis.async;
+
+import com.netease.nim.camellia.redis.conf.CamelliaRedisConstants;
+
+/**
+ * 异步客户端的配置
+ * Created by caojiajun on 2024/7/31
+ */
+public class RedisAsyncConfig {
+
+    //io线程数
+    private int eventLoopThreads = CamelliaRedisConstants.Async.eventLoopThreads;
+    //每个redis节点的连接数
+    private int connectionsPerNode = CamelliaRedisConstants.Async.connectionsPerNode;
+    private int connectTimeoutMillis = CamelliaRedisConstants.Async.connectTimeoutMillis;
+    //命令超时，超时后关闭连接，连接上所有未返回的命令都会失败
+    private int commandTimeoutMillis = CamelliaRedisConstants.Async.commandTimeoutMillis;
+    //redis cluster的MOVED/ASK重定向的最大次数
+    private int maxAttempts = CamelliaRedisConstants.Async.maxAttempts;
+    //每个连接上未返回的命令数上限，超过后新的命令直接失败
+    private int maxPendingCommands = CamelliaRedisConstants.Async.maxPendingCommands;
+
+    public int getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    public int getConnectionsPerNode() {
+        return connectionsPerNode;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public int getCommandTimeoutMillis() {
+        return commandTimeoutMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public int getMaxPendingCommands() {
+        return maxPendingCommands;
+    }
+
+    public static class Builder {
+        private final RedisAsyncConfig config = new RedisAsyncConfig();
+
+        public Builder eventLoopThreads(int eventLoopThreads) {
+            if (eventLoopThreads > 0) {
+                config.eventLoopThreads = eventLoopThreads;
+            }
+            return this;
+        }
+
+        public Builder connectionsPerNode(int connectionsPerNode) {
+            if (connectionsPerNode > 0) {
+                config.connectionsPerNode = connectionsPerNode;
+            }
+            return this;
+        }
+
+        public Builder connectTimeoutMillis(int connectTimeoutMillis) {
+            if (connectTimeoutMillis > 0) {
+                config.connectTimeoutMillis = connectTimeoutMillis;
+            }
+            return this;
+        }
+
+        public Builder commandTimeoutMillis(int commandTimeoutMillis) {
+            if (commandTimeoutMillis > 0) {
+                config.commandTimeoutMillis = commandTimeoutMillis;
+            }
+            return this;
+        }
+
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts > 0) {
+                config.maxAttempts = maxAttempts;
+            }
+            return this;
+        }
+
+        public Builder maxPendingCommands(int maxPendingCommands) {
+            if (maxPendingCommands > 0) {
+                config.maxPendingCommands = maxPendingCommands;
+            }
+            return this;
+        }
+
+        public RedisAsyncConfig build() {
+            return config;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.netease.nim.camellia.redis.async;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.*;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.SafeEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于netty的redis连接，支持pipeline，多个线程可以同时在一个连接上发送命令，回包按发送顺序依次完成对应的future
+ * <p>
+ * 写请求先放入队列，再由io线程批量写出并flush，从而合并系统调用
+ * <p>
+ * 背压：连接不可写（netty的写缓冲超过高水位）时暂停写出，恢复可写后继续，未返回的命令数超过maxPendingCommands时新的命令直接失败
+ * Created by caojiajun on 2024/7/31
+ */
+public class RedisAsyncConnection {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisAsyncConnection.class);
+
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.UTF_8);
+
+    private final String addr;
+    private final Channel channel;
+    private final Queue<Pending> pendingQueue = new ConcurrentLinkedQueue<>();
+    private final Queue<ByteBuf> writeQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final int maxPendingCommands;
+    private volatile boolean valid = true;
+
+    private RedisAsyncConnection(String addr, Channel channel, int maxPendingCommands) {
+        this.addr = addr;
+        this.channel = channel;
+        this.maxPendingCommands = maxPendingCommands;
+    }
+
+    /**
+     * 异步建立连接，连接建立并完成auth/select之后future完成，不会阻塞调用线程（可能是io线程）
+     */
+    public static CompletableFuture<RedisAsyncConnection> connect(EventLoopGroup eventLoopGroup, String host, int port, String userName,
+                                                                  String password, int db, int connectTimeoutMillis, int maxPendingCommands) {
+        String addr = host + ":" + port;
+        CompletableFuture<RedisAsyncConnection> result = new CompletableFuture<>();
+        RedisAsyncConnection[] holder = new RedisAsyncConnection[1];
+        Bootstrap bootstrap = new Bootstrap()
+                .group(eventLoopGroup)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(new RedisAsyncReplyDecoder());
+                        ch.pipeline().addLast(new ReplyHandler(holder));
+                    }
+                });
+        bootstrap.connect(host, port).addListener((ChannelFutureListener) channelFuture -> {
+            if (!channelFuture.isSuccess()) {
+                result.completeExceptionally(new JedisConnectionException("connect to " + addr + " fail", channelFuture.cause()));
+                return;
+            }
+            RedisAsyncConnection connection = new RedisAsyncConnection(addr, channelFuture.channel(), maxPendingCommands);
+            holder[0] = connection;
+            List<byte[][]> initCommands = new ArrayList<>(2);
+            if (password != null) {
+                if (userName != null) {
+                    initCommands.add(new byte[][]{SafeEncoder.encode("auth"), SafeEncoder.encode(userName), SafeEncoder.encode(password)});
+                } else {
+                    initCommands.add(new byte[][]{SafeEncoder.encode("auth"), SafeEncoder.encode(password)});
+                }
+            }
+            if (db > 0) {
+                initCommands.add(new byte[][]{SafeEncoder.encode("select"), SafeEncoder.encode(String.valueOf(db))});
+            }
+            if (initCommands.isEmpty()) {
+                logger.info("redis async connection connect success, addr = {}", addr);
+                result.complete(connection);
+                return;
+            }
+            List<CompletableFuture<Object>> futures = new ArrayList<>(initCommands.size());
+            for (int i=0; i<initCommands.size(); i++) {
+                futures.add(new CompletableFuture<>());
+            }
+            connection.sendCommands(initCommands, futures);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).whenComplete((v, e) -> {
+                if (e != null) {
+                    connection.close();
+                    result.completeExceptionally(new JedisConnectionException("redis async connection " + addr + " init fail", e));
+                    return;
+                }
+                for (CompletableFuture<Object> future : futures) {
+                    Object reply = future.join();
+                    if (reply instanceof RedisAsyncError) {
+                        connection.close();
+                        result.completeExceptionally(new JedisDataException(((RedisAsyncError) reply).getError()));
+                        return;
+                    }
+                }
+                logger.info("redis async connection connect success, addr = {}", addr);
+                result.complete(connection);
+            });
+        });
+        return result;
+    }
+
+    public String getAddr() {
+        return addr;
+    }
+
+    public boolean isValid() {
+        return valid && channel.isActive();
+    }
+
+    /**
+     * 发送一个命令
+     * @param args command and args
+     * @param future complete with raw reply
+     */
+    public void sendCommand(byte[][] args, CompletableFuture<Object> future) {
+        sendCommands(Collections.singletonList(args), Collections.singletonList(future));
+    }
+
+    /**
+     * 发送多个命令，这些命令在连接上是连续的（如ASKING + command）
+     * @param commands commands
+     * @param futures futures
+     */
+    public void sendCommands(List<byte[][]> commands, List<CompletableFuture<Object>> futures) {
+        if (!isValid()) {
+            for (CompletableFuture<Object> future : futures) {
+                future.completeExceptionally(new JedisConnectionException("redis async connection " + addr + " not valid"));
+            }
+            return;
+        }
+        if (pendingCount.addAndGet(commands.size()) > maxPendingCommands) {
+            pendingCount.addAndGet(-commands.size());
+            for (CompletableFuture<Object> future : futures) {
+                future.completeExceptionally(new JedisConnectionException("redis async connection " + addr + " pending commands exceed " + maxPendingCommands));
+            }
+            return;
+        }
+        ByteBufAllocator alloc = channel.alloc();
+        List<ByteBuf> bufs = new ArrayList<>(commands.size());
+        for (byte[][] args : commands) {
+            bufs.add(encode(alloc, args));
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            for (int i=0; i<commands.size(); i++) {
+                pendingQueue.offer(new Pending(futures.get(i), now));
+                writeQueue.offer(bufs.get(i));
+            }
+        }
+        if (!valid) {
+            //连接在入队期间被关闭了
+            failAll();
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            channel.eventLoop().execute(this::flush);
+        }
+    }
+
+    /**
+     * 队头的命令超时之后关闭连接，所有未返回的命令都会失败
+     * @param timeoutMillis timeout
+     */
+    public void checkTimeout(long timeoutMillis) {
+        Pending pending = pendingQueue.peek();
+        if (pending != null && System.nanoTime() - pending.sendTime > TimeUnit.MILLISECONDS.toNanos(timeoutMillis)) {
+            logger.warn("redis async connection command timeout, will close, addr = {}, pending = {}", addr, pendingQueue.size());
+            close();
+        }
+    }
+
+    public void close() {
+        valid = false;
+        channel.close();
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        ByteBuf buf;
+        boolean write = false;
+        //不可写时剩余的命令留在队列中，等channelWritabilityChanged之后再写出
+        while (channel.isWritable() && (buf = writeQueue.poll()) != null) {
+            channel.write(buf, channel.voidPromise());
+            write = true;
+        }
+        if (write) {
+            channel.flush();
+        }
+    }
+
+    private void onWritable() {
+        if (!writeQueue.isEmpty() && flushScheduled.compareAndSet(false, true)) {
+            flush();
+        }
+    }
+
+    private void onReply(Object reply) {
+        Pending pending = pendingQueue.poll();
+        if (pending == null) {
+            logger.warn("redis async connection receive reply without pending command, will close, addr = {}", addr);
+            close();
+            return;
+        }
+        pendingCount.decrementAndGet();
+        pending.future.complete(reply == RedisAsyncReplyDecoder.NULL ? null : reply);
+    }
+
+    private void onClose() {
+        valid = false;
+        failAll();
+        logger.info("redis async connection closed, addr = {}", addr);
+    }
+
+    private void failAll() {
+        ByteBuf buf;
+        while ((buf = writeQueue.poll()) != null) {
+            buf.release();
+        }
+        Pending pending;
+        while ((pending = pendingQueue.poll()) != null) {
+            pendingCount.decrementAndGet();
+            pending.future.completeExceptionally(new JedisConnectionException("redis async connection " + addr + " closed"));
+        }
+    }
+
+    private static ByteBuf encode(ByteBufAllocator alloc, byte[][] args) {
+        int size = 16;
+        for (byte[] arg : args) {
+            size += arg.length + 16;
+        }
+        ByteBuf buf = alloc.buffer(size);
+        buf.writeByte('*');
+        writeNumber(buf, args.length);
+        for (byte[] arg : args) {
+            buf.writeByte('$');
+            writeNumber(buf, arg.length);
+            buf.writeBytes(arg);
+            buf.writeBytes(CRLF);
+        }
+        return buf;
+    }
+
+    private static void writeNumber(ByteBuf buf, int number) {
+        buf.writeCharSequence(String.valueOf(number), StandardCharsets.US_ASCII);
+        buf.writeBytes(CRLF);
+    }
+
+    private static class Pending {
+        private final CompletableFuture<Object> future;
+        private final long sendTime;
+
+        Pending(CompletableFuture<Object> future, long sendTime) {
+            this.future = future;
+            this.sendTime = sendTime;
+        }
+    }
+
+    private static class ReplyHandler extends ChannelInboundHandlerAdapter {
+        private final RedisAsyncConnection[] holder;
+
+        ReplyHandler(RedisAsyncConnection[] holder) {
+            this.holder = holder;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            RedisAsyncConnection connection = holder[0];
+            if (connection != null) {
+                connection.onReply(msg);
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            RedisAsyncConnection connection = holder[0];
+            if (connection != null) {
+                connection.onClose();
+            }
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+            RedisAsyncConnection connection = holder[0];
+            if (connection != null && ctx.channel().isWritable()) {
+                connection.onWritable();
+            }
+            super.channelWritabilityChanged(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            logger.error("redis async connection error, addr = {}", ctx.channel().remoteAddress(), cause);
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.netease.nim.camellia.redis.async;
+
+import io.netty.channel.EventLoopGroup;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一个redis节点的少量长连接，轮询使用，连接断开后在下次使用时异步重建
+ * Created by caojiajun on 2024/7/31
+ */
+public class RedisAsyncConnectionPool {
+
+    //建连失败后的冷却时间，期间直接返回上一次的失败，避免每个请求都去建连
+    private static final long RECONNECT_INTERVAL_MILLIS = 1000;
+
+    private final EventLoopGroup eventLoopGroup;
+    private final String host;
+    private final int port;
+    private final String userName;
+    private final String password;
+    private final int db;
+    private final RedisAsyncConfig config;
+    private final CompletableFuture<RedisAsyncConnection>[] connections;
+    private final long[] connectTime;
+    private final AtomicInteger index = new AtomicInteger();
+
+    @SuppressWarnings("unchecked")
+    public RedisAsyncConnectionPool(EventLoopGroup eventLoopGroup, String host, int port, String userName, String password,
+                                    int db, RedisAsyncConfig config) {
+        this.eventLoopGroup = eventLoopGroup;
+        this.host = host;
+        this.port = port;
+        this.userName = userName;
+        this.password = password;
+        this.db = db;
+        this.config = config;
+        int size = Math.max(1, config.getConnectionsPerNode());
+        this.connections = new CompletableFuture[size];
+        this.connectTime = new long[size];
+    }
+
+    public String getAddr() {
+        return host + ":" + port;
+    }
+
+    /**
+     * 发送命令，连接不可用时会先异步建连
+     * @param commands commands
+     * @param futures complete with raw reply
+     */
+    public void sendCommands(List<byte[][]> commands, List<CompletableFuture<Object>> futures) {
+        CompletableFuture<RedisAsyncConnection> future = get();
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            future.join().sendCommands(commands, futures);
+            return;
+        }
+        future.whenComplete((connection, e) -> {
+            if (e != null) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                for (CompletableFuture<Object> f : futures) {
+                    f.completeExceptionally(cause);
+                }
+                return;
+            }
+            connection.sendCommands(commands, futures);
+        });
+    }
+
+    private CompletableFuture<RedisAsyncConnection> get() {
+        int i = (index.getAndIncrement() & Integer.MAX_VALUE) % connections.length;
+        CompletableFuture<RedisAsyncConnection> future = connections[i];
+        if (available(future)) {
+            return future;
+        }
+        synchronized (connections) {
+            future = connections[i];
+            if (available(future)) {
+                return future;
+            }
+            if (future != null && future.isCompletedExceptionally()
+                    && System.currentTimeMillis() - connectTime[i] < RECONNECT_INTERVAL_MILLIS) {
+                return future;
+            }
+            connectTime[i] = System.currentTimeMillis();
+            future = RedisAsyncConnection.connect(eventLoopGroup, host, port, userName, password, db,
+                    config.getConnectTimeoutMillis(), config.getMaxPendingCommands());
+            connections[i] = future;
+            return future;
+        }
+    }
+
+    private boolean available(CompletableFuture<RedisAsyncConnection> future) {
+        if (future == null) return false;
+        if (!future.isDone()) return true;//connecting
+        return !future.isCompletedExceptionally() && future.join().isValid();
+    }
+
+    public void checkTimeout() {
+        for (CompletableFuture<RedisAsyncConnection> future : connections) {
+            if (future != null && future.isDone() && !future.isCompletedExceptionally()) {
+                future.join().checkTimeout(config.getCommandTimeoutMillis());
+            }
+        }
+    }
+
+    public void close() {
+        for (CompletableFuture<RedisAsyncConnection> future : connections) {
+            if (future != null) {
+                future.thenAccept(RedisAsyncConnection::close);
+            }
+        }
+    }
+}
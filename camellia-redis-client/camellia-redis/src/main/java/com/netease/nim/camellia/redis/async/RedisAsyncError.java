@@ -0,0 +1,23 @@
+package com.netease.nim.camellia.redis.async;
+
+/**
+ * redis返回的错误，如-ERR/-MOVED/-ASK
+ * Created by caojiajun on 2024/7/31
+ */
+public class RedisAsyncError {
+
+    private final String error;
+
+    public RedisAsyncError(String error) {
+        this.error = error;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return error;
+    }
+}
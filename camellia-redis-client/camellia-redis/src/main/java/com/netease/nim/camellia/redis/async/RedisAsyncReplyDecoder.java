@@ -0,0 +1,137 @@
+package com.netease.nim.camellia.redis.async;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RESP2协议的回包解析，返回值和jedis保持一致：
+ * status/bulk返回byte[]，integer返回Long，array返回List，error返回RedisAsyncError，nil返回NULL
+ * <p>
+ * 解析状态（未完成的array、bulk的长度）在多次decode之间保留，半包时不会从头重新解析
+ * Created by caojiajun on 2024/7/31
+ */
+public class RedisAsyncReplyDecoder extends ByteToMessageDecoder {
+
+    public static final Object NULL = new Object();
+    private static final Object INCOMPLETE = new Object();
+    private static final Object ARRAY_START = new Object();
+
+    private final ArrayDeque<ArrayFrame> stack = new ArrayDeque<>();
+    private int bulkSize = Integer.MIN_VALUE;
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        while (true) {
+            Object reply = read(in);
+            if (reply == INCOMPLETE) {
+                //半包，已经解析的部分保存在stack和bulkSize中
+                return;
+            }
+            if (reply == ARRAY_START) {
+                continue;
+            }
+            while (true) {
+                ArrayFrame frame = stack.peekLast();
+                if (frame == null) {
+                    out.add(reply);
+                    break;
+                }
+                frame.list.add(reply == NULL ? null : reply);
+                if (frame.list.size() < frame.size) {
+                    break;
+                }
+                stack.pollLast();
+                reply = frame.list;
+            }
+        }
+    }
+
+    private Object read(ByteBuf in) {
+        if (bulkSize != Integer.MIN_VALUE) {
+            return readBulk(in);
+        }
+        if (!in.isReadable()) {
+            return INCOMPLETE;
+        }
+        byte type = in.getByte(in.readerIndex());
+        if (type != '+' && type != '-' && type != ':' && type != '$' && type != '*') {
+            throw new JedisConnectionException("Unknown reply: " + (char) type);
+        }
+        int index = in.indexOf(in.readerIndex(), in.writerIndex(), (byte) '\n');
+        if (index < 0) {
+            return INCOMPLETE;
+        }
+        in.skipBytes(1);
+        byte[] line = readLine(in, index);
+        switch (type) {
+            case '+':
+                return line;
+            case '-':
+                return new RedisAsyncError(new String(line, StandardCharsets.UTF_8));
+            case ':':
+                return parseLong(line);
+            case '$': {
+                int len = (int) parseLong(line);
+                if (len < 0) return NULL;
+                bulkSize = len;
+                return readBulk(in);
+            }
+            default: {
+                int size = (int) parseLong(line);
+                if (size < 0) return NULL;
+                if (size == 0) return new ArrayList<>(0);
+                stack.addLast(new ArrayFrame(size));
+                return ARRAY_START;
+            }
+        }
+    }
+
+    private Object readBulk(ByteBuf in) {
+        if (in.readableBytes() < bulkSize + 2) {
+            return INCOMPLETE;
+        }
+        byte[] data = new byte[bulkSize];
+        in.readBytes(data);
+        in.skipBytes(2);
+        bulkSize = Integer.MIN_VALUE;
+        return data;
+    }
+
+    private static byte[] readLine(ByteBuf in, int lfIndex) {
+        byte[] line = new byte[lfIndex - in.readerIndex() - 1];
+        in.readBytes(line);
+        in.skipBytes(2);
+        return line;
+    }
+
+    private static class ArrayFrame {
+        private final int size;
+        private final List<Object> list;
+
+        ArrayFrame(int size) {
+            this.size = size;
+            this.list = new ArrayList<>(Math.min(size, 1024));
+        }
+    }
+
+    private static long parseLong(byte[] line) {
+        long value = 0;
+        boolean negative = false;
+        for (int i=0; i<line.length; i++) {
+            byte b = line[i];
+            if (i == 0 && b == '-') {
+                negative = true;
+                continue;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+}
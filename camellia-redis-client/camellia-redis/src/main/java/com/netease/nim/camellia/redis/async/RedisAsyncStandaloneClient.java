@@ -0,0 +1,54 @@
+package com.netease.nim.camellia.redis.async;
+
+import com.netease.nim.camellia.redis.base.resource.RedisResource;
+import io.netty.channel.EventLoopGroup;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * redis://
+ * Created by caojiajun on 2024/7/31
+ */
+public class RedisAsyncStandaloneClient implements RedisAsyncClient {
+
+    private final RedisAsyncConnectionPool pool;
+
+    public RedisAsyncStandaloneClient(EventLoopGroup eventLoopGroup, RedisResource resource, RedisAsyncConfig config) {
+        this.pool = new RedisAsyncConnectionPool(eventLoopGroup, resource.getHost(), resource.getPort(),
+                resource.getUserName(), resource.getPassword(), resource.getDb(), config);
+    }
+
+    @Override
+    public CompletableFuture<Object> sendCommand(byte[] key, byte[]... args) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> raw = new CompletableFuture<>();
+        raw.whenComplete((reply, e) -> {
+            if (e != null) {
+                future.completeExceptionally(e);
+            } else if (reply instanceof RedisAsyncError) {
+                future.completeExceptionally(new JedisDataException(((RedisAsyncError) reply).getError()));
+            } else {
+                future.complete(reply);
+            }
+        });
+        pool.sendCommands(Collections.singletonList(args), Collections.singletonList(raw));
+        return future;
+    }
+
+    @Override
+    public int slot(byte[] key) {
+        return 0;
+    }
+
+    @Override
+    public void checkTimeout() {
+        pool.checkTimeout();
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+}
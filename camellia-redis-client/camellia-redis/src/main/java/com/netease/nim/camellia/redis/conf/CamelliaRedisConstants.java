@@ -32,5 +32,15 @@ public class CamelliaRedisConstants {
         public static final int pipelinePoolSize = SysUtils.getCpuNum() * 32;
         public static final int pipelineMaxAttempts = 5;
         public static final boolean pipelineConcurrentEnable = true;
+        public static final boolean asyncBatchEnable = false;
+    }
+
+    public static class Async {
+        public static final int eventLoopThreads = SysUtils.getCpuNum();
+        public static final int connectionsPerNode = 2;
+        public static final int connectTimeoutMillis = 2000;
+        public static final int commandTimeoutMillis = 2000;
+        public static final int maxAttempts = 5;
+        public static final int maxPendingCommands = 100000;
     }
 }
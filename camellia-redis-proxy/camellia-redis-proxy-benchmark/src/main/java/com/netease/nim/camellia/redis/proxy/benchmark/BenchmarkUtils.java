@@ -0,0 +1,49 @@
+package com.netease.nim.camellia.redis.proxy.benchmark;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Created by caojiajun on 2024/7/10
+ */
+public class BenchmarkUtils {
+
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 按RESP协议写一个命令
+     * @param buf buf
+     * @param args args
+     */
+    public static void writeCommand(ByteBuf buf, byte[]... args) {
+        buf.writeByte('*');
+        buf.writeBytes(String.valueOf(args.length).getBytes(StandardCharsets.UTF_8));
+        buf.writeBytes(CRLF);
+        for (byte[] arg : args) {
+            writeBulk(buf, arg);
+        }
+    }
+
+    public static void writeBulk(ByteBuf buf, byte[] arg) {
+        buf.writeByte('$');
+        buf.writeBytes(String.valueOf(arg.length).getBytes(StandardCharsets.UTF_8));
+        buf.writeBytes(CRLF);
+        buf.writeBytes(arg);
+        buf.writeBytes(CRLF);
+    }
+
+    public static void writeMultiBulkHeader(ByteBuf buf, int size) {
+        buf.writeByte('*');
+        buf.writeBytes(String.valueOf(size).getBytes(StandardCharsets.UTF_8));
+        buf.writeBytes(CRLF);
+    }
+
+    public static byte[][] args(String... args) {
+        byte[][] bytes = new byte[args.length][];
+        for (int i=0; i<args.length; i++) {
+            bytes[i] = args[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+}
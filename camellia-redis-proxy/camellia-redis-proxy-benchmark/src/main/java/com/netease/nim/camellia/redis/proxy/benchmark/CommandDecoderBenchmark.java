@@ -0,0 +1,66 @@
+package com.netease.nim.camellia.redis.proxy.benchmark;
+
+import com.netease.nim.camellia.redis.proxy.command.Command;
+import com.netease.nim.camellia.redis.proxy.netty.CommandDecoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 客户端请求解码，一次读事件里包含pipeline个SET命令
+ * Created by caojiajun on 2024/7/10
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandDecoderBenchmark {
+
+    @Param({"1", "16"})
+    private int pipeline;
+
+    @Param({"16", "4096"})
+    private int valueSize;
+
+    @Param({"-1", "1024"})
+    private int zeroCopyThreshold;
+
+    private EmbeddedChannel channel;
+    private ByteBuf input;
+
+    @Setup
+    public void setup() {
+        channel = new EmbeddedChannel(new CommandDecoder(256, 32, zeroCopyThreshold));
+        input = PooledByteBufAllocator.DEFAULT.directBuffer();
+        byte[] value = new byte[valueSize];
+        for (int i=0; i<pipeline; i++) {
+            BenchmarkUtils.writeCommand(input, "SET".getBytes(StandardCharsets.UTF_8), ("key" + i).getBytes(StandardCharsets.UTF_8), value);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+        input.release();
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        channel.writeInbound(input.retainedDuplicate());
+        List<Command> commands;
+        while ((commands = channel.readInbound()) != null) {
+            for (Command command : commands) {
+                blackhole.consume(command.getRedisCommand());
+                command.releaseZeroCopyObjects();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.netease.nim.camellia.redis.proxy.benchmark;
+
+import com.netease.nim.camellia.redis.proxy.util.HeavyHitterCounter;
+import com.netease.nim.camellia.redis.proxy.util.LRUCounter;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 热key统计使用的HeavyHitterCounter，请求分布同LRUCounterBenchmark
+ * Created by caojiajun on 2024/7/27
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class HeavyHitterCounterBenchmark {
+
+    private static final int KEY_COUNT = 65536;
+    private static final int HOT_KEY_COUNT = 64;
+
+    @Param({"4096"})
+    private int width;
+
+    private HeavyHitterCounter counter;
+    private byte[][] keys;
+
+    @Setup
+    public void setup() {
+        counter = new HeavyHitterCounter(width, 256, 100);
+        keys = new byte[KEY_COUNT][];
+        for (int i=0; i<KEY_COUNT; i++) {
+            keys[i] = ("key" + i).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private byte[] nextKey() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < 80) {
+            return keys[random.nextInt(HOT_KEY_COUNT)];
+        }
+        return keys[random.nextInt(KEY_COUNT)];
+    }
+
+    @Benchmark
+    public void increment() {
+        counter.increment(nextKey());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<LRUCounter.SortedBytesKey> rotate() {
+        return counter.rotate(100, 32);
+    }
+}
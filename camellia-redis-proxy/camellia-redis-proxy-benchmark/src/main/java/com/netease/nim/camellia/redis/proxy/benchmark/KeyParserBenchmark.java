@@ -0,0 +1,59 @@
+package com.netease.nim.camellia.redis.proxy.benchmark;
+
+import com.netease.nim.camellia.redis.proxy.command.Command;
+import com.netease.nim.camellia.redis.proxy.util.KeyParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by caojiajun on 2024/7/10
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KeyParserBenchmark {
+
+    @Param({"get", "set", "mget", "mset", "hset", "eval", "xread"})
+    private String commandType;
+
+    private Command command;
+
+    @Setup
+    public void setup() {
+        switch (commandType) {
+            case "get":
+                command = new Command(BenchmarkUtils.args("GET", "k1"));
+                break;
+            case "set":
+                command = new Command(BenchmarkUtils.args("SET", "k1", "v1", "EX", "100"));
+                break;
+            case "mget":
+                command = new Command(BenchmarkUtils.args("MGET", "k1", "k2", "k3", "k4", "k5", "k6", "k7", "k8", "k9", "k10"));
+                break;
+            case "mset":
+                command = new Command(BenchmarkUtils.args("MSET", "k1", "v1", "k2", "v2", "k3", "v3", "k4", "v4", "k5", "v5"));
+                break;
+            case "hset":
+                command = new Command(BenchmarkUtils.args("HSET", "k1", "f1", "v1", "f2", "v2"));
+                break;
+            case "eval":
+                command = new Command(BenchmarkUtils.args("EVAL", "return redis.call('get', KEYS[1])", "2", "k1", "k2", "a1"));
+                break;
+            case "xread":
+                command = new Command(BenchmarkUtils.args("XREAD", "COUNT", "10", "STREAMS", "s1", "s2", "0", "0"));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown commandType " + commandType);
+        }
+    }
+
+    @Benchmark
+    public List<byte[]> findKeys() {
+        return KeyParser.findKeys(command);
+    }
+}
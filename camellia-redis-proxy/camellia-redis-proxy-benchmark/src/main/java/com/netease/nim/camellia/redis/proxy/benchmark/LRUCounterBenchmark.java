@@ -0,0 +1,66 @@
+package com.netease.nim.camellia.redis.proxy.benchmark;
+
+import com.netease.nim.camellia.redis.proxy.util.LRUCounter;
+import com.netease.nim.camellia.tools.utils.BytesKey;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 热key统计使用的LRUCounter，80%的请求集中在少量热key上
+ * Created by caojiajun on 2024/7/10
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LRUCounterBenchmark {
+
+    private static final int KEY_COUNT = 65536;
+    private static final int HOT_KEY_COUNT = 64;
+
+    @Param({"100000"})
+    private long capacity;
+
+    private LRUCounter counter;
+    private BytesKey[] keys;
+
+    @Setup
+    public void setup() {
+        counter = new LRUCounter((int) Math.min(capacity, 10000), capacity, 1000);
+        keys = new BytesKey[KEY_COUNT];
+        for (int i=0; i<KEY_COUNT; i++) {
+            keys[i] = new BytesKey(("key" + i).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private BytesKey nextKey() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < 80) {
+            return keys[random.nextInt(HOT_KEY_COUNT)];
+        }
+        return keys[random.nextInt(KEY_COUNT)];
+    }
+
+    @Benchmark
+    public void increment() {
+        counter.increment(nextKey());
+    }
+
+    @Benchmark
+    public Long get() {
+        return counter.get(nextKey());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TreeSet<LRUCounter.SortedBytesKey> getSortedCacheValue() {
+        return counter.getSortedCacheValue(100);
+    }
+}
@@ -0,0 +1,140 @@
+package com.netease.nim.camellia.redis.proxy.benchmark;
+
+import com.netease.nim.camellia.redis.proxy.auth.AuthCommandProcessor;
+import com.netease.nim.camellia.redis.proxy.auth.ClientAuthByConfigProvider;
+import com.netease.nim.camellia.redis.proxy.command.Command;
+import com.netease.nim.camellia.redis.proxy.command.CommandInvokeConfig;
+import com.netease.nim.camellia.redis.proxy.command.CommandsTransponder;
+import com.netease.nim.camellia.redis.proxy.command.ProxyCommandProcessor;
+import com.netease.nim.camellia.redis.proxy.conf.CamelliaServerProperties;
+import com.netease.nim.camellia.redis.proxy.monitor.ProxyMonitorCollector;
+import com.netease.nim.camellia.redis.proxy.netty.ChannelInfo;
+import com.netease.nim.camellia.redis.proxy.netty.ChannelType;
+import com.netease.nim.camellia.redis.proxy.plugin.*;
+import com.netease.nim.camellia.redis.proxy.reply.BulkReply;
+import com.netease.nim.camellia.redis.proxy.reply.Reply;
+import com.netease.nim.camellia.redis.proxy.upstream.IUpstreamClientTemplate;
+import com.netease.nim.camellia.redis.proxy.upstream.IUpstreamClientTemplateFactory;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通过CommandsTransponder执行一个完整的请求（请求插件链 -> upstream -> CommandTask回包 -> 响应插件链 -> 写出）
+ * upstream直接返回固定的reply，client连接是EmbeddedChannel
+ * Created by caojiajun on 2024/7/10
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProxyPluginChainBenchmark {
+
+    @Param({"", "monitorPlugin", "monitorPlugin,bigKeyPlugin,hotKeyPlugin"})
+    private String plugins;
+
+    private CommandsTransponder transponder;
+    private EmbeddedChannel channel;
+    private ChannelInfo channelInfo;
+
+    @Setup
+    public void setup() {
+        CamelliaServerProperties serverProperties = new CamelliaServerProperties();
+        serverProperties.setMonitorEnable(true);
+        ProxyMonitorCollector.init(serverProperties, null);
+        List<String> pluginList = new ArrayList<>();
+        if (!plugins.isEmpty()) {
+            pluginList.addAll(Arrays.asList(plugins.split(",")));
+        }
+        DefaultProxyPluginFactory factory = new DefaultProxyPluginFactory(pluginList, DefaultBeanFactory.INSTANCE);
+        CommandInvokeConfig commandInvokeConfig = new CommandInvokeConfig(new AuthCommandProcessor(new ClientAuthByConfigProvider(null)),
+                null, null, factory, new ProxyCommandProcessor());
+        transponder = new CommandsTransponder(new FixedReplyTemplateFactory(new BulkReply(new byte[16])), commandInvokeConfig);
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void handlerAdded(ChannelHandlerContext ctx) {
+                channelInfo = ChannelInfo.init(ctx, ChannelType.tcp);
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public void requestAndReply(Blackhole blackhole) {
+        Command command = new Command(BenchmarkUtils.args("GET", "k1"));
+        transponder.transpond(channelInfo, Collections.singletonList(command));
+        Object reply;
+        while ((reply = channel.readOutbound()) != null) {
+            blackhole.consume(reply);
+            ReferenceCountUtil.release(reply);
+        }
+    }
+
+    private static class FixedReplyTemplateFactory implements IUpstreamClientTemplateFactory {
+
+        private final IUpstreamClientTemplate template;
+
+        FixedReplyTemplateFactory(Reply reply) {
+            this.template = new IUpstreamClientTemplate() {
+                @Override
+                public List<CompletableFuture<Reply>> sendCommand(int db, List<Command> commands) {
+                    List<CompletableFuture<Reply>> list = new ArrayList<>(commands.size());
+                    for (int i=0; i<commands.size(); i++) {
+                        list.add(CompletableFuture.completedFuture(reply));
+                    }
+                    return list;
+                }
+
+                @Override
+                public boolean isMultiDBSupport() {
+                    return false;
+                }
+
+                @Override
+                public void shutdown() {
+                }
+            };
+        }
+
+        @Override
+        public IUpstreamClientTemplate getOrInitialize(Long bid, String bgroup) {
+            return template;
+        }
+
+        @Override
+        public CompletableFuture<IUpstreamClientTemplate> getOrInitializeAsync(Long bid, String bgroup) {
+            return CompletableFuture.completedFuture(template);
+        }
+
+        @Override
+        public IUpstreamClientTemplate tryGet(Long bid, String bgroup) {
+            return template;
+        }
+
+        @Override
+        public boolean isMultiTenantsSupport() {
+            return false;
+        }
+
+        @Override
+        public int shutdown() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.netease.nim.camellia.redis.proxy.benchmark;
+
+import com.netease.nim.camellia.redis.proxy.util.QuantileCollector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 耗时分布统计，value的单位和监控里一致（0.01ms）
+ * Created by caojiajun on 2024/7/10
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuantileCollectorBenchmark {
+
+    private QuantileCollector collector;
+
+    @Setup
+    public void setup() {
+        collector = new QuantileCollector();
+        collector.init();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void update() {
+        collector.update(nextValue());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void updateConcurrent() {
+        collector.update(nextValue());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public QuantileCollector.QuantileValue getQuantileValueAndReset() {
+        for (int i=0; i<1000; i++) {
+            collector.update(nextValue());
+        }
+        return collector.getQuantileValueAndReset();
+    }
+
+    private int nextValue() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        //大部分请求在1ms以内，少量长尾
+        if (random.nextInt(100) < 95) {
+            return random.nextInt(100);
+        }
+        return random.nextInt(100000);
+    }
+}
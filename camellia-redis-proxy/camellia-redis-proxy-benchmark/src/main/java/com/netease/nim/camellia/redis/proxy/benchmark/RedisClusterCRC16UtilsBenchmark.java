@@ -0,0 +1,64 @@
+package com.netease.nim.camellia.redis.proxy.benchmark;
+
+import com.netease.nim.camellia.redis.proxy.util.RedisClusterCRC16Utils;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by caojiajun on 2024/7/10
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RedisClusterCRC16UtilsBenchmark {
+
+    private static final int KEY_COUNT = 1024;
+
+    @Param({"16", "128"})
+    private int keySize;
+
+    @Param({"false", "true"})
+    private boolean hashTag;
+
+    private byte[][] keys;
+    private List<byte[]> sameSlotKeys;
+    private int index;
+
+    @Setup
+    public void setup() {
+        keys = new byte[KEY_COUNT][];
+        for (int i=0; i<KEY_COUNT; i++) {
+            keys[i] = key(hashTag ? "{user" + i + "}" : "user" + i);
+        }
+        sameSlotKeys = new ArrayList<>();
+        for (int i=0; i<10; i++) {
+            sameSlotKeys.add(key("{tag}" + i));
+        }
+    }
+
+    private byte[] key(String prefix) {
+        StringBuilder builder = new StringBuilder(prefix);
+        while (builder.length() < keySize) {
+            builder.append('x');
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int getSlot() {
+        index = (index + 1) & (KEY_COUNT - 1);
+        return RedisClusterCRC16Utils.getSlot(keys[index]);
+    }
+
+    @Benchmark
+    public int checkSlot() {
+        return RedisClusterCRC16Utils.checkSlot(sameSlotKeys);
+    }
+}
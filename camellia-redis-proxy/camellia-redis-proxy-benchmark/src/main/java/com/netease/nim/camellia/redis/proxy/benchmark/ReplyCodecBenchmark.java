@@ -0,0 +1,123 @@
+package com.netease.nim.camellia.redis.proxy.benchmark;
+
+import com.netease.nim.camellia.redis.proxy.netty.ReplyAggregateDecoder;
+import com.netease.nim.camellia.redis.proxy.netty.ReplyDecoder;
+import com.netease.nim.camellia.redis.proxy.netty.ReplyEncoder;
+import com.netease.nim.camellia.redis.proxy.reply.*;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 后端回包解码（ReplyDecoder + ReplyAggregateDecoder）以及给客户端的回包编码（ReplyEncoder）
+ * Created by caojiajun on 2024/7/10
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplyCodecBenchmark {
+
+    @Param({"integer", "bulk", "multiBulk"})
+    private String replyType;
+
+    @Param({"16", "1024"})
+    private int valueSize;
+
+    @Param({"16"})
+    private int pipeline;
+
+    @Param({"false", "true"})
+    private boolean passThrough;
+
+    private EmbeddedChannel decodeChannel;
+    private EmbeddedChannel encodeChannel;
+    private final Queue<Boolean> passThroughMarks = new ArrayDeque<>();
+    private ByteBuf input;
+    private Reply[] replies;
+
+    @Setup
+    public void setup() {
+        decodeChannel = new EmbeddedChannel(new ReplyDecoder(passThroughMarks), new ReplyAggregateDecoder());
+        encodeChannel = new EmbeddedChannel(new ReplyEncoder());
+        input = PooledByteBufAllocator.DEFAULT.directBuffer();
+        for (int i=0; i<pipeline; i++) {
+            writeReply(input);
+        }
+        replies = new Reply[pipeline];
+        decodeChannel.writeInbound(input.retainedDuplicate());
+        for (int i=0; i<pipeline; i++) {
+            replies[i] = decodeChannel.readInbound();
+        }
+        if (passThrough) {
+            for (int i=0; i<pipeline; i++) {
+                byte[] raw = new byte[input.readableBytes() / pipeline];
+                input.getBytes(i * raw.length, raw);
+                replies[i] = new PassThroughReply(raw);
+            }
+        }
+    }
+
+    private void writeReply(ByteBuf buf) {
+        byte[] value = new byte[valueSize];
+        switch (replyType) {
+            case "integer":
+                buf.writeBytes((":" + valueSize + "\r\n").getBytes(StandardCharsets.UTF_8));
+                break;
+            case "bulk":
+                BenchmarkUtils.writeBulk(buf, value);
+                break;
+            case "multiBulk":
+                BenchmarkUtils.writeMultiBulkHeader(buf, 10);
+                for (int i=0; i<10; i++) {
+                    BenchmarkUtils.writeBulk(buf, value);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown replyType " + replyType);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        decodeChannel.finishAndReleaseAll();
+        encodeChannel.finishAndReleaseAll();
+        input.release();
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        if (passThrough) {
+            for (int i=0; i<pipeline; i++) {
+                passThroughMarks.offer(Boolean.TRUE);
+            }
+        }
+        decodeChannel.writeInbound(input.retainedDuplicate());
+        Reply reply;
+        while ((reply = decodeChannel.readInbound()) != null) {
+            blackhole.consume(reply);
+        }
+    }
+
+    @Benchmark
+    public void encode(Blackhole blackhole) {
+        for (Reply reply : replies) {
+            encodeChannel.write(reply);
+        }
+        encodeChannel.flush();
+        ByteBuf buf;
+        while ((buf = encodeChannel.readOutbound()) != null) {
+            blackhole.consume(buf.readableBytes());
+            buf.release();
+        }
+    }
+}
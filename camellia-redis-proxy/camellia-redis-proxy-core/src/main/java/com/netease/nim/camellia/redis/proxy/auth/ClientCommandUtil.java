@@ -9,6 +9,7 @@ import com.netease.nim.camellia.redis.proxy.reply.BulkReply;
 import com.netease.nim.camellia.redis.proxy.reply.ErrorReply;
 import com.netease.nim.camellia.redis.proxy.reply.Reply;
 import com.netease.nim.camellia.redis.proxy.reply.StatusReply;
+import com.netease.nim.camellia.redis.proxy.tracking.ClientTracking;
 import com.netease.nim.camellia.redis.proxy.util.ErrorLogCollector;
 import com.netease.nim.camellia.redis.proxy.util.Utils;
 import org.slf4j.Logger;
@@ -44,6 +45,12 @@ public class ClientCommandUtil {
                 if (list) {
                     return new BulkReply(Utils.stringToBytes(clientList()));
                 }
+                boolean getredir = Utils.checkStringIgnoreCase(objects[1], RedisKeyword.GETREDIR.name());
+                if (getredir) {
+                    if (channelInfo != null) {
+                        return ClientTracking.getRedir(channelInfo);
+                    }
+                }
             } else if (objects.length == 3) {
                 boolean setname = Utils.checkStringIgnoreCase(objects[1], RedisKeyword.SETNAME.name());
                 if (setname) {
@@ -58,6 +65,15 @@ public class ClientCommandUtil {
                     return StatusReply.OK;
                 }
             }
+            if (objects.length >= 3) {
+                boolean tracking = Utils.checkStringIgnoreCase(objects[1], RedisKeyword.TRACKING.name());
+                if (tracking) {
+                    if (channelInfo == null) {
+                        return ErrorReply.SYNTAX_ERROR;
+                    }
+                    return ClientTracking.tracking(channelInfo, objects);
+                }
+            }
             if (objects.length >= 2) {
                 ErrorLogCollector.collect(ClientCommandUtil.class, "client command syntax error, arg = " + Utils.bytesToString(objects[1]));
             } else {
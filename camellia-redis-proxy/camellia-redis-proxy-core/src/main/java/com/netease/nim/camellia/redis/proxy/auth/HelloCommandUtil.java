@@ -5,6 +5,7 @@ import com.netease.nim.camellia.redis.proxy.info.ProxyInfoUtils;
 import com.netease.nim.camellia.redis.proxy.netty.ChannelInfo;
 import com.netease.nim.camellia.redis.proxy.netty.GlobalRedisProxyEnv;
 import com.netease.nim.camellia.redis.proxy.reply.*;
+import com.netease.nim.camellia.redis.proxy.tracking.ClientTracking;
 import com.netease.nim.camellia.redis.proxy.util.Utils;
 
 /**
@@ -14,14 +15,25 @@ public class HelloCommandUtil {
 
     public static final ErrorReply AUTH_SYNTAX_ERROR = new ErrorReply("ERR Syntax error in HELLO option 'auth'");
     public static final ErrorReply SETNAME_SYNTAX_ERROR = new ErrorReply("ERR Syntax error in HELLO option 'setname'");
+    public static final ErrorReply PROTOVER_ERROR = new ErrorReply("ERR Protocol version is not an integer or out of range");
+    public static final ErrorReply NOPROTO = new ErrorReply("NOPROTO unsupported protocol version");
 
     public static Reply invokeHelloCommand(ChannelInfo channelInfo, AuthCommandProcessor authCommandProcessor, Command command) {
         byte[][] objects = command.getObjects();
         if (objects.length == 1) {
-            return helloCmdReply();
+            return helloCmdReply(channelInfo);
+        }
+        int protover;
+        try {
+            protover = (int) Utils.bytesToNum(objects[1]);
+        } catch (Exception e) {
+            return PROTOVER_ERROR;
+        }
+        if (protover != 2 && protover != 3) {
+            return NOPROTO;
         }
         if (objects.length > 2) {
-            for (int i=1; i<objects.length; i++) {
+            for (int i=2; i<objects.length; i++) {
                 String param = Utils.bytesToString(objects[i]);
                 if (param.equalsIgnoreCase("AUTH")) {
                     String userName;
@@ -47,7 +59,26 @@ public class HelloCommandUtil {
                 }
             }
         }
-        return helloCmdReply();
+        //未开启resp3时，HELLO 3仍然返回RESP2的回包，兼容老版本行为
+        if (protover == 3 && ClientTracking.isResp3Enable()) {
+            channelInfo.setResp3(true);
+        } else if (protover == 2) {
+            if (channelInfo.isResp3()) {
+                ClientTracking.trackingOff(channelInfo);
+            }
+            channelInfo.setResp3(false);
+        }
+        return helloCmdReply(channelInfo);
+    }
+
+    private static Reply helloCmdReply(ChannelInfo channelInfo) {
+        MultiBulkReply reply = helloCmdReply();
+        if (channelInfo != null && channelInfo.isResp3()) {
+            Reply[] replies = reply.getReplies();
+            replies[5] = new IntegerReply(3L);
+            return new MapReply(replies);
+        }
+        return reply;
     }
 
     public static MultiBulkReply helloCmdReply() {
@@ -5,10 +5,13 @@ import com.netease.nim.camellia.redis.proxy.enums.RedisCommand;
 import com.netease.nim.camellia.redis.proxy.enums.RedisKeyword;
 import com.netease.nim.camellia.redis.proxy.http.HttpCommandTask;
 import com.netease.nim.camellia.redis.proxy.netty.ChannelInfo;
+import com.netease.nim.camellia.redis.proxy.util.AdaptiveConcurrencyLimiter;
 import com.netease.nim.camellia.redis.proxy.util.KeyParser;
 import com.netease.nim.camellia.redis.proxy.util.Utils;
+import io.netty.buffer.ByteBuf;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Command {
 
@@ -22,13 +25,40 @@ public class Command {
     private String keysStr = null;
     private CommandContext commandContext;
     private long startNanoTime = -1;
+    private volatile AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private long concurrencyLimitNanoTime;
     private HttpCommandTask httpCommandTask;
 
+    //零拷贝解码时，大参数以入站ByteBuf的retained slice形式持有，objects中对应位置在首次访问时才拷贝
+    private ByteBuf[] zeroCopyObjects;
+    private volatile boolean zeroCopyMaterialized = true;
+    private volatile boolean zeroCopyReleased = false;
+    private AtomicInteger zeroCopySendCount;
+    private boolean passThroughReply = false;
+
     public Command(byte[][] objects) {
         this.objects = objects;
     }
 
+    /**
+     * 零拷贝模式，由CommandDecoder构造
+     * <p> zero-copy mode, constructed by CommandDecoder, the slot of objects whose zeroCopyObjects is not null is filled lazily
+     * @param objects objects
+     * @param zeroCopyObjects retained slices of the inbound buffer
+     */
+    public Command(byte[][] objects, ByteBuf[] zeroCopyObjects) {
+        this.objects = objects;
+        if (zeroCopyObjects != null) {
+            this.zeroCopyObjects = zeroCopyObjects;
+            this.zeroCopyMaterialized = false;
+            this.zeroCopySendCount = new AtomicInteger();
+        }
+    }
+
     public void updateObjects(byte[][] args) {
+        releaseZeroCopyObjects();
+        this.zeroCopyObjects = null;
+        this.zeroCopyMaterialized = true;
         this.objects = args;
         this.name = null;
         this.keys = null;
@@ -53,9 +83,124 @@ public class Command {
     }
 
     public byte[][] getObjects() {
+        if (!zeroCopyMaterialized) {
+            materializeZeroCopyObjects();
+        }
         return objects;
     }
 
+    public int getObjectsLength() {
+        return objects.length;
+    }
+
+    public byte[] getObject(int index) {
+        byte[] object = objects[index];
+        if (object == null && !zeroCopyMaterialized) {
+            materializeZeroCopyObjects();
+            object = objects[index];
+        }
+        return object;
+    }
+
+    /**
+     * 是否持有零拷贝的参数（disableZeroCopy之后，只有还没有编码的发送会持有）
+     * @return true/false
+     */
+    public boolean hasZeroCopyObjects() {
+        return zeroCopyObjects != null && (!zeroCopyReleased || zeroCopySendCount.get() > 0);
+    }
+
+    /**
+     * 发送到后端前调用，为本次发送retain一次零拷贝参数，在CommandPackEncoder中编码时通过pollZeroCopySend消费
+     * <p> invoke before send to upstream, the reference is consumed by CommandPackEncoder
+     * @return false表示零拷贝参数已经被释放了（客户端连接已经关闭），命令视为取消，不需要再发送
+     */
+    public synchronized boolean retainZeroCopySend() {
+        if (zeroCopyObjects == null) return true;
+        if (zeroCopyReleased) {
+            return zeroCopyMaterialized;
+        }
+        for (ByteBuf buf : zeroCopyObjects) {
+            if (buf != null) {
+                buf.retain();
+            }
+        }
+        zeroCopySendCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 消费一次发送时retain的零拷贝参数，返回true表示调用方需要负责release
+     * @return success or not
+     */
+    public boolean pollZeroCopySend() {
+        if (zeroCopyObjects == null) return false;
+        while (true) {
+            int count = zeroCopySendCount.get();
+            if (count <= 0) return false;
+            if (zeroCopySendCount.compareAndSet(count, count - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 发送失败（如连接关闭）时释放发送前retain的零拷贝参数
+     */
+    public void releaseZeroCopySend() {
+        if (pollZeroCopySend()) {
+            for (ByteBuf buf : zeroCopyObjects) {
+                if (buf != null) {
+                    buf.release();
+                }
+            }
+        }
+    }
+
+    public ByteBuf[] getZeroCopyObjects() {
+        return zeroCopyObjects;
+    }
+
+    /**
+     * 释放decoder持有的零拷贝参数，在命令回包写给客户端后调用
+     * <p> release the reference held since decode, invoke after the reply was written to client
+     */
+    public synchronized void releaseZeroCopyObjects() {
+        if (zeroCopyObjects == null || zeroCopyReleased) return;
+        zeroCopyReleased = true;
+        for (ByteBuf buf : zeroCopyObjects) {
+            if (buf != null) {
+                buf.release();
+            }
+        }
+    }
+
+    /**
+     * 拷贝零拷贝参数并释放，用于命令会被异步或者延迟发送的场景（如事务、异步双写）
+     * <p> copy the zero-copy objects and release them, used when the command may be sent after the reply completed
+     */
+    public void disableZeroCopy() {
+        if (zeroCopyObjects == null) return;
+        materializeZeroCopyObjects();
+        releaseZeroCopyObjects();
+    }
+
+    private synchronized void materializeZeroCopyObjects() {
+        if (zeroCopyMaterialized) return;
+        if (zeroCopyReleased) {
+            throw new IllegalStateException("zero copy objects of command '" + getName() + "' already released");
+        }
+        for (int i = 0; i < zeroCopyObjects.length; i++) {
+            ByteBuf buf = zeroCopyObjects[i];
+            if (buf != null && objects[i] == null) {
+                byte[] bytes = new byte[buf.readableBytes()];
+                buf.getBytes(buf.readerIndex(), bytes);
+                objects[i] = bytes;
+            }
+        }
+        zeroCopyMaterialized = true;
+    }
+
     public void clearKeysCache() {
         keysStr = null;
         keys = null;
@@ -69,6 +214,35 @@ public class Command {
         return startNanoTime;
     }
 
+    public void setConcurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter, long concurrencyLimitNanoTime) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.concurrencyLimitNanoTime = concurrencyLimitNanoTime;
+    }
+
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    public long getConcurrencyLimitNanoTime() {
+        return concurrencyLimitNanoTime;
+    }
+
+    /**
+     * 归还并发数限制的许可，只会归还一次（回包和连接断开时的清理可能并发执行）
+     * @param sample 是否把本次的响应时间作为样本
+     */
+    public void releaseConcurrencyLimiter(boolean sample) {
+        if (concurrencyLimiter == null) return;
+        AdaptiveConcurrencyLimiter limiter;
+        synchronized (this) {
+            limiter = concurrencyLimiter;
+            concurrencyLimiter = null;
+        }
+        if (limiter != null) {
+            limiter.release(sample ? System.nanoTime() - concurrencyLimitNanoTime : -1);
+        }
+    }
+
     public List<byte[]> getKeys() {
         if (keys != null) return keys;
         keys = KeyParser.findKeys(this);
@@ -142,6 +316,18 @@ public class Command {
         this.channelInfo = channelInfo;
     }
 
+    /**
+     * 回包是否直接透传，不解析为Reply对象
+     * @return true/false
+     */
+    public boolean isPassThroughReply() {
+        return passThroughReply;
+    }
+
+    public void setPassThroughReply(boolean passThroughReply) {
+        this.passThroughReply = passThroughReply;
+    }
+
     public HttpCommandTask getHttpCommandTask() {
         return httpCommandTask;
     }
@@ -151,6 +337,7 @@ public class Command {
     }
 
     public void fillParameters(Class<?>[] parameterTypes, Object[] parameters) {
+        byte[][] objects = getObjects();
         int position = 0;
         for (Class<?> type : parameterTypes) {
             if (type == byte[].class) {
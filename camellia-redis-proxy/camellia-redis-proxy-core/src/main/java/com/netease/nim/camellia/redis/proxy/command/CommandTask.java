@@ -5,6 +5,7 @@ import com.netease.nim.camellia.redis.proxy.plugin.ProxyPluginResponse;
 import com.netease.nim.camellia.redis.proxy.plugin.ProxyReply;
 import com.netease.nim.camellia.redis.proxy.plugin.rewrite.RouteRewriteResult;
 import com.netease.nim.camellia.redis.proxy.reply.Reply;
+import com.netease.nim.camellia.redis.proxy.tracking.ClientTracking;
 import com.netease.nim.camellia.redis.proxy.util.ErrorLogCollector;
 
 import java.util.List;
@@ -47,17 +48,38 @@ public class CommandTask {
         isSkipPlugins = skipPlugins;
     }
 
+    private String trackingNamespace;
+    private List<byte[]> trackingInvalidateKeys;
+
+    public void setTrackingInvalidate(String namespace, List<byte[]> keys) {
+        this.trackingNamespace = namespace;
+        this.trackingInvalidateKeys = keys;
+    }
+
     public CommandTask(CommandTaskQueue taskQueue, Command command, List<ProxyPlugin> plugins) {
         this.command = command;
         this.taskQueue = taskQueue;
         this.plugins = plugins;
     }
 
+    /**
+     * reply generated by proxy without request, such as client tracking invalidation message
+     */
+    CommandTask(CommandTaskQueue taskQueue, Reply reply) {
+        this.command = null;
+        this.taskQueue = taskQueue;
+        this.plugins = null;
+        this.reply = reply;
+    }
+
     public List<ProxyPlugin> getPlugins() {
         return plugins;
     }
 
     public void replyCompleted(Reply reply, boolean fromPlugin) {
+        if (trackingInvalidateKeys != null) {
+            ClientTracking.invalidate(trackingNamespace, trackingInvalidateKeys, taskQueue.getChannelInfo());
+        }
         try {
             if (!isSkipPlugins && plugins != null && !plugins.isEmpty()) {
                 ProxyReply proxyReply = new ProxyReply(command, reply, fromPlugin);
@@ -1,5 +1,6 @@
 package com.netease.nim.camellia.redis.proxy.command;
 
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
 import com.netease.nim.camellia.redis.proxy.enums.RedisCommand;
 import com.netease.nim.camellia.redis.proxy.netty.ChannelInfo;
 import com.netease.nim.camellia.redis.proxy.netty.GlobalRedisProxyEnv;
@@ -34,6 +35,15 @@ public class CommandTaskQueue {
 
     private List<ProxyPlugin> plugins;
 
+    private static boolean flushConsolidationEnable;
+    static {
+        reloadConf();
+        ProxyDynamicConf.registerCallback(CommandTaskQueue::reloadConf);
+    }
+    private static void reloadConf() {
+        flushConsolidationEnable = ProxyDynamicConf.getBoolean("command.task.queue.flush.consolidation.enable", true);
+    }
+
     public CommandTaskQueue(ChannelInfo channelInfo) {
         this.channelInfo = channelInfo;
     }
@@ -44,6 +54,7 @@ public class CommandTaskQueue {
 
     public boolean add(CommandTask task) {
         if (channelInfo.isInSubscribe()) {
+            task.getCommand().disableZeroCopy();
             return true;
         }
         plugins = task.getPlugins();
@@ -54,8 +65,32 @@ public class CommandTaskQueue {
         return offer;
     }
 
+    /**
+     * 写入一个proxy主动推送的回包（如client tracking的失效消息），会排在此前已经到达的命令的回包之后
+     * @param reply reply
+     */
+    public void push(Reply reply) {
+        if (channelInfo.isInSubscribe()) {
+            return;
+        }
+        boolean offer = queue.offer(new CommandTask(this, reply));
+        if (!offer) {
+            logger.warn("CommandTaskQueue full, push reply skip, consid = {}", channelInfo.getConsid());
+            return;
+        }
+        callback();
+    }
+
     public void clear() {
-        queue.clear();
+        while (!queue.isEmpty()) {
+            CommandTask task = queue.poll();
+            if (task == null) break;
+            if (task.getCommand() != null) {
+                task.getCommand().releaseZeroCopyObjects();
+                //the reply may never come back (or come back after the channel is closed), release the concurrency limit permit here
+                task.getCommand().releaseConcurrencyLimiter(false);
+            }
+        }
     }
 
     public boolean isEmpty() {
@@ -69,21 +104,38 @@ public class CommandTaskQueue {
                     return;
                 }
                 ChannelFuture future = null;
+                boolean flushConsolidation = flushConsolidationEnable;
+                int writeCount = 0;
                 do {
                     CommandTask task = queue.peek();
                     Reply reply = task.getReply();
                     if (reply != null) {
+                        if (channelInfo.isResp3()) {
+                            reply = Resp3ReplyConverter.convert(task.getCommand(), reply);
+                        }
                         if (logger.isDebugEnabled()) {
                             logger.debug("CommandTaskQueue callback, command = {}, reply = {}, consid = {}",
                                     task.getCommand() == null ? null : task.getCommand().getName(),
                                     reply.getClass().getSimpleName(), channelInfo.getConsid());
                         }
-                        future = channelInfo.writeAndFlush(task.getCommand(), new ReplyPack(reply, id.incrementAndGet()));
+                        if (flushConsolidation) {
+                            //write only, flush once after the loop
+                            future = channelInfo.write(task.getCommand(), new ReplyPack(reply, id.incrementAndGet()));
+                            writeCount ++;
+                        } else {
+                            future = channelInfo.writeAndFlush(task.getCommand(), new ReplyPack(reply, id.incrementAndGet()));
+                        }
                         queue.poll();
+                        if (task.getCommand() != null) {
+                            task.getCommand().releaseZeroCopyObjects();
+                        }
                     } else {
                         break;
                     }
                 } while (!queue.isEmpty());
+                if (writeCount > 0) {
+                    channelInfo.flush();
+                }
                 //check subscribe
                 if (channelInfo.isInSubscribe()) {
                     RedisConnection bindConnection = channelInfo.getBindConnection();
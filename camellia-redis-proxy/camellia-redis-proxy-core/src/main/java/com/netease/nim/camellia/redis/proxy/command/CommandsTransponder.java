@@ -5,11 +5,13 @@ import com.netease.nim.camellia.redis.proxy.auth.ClientCommandUtil;
 import com.netease.nim.camellia.redis.proxy.auth.ConnectLimiter;
 import com.netease.nim.camellia.redis.proxy.auth.HelloCommandUtil;
 import com.netease.nim.camellia.redis.proxy.cluster.ProxyClusterModeProcessor;
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
 import com.netease.nim.camellia.redis.proxy.enums.RedisKeyword;
 import com.netease.nim.camellia.redis.proxy.plugin.*;
 import com.netease.nim.camellia.redis.proxy.plugin.rewrite.RouteRewriteResult;
 import com.netease.nim.camellia.redis.proxy.reply.*;
 import com.netease.nim.camellia.redis.proxy.sentinel.ProxySentinelModeProcessor;
+import com.netease.nim.camellia.redis.proxy.tracking.ClientTracking;
 import com.netease.nim.camellia.redis.proxy.upstream.IUpstreamClientTemplate;
 import com.netease.nim.camellia.redis.proxy.upstream.IUpstreamClientTemplateFactory;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionHub;
@@ -17,6 +19,7 @@ import com.netease.nim.camellia.redis.proxy.info.ProxyInfoUtils;
 import com.netease.nim.camellia.redis.proxy.enums.RedisCommand;
 import com.netease.nim.camellia.redis.proxy.monitor.ChannelMonitor;
 import com.netease.nim.camellia.redis.proxy.netty.ChannelInfo;
+import com.netease.nim.camellia.redis.proxy.netty.ChannelType;
 import com.netease.nim.camellia.redis.proxy.util.ErrorLogCollector;
 import com.netease.nim.camellia.redis.proxy.util.ExecutorUtils;
 import com.netease.nim.camellia.redis.proxy.util.Utils;
@@ -51,6 +54,15 @@ public class CommandsTransponder {
 
     private ProxyPluginInitResp proxyPluginInitResp;
 
+    private static boolean passThroughReplyEnable;
+    static {
+        reloadConf();
+        ProxyDynamicConf.registerCallback(CommandsTransponder::reloadConf);
+    }
+    private static void reloadConf() {
+        passThroughReplyEnable = ProxyDynamicConf.getBoolean("upstream.reply.pass.through.enable", false);
+    }
+
     public CommandsTransponder(IUpstreamClientTemplateFactory factory, CommandInvokeConfig commandInvokeConfig) {
         this.factory = factory;
         this.authCommandProcessor = commandInvokeConfig.getAuthCommandProcessor();
@@ -85,6 +97,7 @@ public class CommandsTransponder {
             }
 
             if (channelInfo.getChannelStats() == ChannelInfo.ChannelStats.INVALID) {
+                releaseZeroCopyObjects(commands);
                 channelInfo.getCtx().channel().close();
                 logger.warn("too many connects, connect will be force closed, consid = {}, client.addr = {}",
                         channelInfo.getConsid(), channelInfo.getCtx().channel().remoteAddress());
@@ -103,11 +116,15 @@ public class CommandsTransponder {
                 boolean add = taskQueue.add(task);
                 if (!add) {
                     taskQueue.clear();
+                    releaseZeroCopyObjects(commands);
                     logger.warn("CommandTaskQueue full, client connect will be disconnect, remote.ip = {}", ctx.channel().remoteAddress());
                     ctx.writeAndFlush(ErrorReply.TOO_BUSY).addListener((ChannelFutureListener) future -> ctx.close());
                     return;
                 }
 
+                //client tracking，需要在插件之前执行（插件可能会改写key）
+                ClientTracking.onRequest(channelInfo, task);
+
                 RouteRewriteResult rewriteResult = null;
                 List<ProxyPlugin> requestPlugins = proxyPluginInitResp.getRequestPlugins();
                 if (!requestPlugins.isEmpty()) {
@@ -417,6 +434,10 @@ public class CommandsTransponder {
                     }
                 }
 
+                if (passThroughReplyEnable) {
+                    command.setPassThroughReply(isPassThroughReply(channelInfo, command, redisCommand));
+                }
+
                 tasks.add(task);
             }
             if (tasks.isEmpty()) return;
@@ -538,4 +559,24 @@ public class CommandsTransponder {
         }
     }
 
+    //单key的读命令，且没有reply插件需要检查回包时，后端回包可以不解析直接透传给客户端
+    private boolean isPassThroughReply(ChannelInfo channelInfo, Command command, RedisCommand redisCommand) {
+        if (!proxyPluginInitResp.getReplyPlugins().isEmpty()) {
+            return false;
+        }
+        //RESP3的连接需要转换回包类型
+        if (channelInfo.getChannelType() == ChannelType.http || channelInfo.isInTransaction() || channelInfo.isInSubscribe() || channelInfo.isResp3()) {
+            return false;
+        }
+        return redisCommand.getType() == RedisCommand.Type.READ
+                && redisCommand.getSupportType() == RedisCommand.CommandSupportType.FULL_SUPPORT
+                && redisCommand.getCommandKeyType() == RedisCommand.CommandKeyType.SIMPLE_SINGLE
+                && !command.isBlocking();
+    }
+
+    private void releaseZeroCopyObjects(List<Command> commands) {
+        for (Command command : commands) {
+            command.releaseZeroCopyObjects();
+        }
+    }
 }
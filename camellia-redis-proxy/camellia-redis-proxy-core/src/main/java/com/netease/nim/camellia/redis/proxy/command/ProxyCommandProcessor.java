@@ -13,6 +13,7 @@ import com.netease.nim.camellia.redis.proxy.monitor.ProxyMonitorCollector;
 import com.netease.nim.camellia.redis.proxy.netty.GlobalRedisProxyEnv;
 import com.netease.nim.camellia.redis.proxy.plugin.ProxyPlugin;
 import com.netease.nim.camellia.redis.proxy.plugin.ProxyPluginInitResp;
+import com.netease.nim.camellia.redis.proxy.plugin.bigkey.BigKeyAnalyzer;
 import com.netease.nim.camellia.redis.proxy.reply.*;
 import com.netease.nim.camellia.redis.proxy.upstream.IUpstreamClientTemplateFactory;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnection;
@@ -123,6 +124,9 @@ public class ProxyCommandProcessor {
                         case NODES:
                             future.complete(nodes());
                             break;
+                        case BIGKEY:
+                            future.complete(bigKey(args));
+                            break;
                         default:
                             future.complete(error);
                     }
@@ -192,6 +196,37 @@ public class ProxyCommandProcessor {
         return new BulkReply(Utils.stringToBytes(builder.toString()));
     }
 
+    //proxy bigkey start [bid] [bgroup]
+    //proxy bigkey stop
+    //proxy bigkey status
+    private Reply bigKey(byte[][] args) {
+        if (args.length <= 2) {
+            return ErrorReply.SYNTAX_ERROR;
+        }
+        String type = Utils.bytesToString(args[2]);
+        if (type.equalsIgnoreCase("start")) {
+            Long bid = null;
+            String bgroup = null;
+            if (args.length == 5) {
+                bid = Long.parseLong(Utils.bytesToString(args[3]));
+                bgroup = Utils.bytesToString(args[4]);
+            } else if (args.length != 3) {
+                return ErrorReply.SYNTAX_ERROR;
+            }
+            String error = BigKeyAnalyzer.start(bid, bgroup);
+            if (error != null) {
+                return new ErrorReply("ERR " + error);
+            }
+            return StatusReply.OK;
+        } else if (type.equalsIgnoreCase("stop")) {
+            BigKeyAnalyzer.stop();
+            return StatusReply.OK;
+        } else if (type.equalsIgnoreCase("status")) {
+            return new BulkReply(Utils.stringToBytes(BigKeyAnalyzer.status().toJSONString()));
+        }
+        return ErrorReply.SYNTAX_ERROR;
+    }
+
     private Reply config(byte[][] args) {
         if (args.length <= 2) {
             return ErrorReply.SYNTAX_ERROR;
@@ -443,6 +478,7 @@ public class ProxyCommandProcessor {
         INFO,
         CONFIG,
         NODES,
+        BIGKEY,
         ;
 
         public static Section byValue(String section) {
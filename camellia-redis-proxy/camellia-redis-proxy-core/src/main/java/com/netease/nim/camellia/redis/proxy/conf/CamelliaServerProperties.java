@@ -58,6 +58,7 @@ public class CamelliaServerProperties {
     private int writeBufferWaterMarkHigh = Constants.Server.writeBufferWaterMarkHigh;
     private int commandDecodeMaxBatchSize = Constants.Server.commandDecodeMaxBatchSize;
     private int commandDecodeBufferInitializerSize = Constants.Server.commandDecodeBufferInitializerSize;
+    private int commandDecodeZeroCopyThreshold = Constants.Server.commandDecodeZeroCopyThreshold;
 
     public int getPort() {
         return port;
@@ -372,4 +373,12 @@ public class CamelliaServerProperties {
     public void setCommandDecodeBufferInitializerSize(int commandDecodeBufferInitializerSize) {
         this.commandDecodeBufferInitializerSize = commandDecodeBufferInitializerSize;
     }
+
+    public int getCommandDecodeZeroCopyThreshold() {
+        return commandDecodeZeroCopyThreshold;
+    }
+
+    public void setCommandDecodeZeroCopyThreshold(int commandDecodeZeroCopyThreshold) {
+        this.commandDecodeZeroCopyThreshold = commandDecodeZeroCopyThreshold;
+    }
 }
@@ -41,6 +41,7 @@ public class Constants {
         public static final int workThread = SysUtils.getCpuNum();
         public static final int commandDecodeMaxBatchSize = 256;
         public static final int commandDecodeBufferInitializerSize = 32;
+        public static final int commandDecodeZeroCopyThreshold = -1;//小于等于0表示不开启零拷贝解码
 
         public static final NettyTransportMode nettyTransportMode = NettyTransportMode.nio;
         public static final boolean tcpNoDelay = true;
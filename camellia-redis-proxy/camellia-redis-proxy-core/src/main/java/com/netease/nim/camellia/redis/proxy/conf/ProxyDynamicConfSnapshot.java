@@ -0,0 +1,117 @@
+package com.netease.nim.camellia.redis.proxy.conf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * 按bid/bgroup预先构建的不可变配置快照，用于请求路径上的配置读取
+ * <p>
+ * 调用方通过builder只读取自己需要的配置项，构建出强类型的配置对象，ProxyDynamicConf变更时重建所有已访问过的bid/bgroup并原子替换，
+ * 读取时不需要拼接配置key，也不需要查询ProxyDynamicConf的缓存map
+ * <p>
+ * bid/bgroup为null时使用default.default的配置（同ProxyDynamicConf）
+ * Created by caojiajun on 2024/7/22
+ */
+public class ProxyDynamicConfSnapshot<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProxyDynamicConfSnapshot.class);
+
+    private final String name;
+    private final BiFunction<Long, String, T> builder;
+    private volatile Snapshot<T> snapshot;
+
+    /**
+     * @param name name, for log
+     * @param builder build the conf of bid/bgroup, bid/bgroup may be null
+     */
+    public ProxyDynamicConfSnapshot(String name, BiFunction<Long, String, T> builder) {
+        this.name = name;
+        this.builder = builder;
+        this.snapshot = new Snapshot<>(builder.apply(null, null));
+        ProxyDynamicConf.registerCallback(this::reload);
+    }
+
+    /**
+     * default.default conf
+     * @return conf
+     */
+    public T get() {
+        return snapshot.defaultConf;
+    }
+
+    /**
+     * conf of bid/bgroup
+     * @param bid bid
+     * @param bgroup bgroup
+     * @return conf
+     */
+    public T get(Long bid, String bgroup) {
+        Snapshot<T> snapshot = this.snapshot;
+        if (bid == null || bgroup == null) {
+            return snapshot.defaultConf;
+        }
+        //大部分proxy只服务一个或少量租户，先检查最近一次访问的租户
+        Entry<T> last = snapshot.last;
+        if (last != null && last.bid.equals(bid) && last.bgroup.equals(bgroup)) {
+            return last.conf;
+        }
+        Entry<T> entry = null;
+        Map<String, Entry<T>> map = snapshot.tenants.get(bid);
+        if (map != null) {
+            entry = map.get(bgroup);
+        }
+        if (entry == null) {
+            entry = new Entry<>(bid, bgroup, builder.apply(bid, bgroup));
+            Entry<T> old = snapshot.tenants.computeIfAbsent(bid, k -> new ConcurrentHashMap<>()).putIfAbsent(bgroup, entry);
+            if (old != null) {
+                entry = old;
+            }
+        }
+        snapshot.last = entry;
+        return entry.conf;
+    }
+
+    private void reload() {
+        try {
+            Snapshot<T> old = this.snapshot;
+            Snapshot<T> snapshot = new Snapshot<>(builder.apply(null, null));
+            for (Map.Entry<Long, ConcurrentHashMap<String, Entry<T>>> entry : old.tenants.entrySet()) {
+                Long bid = entry.getKey();
+                ConcurrentHashMap<String, Entry<T>> map = new ConcurrentHashMap<>();
+                for (String bgroup : entry.getValue().keySet()) {
+                    map.put(bgroup, new Entry<>(bid, bgroup, builder.apply(bid, bgroup)));
+                }
+                snapshot.tenants.put(bid, map);
+            }
+            this.snapshot = snapshot;
+        } catch (Exception e) {
+            logger.error("{} conf snapshot reload error", name, e);
+        }
+    }
+
+    private static class Snapshot<T> {
+        private final T defaultConf;
+        private final ConcurrentHashMap<Long, ConcurrentHashMap<String, Entry<T>>> tenants = new ConcurrentHashMap<>();
+        private volatile Entry<T> last;
+
+        Snapshot(T defaultConf) {
+            this.defaultConf = defaultConf;
+        }
+    }
+
+    private static class Entry<T> {
+        private final Long bid;
+        private final String bgroup;
+        private final T conf;
+
+        Entry(Long bid, String bgroup, T conf) {
+            this.bid = bid;
+            this.bgroup = bgroup;
+            this.conf = conf;
+        }
+    }
+}
@@ -48,4 +48,7 @@ public interface ConsoleService extends IConsoleService {
 
     @ConsoleApi(uri = "/metrics")
     ConsoleResult metrics();
+
+    @ConsoleApi(uri = "/bigkey")
+    ConsoleResult bigKey(Map<String, List<String>> params);
 }
@@ -10,6 +10,7 @@ import com.netease.nim.camellia.redis.proxy.monitor.*;
 import com.netease.nim.camellia.redis.proxy.monitor.model.Stats;
 import com.netease.nim.camellia.redis.proxy.netty.GlobalRedisProxyEnv;
 import com.netease.nim.camellia.redis.proxy.netty.ServerStatus;
+import com.netease.nim.camellia.redis.proxy.plugin.bigkey.BigKeyAnalyzer;
 import com.netease.nim.camellia.redis.proxy.sentinel.SentinelModeStatus;
 import com.netease.nim.camellia.redis.proxy.upstream.IUpstreamClient;
 import org.slf4j.Logger;
@@ -210,4 +211,41 @@ public class ConsoleServiceAdaptor implements ConsoleService {
     public ConsoleResult metrics() {
         return ConsoleResult.success(PrometheusMetrics.metrics());
     }
+
+    @Override
+    public ConsoleResult bigKey(Map<String, List<String>> params) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("bigKey, params = {}", params);
+        }
+        Map<String, String> map = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : params.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                map.put(entry.getKey(), entry.getValue().get(0));
+            }
+        }
+        String action = map.getOrDefault("action", "status");
+        try {
+            if (action.equalsIgnoreCase("start")) {
+                Long bid = map.containsKey("bid") ? Long.parseLong(map.get("bid")) : null;
+                String bgroup = map.get("bgroup");
+                if ((bid == null) != (bgroup == null)) {
+                    return ConsoleResult.error("param wrong");
+                }
+                String error = BigKeyAnalyzer.start(bid, bgroup);
+                if (error != null) {
+                    return ConsoleResult.error(error);
+                }
+                return ConsoleResult.success();
+            } else if (action.equalsIgnoreCase("stop")) {
+                BigKeyAnalyzer.stop();
+                return ConsoleResult.success();
+            } else if (action.equalsIgnoreCase("status")) {
+                return ConsoleResult.success(BigKeyAnalyzer.status().toJSONString());
+            }
+            return ConsoleResult.error("param wrong");
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+            return ConsoleResult.error("internal error");
+        }
+    }
 }
@@ -14,7 +14,7 @@ public enum RedisKeyword {
     UNSUBSCRIBE, WEIGHTS, WITHSCORES, RESETSTAT,
     RESET, FLUSH, EXISTS, LOAD,
     KILL, LEN, REFCOUNT, ENCODING, IDLETIME,
-    AND, OR, XOR, NOT, GETNAME, SETNAME,
+    AND, OR, XOR, NOT, GETNAME, SETNAME, GETREDIR, TRACKING,
     LIST, MATCH, COUNT, PING, PONG,
     NX, XX, EX, PX, CH,
     BEFORE, AFTER,
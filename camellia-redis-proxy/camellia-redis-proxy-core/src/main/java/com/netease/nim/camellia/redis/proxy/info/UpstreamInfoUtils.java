@@ -413,6 +413,77 @@ public class UpstreamInfoUtils {
     }
 
 
+    /**
+     * 获取resource的所有master节点，支持redis-standalone、redis-sentinel、redis-sentinel-slaves、redis-cluster、redis-cluster-slaves
+     * @param resource resource
+     * @return master nodes, null if resource type not support
+     */
+    public static List<RedisConnectionAddr> masterNodes(Resource resource) {
+        Resource redisResource = RedisResourceUtil.parseResourceByUrl(resource);
+        List<RedisConnectionAddr> list = new ArrayList<>();
+        if (redisResource instanceof RedisResource) {
+            RedisResource r = (RedisResource) redisResource;
+            list.add(new RedisConnectionAddr(r.getHost(), r.getPort(), r.getUserName(), r.getPassword(), false, r.getDb(), false));
+            return list;
+        }
+        if (redisResource instanceof RedisSentinelResource || redisResource instanceof RedisSentinelSlavesResource) {
+            List<RedisSentinelResource.Node> sentinels;
+            String userName;
+            String password;
+            String master;
+            String sentinelUserName;
+            String sentinelPassword;
+            int db;
+            if (redisResource instanceof RedisSentinelResource) {
+                RedisSentinelResource r = (RedisSentinelResource) redisResource;
+                sentinels = r.getNodes();
+                userName = r.getUserName();
+                password = r.getPassword();
+                master = r.getMaster();
+                sentinelUserName = r.getSentinelUserName();
+                sentinelPassword = r.getSentinelPassword();
+                db = r.getDb();
+            } else {
+                RedisSentinelSlavesResource r = (RedisSentinelSlavesResource) redisResource;
+                sentinels = r.getNodes();
+                userName = r.getUserName();
+                password = r.getPassword();
+                master = r.getMaster();
+                sentinelUserName = r.getSentinelUserName();
+                sentinelPassword = r.getSentinelPassword();
+                db = r.getDb();
+            }
+            for (RedisSentinelResource.Node node : sentinels) {
+                HostAndPort hostAndPort = getRedisSentinelMaster(resource, node.getHost(), node.getPort(), master, sentinelUserName, sentinelPassword);
+                if (hostAndPort != null) {
+                    list.add(new RedisConnectionAddr(hostAndPort.getHost(), hostAndPort.getPort(), userName, password, false, db, false));
+                    return list;
+                }
+            }
+            return list;
+        }
+        if (redisResource instanceof RedisClusterResource || redisResource instanceof RedisClusterSlavesResource) {
+            RedisClusterResource clusterResource;
+            if (redisResource instanceof RedisClusterResource) {
+                clusterResource = (RedisClusterResource) redisResource;
+            } else {
+                RedisClusterSlavesResource r = (RedisClusterSlavesResource) redisResource;
+                clusterResource = new RedisClusterResource(r.getNodes(), r.getUserName(), r.getPassword());
+            }
+            List<ClusterNodeInfo> clusterNodeInfos = getRedisClusterNodeInfo(clusterResource);
+            if (clusterNodeInfos == null) {
+                return list;
+            }
+            for (ClusterNodeInfo clusterNodeInfo : clusterNodeInfos) {
+                String[] split = clusterNodeInfo.master.split("@")[0].split(":");
+                list.add(new RedisConnectionAddr(split[0], Integer.parseInt(split[1]), clusterResource.getUserName(),
+                        clusterResource.getPassword(), false, 0, false));
+            }
+            return list;
+        }
+        return null;
+    }
+
     private static final List<String> redisInfoKeys = new ArrayList<>();
     static {
         redisInfoKeys.add("redis_version");
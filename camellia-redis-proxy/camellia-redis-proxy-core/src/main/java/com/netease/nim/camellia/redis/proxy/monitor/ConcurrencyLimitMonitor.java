@@ -0,0 +1,50 @@
+package com.netease.nim.camellia.redis.proxy.monitor;
+
+import com.netease.nim.camellia.redis.proxy.monitor.model.ConcurrencyLimitStats;
+import com.netease.nim.camellia.redis.proxy.util.AdaptiveConcurrencyLimiter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 自适应并发数限制的监控
+ * Created by caojiajun on 2024/7/25
+ */
+public class ConcurrencyLimitMonitor {
+
+    private static final ConcurrentHashMap<String, Item> map = new ConcurrentHashMap<>();
+
+    public static void register(Long bid, String bgroup, AdaptiveConcurrencyLimiter limiter) {
+        map.put(bid + "|" + bgroup, new Item(bid, bgroup, limiter));
+    }
+
+    public static List<ConcurrencyLimitStats> collect() {
+        List<ConcurrencyLimitStats> list = new ArrayList<>();
+        for (Item item : map.values()) {
+            AdaptiveConcurrencyLimiter limiter = item.limiter;
+            ConcurrencyLimitStats stats = new ConcurrencyLimitStats();
+            stats.setBid(item.bid == null ? "default" : String.valueOf(item.bid));
+            stats.setBgroup(item.bgroup == null ? "default" : item.bgroup);
+            stats.setLimit(limiter.getLimit());
+            stats.setInflight(limiter.getInflight());
+            stats.setRttMs(limiter.getRttMs());
+            stats.setBaseRttMs(limiter.getBaseRttMs());
+            stats.setReject(limiter.getRejectThenReset());
+            list.add(stats);
+        }
+        return list;
+    }
+
+    private static class Item {
+        private final Long bid;
+        private final String bgroup;
+        private final AdaptiveConcurrencyLimiter limiter;
+
+        Item(Long bid, String bgroup, AdaptiveConcurrencyLimiter limiter) {
+            this.bid = bid;
+            this.bgroup = bgroup;
+            this.limiter = limiter;
+        }
+    }
+}
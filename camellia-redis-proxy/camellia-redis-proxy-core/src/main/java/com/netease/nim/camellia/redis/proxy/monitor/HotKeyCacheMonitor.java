@@ -1,6 +1,7 @@
 package com.netease.nim.camellia.redis.proxy.monitor;
 
 import com.netease.nim.camellia.redis.proxy.auth.IdentityInfo;
+import com.netease.nim.camellia.redis.proxy.monitor.model.HotKeyCacheSizeStats;
 import com.netease.nim.camellia.redis.proxy.monitor.model.HotKeyCacheStats;
 import com.netease.nim.camellia.redis.proxy.plugin.hotkeycache.HotKeyCacheInfo;
 import com.netease.nim.camellia.tools.utils.CamelliaMapUtils;
@@ -23,6 +24,30 @@ public class HotKeyCacheMonitor {
     private static final Logger logger = LoggerFactory.getLogger(HotKeyMonitor.class);
 
     private static ConcurrentHashMap<String, HotKeyCacheStatsBean> statsMap = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, HotKeyCacheSizeStats> sizeStatsMap = new ConcurrentHashMap<>();
+
+    /**
+     * 热key缓存和计数器的当前容量，weightedSize是条数或者估算的字节数（取决于是否配置了max.bytes）
+     */
+    public static void hotKeyCacheSize(IdentityInfo identityInfo, long cacheSize, long cacheWeightedSize, long cacheCapacity,
+                                       long counterSize, long counterWeightedSize, long counterCapacity) {
+        try {
+            String bid = identityInfo.getBid() == null ? "default" : String.valueOf(identityInfo.getBid());
+            String bgroup = identityInfo.getBgroup() == null ? "default" : identityInfo.getBgroup();
+            HotKeyCacheSizeStats stats = new HotKeyCacheSizeStats();
+            stats.setBid(bid);
+            stats.setBgroup(bgroup);
+            stats.setCacheSize(cacheSize);
+            stats.setCacheWeightedSize(cacheWeightedSize);
+            stats.setCacheCapacity(cacheCapacity);
+            stats.setCounterSize(counterSize);
+            stats.setCounterWeightedSize(counterWeightedSize);
+            stats.setCounterCapacity(counterCapacity);
+            sizeStatsMap.put(bid + "|" + bgroup, stats);
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
 
     public static void hotKeyCache(IdentityInfo identityInfo, HotKeyCacheInfo hotKeyCacheInfo,
                                    long checkMillis, long checkThreshold) {
@@ -62,6 +87,10 @@ public class HotKeyCacheMonitor {
         return list;
     }
 
+    public static List<HotKeyCacheSizeStats> collectSize() {
+        return new ArrayList<>(sizeStatsMap.values());
+    }
+
     private static class HotKeyCacheStatsBean {
         String bid;
         String bgroup;
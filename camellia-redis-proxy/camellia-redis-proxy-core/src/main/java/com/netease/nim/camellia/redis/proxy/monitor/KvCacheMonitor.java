@@ -2,6 +2,10 @@ package com.netease.nim.camellia.redis.proxy.monitor;
 
 
 import com.netease.nim.camellia.redis.proxy.monitor.model.KvCacheStats;
+import com.netease.nim.camellia.redis.proxy.monitor.model.KvLRUCacheStats;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.cache.HeapSlotLRUCache;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.cache.OffHeapSlotLRUCache;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.cache.SlotLRUCache;
 import com.netease.nim.camellia.tools.utils.CamelliaMapUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,6 +15,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 /**
  * Created by caojiajun on 2024/5/21
@@ -20,6 +25,17 @@ public class KvCacheMonitor {
     private static final Logger logger = LoggerFactory.getLogger(KvCacheMonitor.class);
 
     private static final ConcurrentHashMap<String, Counter> map = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Supplier<SlotLRUCache<?>>> lruCacheMap = new ConcurrentHashMap<>();
+
+    /**
+     * 注册本地lru缓存，用于采集条数和weighted size，缓存在配置变更时可能会被替换，因此注册的是supplier
+     * @param namespace namespace
+     * @param name cache name
+     * @param supplier cache supplier
+     */
+    public static void registerLRUCache(String namespace, String name, Supplier<SlotLRUCache<?>> supplier) {
+        lruCacheMap.put(namespace + "|" + name, supplier);
+    }
 
     public static void writeBuffer(String namespace, String operation) {
         if (!ProxyMonitorCollector.isMonitorEnable()) {
@@ -108,6 +124,39 @@ public class KvCacheMonitor {
         return list;
     }
 
+    public static List<KvLRUCacheStats> collectLRUCache() {
+        List<KvLRUCacheStats> list = new ArrayList<>();
+        try {
+            for (Map.Entry<String, Supplier<SlotLRUCache<?>>> entry : lruCacheMap.entrySet()) {
+                SlotLRUCache<?> cache = entry.getValue().get();
+                if (cache == null) {
+                    continue;
+                }
+                String key = entry.getKey();
+                int i = key.lastIndexOf("|");
+                KvLRUCacheStats stats = new KvLRUCacheStats();
+                stats.setNamespace(key.substring(0, i));
+                stats.setName(key.substring(i+1));
+                if (cache instanceof HeapSlotLRUCache) {
+                    stats.setType(((HeapSlotLRUCache<?>) cache).isWeighted() ? "heap-bytes" : "heap");
+                } else {
+                    stats.setType("off-heap");
+                }
+                if (cache instanceof OffHeapSlotLRUCache) {
+                    stats.setOversizeHit(((OffHeapSlotLRUCache<?>) cache).oversizeHitThenReset());
+                    stats.setOversizeDrop(((OffHeapSlotLRUCache<?>) cache).oversizeDropThenReset());
+                }
+                stats.setSize(cache.size());
+                stats.setWeightedSize(cache.weightedSize());
+                stats.setCapacity(cache.capacity());
+                list.add(stats);
+            }
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+        return list;
+    }
+
     private static class Counter {
         LongAdder writeBuffer = new LongAdder();
         LongAdder localCache = new LongAdder();
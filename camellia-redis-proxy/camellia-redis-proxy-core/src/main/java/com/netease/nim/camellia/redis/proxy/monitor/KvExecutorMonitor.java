@@ -1,7 +1,9 @@
 package com.netease.nim.camellia.redis.proxy.monitor;
 
 import com.netease.nim.camellia.redis.proxy.monitor.model.KvExecutorStats;
-import com.netease.nim.camellia.redis.proxy.util.MpscSlotHashExecutor;
+import com.netease.nim.camellia.redis.proxy.monitor.model.KvExecutorWorkerStats;
+import com.netease.nim.camellia.redis.proxy.util.KeyedExecutor;
+import com.netease.nim.camellia.redis.proxy.util.WorkStealingSlotHashExecutor;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,20 +15,55 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class KvExecutorMonitor {
 
-    private static final ConcurrentHashMap<String, MpscSlotHashExecutor> map = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, KeyedExecutor> map = new ConcurrentHashMap<>();
 
-    public static void register(String namespace, MpscSlotHashExecutor executor) {
+    private static List<KvExecutorWorkerStats> workerStatsList = new ArrayList<>();
+
+    public static void register(String namespace, KeyedExecutor executor) {
         map.put(namespace, executor);
     }
 
     public static List<KvExecutorStats> collect() {
         List<KvExecutorStats> list = new ArrayList<>();
-        for (Map.Entry<String, MpscSlotHashExecutor> entry : map.entrySet()) {
+        List<KvExecutorWorkerStats> workerStatsList = new ArrayList<>();
+        for (Map.Entry<String, KeyedExecutor> entry : map.entrySet()) {
+            KeyedExecutor executor = entry.getValue();
             KvExecutorStats stats = new KvExecutorStats();
             stats.setName(entry.getKey());
-            stats.setPending(entry.getValue().getQueueSize());
+            stats.setPending(executor.getQueueSize());
+            if (executor instanceof WorkStealingSlotHashExecutor) {
+                stats.setType("work-stealing");
+                long count = 0;
+                long steal = 0;
+                for (WorkStealingSlotHashExecutor.WorkerStats worker : ((WorkStealingSlotHashExecutor) executor).collectWorkerStats()) {
+                    KvExecutorWorkerStats workerStats = new KvExecutorWorkerStats();
+                    workerStats.setName(entry.getKey());
+                    workerStats.setIndex(worker.getIndex());
+                    workerStats.setReady(worker.getReady());
+                    workerStats.setCount(worker.getCount());
+                    workerStats.setAvgSpendMs(worker.getAvgSpendMs());
+                    workerStats.setMaxSpendMs(worker.getMaxSpendMs());
+                    workerStats.setSteal(worker.getSteal());
+                    workerStatsList.add(workerStats);
+                    count += worker.getCount();
+                    steal += worker.getSteal();
+                }
+                stats.setCount(count);
+                stats.setSteal(steal);
+            } else {
+                stats.setType("slot-hash");
+            }
             list.add(stats);
         }
+        KvExecutorMonitor.workerStatsList = workerStatsList;
         return list;
     }
+
+    /**
+     * 每个工作线程的统计数据，在collect时更新
+     * @return list
+     */
+    public static List<KvExecutorWorkerStats> getWorkerStatsList() {
+        return workerStatsList;
+    }
 }
@@ -0,0 +1,177 @@
+package com.netease.nim.camellia.redis.proxy.monitor;
+
+import com.netease.nim.camellia.redis.proxy.command.Command;
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import com.netease.nim.camellia.redis.proxy.monitor.model.KeyPrefixSpendStats;
+import com.netease.nim.camellia.redis.proxy.monitor.model.ResourceSpendStats;
+import com.netease.nim.camellia.redis.proxy.util.LatencyHistogram;
+import com.netease.nim.camellia.tools.utils.CamelliaMapUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于LatencyHistogram的耗时分布监控，单位是微秒
+ * <p>
+ * 1、resource维度：从命令发给后端到后端回包的耗时，受upstream.redis.spend.time.monitor.enable控制
+ * <p>
+ * 2、key前缀维度：proxy处理命令的耗时，按第一个key的前缀（到分隔符为止，默认":"，没有分隔符的计入"<none>"）统计，每个周期输出p99最大的top-N，
+ * 默认关闭（key.prefix.spend.monitor.enable），前缀的数量有上限，超过的不再统计
+ * <p>
+ * 输出中包含编码后的直方图（histogram字段），可以使用LatencyHistogram.Snapshot.decode解码后合并多个proxy的数据
+ * Created by caojiajun on 2024/7/30
+ */
+public class LatencyHistogramMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyHistogramMonitor.class);
+
+    //没有分隔符的key统一计入一个前缀，避免把原始的key作为前缀输出
+    private static final String NO_PREFIX = "<none>";
+
+    private static int count = 0;
+
+    private static ConcurrentHashMap<String, LatencyHistogram> resourceMap = new ConcurrentHashMap<>();
+    private static ConcurrentHashMap<String, LatencyHistogram> keyPrefixMap = new ConcurrentHashMap<>();
+
+    private static volatile boolean keyPrefixEnable;
+    private static volatile byte delimiter;
+    private static volatile int prefixMaxLength;
+    private static volatile int prefixMaxCount;
+    private static volatile int topN;
+
+    static {
+        reloadConf();
+        ProxyDynamicConf.registerCallback(LatencyHistogramMonitor::reloadConf);
+    }
+
+    private static void reloadConf() {
+        keyPrefixEnable = ProxyDynamicConf.getBoolean("key.prefix.spend.monitor.enable", false);
+        String delimiterStr = ProxyDynamicConf.getString("key.prefix.spend.monitor.delimiter", ":");
+        delimiter = delimiterStr == null || delimiterStr.isEmpty() ? (byte) ':' : delimiterStr.getBytes(StandardCharsets.UTF_8)[0];
+        prefixMaxLength = ProxyDynamicConf.getInt("key.prefix.spend.monitor.prefix.max.length", 32);
+        prefixMaxCount = ProxyDynamicConf.getInt("key.prefix.spend.monitor.prefix.max.count", 256);
+        topN = ProxyDynamicConf.getInt("key.prefix.spend.monitor.top.n", 20);
+    }
+
+    /**
+     * resource维度的耗时
+     * @param resource resource
+     * @param spendNanoTime spend
+     */
+    public static void resource(String resource, long spendNanoTime) {
+        try {
+            CamelliaMapUtils.computeIfAbsent(resourceMap, resource, k -> new LatencyHistogram()).record(spendNanoTime / 1000);
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    public static boolean isKeyPrefixEnable() {
+        return keyPrefixEnable;
+    }
+
+    /**
+     * key前缀维度的耗时
+     * @param bid bid
+     * @param bgroup bgroup
+     * @param command command
+     * @param spendNanoTime spend
+     */
+    public static void keyPrefix(Long bid, String bgroup, Command command, long spendNanoTime) {
+        if (!keyPrefixEnable) return;
+        try {
+            List<byte[]> keys = command.getKeys();
+            if (keys == null || keys.isEmpty()) return;
+            byte[] key = keys.get(0);
+            int max = Math.min(key.length, prefixMaxLength);
+            String prefix = NO_PREFIX;
+            for (int i=0; i<max; i++) {
+                if (key[i] == delimiter) {
+                    prefix = new String(key, 0, i + 1, StandardCharsets.UTF_8);
+                    break;
+                }
+            }
+            String mapKey = bid + "|" + bgroup + "|" + prefix;
+            ConcurrentHashMap<String, LatencyHistogram> keyPrefixMap = LatencyHistogramMonitor.keyPrefixMap;
+            LatencyHistogram histogram = keyPrefixMap.get(mapKey);
+            if (histogram == null) {
+                if (keyPrefixMap.size() >= prefixMaxCount) {
+                    return;
+                }
+                histogram = CamelliaMapUtils.computeIfAbsent(keyPrefixMap, mapKey, k -> new LatencyHistogram());
+            }
+            histogram.record(spendNanoTime / 1000);
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    public static class LatencyHistogramStats {
+        public List<ResourceSpendStats> resourceSpendStatsList = new ArrayList<>();
+        public List<KeyPrefixSpendStats> keyPrefixSpendStatsList = new ArrayList<>();
+    }
+
+    public static LatencyHistogramStats collect() {
+        count ++;
+        ConcurrentHashMap<String, LatencyHistogram> resourceMap = LatencyHistogramMonitor.resourceMap;
+        if (count >= ProxyDynamicConf.getInt("monitor.cache.reset.interval.periods", 60)) {
+            LatencyHistogramMonitor.resourceMap = new ConcurrentHashMap<>();
+            count = 0;
+        }
+        //key前缀每个周期都重新统计，从而使得top-N可以跟随业务变化
+        ConcurrentHashMap<String, LatencyHistogram> keyPrefixMap = LatencyHistogramMonitor.keyPrefixMap;
+        LatencyHistogramMonitor.keyPrefixMap = new ConcurrentHashMap<>();
+
+        LatencyHistogramStats stats = new LatencyHistogramStats();
+        for (Map.Entry<String, LatencyHistogram> entry : resourceMap.entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue().snapshotAndReset();
+            if (snapshot.getCount() == 0) continue;
+            ResourceSpendStats resourceSpendStats = new ResourceSpendStats();
+            resourceSpendStats.setResource(PasswordMaskUtils.maskResource(entry.getKey()));
+            resourceSpendStats.setCount(snapshot.getCount());
+            resourceSpendStats.setAvgSpendMs(snapshot.getMean() / 1000.0);
+            resourceSpendStats.setMaxSpendMs(snapshot.getMax() / 1000.0);
+            resourceSpendStats.setSpendMsP50(snapshot.getValueAtQuantile(0.5) / 1000.0);
+            resourceSpendStats.setSpendMsP75(snapshot.getValueAtQuantile(0.75) / 1000.0);
+            resourceSpendStats.setSpendMsP90(snapshot.getValueAtQuantile(0.90) / 1000.0);
+            resourceSpendStats.setSpendMsP95(snapshot.getValueAtQuantile(0.95) / 1000.0);
+            resourceSpendStats.setSpendMsP99(snapshot.getValueAtQuantile(0.99) / 1000.0);
+            resourceSpendStats.setSpendMsP999(snapshot.getValueAtQuantile(0.999) / 1000.0);
+            resourceSpendStats.setHistogram(snapshot.encodeToString());
+            stats.resourceSpendStatsList.add(resourceSpendStats);
+        }
+
+        List<KeyPrefixSpendStats> list = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : keyPrefixMap.entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+            if (snapshot.getCount() == 0) continue;
+            String[] split = entry.getKey().split("\\|", 3);
+            KeyPrefixSpendStats keyPrefixSpendStats = new KeyPrefixSpendStats();
+            keyPrefixSpendStats.setBid(split[0].equals("null") ? null : Long.parseLong(split[0]));
+            keyPrefixSpendStats.setBgroup(split[1].equals("null") ? null : split[1]);
+            keyPrefixSpendStats.setPrefix(split[2]);
+            keyPrefixSpendStats.setCount(snapshot.getCount());
+            keyPrefixSpendStats.setAvgSpendMs(snapshot.getMean() / 1000.0);
+            keyPrefixSpendStats.setMaxSpendMs(snapshot.getMax() / 1000.0);
+            keyPrefixSpendStats.setSpendMsP50(snapshot.getValueAtQuantile(0.5) / 1000.0);
+            keyPrefixSpendStats.setSpendMsP75(snapshot.getValueAtQuantile(0.75) / 1000.0);
+            keyPrefixSpendStats.setSpendMsP90(snapshot.getValueAtQuantile(0.90) / 1000.0);
+            keyPrefixSpendStats.setSpendMsP95(snapshot.getValueAtQuantile(0.95) / 1000.0);
+            keyPrefixSpendStats.setSpendMsP99(snapshot.getValueAtQuantile(0.99) / 1000.0);
+            keyPrefixSpendStats.setSpendMsP999(snapshot.getValueAtQuantile(0.999) / 1000.0);
+            keyPrefixSpendStats.setHistogram(snapshot.encodeToString());
+            list.add(keyPrefixSpendStats);
+        }
+        list.sort((o1, o2) -> Double.compare(o2.getSpendMsP99(), o1.getSpendMsP99()));
+        if (list.size() > topN) {
+            list = new ArrayList<>(list.subList(0, topN));
+        }
+        stats.keyPrefixSpendStatsList = list;
+        return stats;
+    }
+}
@@ -87,10 +87,11 @@ public class LoggingMonitorCallback implements MonitorCallback {
             logger.info("====upstream.redis.spend.stats====");
             List<UpstreamRedisSpendStats> upstreamRedisSpendStatsList = stats.getUpstreamRedisSpendStatsList();
             for (UpstreamRedisSpendStats upstreamRedisSpendStats : upstreamRedisSpendStatsList) {
-                logger.info("addr={},count={},avgSpendMs={},maxSpendMs={},spendMsP50={},spendMsP75={},spendMsP90={},spendMsP95={},spendMsP99={},spendMsP999={}", upstreamRedisSpendStats.getAddr(),
+                logger.info("addr={},count={},avgSpendMs={},maxSpendMs={},spendMsP50={},spendMsP75={},spendMsP90={},spendMsP95={},spendMsP99={},spendMsP999={},ewmaSpendMs={},readNodeSelectCount={}", upstreamRedisSpendStats.getAddr(),
                         upstreamRedisSpendStats.getCount(), upstreamRedisSpendStats.getAvgSpendMs(), upstreamRedisSpendStats.getMaxSpendMs(), upstreamRedisSpendStats.getSpendMsP50(),
                         upstreamRedisSpendStats.getSpendMsP75(), upstreamRedisSpendStats.getSpendMsP90(), upstreamRedisSpendStats.getSpendMsP95(),
-                        upstreamRedisSpendStats.getSpendMsP99(), upstreamRedisSpendStats.getSpendMsP999());
+                        upstreamRedisSpendStats.getSpendMsP99(), upstreamRedisSpendStats.getSpendMsP999(),
+                        upstreamRedisSpendStats.getEwmaSpendMs(), upstreamRedisSpendStats.getReadNodeSelectCount());
             }
             logger.info("====big.key.stats====");
             List<BigKeyStats> bigKeyStatsList = stats.getBigKeyStatsList();
@@ -113,6 +114,14 @@ public class LoggingMonitorCallback implements MonitorCallback {
                         hotKeyCacheStats.getBgroup(), hotKeyCacheStats.getKey(),
                         hotKeyCacheStats.getHitCount(), hotKeyCacheStats.getCheckMillis(), hotKeyCacheStats.getCheckThreshold());
             }
+            logger.info("====hot.key.cache.size.stats====");
+            List<HotKeyCacheSizeStats> hotKeyCacheSizeStatsList = stats.getHotKeyCacheSizeStatsList();
+            for (HotKeyCacheSizeStats hotKeyCacheSizeStats : hotKeyCacheSizeStatsList) {
+                logger.info("bid={},bgroup={},cacheSize={},cacheWeightedSize={},cacheCapacity={},counterSize={},counterWeightedSize={},counterCapacity={}",
+                        hotKeyCacheSizeStats.getBid(), hotKeyCacheSizeStats.getBgroup(), hotKeyCacheSizeStats.getCacheSize(),
+                        hotKeyCacheSizeStats.getCacheWeightedSize(), hotKeyCacheSizeStats.getCacheCapacity(), hotKeyCacheSizeStats.getCounterSize(),
+                        hotKeyCacheSizeStats.getCounterWeightedSize(), hotKeyCacheSizeStats.getCounterCapacity());
+            }
 
             logger.info("====slow.command.stats====");
             List<SlowCommandStats> slowCommandStatsList = stats.getSlowCommandStatsList();
@@ -129,6 +138,40 @@ public class LoggingMonitorCallback implements MonitorCallback {
                         upstreamFailStats.getCommand(), upstreamFailStats.getMsg(), upstreamFailStats.getCount());
             }
 
+            logger.info("====upstream.hedge.stats====");
+            List<UpstreamHedgeStats> upstreamHedgeStatsList = stats.getUpstreamHedgeStatsList();
+            for (UpstreamHedgeStats upstreamHedgeStats : upstreamHedgeStatsList) {
+                logger.info("resource={},delayMs={},hedge={},win={},skip={}", upstreamHedgeStats.getResource(),
+                        upstreamHedgeStats.getDelayMs(), upstreamHedgeStats.getHedge(), upstreamHedgeStats.getWin(), upstreamHedgeStats.getSkip());
+            }
+
+            logger.info("====concurrency.limit.stats====");
+            List<ConcurrencyLimitStats> concurrencyLimitStatsList = stats.getConcurrencyLimitStatsList();
+            for (ConcurrencyLimitStats concurrencyLimitStats : concurrencyLimitStatsList) {
+                logger.info("bid={},bgroup={},limit={},inflight={},rttMs={},baseRttMs={},reject={}", concurrencyLimitStats.getBid(),
+                        concurrencyLimitStats.getBgroup(), concurrencyLimitStats.getLimit(), concurrencyLimitStats.getInflight(),
+                        concurrencyLimitStats.getRttMs(), concurrencyLimitStats.getBaseRttMs(), concurrencyLimitStats.getReject());
+            }
+
+            logger.info("====resource.spend.stats====");
+            List<ResourceSpendStats> resourceSpendStatsList = stats.getResourceSpendStatsList();
+            for (ResourceSpendStats resourceSpendStats : resourceSpendStatsList) {
+                logger.info("resource={},count={},avgSpendMs={},maxSpendMs={},spendMsP50={},spendMsP75={},spendMsP90={},spendMsP95={},spendMsP99={},spendMsP999={}",
+                        resourceSpendStats.getResource(), resourceSpendStats.getCount(), resourceSpendStats.getAvgSpendMs(), resourceSpendStats.getMaxSpendMs(),
+                        resourceSpendStats.getSpendMsP50(), resourceSpendStats.getSpendMsP75(), resourceSpendStats.getSpendMsP90(),
+                        resourceSpendStats.getSpendMsP95(), resourceSpendStats.getSpendMsP99(), resourceSpendStats.getSpendMsP999());
+            }
+
+            logger.info("====key.prefix.spend.stats====");
+            List<KeyPrefixSpendStats> keyPrefixSpendStatsList = stats.getKeyPrefixSpendStatsList();
+            for (KeyPrefixSpendStats keyPrefixSpendStats : keyPrefixSpendStatsList) {
+                logger.info("bid={},bgroup={},prefix={},count={},avgSpendMs={},maxSpendMs={},spendMsP50={},spendMsP75={},spendMsP90={},spendMsP95={},spendMsP99={},spendMsP999={}",
+                        keyPrefixSpendStats.getBid(), keyPrefixSpendStats.getBgroup(), keyPrefixSpendStats.getPrefix(), keyPrefixSpendStats.getCount(),
+                        keyPrefixSpendStats.getAvgSpendMs(), keyPrefixSpendStats.getMaxSpendMs(),
+                        keyPrefixSpendStats.getSpendMsP50(), keyPrefixSpendStats.getSpendMsP75(), keyPrefixSpendStats.getSpendMsP90(),
+                        keyPrefixSpendStats.getSpendMsP95(), keyPrefixSpendStats.getSpendMsP99(), keyPrefixSpendStats.getSpendMsP999());
+            }
+
             logger.info("====kv.cache.stats====");
             List<KvCacheStats> kvCacheStatsList = stats.getKvCacheStatsList();
             for (KvCacheStats kvCacheStats : kvCacheStatsList) {
@@ -138,10 +181,27 @@ public class LoggingMonitorCallback implements MonitorCallback {
                         kvCacheStats.getWriteBufferHit(), kvCacheStats.getLocalCacheHit(), kvCacheStats.getRedisCacheHit());
             }
 
+            logger.info("====kv.lru.cache.stats====");
+            List<KvLRUCacheStats> kvLRUCacheStatsList = stats.getKvLRUCacheStatsList();
+            for (KvLRUCacheStats kvLRUCacheStats : kvLRUCacheStatsList) {
+                logger.info("namespace={},name={},type={},size={},weightedSize={},capacity={},oversizeHit={},oversizeDrop={}",
+                        kvLRUCacheStats.getNamespace(), kvLRUCacheStats.getName(), kvLRUCacheStats.getType(),
+                        kvLRUCacheStats.getSize(), kvLRUCacheStats.getWeightedSize(), kvLRUCacheStats.getCapacity(),
+                        kvLRUCacheStats.getOversizeHit(), kvLRUCacheStats.getOversizeDrop());
+            }
+
             logger.info("====kv.executor.stats====");
             List<KvExecutorStats> kvExecutorStatsList = stats.getKvExecutorStatsList();
             for (KvExecutorStats kvExecutorStats : kvExecutorStatsList) {
-                logger.info("name={},pending={}", kvExecutorStats.getName(), kvExecutorStats.getPending());
+                logger.info("name={},type={},pending={},count={},steal={}", kvExecutorStats.getName(), kvExecutorStats.getType(),
+                        kvExecutorStats.getPending(), kvExecutorStats.getCount(), kvExecutorStats.getSteal());
+            }
+
+            logger.info("====kv.executor.worker.stats====");
+            List<KvExecutorWorkerStats> kvExecutorWorkerStatsList = stats.getKvExecutorWorkerStatsList();
+            for (KvExecutorWorkerStats workerStats : kvExecutorWorkerStatsList) {
+                logger.info("name={},index={},ready={},count={},avgSpendMs={},maxSpendMs={},steal={}", workerStats.getName(), workerStats.getIndex(),
+                        workerStats.getReady(), workerStats.getCount(), workerStats.getAvgSpendMs(), workerStats.getMaxSpendMs(), workerStats.getSteal());
             }
 
             logger.info("====kv.gc.stats====");
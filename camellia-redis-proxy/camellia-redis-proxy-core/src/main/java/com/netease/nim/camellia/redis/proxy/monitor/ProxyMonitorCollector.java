@@ -137,9 +137,17 @@ public class ProxyMonitorCollector {
             stats.setHotKeyStatsList(HotKeyMonitor.collect());
             stats.setSlowCommandStatsList(SlowCommandMonitor.collect());
             stats.setHotKeyCacheStatsList(HotKeyCacheMonitor.collect());
+            stats.setHotKeyCacheSizeStatsList(HotKeyCacheMonitor.collectSize());
             stats.setUpstreamFailStatsList(UpstreamFailMonitor.collect());
+            stats.setUpstreamHedgeStatsList(UpstreamHedgeMonitor.collect());
+            stats.setConcurrencyLimitStatsList(ConcurrencyLimitMonitor.collect());
+            LatencyHistogramMonitor.LatencyHistogramStats latencyHistogramStats = LatencyHistogramMonitor.collect();
+            stats.setResourceSpendStatsList(latencyHistogramStats.resourceSpendStatsList);
+            stats.setKeyPrefixSpendStatsList(latencyHistogramStats.keyPrefixSpendStatsList);
             stats.setKvCacheStatsList(KvCacheMonitor.collect());
+            stats.setKvLRUCacheStatsList(KvCacheMonitor.collectLRUCache());
             stats.setKvExecutorStatsList(KvExecutorMonitor.collect());
+            stats.setKvExecutorWorkerStatsList(KvExecutorMonitor.getWorkerStatsList());
             stats.setKvGcStatsList(KvGcMonitor.collect());
             stats.setKvWriteBufferStatsList(KvWriterBufferMonitor.collect());
             stats.setKvStorageSpendStatsList(KvStorageMonitor.collect());
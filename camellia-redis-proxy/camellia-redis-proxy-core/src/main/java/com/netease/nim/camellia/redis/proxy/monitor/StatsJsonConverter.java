@@ -235,6 +235,8 @@ public class StatsJsonConverter {
             json.put("spendMsP95", spendStats.getSpendMsP95());
             json.put("spendMsP99", spendStats.getSpendMsP99());
             json.put("spendMsP999", spendStats.getSpendMsP999());
+            json.put("ewmaSpendMs", spendStats.getEwmaSpendMs());
+            json.put("readNodeSelectCount", spendStats.getReadNodeSelectCount());
             upstreamRedisSpendStatsJsonArray.add(json);
         }
         monitorJson.put("upstreamRedisSpendStats", upstreamRedisSpendStatsJsonArray);
@@ -303,6 +305,22 @@ public class StatsJsonConverter {
         }
         monitorJson.put("hotKeyCacheStats", hotKeyCacheStatsJsonArray);
 
+        List<HotKeyCacheSizeStats> hotKeyCacheSizeStatsList = stats.getHotKeyCacheSizeStatsList();
+        JSONArray hotKeyCacheSizeStatsJsonArray = new JSONArray();
+        for (HotKeyCacheSizeStats hotKeyCacheSizeStats : hotKeyCacheSizeStatsList) {
+            JSONObject hotKeyCacheSizeStatsJson = new JSONObject();
+            hotKeyCacheSizeStatsJson.put("bid", hotKeyCacheSizeStats.getBid());
+            hotKeyCacheSizeStatsJson.put("bgroup", hotKeyCacheSizeStats.getBgroup());
+            hotKeyCacheSizeStatsJson.put("cacheSize", hotKeyCacheSizeStats.getCacheSize());
+            hotKeyCacheSizeStatsJson.put("cacheWeightedSize", hotKeyCacheSizeStats.getCacheWeightedSize());
+            hotKeyCacheSizeStatsJson.put("cacheCapacity", hotKeyCacheSizeStats.getCacheCapacity());
+            hotKeyCacheSizeStatsJson.put("counterSize", hotKeyCacheSizeStats.getCounterSize());
+            hotKeyCacheSizeStatsJson.put("counterWeightedSize", hotKeyCacheSizeStats.getCounterWeightedSize());
+            hotKeyCacheSizeStatsJson.put("counterCapacity", hotKeyCacheSizeStats.getCounterCapacity());
+            hotKeyCacheSizeStatsJsonArray.add(hotKeyCacheSizeStatsJson);
+        }
+        monitorJson.put("hotKeyCacheSizeStats", hotKeyCacheSizeStatsJsonArray);
+
         List<UpstreamFailStats> upstreamFailStatsList = stats.getUpstreamFailStatsList();
         JSONArray upstreamFailStatsJsonArray = new JSONArray();
         for (UpstreamFailStats upstreamFailStats : upstreamFailStatsList) {
@@ -315,6 +333,74 @@ public class StatsJsonConverter {
         }
         monitorJson.put("upstreamFailStats", upstreamFailStatsJsonArray);
 
+        List<UpstreamHedgeStats> upstreamHedgeStatsList = stats.getUpstreamHedgeStatsList();
+        JSONArray upstreamHedgeStatsJsonArray = new JSONArray();
+        for (UpstreamHedgeStats upstreamHedgeStats : upstreamHedgeStatsList) {
+            JSONObject upstreamHedgeStatsJson = new JSONObject();
+            upstreamHedgeStatsJson.put("resource", upstreamHedgeStats.getResource());
+            upstreamHedgeStatsJson.put("delayMs", upstreamHedgeStats.getDelayMs());
+            upstreamHedgeStatsJson.put("hedge", upstreamHedgeStats.getHedge());
+            upstreamHedgeStatsJson.put("win", upstreamHedgeStats.getWin());
+            upstreamHedgeStatsJson.put("skip", upstreamHedgeStats.getSkip());
+            upstreamHedgeStatsJsonArray.add(upstreamHedgeStatsJson);
+        }
+        monitorJson.put("upstreamHedgeStats", upstreamHedgeStatsJsonArray);
+
+        List<ConcurrencyLimitStats> concurrencyLimitStatsList = stats.getConcurrencyLimitStatsList();
+        JSONArray concurrencyLimitStatsJsonArray = new JSONArray();
+        for (ConcurrencyLimitStats concurrencyLimitStats : concurrencyLimitStatsList) {
+            JSONObject concurrencyLimitStatsJson = new JSONObject();
+            concurrencyLimitStatsJson.put("bid", concurrencyLimitStats.getBid());
+            concurrencyLimitStatsJson.put("bgroup", concurrencyLimitStats.getBgroup());
+            concurrencyLimitStatsJson.put("limit", concurrencyLimitStats.getLimit());
+            concurrencyLimitStatsJson.put("inflight", concurrencyLimitStats.getInflight());
+            concurrencyLimitStatsJson.put("rttMs", concurrencyLimitStats.getRttMs());
+            concurrencyLimitStatsJson.put("baseRttMs", concurrencyLimitStats.getBaseRttMs());
+            concurrencyLimitStatsJson.put("reject", concurrencyLimitStats.getReject());
+            concurrencyLimitStatsJsonArray.add(concurrencyLimitStatsJson);
+        }
+        monitorJson.put("concurrencyLimitStats", concurrencyLimitStatsJsonArray);
+
+        List<ResourceSpendStats> resourceSpendStatsList = stats.getResourceSpendStatsList();
+        JSONArray resourceSpendStatsJsonArray = new JSONArray();
+        for (ResourceSpendStats spendStats : resourceSpendStatsList) {
+            JSONObject json = new JSONObject();
+            json.put("resource", spendStats.getResource());
+            json.put("count", spendStats.getCount());
+            json.put("avgSpendMs", spendStats.getAvgSpendMs());
+            json.put("maxSpendMs", spendStats.getMaxSpendMs());
+            json.put("spendMsP50", spendStats.getSpendMsP50());
+            json.put("spendMsP75", spendStats.getSpendMsP75());
+            json.put("spendMsP90", spendStats.getSpendMsP90());
+            json.put("spendMsP95", spendStats.getSpendMsP95());
+            json.put("spendMsP99", spendStats.getSpendMsP99());
+            json.put("spendMsP999", spendStats.getSpendMsP999());
+            json.put("histogram", spendStats.getHistogram());
+            resourceSpendStatsJsonArray.add(json);
+        }
+        monitorJson.put("resourceSpendStats", resourceSpendStatsJsonArray);
+
+        List<KeyPrefixSpendStats> keyPrefixSpendStatsList = stats.getKeyPrefixSpendStatsList();
+        JSONArray keyPrefixSpendStatsJsonArray = new JSONArray();
+        for (KeyPrefixSpendStats spendStats : keyPrefixSpendStatsList) {
+            JSONObject json = new JSONObject();
+            json.put("bid", spendStats.getBid());
+            json.put("bgroup", spendStats.getBgroup());
+            json.put("prefix", spendStats.getPrefix());
+            json.put("count", spendStats.getCount());
+            json.put("avgSpendMs", spendStats.getAvgSpendMs());
+            json.put("maxSpendMs", spendStats.getMaxSpendMs());
+            json.put("spendMsP50", spendStats.getSpendMsP50());
+            json.put("spendMsP75", spendStats.getSpendMsP75());
+            json.put("spendMsP90", spendStats.getSpendMsP90());
+            json.put("spendMsP95", spendStats.getSpendMsP95());
+            json.put("spendMsP99", spendStats.getSpendMsP99());
+            json.put("spendMsP999", spendStats.getSpendMsP999());
+            json.put("histogram", spendStats.getHistogram());
+            keyPrefixSpendStatsJsonArray.add(json);
+        }
+        monitorJson.put("keyPrefixSpendStats", keyPrefixSpendStatsJsonArray);
+
         List<KvCacheStats> kvCacheStatsList = stats.getKvCacheStatsList();
         JSONArray kvCacheStatsJsonArray = new JSONArray();
         for (KvCacheStats kvCacheStats : kvCacheStatsList) {
@@ -332,16 +418,50 @@ public class StatsJsonConverter {
         }
         monitorJson.put("kvCacheStats", kvCacheStatsJsonArray);
 
+        List<KvLRUCacheStats> kvLRUCacheStatsList = stats.getKvLRUCacheStatsList();
+        JSONArray kvLRUCacheStatsJsonArray = new JSONArray();
+        for (KvLRUCacheStats kvLRUCacheStats : kvLRUCacheStatsList) {
+            JSONObject kvLRUCacheStatsJson = new JSONObject();
+            kvLRUCacheStatsJson.put("namespace", kvLRUCacheStats.getNamespace());
+            kvLRUCacheStatsJson.put("name", kvLRUCacheStats.getName());
+            kvLRUCacheStatsJson.put("type", kvLRUCacheStats.getType());
+            kvLRUCacheStatsJson.put("size", kvLRUCacheStats.getSize());
+            kvLRUCacheStatsJson.put("weightedSize", kvLRUCacheStats.getWeightedSize());
+            kvLRUCacheStatsJson.put("capacity", kvLRUCacheStats.getCapacity());
+            kvLRUCacheStatsJson.put("oversizeHit", kvLRUCacheStats.getOversizeHit());
+            kvLRUCacheStatsJson.put("oversizeDrop", kvLRUCacheStats.getOversizeDrop());
+            kvLRUCacheStatsJsonArray.add(kvLRUCacheStatsJson);
+        }
+        monitorJson.put("kvLRUCacheStats", kvLRUCacheStatsJsonArray);
+
         List<KvExecutorStats> kvExecutorStatsList = stats.getKvExecutorStatsList();
         JSONArray kvExecutorJsonArray = new JSONArray();
         for (KvExecutorStats kvExecutorStats : kvExecutorStatsList) {
             JSONObject kvExecutorJson = new JSONObject();
             kvExecutorJson.put("name", kvExecutorStats.getName());
+            kvExecutorJson.put("type", kvExecutorStats.getType());
             kvExecutorJson.put("pending", kvExecutorStats.getPending());
+            kvExecutorJson.put("count", kvExecutorStats.getCount());
+            kvExecutorJson.put("steal", kvExecutorStats.getSteal());
             kvExecutorJsonArray.add(kvExecutorJson);
         }
         monitorJson.put("kvExecutorStats", kvExecutorJsonArray);
 
+        List<KvExecutorWorkerStats> kvExecutorWorkerStatsList = stats.getKvExecutorWorkerStatsList();
+        JSONArray kvExecutorWorkerJsonArray = new JSONArray();
+        for (KvExecutorWorkerStats workerStats : kvExecutorWorkerStatsList) {
+            JSONObject kvExecutorWorkerJson = new JSONObject();
+            kvExecutorWorkerJson.put("name", workerStats.getName());
+            kvExecutorWorkerJson.put("index", workerStats.getIndex());
+            kvExecutorWorkerJson.put("ready", workerStats.getReady());
+            kvExecutorWorkerJson.put("count", workerStats.getCount());
+            kvExecutorWorkerJson.put("avgSpendMs", workerStats.getAvgSpendMs());
+            kvExecutorWorkerJson.put("maxSpendMs", workerStats.getMaxSpendMs());
+            kvExecutorWorkerJson.put("steal", workerStats.getSteal());
+            kvExecutorWorkerJsonArray.add(kvExecutorWorkerJson);
+        }
+        monitorJson.put("kvExecutorWorkerStats", kvExecutorWorkerJsonArray);
+
         List<KvGcStats> kvGcStatsList = stats.getKvGcStatsList();
         JSONArray kvGcStatsJsonArray = new JSONArray();
         for (KvGcStats kvGcStats : kvGcStatsList) {
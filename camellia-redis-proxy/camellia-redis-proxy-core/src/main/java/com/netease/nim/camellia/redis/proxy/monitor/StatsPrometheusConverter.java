@@ -249,6 +249,16 @@ public class StatsPrometheusConverter {
                         entry.getValue()));
             }
 
+            // ====hot.key.cache.size.stats====
+            sb.append("# HELP redis_proxy_hot_key_cache_weighted_size Redis Proxy Hot Key Cache Weighted Size\n");
+            sb.append("# TYPE redis_proxy_hot_key_cache_weighted_size gauge\n");
+            for (HotKeyCacheSizeStats hotKeyCacheSizeStats : stats.getHotKeyCacheSizeStatsList()) {
+                sb.append(String.format("redis_proxy_hot_key_cache_weighted_size{bid=\"%s\",bgroup=\"%s\",type=\"cache\",} %d\n",
+                        hotKeyCacheSizeStats.getBid(), hotKeyCacheSizeStats.getBgroup(), hotKeyCacheSizeStats.getCacheWeightedSize()));
+                sb.append(String.format("redis_proxy_hot_key_cache_weighted_size{bid=\"%s\",bgroup=\"%s\",type=\"counter\",} %d\n",
+                        hotKeyCacheSizeStats.getBid(), hotKeyCacheSizeStats.getBgroup(), hotKeyCacheSizeStats.getCounterWeightedSize()));
+            }
+
             // ====slow.command.stats====
             sb.append("# HELP redis_proxy_slow_command_stats Redis Proxy Slow Command Stats\n");
             sb.append("# TYPE redis_proxy_slow_command_stats gauge\n");
@@ -284,6 +294,40 @@ public class StatsPrometheusConverter {
                         upstreamFailStats.getCount()));
             }
 
+            // ====resource.spend.stats====
+            sb.append("# HELP redis_proxy_resource_spend_stats Redis Proxy Resource Spend Stats\n");
+            sb.append("# TYPE redis_proxy_resource_spend_stats summary\n");
+            for (ResourceSpendStats spendStats : stats.getResourceSpendStatsList()) {
+                sb.append(String.format("redis_proxy_resource_spend_stats_sum{resource=\"%s\",} %f\n", spendStats.getResource(), spendStats.getAvgSpendMs() * spendStats.getCount()));
+                sb.append(String.format("redis_proxy_resource_spend_stats_count{resource=\"%s\",} %d\n", spendStats.getResource(), spendStats.getCount()));
+                sb.append(String.format("redis_proxy_resource_spend_stats{resource=\"%s\",quantile=\"0.5\"} %f\n", spendStats.getResource(), spendStats.getSpendMsP50()));
+                sb.append(String.format("redis_proxy_resource_spend_stats{resource=\"%s\",quantile=\"0.75\"} %f\n", spendStats.getResource(), spendStats.getSpendMsP75()));
+                sb.append(String.format("redis_proxy_resource_spend_stats{resource=\"%s\",quantile=\"0.90\"} %f\n", spendStats.getResource(), spendStats.getSpendMsP90()));
+                sb.append(String.format("redis_proxy_resource_spend_stats{resource=\"%s\",quantile=\"0.95\"} %f\n", spendStats.getResource(), spendStats.getSpendMsP95()));
+                sb.append(String.format("redis_proxy_resource_spend_stats{resource=\"%s\",quantile=\"0.99\"} %f\n", spendStats.getResource(), spendStats.getSpendMsP99()));
+                sb.append(String.format("redis_proxy_resource_spend_stats{resource=\"%s\",quantile=\"0.999\"} %f\n", spendStats.getResource(), spendStats.getSpendMsP999()));
+                sb.append(String.format("redis_proxy_resource_spend_stats{resource=\"%s\",quantile=\"1\"} %f\n", spendStats.getResource(), spendStats.getMaxSpendMs()));
+            }
+
+            // ====key.prefix.spend.stats====
+            sb.append("# HELP redis_proxy_key_prefix_spend_stats Redis Proxy Key Prefix Spend Stats\n");
+            sb.append("# TYPE redis_proxy_key_prefix_spend_stats summary\n");
+            for (KeyPrefixSpendStats spendStats : stats.getKeyPrefixSpendStatsList()) {
+                String bid = spendStats.getBid() == null ? DEFAULT : String.valueOf(spendStats.getBid());
+                String bgroup = spendStats.getBgroup() == null ? DEFAULT : spendStats.getBgroup();
+                //key前缀是业务数据，需要转义
+                String prefix = spendStats.getPrefix().replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+                sb.append(String.format("redis_proxy_key_prefix_spend_stats_sum{bid=\"%s\",bgroup=\"%s\",prefix=\"%s\",} %f\n", bid, bgroup, prefix, spendStats.getAvgSpendMs() * spendStats.getCount()));
+                sb.append(String.format("redis_proxy_key_prefix_spend_stats_count{bid=\"%s\",bgroup=\"%s\",prefix=\"%s\",} %d\n", bid, bgroup, prefix, spendStats.getCount()));
+                sb.append(String.format("redis_proxy_key_prefix_spend_stats{bid=\"%s\",bgroup=\"%s\",prefix=\"%s\",quantile=\"0.5\"} %f\n", bid, bgroup, prefix, spendStats.getSpendMsP50()));
+                sb.append(String.format("redis_proxy_key_prefix_spend_stats{bid=\"%s\",bgroup=\"%s\",prefix=\"%s\",quantile=\"0.75\"} %f\n", bid, bgroup, prefix, spendStats.getSpendMsP75()));
+                sb.append(String.format("redis_proxy_key_prefix_spend_stats{bid=\"%s\",bgroup=\"%s\",prefix=\"%s\",quantile=\"0.90\"} %f\n", bid, bgroup, prefix, spendStats.getSpendMsP90()));
+                sb.append(String.format("redis_proxy_key_prefix_spend_stats{bid=\"%s\",bgroup=\"%s\",prefix=\"%s\",quantile=\"0.95\"} %f\n", bid, bgroup, prefix, spendStats.getSpendMsP95()));
+                sb.append(String.format("redis_proxy_key_prefix_spend_stats{bid=\"%s\",bgroup=\"%s\",prefix=\"%s\",quantile=\"0.99\"} %f\n", bid, bgroup, prefix, spendStats.getSpendMsP99()));
+                sb.append(String.format("redis_proxy_key_prefix_spend_stats{bid=\"%s\",bgroup=\"%s\",prefix=\"%s\",quantile=\"0.999\"} %f\n", bid, bgroup, prefix, spendStats.getSpendMsP999()));
+                sb.append(String.format("redis_proxy_key_prefix_spend_stats{bid=\"%s\",bgroup=\"%s\",prefix=\"%s\",quantile=\"1\"} %f\n", bid, bgroup, prefix, spendStats.getMaxSpendMs()));
+            }
+
             // <<<<<<<END<<<<<<<
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
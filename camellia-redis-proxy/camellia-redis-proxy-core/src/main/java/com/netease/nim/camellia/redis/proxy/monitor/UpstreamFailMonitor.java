@@ -78,7 +78,16 @@ public class UpstreamFailMonitor {
      * @param future future
      */
     public static void stats(String resource, Command command, CompletableFuture<Reply> future) {
-        future.thenAccept(reply -> stats(resource, command, reply));
+        if (ProxyMonitorCollector.isUpstreamRedisSpendTimeMonitorEnable()) {
+            //顺便统计resource维度的耗时分布
+            long startTime = System.nanoTime();
+            future.thenAccept(reply -> {
+                LatencyHistogramMonitor.resource(resource, System.nanoTime() - startTime);
+                stats(resource, command, reply);
+            });
+        } else {
+            future.thenAccept(reply -> stats(resource, command, reply));
+        }
     }
 
     /**
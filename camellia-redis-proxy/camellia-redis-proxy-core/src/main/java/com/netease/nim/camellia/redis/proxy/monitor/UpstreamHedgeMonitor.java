@@ -0,0 +1,62 @@
+package com.netease.nim.camellia.redis.proxy.monitor;
+
+import com.netease.nim.camellia.redis.proxy.monitor.model.UpstreamHedgeStats;
+import com.netease.nim.camellia.tools.utils.CamelliaMapUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 对冲读的监控
+ * Created by caojiajun on 2024/7/24
+ */
+public class UpstreamHedgeMonitor {
+
+    private static ConcurrentHashMap<String, Counter> map = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Long> delayMap = new ConcurrentHashMap<>();
+
+    public static void hedge(String resource, int count) {
+        CamelliaMapUtils.computeIfAbsent(map, resource, k -> new Counter()).hedge.add(count);
+    }
+
+    public static void win(String resource) {
+        CamelliaMapUtils.computeIfAbsent(map, resource, k -> new Counter()).win.increment();
+    }
+
+    public static void skip(String resource) {
+        CamelliaMapUtils.computeIfAbsent(map, resource, k -> new Counter()).skip.increment();
+    }
+
+    public static void delay(String resource, long delayNanos) {
+        delayMap.put(resource, delayNanos);
+    }
+
+    public static List<UpstreamHedgeStats> collect() {
+        ConcurrentHashMap<String, Counter> map = UpstreamHedgeMonitor.map;
+        UpstreamHedgeMonitor.map = new ConcurrentHashMap<>();
+        List<UpstreamHedgeStats> list = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : delayMap.entrySet()) {
+            String resource = entry.getKey();
+            UpstreamHedgeStats stats = new UpstreamHedgeStats();
+            stats.setResource(PasswordMaskUtils.maskResource(resource));
+            stats.setDelayMs(entry.getValue() < 0 ? -1 : entry.getValue() / 1000000.0);
+            Counter counter = map.get(resource);
+            if (counter != null) {
+                stats.setHedge(counter.hedge.sum());
+                stats.setWin(counter.win.sum());
+                stats.setSkip(counter.skip.sum());
+            }
+            list.add(stats);
+        }
+        return list;
+    }
+
+    private static class Counter {
+        LongAdder hedge = new LongAdder();
+        LongAdder win = new LongAdder();
+        LongAdder skip = new LongAdder();
+    }
+}
@@ -3,9 +3,11 @@ package com.netease.nim.camellia.redis.proxy.monitor;
 import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
 import com.netease.nim.camellia.redis.proxy.monitor.model.UpstreamRedisSpendStats;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionAddr;
+import com.netease.nim.camellia.redis.proxy.upstream.utils.ReadNodeSelectors;
 import com.netease.nim.camellia.tools.utils.CamelliaMapUtils;
 import com.netease.nim.camellia.redis.proxy.util.QuantileCollector;
 import com.netease.nim.camellia.redis.proxy.util.QuantileCollectorPool;
+import com.netease.nim.camellia.redis.proxy.util.ExecutorUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,6 +15,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
 
 public class UpstreamRedisSpendTimeMonitor {
@@ -24,9 +28,51 @@ public class UpstreamRedisSpendTimeMonitor {
     private static ConcurrentHashMap<String, LongAdder> spendCountMap = new ConcurrentHashMap<>();
     private static ConcurrentHashMap<String, LongAdder> spendTotalMap = new ConcurrentHashMap<>();
     private static ConcurrentHashMap<String, QuantileCollector> quantileMap = new ConcurrentHashMap<>();
+    private static ConcurrentHashMap<String, LongAdder> readNodeSelectMap = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Ewma> ewmaMap = new ConcurrentHashMap<>();
 
-    public static void incr(RedisConnectionAddr addr, long spendNanoTime) {
+    static {
+        ExecutorUtils.scheduleAtFixedRate(UpstreamRedisSpendTimeMonitor::pruneEwma, 10, 10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 请求发往后端，记录在途请求数
+     * @return 是否记录了，记录了的话需要在incr时扣减
+     */
+    public static boolean inflightIncr(RedisConnectionAddr addr) {
+        if (!ReadNodeSelectors.isLatencyAware()) {
+            return false;
+        }
+        try {
+            CamelliaMapUtils.computeIfAbsent(ewmaMap, addr.getUrl(), k -> new Ewma()).inflight.incrementAndGet();
+            return true;
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 请求没有发往后端（如队列满），扣减inflightIncr记录的在途请求数
+     */
+    public static void inflightDecr(RedisConnectionAddr addr) {
+        Ewma ewma = ewmaMap.get(addr.getUrl());
+        if (ewma != null) {
+            ewma.inflight.decrementAndGet();
+        }
+    }
+
+    public static void incr(RedisConnectionAddr addr, long spendNanoTime, boolean inflight) {
         try {
+            if (inflight) {
+                inflightDecr(addr);
+            }
+            if (ReadNodeSelectors.isLatencyAware()) {
+                CamelliaMapUtils.computeIfAbsent(ewmaMap, addr.getUrl(), k -> new Ewma()).update(spendNanoTime);
+            }
+            if (!ProxyMonitorCollector.isUpstreamRedisSpendTimeMonitorEnable()) {
+                return;
+            }
             CamelliaMapUtils.computeIfAbsent(spendCountMap, addr.getUrl(), k -> new LongAdder()).increment();
             CamelliaMapUtils.computeIfAbsent(spendTotalMap, addr.getUrl(), k -> new LongAdder()).add(spendNanoTime);
             QuantileCollector collector = CamelliaMapUtils.computeIfAbsent(quantileMap, addr.getUrl(),
@@ -37,18 +83,68 @@ public class UpstreamRedisSpendTimeMonitor {
         }
     }
 
+    /**
+     * 读节点选择的次数
+     */
+    public static void readNodeSelect(RedisConnectionAddr addr) {
+        if (!ProxyMonitorCollector.isUpstreamRedisSpendTimeMonitorEnable()) {
+            return;
+        }
+        CamelliaMapUtils.computeIfAbsent(readNodeSelectMap, addr.getUrl(), k -> new LongAdder()).increment();
+    }
+
+    /**
+     * 后端响应时间的EWMA，没有采样时返回-1，长时间没有采样时保持最后一次的值
+     */
+    public static double ewmaSpendNanos(RedisConnectionAddr addr) {
+        Ewma ewma = ewmaMap.get(addr.getUrl());
+        if (ewma == null) {
+            return -1;
+        }
+        return ewma.get();
+    }
+
+    /**
+     * 发往后端的在途请求数
+     */
+    public static int inflight(RedisConnectionAddr addr) {
+        Ewma ewma = ewmaMap.get(addr.getUrl());
+        if (ewma == null) {
+            return 0;
+        }
+        return Math.max(0, ewma.inflight.get());
+    }
+
+    //长时间没有请求的节点（比如已经下线）清理掉，重新出现时视为没有采样
+    private static void pruneEwma() {
+        try {
+            long now = System.nanoTime();
+            long expireNanos = ReadNodeSelectors.ewmaDecayNanos() * 6;
+            for (Map.Entry<String, Ewma> entry : ewmaMap.entrySet()) {
+                Ewma ewma = entry.getValue();
+                if (ewma.inflight.get() <= 0 && now - ewma.lastActiveNanos > expireNanos) {
+                    ewmaMap.remove(entry.getKey(), ewma);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("prune ewma error", e);
+        }
+    }
+
     public static List<UpstreamRedisSpendStats> collect() {
         count ++;
         List<UpstreamRedisSpendStats> list = new ArrayList<>();
         ConcurrentHashMap<String, LongAdder> spendCountMap = UpstreamRedisSpendTimeMonitor.spendCountMap;
         ConcurrentHashMap<String, LongAdder> spendTotalMap = UpstreamRedisSpendTimeMonitor.spendTotalMap;
         ConcurrentHashMap<String, QuantileCollector> quantileMap = UpstreamRedisSpendTimeMonitor.quantileMap;
+        ConcurrentHashMap<String, LongAdder> readNodeSelectMap = UpstreamRedisSpendTimeMonitor.readNodeSelectMap;
 
         boolean clear = false;
         if (count >= ProxyDynamicConf.getInt("monitor.cache.reset.interval.periods", 60)) {
             UpstreamRedisSpendTimeMonitor.spendCountMap = new ConcurrentHashMap<>();
             UpstreamRedisSpendTimeMonitor.spendTotalMap = new ConcurrentHashMap<>();
             UpstreamRedisSpendTimeMonitor.quantileMap = new ConcurrentHashMap<>();
+            UpstreamRedisSpendTimeMonitor.readNodeSelectMap = new ConcurrentHashMap<>();
             count = 0;
             clear = true;
         }
@@ -68,6 +164,14 @@ public class UpstreamRedisSpendTimeMonitor {
             upstreamRedisSpendStats.setAddr(PasswordMaskUtils.maskAddr(key));
             upstreamRedisSpendStats.setCount(count);
             upstreamRedisSpendStats.setAvgSpendMs(avgSpendMs);
+            LongAdder readNodeSelect = readNodeSelectMap.get(key);
+            if (readNodeSelect != null) {
+                upstreamRedisSpendStats.setReadNodeSelectCount(readNodeSelect.sumThenReset());
+            }
+            Ewma ewma = ewmaMap.get(key);
+            if (ewma != null && ewma.get() >= 0) {
+                upstreamRedisSpendStats.setEwmaSpendMs(ewma.get() / 1000000.0);
+            }
 
             QuantileCollector collector = quantileMap.get(key);
             if (collector != null) {
@@ -92,4 +196,34 @@ public class UpstreamRedisSpendTimeMonitor {
         }
         return list;
     }
+
+    /**
+     * 按时间衰减的EWMA，衰减周期为upstream.read.node.ewma.decay.millis（默认10s）
+     */
+    private static class Ewma {
+        private final AtomicInteger inflight = new AtomicInteger();
+        private volatile double value;
+        private volatile long lastUpdateNanos;
+        private volatile long lastActiveNanos = System.nanoTime();
+
+        void update(long spendNanoTime) {
+            long now = System.nanoTime();
+            long last = lastUpdateNanos;
+            if (last == 0) {
+                value = spendNanoTime;
+            } else {
+                double w = Math.exp(-(now - last) / (double) ReadNodeSelectors.ewmaDecayNanos());
+                value = value * w + spendNanoTime * (1 - w);
+            }
+            lastUpdateNanos = now;
+            lastActiveNanos = now;
+        }
+
+        double get() {
+            if (lastUpdateNanos == 0) {
+                return -1;
+            }
+            return value;
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package com.netease.nim.camellia.redis.proxy.monitor.model;
+
+/**
+ * Created by caojiajun on 2024/7/25
+ */
+public class ConcurrencyLimitStats {
+
+    private String bid;
+    private String bgroup;
+    private int limit;
+    private int inflight;
+    private double rttMs;
+    private double baseRttMs;
+    private long reject;
+
+    public String getBid() {
+        return bid;
+    }
+
+    public void setBid(String bid) {
+        this.bid = bid;
+    }
+
+    public String getBgroup() {
+        return bgroup;
+    }
+
+    public void setBgroup(String bgroup) {
+        this.bgroup = bgroup;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public int getInflight() {
+        return inflight;
+    }
+
+    public void setInflight(int inflight) {
+        this.inflight = inflight;
+    }
+
+    public double getRttMs() {
+        return rttMs;
+    }
+
+    public void setRttMs(double rttMs) {
+        this.rttMs = rttMs;
+    }
+
+    public double getBaseRttMs() {
+        return baseRttMs;
+    }
+
+    public void setBaseRttMs(double baseRttMs) {
+        this.baseRttMs = baseRttMs;
+    }
+
+    public long getReject() {
+        return reject;
+    }
+
+    public void setReject(long reject) {
+        this.reject = reject;
+    }
+}
@@ -0,0 +1,79 @@
+package com.netease.nim.camellia.redis.proxy.monitor.model;
+
+/**
+ * Created by caojiajun on 2024/7/17
+ */
+public class HotKeyCacheSizeStats {
+    private String bid;
+    private String bgroup;
+    private long cacheSize;
+    private long cacheWeightedSize;
+    private long cacheCapacity;
+    private long counterSize;
+    private long counterWeightedSize;
+    private long counterCapacity;
+
+    public String getBid() {
+        return bid;
+    }
+
+    public void setBid(String bid) {
+        this.bid = bid;
+    }
+
+    public String getBgroup() {
+        return bgroup;
+    }
+
+    public void setBgroup(String bgroup) {
+        this.bgroup = bgroup;
+    }
+
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(long cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public long getCacheWeightedSize() {
+        return cacheWeightedSize;
+    }
+
+    public void setCacheWeightedSize(long cacheWeightedSize) {
+        this.cacheWeightedSize = cacheWeightedSize;
+    }
+
+    public long getCacheCapacity() {
+        return cacheCapacity;
+    }
+
+    public void setCacheCapacity(long cacheCapacity) {
+        this.cacheCapacity = cacheCapacity;
+    }
+
+    public long getCounterSize() {
+        return counterSize;
+    }
+
+    public void setCounterSize(long counterSize) {
+        this.counterSize = counterSize;
+    }
+
+    public long getCounterWeightedSize() {
+        return counterWeightedSize;
+    }
+
+    public void setCounterWeightedSize(long counterWeightedSize) {
+        this.counterWeightedSize = counterWeightedSize;
+    }
+
+    public long getCounterCapacity() {
+        return counterCapacity;
+    }
+
+    public void setCounterCapacity(long counterCapacity) {
+        this.counterCapacity = counterCapacity;
+    }
+}
@@ -6,7 +6,10 @@ package com.netease.nim.camellia.redis.proxy.monitor.model;
 public class KvExecutorStats {
 
     private String name;
+    private String type;
     private int pending;
+    private long count;
+    private long steal;
 
     public String getName() {
         return name;
@@ -16,6 +19,14 @@ public class KvExecutorStats {
         this.name = name;
     }
 
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
     public int getPending() {
         return pending;
     }
@@ -23,4 +34,20 @@ public class KvExecutorStats {
     public void setPending(int pending) {
         this.pending = pending;
     }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getSteal() {
+        return steal;
+    }
+
+    public void setSteal(long steal) {
+        this.steal = steal;
+    }
 }
@@ -0,0 +1,71 @@
+package com.netease.nim.camellia.redis.proxy.monitor.model;
+
+/**
+ * Created by caojiajun on 2024/7/23
+ */
+public class KvExecutorWorkerStats {
+
+    private String name;
+    private int index;
+    private int ready;
+    private long count;
+    private double avgSpendMs;
+    private double maxSpendMs;
+    private long steal;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public int getReady() {
+        return ready;
+    }
+
+    public void setReady(int ready) {
+        this.ready = ready;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getAvgSpendMs() {
+        return avgSpendMs;
+    }
+
+    public void setAvgSpendMs(double avgSpendMs) {
+        this.avgSpendMs = avgSpendMs;
+    }
+
+    public double getMaxSpendMs() {
+        return maxSpendMs;
+    }
+
+    public void setMaxSpendMs(double maxSpendMs) {
+        this.maxSpendMs = maxSpendMs;
+    }
+
+    public long getSteal() {
+        return steal;
+    }
+
+    public void setSteal(long steal) {
+        this.steal = steal;
+    }
+}
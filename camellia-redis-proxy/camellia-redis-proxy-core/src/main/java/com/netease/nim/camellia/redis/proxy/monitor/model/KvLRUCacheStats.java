@@ -0,0 +1,79 @@
+package com.netease.nim.camellia.redis.proxy.monitor.model;
+
+/**
+ * Created by caojiajun on 2024/7/17
+ */
+public class KvLRUCacheStats {
+    private String namespace;
+    private String name;
+    private String type;
+    private long size;
+    private long weightedSize;
+    private long capacity;
+    private long oversizeHit;
+    private long oversizeDrop;
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public void setNamespace(String namespace) {
+        this.namespace = namespace;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    public void setWeightedSize(long weightedSize) {
+        this.weightedSize = weightedSize;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(long capacity) {
+        this.capacity = capacity;
+    }
+
+    public long getOversizeHit() {
+        return oversizeHit;
+    }
+
+    public void setOversizeHit(long oversizeHit) {
+        this.oversizeHit = oversizeHit;
+    }
+
+    public long getOversizeDrop() {
+        return oversizeDrop;
+    }
+
+    public void setOversizeDrop(long oversizeDrop) {
+        this.oversizeDrop = oversizeDrop;
+    }
+}
@@ -0,0 +1,107 @@
+package com.netease.nim.camellia.redis.proxy.monitor.model;
+
+/**
+ * Created by caojiajun on 2024/7/30
+ */
+public class ResourceSpendStats {
+
+    private String resource;
+    private long count;
+    private double avgSpendMs;
+    private double maxSpendMs;
+    private double spendMsP50;
+    private double spendMsP75;
+    private double spendMsP90;
+    private double spendMsP95;
+    private double spendMsP99;
+    private double spendMsP999;
+    private String histogram;
+
+    public String getResource() {
+        return resource;
+    }
+
+    public void setResource(String resource) {
+        this.resource = resource;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getAvgSpendMs() {
+        return avgSpendMs;
+    }
+
+    public void setAvgSpendMs(double avgSpendMs) {
+        this.avgSpendMs = avgSpendMs;
+    }
+
+    public double getMaxSpendMs() {
+        return maxSpendMs;
+    }
+
+    public void setMaxSpendMs(double maxSpendMs) {
+        this.maxSpendMs = maxSpendMs;
+    }
+
+    public double getSpendMsP50() {
+        return spendMsP50;
+    }
+
+    public void setSpendMsP50(double spendMsP50) {
+        this.spendMsP50 = spendMsP50;
+    }
+
+    public double getSpendMsP75() {
+        return spendMsP75;
+    }
+
+    public void setSpendMsP75(double spendMsP75) {
+        this.spendMsP75 = spendMsP75;
+    }
+
+    public double getSpendMsP90() {
+        return spendMsP90;
+    }
+
+    public void setSpendMsP90(double spendMsP90) {
+        this.spendMsP90 = spendMsP90;
+    }
+
+    public double getSpendMsP95() {
+        return spendMsP95;
+    }
+
+    public void setSpendMsP95(double spendMsP95) {
+        this.spendMsP95 = spendMsP95;
+    }
+
+    public double getSpendMsP99() {
+        return spendMsP99;
+    }
+
+    public void setSpendMsP99(double spendMsP99) {
+        this.spendMsP99 = spendMsP99;
+    }
+
+    public double getSpendMsP999() {
+        return spendMsP999;
+    }
+
+    public void setSpendMsP999(double spendMsP999) {
+        this.spendMsP999 = spendMsP999;
+    }
+
+    public String getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(String histogram) {
+        this.histogram = histogram;
+    }
+}
@@ -37,10 +37,17 @@ public class Stats {
     private List<BigKeyStats> bigKeyStatsList = new ArrayList<>();
     private List<HotKeyStats> hotKeyStatsList = new ArrayList<>();
     private List<HotKeyCacheStats> hotKeyCacheStatsList = new ArrayList<>();
+    private List<HotKeyCacheSizeStats> hotKeyCacheSizeStatsList = new ArrayList<>();
     private List<SlowCommandStats> slowCommandStatsList = new ArrayList<>();
     private List<UpstreamFailStats> upstreamFailStatsList = new ArrayList<>();
+    private List<UpstreamHedgeStats> upstreamHedgeStatsList = new ArrayList<>();
+    private List<ConcurrencyLimitStats> concurrencyLimitStatsList = new ArrayList<>();
+    private List<ResourceSpendStats> resourceSpendStatsList = new ArrayList<>();
+    private List<KeyPrefixSpendStats> keyPrefixSpendStatsList = new ArrayList<>();
     private List<KvCacheStats> kvCacheStatsList = new ArrayList<>();
+    private List<KvLRUCacheStats> kvLRUCacheStatsList = new ArrayList<>();
     private List<KvExecutorStats> kvExecutorStatsList = new ArrayList<>();
+    private List<KvExecutorWorkerStats> kvExecutorWorkerStatsList = new ArrayList<>();
     private List<KvGcStats> kvGcStatsList = new ArrayList<>();
     private List<KvWriteBufferStats> kvWriteBufferStatsList = new ArrayList<>();
     private List<KvStorageSpendStats> kvStorageSpendStatsList = new ArrayList<>();
@@ -245,6 +252,14 @@ public class Stats {
         this.hotKeyCacheStatsList = hotKeyCacheStatsList;
     }
 
+    public List<HotKeyCacheSizeStats> getHotKeyCacheSizeStatsList() {
+        return hotKeyCacheSizeStatsList;
+    }
+
+    public void setHotKeyCacheSizeStatsList(List<HotKeyCacheSizeStats> hotKeyCacheSizeStatsList) {
+        this.hotKeyCacheSizeStatsList = hotKeyCacheSizeStatsList;
+    }
+
     public List<SlowCommandStats> getSlowCommandStatsList() {
         return slowCommandStatsList;
     }
@@ -261,6 +276,38 @@ public class Stats {
         this.upstreamFailStatsList = upstreamFailStatsList;
     }
 
+    public List<UpstreamHedgeStats> getUpstreamHedgeStatsList() {
+        return upstreamHedgeStatsList;
+    }
+
+    public void setUpstreamHedgeStatsList(List<UpstreamHedgeStats> upstreamHedgeStatsList) {
+        this.upstreamHedgeStatsList = upstreamHedgeStatsList;
+    }
+
+    public List<ConcurrencyLimitStats> getConcurrencyLimitStatsList() {
+        return concurrencyLimitStatsList;
+    }
+
+    public void setConcurrencyLimitStatsList(List<ConcurrencyLimitStats> concurrencyLimitStatsList) {
+        this.concurrencyLimitStatsList = concurrencyLimitStatsList;
+    }
+
+    public List<ResourceSpendStats> getResourceSpendStatsList() {
+        return resourceSpendStatsList;
+    }
+
+    public void setResourceSpendStatsList(List<ResourceSpendStats> resourceSpendStatsList) {
+        this.resourceSpendStatsList = resourceSpendStatsList;
+    }
+
+    public List<KeyPrefixSpendStats> getKeyPrefixSpendStatsList() {
+        return keyPrefixSpendStatsList;
+    }
+
+    public void setKeyPrefixSpendStatsList(List<KeyPrefixSpendStats> keyPrefixSpendStatsList) {
+        this.keyPrefixSpendStatsList = keyPrefixSpendStatsList;
+    }
+
     public List<KvCacheStats> getKvCacheStatsList() {
         return kvCacheStatsList;
     }
@@ -269,6 +316,14 @@ public class Stats {
         this.kvCacheStatsList = kvCacheStatsList;
     }
 
+    public List<KvLRUCacheStats> getKvLRUCacheStatsList() {
+        return kvLRUCacheStatsList;
+    }
+
+    public void setKvLRUCacheStatsList(List<KvLRUCacheStats> kvLRUCacheStatsList) {
+        this.kvLRUCacheStatsList = kvLRUCacheStatsList;
+    }
+
     public List<KvExecutorStats> getKvExecutorStatsList() {
         return kvExecutorStatsList;
     }
@@ -277,6 +332,14 @@ public class Stats {
         this.kvExecutorStatsList = kvExecutorStatsList;
     }
 
+    public List<KvExecutorWorkerStats> getKvExecutorWorkerStatsList() {
+        return kvExecutorWorkerStatsList;
+    }
+
+    public void setKvExecutorWorkerStatsList(List<KvExecutorWorkerStats> kvExecutorWorkerStatsList) {
+        this.kvExecutorWorkerStatsList = kvExecutorWorkerStatsList;
+    }
+
     public List<KvGcStats> getKvGcStatsList() {
         return kvGcStatsList;
     }
@@ -0,0 +1,53 @@
+package com.netease.nim.camellia.redis.proxy.monitor.model;
+
+/**
+ * Created by caojiajun on 2024/7/24
+ */
+public class UpstreamHedgeStats {
+
+    private String resource;
+    private double delayMs;
+    private long hedge;
+    private long win;
+    private long skip;
+
+    public String getResource() {
+        return resource;
+    }
+
+    public void setResource(String resource) {
+        this.resource = resource;
+    }
+
+    public double getDelayMs() {
+        return delayMs;
+    }
+
+    public void setDelayMs(double delayMs) {
+        this.delayMs = delayMs;
+    }
+
+    public long getHedge() {
+        return hedge;
+    }
+
+    public void setHedge(long hedge) {
+        this.hedge = hedge;
+    }
+
+    public long getWin() {
+        return win;
+    }
+
+    public void setWin(long win) {
+        this.win = win;
+    }
+
+    public long getSkip() {
+        return skip;
+    }
+
+    public void setSkip(long skip) {
+        this.skip = skip;
+    }
+}
@@ -14,6 +14,8 @@ public class UpstreamRedisSpendStats {
     private double spendMsP95;
     private double spendMsP99;
     private double spendMsP999;
+    private long readNodeSelectCount;
+    private double ewmaSpendMs;
 
     public String getAddr() {
         return addr;
@@ -94,4 +96,20 @@ public class UpstreamRedisSpendStats {
     public void setSpendMsP999(double spendMsP999) {
         this.spendMsP999 = spendMsP999;
     }
+
+    public long getReadNodeSelectCount() {
+        return readNodeSelectCount;
+    }
+
+    public void setReadNodeSelectCount(long readNodeSelectCount) {
+        this.readNodeSelectCount = readNodeSelectCount;
+    }
+
+    public double getEwmaSpendMs() {
+        return ewmaSpendMs;
+    }
+
+    public void setEwmaSpendMs(double ewmaSpendMs) {
+        this.ewmaSpendMs = ewmaSpendMs;
+    }
 }
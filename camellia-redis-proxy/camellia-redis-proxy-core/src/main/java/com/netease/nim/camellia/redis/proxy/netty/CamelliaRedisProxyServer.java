@@ -101,7 +101,8 @@ public class CamelliaRedisProxyServer {
                                     serverProperties.getWriterIdleTimeSeconds(), serverProperties.getAllIdleTimeSeconds()));
                         }
                         //command decoder
-                        pipeline.addLast(new CommandDecoder(serverProperties.getCommandDecodeMaxBatchSize(), serverProperties.getCommandDecodeBufferInitializerSize()));
+                        pipeline.addLast(new CommandDecoder(serverProperties.getCommandDecodeMaxBatchSize(), serverProperties.getCommandDecodeBufferInitializerSize(),
+                                serverProperties.getCommandDecodeZeroCopyThreshold()));
                         //reply encoder
                         pipeline.addLast(new ReplyEncoder());
                         //connect manager
@@ -119,6 +120,7 @@ public class CamelliaRedisProxyServer {
                 serverProperties.getSoBacklog(), serverProperties.getSoSndbuf(), serverProperties.getSoRcvbuf(), serverProperties.isSoKeepalive());
         logger.info("CamelliaRedisProxyServer, tcp_no_delay = {}, tcp_quick_ack = {}, write_buffer_water_mark_low = {}, write_buffer_water_mark_high = {}",
                 serverProperties.isTcpNoDelay(), GlobalRedisProxyEnv.isServerTcpQuickAckEnable(), serverProperties.getWriteBufferWaterMarkLow(), serverProperties.getWriteBufferWaterMarkHigh());
+        logger.info("CamelliaRedisProxyServer, command_decode_zero_copy_threshold = {}", serverProperties.getCommandDecodeZeroCopyThreshold());
         logger.info("CamelliaRedisProxyServer, proxy_protocol_enable = {}", proxyProtocolEnable);
         if (proxyProtocolEnable) {
             logger.info("CamelliaRedisProxyServer, proxy_protocol_ports = {}", proxyProtocolPorts);
@@ -55,7 +55,8 @@ public class CamelliaRedisProxyUdsServer {
                                     serverProperties.getWriterIdleTimeSeconds(), serverProperties.getAllIdleTimeSeconds()));
                         }
                         //command decoder
-                        pipeline.addLast(new CommandDecoder(serverProperties.getCommandDecodeMaxBatchSize(), serverProperties.getCommandDecodeBufferInitializerSize()));
+                        pipeline.addLast(new CommandDecoder(serverProperties.getCommandDecodeMaxBatchSize(), serverProperties.getCommandDecodeBufferInitializerSize(),
+                                serverProperties.getCommandDecodeZeroCopyThreshold()));
                         //reply encoder
                         pipeline.addLast(new ReplyEncoder());
                         //connect manager
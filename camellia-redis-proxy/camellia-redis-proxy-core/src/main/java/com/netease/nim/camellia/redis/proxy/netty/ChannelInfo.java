@@ -8,6 +8,7 @@ import com.netease.nim.camellia.redis.proxy.http.HttpCommandTaskQueue;
 import com.netease.nim.camellia.redis.proxy.monitor.ProxyMonitorCollector;
 import com.netease.nim.camellia.redis.proxy.monitor.UpstreamFailMonitor;
 import com.netease.nim.camellia.redis.proxy.reply.Reply;
+import com.netease.nim.camellia.redis.proxy.tracking.ClientTrackingState;
 import com.netease.nim.camellia.redis.proxy.upstream.IUpstreamClient;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnection;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionAddr;
@@ -91,6 +92,9 @@ public class ChannelInfo {
     private String sourceAddress = null;
     private int sourcePort = -1;
 
+    private volatile boolean resp3 = false;
+    private volatile ClientTrackingState clientTrackingState;
+
     public ChannelInfo() {
         this.consid = null;
         this.ctx = null;
@@ -251,6 +255,20 @@ public class ChannelInfo {
         }
     }
 
+    public ChannelFuture write(Command command, Object object) {
+        if (channelType == ChannelType.http) {
+            return writeAndFlush(command, object);
+        } else {
+            return ctx.write(object);
+        }
+    }
+
+    public void flush() {
+        if (channelType != ChannelType.http) {
+            ctx.flush();
+        }
+    }
+
     public ChannelFuture writeAndFlush(Object object) {
         if (channelType == ChannelType.http) {
             throw new IllegalArgumentException("illegal invoke in http channel");
@@ -352,6 +370,7 @@ public class ChannelInfo {
             ErrorLogCollector.collect(ChannelInfo.class, "blocking command do not support transaction multi-write");
             return;
         }
+        command.disableZeroCopy();
         if (cachedCommands == null) {
             synchronized (this) {
                 if (cachedCommands == null) {
@@ -636,6 +655,22 @@ public class ChannelInfo {
         return httpCommandTaskQueue;
     }
 
+    public boolean isResp3() {
+        return resp3;
+    }
+
+    public void setResp3(boolean resp3) {
+        this.resp3 = resp3;
+    }
+
+    public ClientTrackingState getClientTrackingState() {
+        return clientTrackingState;
+    }
+
+    public void setClientTrackingState(ClientTrackingState clientTrackingState) {
+        this.clientTrackingState = clientTrackingState;
+    }
+
     public static enum ChannelStats {
         AUTH_OK,
         NO_AUTH,
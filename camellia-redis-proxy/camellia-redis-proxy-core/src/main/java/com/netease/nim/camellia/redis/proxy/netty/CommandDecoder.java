@@ -19,12 +19,23 @@ public class CommandDecoder extends ByteToMessageDecoder {
     private List<Command> commands;
 
     private byte[][] bytes;
+    private ByteBuf[] zeroCopyBytes;
     private int index = 0;
 
     private int commandDecodeMaxBatchSize = Constants.Server.commandDecodeMaxBatchSize;
     private int commandDecodeBufferInitializerSize = Constants.Server.commandDecodeBufferInitializerSize;
+    private int commandDecodeZeroCopyThreshold = Constants.Server.commandDecodeZeroCopyThreshold;
 
     public CommandDecoder(int commandDecodeMaxBatchSize, int commandDecodeBufferInitializerSize) {
+        this(commandDecodeMaxBatchSize, commandDecodeBufferInitializerSize, Constants.Server.commandDecodeZeroCopyThreshold);
+    }
+
+    /**
+     * @param commandDecodeMaxBatchSize max batch size
+     * @param commandDecodeBufferInitializerSize buffer initializer size
+     * @param commandDecodeZeroCopyThreshold 大于等于该阈值的参数（不包括命令名和第一个key）不拷贝到byte[]，而是持有入站ByteBuf的slice，小于等于0表示关闭
+     */
+    public CommandDecoder(int commandDecodeMaxBatchSize, int commandDecodeBufferInitializerSize, int commandDecodeZeroCopyThreshold) {
         super();
         if (commandDecodeMaxBatchSize > 0) {
             this.commandDecodeMaxBatchSize = commandDecodeMaxBatchSize;
@@ -32,6 +43,7 @@ public class CommandDecoder extends ByteToMessageDecoder {
         if (commandDecodeBufferInitializerSize > 0) {
             this.commandDecodeBufferInitializerSize = commandDecodeBufferInitializerSize;
         }
+        this.commandDecodeZeroCopyThreshold = commandDecodeZeroCopyThreshold;
         this.commands = new ArrayList<>(this.commandDecodeBufferInitializerSize);
     }
 
@@ -79,8 +91,15 @@ public class CommandDecoder extends ByteToMessageDecoder {
                             }
                             int size = (int)parseRedisNumber(byteBuf);
                             if (in.readableBytes() >= size + 2) {
-                                bytes[i] = new byte[size];
-                                in.readBytes(bytes[i]);
+                                if (commandDecodeZeroCopyThreshold > 0 && i >= 2 && size >= commandDecodeZeroCopyThreshold) {
+                                    if (zeroCopyBytes == null) {
+                                        zeroCopyBytes = new ByteBuf[numArgs];
+                                    }
+                                    zeroCopyBytes[i] = in.readRetainedSlice(size);
+                                } else {
+                                    bytes[i] = new byte[size];
+                                    in.readBytes(bytes[i]);
+                                }
                                 in.skipBytes(2);
                             } else {
                                 in.readerIndex(readerIndex);
@@ -92,7 +111,7 @@ public class CommandDecoder extends ByteToMessageDecoder {
                         }
                     }
                     try {
-                        Command command = new Command(bytes);
+                        Command command = zeroCopyBytes == null ? new Command(bytes) : new Command(bytes, zeroCopyBytes);
                         commands.add(command);
                         if (commands.size() >= commandDecodeMaxBatchSize) {
                             out.add(commands);
@@ -100,6 +119,7 @@ public class CommandDecoder extends ByteToMessageDecoder {
                         }
                     } finally {
                         bytes = null;
+                        zeroCopyBytes = null;
                         index = 0;
                     }
                 }
@@ -112,6 +132,19 @@ public class CommandDecoder extends ByteToMessageDecoder {
         }
     }
 
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext ctx) {
+        //release the slices of the half decoded command
+        if (zeroCopyBytes != null) {
+            for (ByteBuf buf : zeroCopyBytes) {
+                if (buf != null) {
+                    buf.release();
+                }
+            }
+            zeroCopyBytes = null;
+        }
+    }
+
     private static final int POSITIVE_LONG_MAX_LENGTH = 19; // length of Long.MAX_VALUE
     private static final int EOL_LENGTH = 2;
 
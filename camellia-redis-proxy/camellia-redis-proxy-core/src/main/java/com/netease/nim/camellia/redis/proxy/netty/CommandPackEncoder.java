@@ -29,12 +29,19 @@ public class CommandPackEncoder extends MessageToMessageEncoder<CommandPack> {
     private final Queue<CompletableFuture<Reply>> queue;
     private final RedisConnection redisConnection;
     private final CommandPackRecycler commandPackRecycler;
+    private final Queue<Boolean> passThroughMarks;
 
     public CommandPackEncoder(RedisConnection redisConnection, CommandPackRecycler commandPackRecycler, Queue<CompletableFuture<Reply>> queue) {
+        this(redisConnection, commandPackRecycler, queue, null);
+    }
+
+    public CommandPackEncoder(RedisConnection redisConnection, CommandPackRecycler commandPackRecycler,
+                              Queue<CompletableFuture<Reply>> queue, Queue<Boolean> passThroughMarks) {
         super();
         this.redisConnection = redisConnection;
         this.commandPackRecycler = commandPackRecycler;
         this.queue = queue;
+        this.passThroughMarks = passThroughMarks;
     }
 
     @Override
@@ -43,25 +50,37 @@ public class CommandPackEncoder extends MessageToMessageEncoder<CommandPack> {
             List<Command> commands = msg.getCommands();
             long startTime = msg.getStartTime();
             RedisConnectionStatus status = redisConnection.getStatus();
-            for (CompletableFuture<Reply> future : msg.getCompletableFutureList()) {
+            List<CompletableFuture<Reply>> futureList = msg.getCompletableFutureList();
+            for (int i = 0; i < futureList.size(); i++) {
+                CompletableFuture<Reply> future = futureList.get(i);
                 if (status == RedisConnectionStatus.INVALID) {
                     future.complete(ErrorReply.UPSTREAM_CONNECTION_STATUS_INVALID);
                     continue;
                 }
+                CompletableFutureWithTime<Reply> futureWithTime = null;
                 boolean offer;
                 if (startTime > 0) {
-                    offer = queue.offer(new CompletableFutureWithTime<>(future, redisConnection.getAddr(), startTime));
+                    futureWithTime = new CompletableFutureWithTime<>(future, redisConnection.getAddr(), startTime);
+                    offer = queue.offer(futureWithTime);
                 } else {
                     offer = queue.offer(future);
                 }
                 if (!offer) {
                     String log = redisConnection.getConnectionName() + ", queue full, will stop";
                     ErrorLogCollector.collect(CommandPackEncoder.class, log);
+                    if (futureWithTime != null) {
+                        futureWithTime.release();
+                    }
                     future.complete(ErrorReply.UPSTREAM_CONNECTION_QUEUE_FULL);
                     redisConnection.stop();
+                } else if (passThroughMarks != null) {
+                    passThroughMarks.offer(i < commands.size() && commands.get(i).isPassThroughReply());
                 }
             }
             if (status == RedisConnectionStatus.INVALID) {
+                for (Command command : commands) {
+                    command.releaseZeroCopySend();
+                }
                 return;
             }
             if (commands.isEmpty()) return;
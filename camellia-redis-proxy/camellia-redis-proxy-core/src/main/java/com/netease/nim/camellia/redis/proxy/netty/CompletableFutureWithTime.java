@@ -10,16 +10,27 @@ public class CompletableFutureWithTime<T> extends CompletableFuture<T> {
     private final RedisConnectionAddr addr;
     private final CompletableFuture<T> future;
     private final long startTime;
+    private final boolean inflight;
 
     public CompletableFutureWithTime(CompletableFuture<T> future, RedisConnectionAddr addr, long startTime) {
         this.future = future;
         this.addr = addr;
         this.startTime = startTime;
+        this.inflight = UpstreamRedisSpendTimeMonitor.inflightIncr(addr);
     }
 
     @Override
     public boolean complete(T value) {
-        UpstreamRedisSpendTimeMonitor.incr(addr, System.nanoTime() - startTime);
+        UpstreamRedisSpendTimeMonitor.incr(addr, System.nanoTime() - startTime, inflight);
         return future.complete(value);
     }
+
+    /**
+     * 没有入队时调用，只扣减在途请求数，不记录耗时
+     */
+    public void release() {
+        if (inflight) {
+            UpstreamRedisSpendTimeMonitor.inflightDecr(addr);
+        }
+    }
 }
@@ -9,6 +9,7 @@ import io.netty.util.CharsetUtil;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Queue;
 
 /**
  * Created by caojiajun on 2022/11/2
@@ -18,9 +19,48 @@ public class ReplyDecoder extends ByteToMessageDecoder {
     private Marker marker;
     private int bulkSize = Integer.MIN_VALUE;
 
+    //与CommandPackEncoder共享，每个请求一个标记，表示该请求的回包是否直接透传
+    private final Queue<Boolean> passThroughMarks;
+    private long remaining = 0;//当前顶层回包还剩多少个元素未解析
+    private boolean passThrough = false;
+    private int passThroughOffset = 0;
+    private long passThroughRemaining = 0;
+
+    public ReplyDecoder() {
+        this(null);
+    }
+
+    public ReplyDecoder(Queue<Boolean> passThroughMarks) {
+        this.passThroughMarks = passThroughMarks;
+    }
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
         while (true) {
+            if (marker == null && remaining == 0 && passThroughMarks != null) {
+                if (!passThrough) {
+                    if (in.readableBytes() <= 1) {
+                        return;
+                    }
+                    Boolean mark = passThroughMarks.poll();
+                    //error reply should be decoded, such as MOVED/ASK
+                    if (mark != null && mark && in.getByte(in.readerIndex()) != Marker.ErrorReply.getMarker()) {
+                        passThrough = true;
+                        passThroughOffset = 0;
+                        passThroughRemaining = 1;
+                    }
+                }
+                if (passThrough) {
+                    if (!scanPassThroughFrame(in)) {
+                        return;
+                    }
+                    byte[] raw = new byte[passThroughOffset];
+                    in.readBytes(raw);
+                    out.add(new PassThroughReply(raw));
+                    passThrough = false;
+                    continue;
+                }
+            }
             if (marker == null) {
                 if (in.readableBytes() > 1) {
                     byte b = in.readByte();
@@ -41,6 +81,7 @@ public class ReplyDecoder extends ByteToMessageDecoder {
                     StatusReply reply = new StatusReply(charSequence.toString());
                     out.add(reply);
                     marker = null;
+                    itemDecoded(0);
                 } else if (marker == Marker.BulkReply) {
                     if (bulkSize == Integer.MIN_VALUE) {
                         ByteBuf byteBuf = readLine(in);
@@ -53,6 +94,7 @@ public class ReplyDecoder extends ByteToMessageDecoder {
                             out.add(BulkReply.NIL_REPLY);
                             marker = null;
                             bulkSize = Integer.MIN_VALUE;
+                            itemDecoded(0);
                             continue;
                         }
                         readerIndex = in.readerIndex();
@@ -64,6 +106,7 @@ public class ReplyDecoder extends ByteToMessageDecoder {
                         out.add(new BulkReply(raw));
                         marker = null;
                         bulkSize = Integer.MIN_VALUE;
+                        itemDecoded(0);
                     } else {
                         in.readerIndex(readerIndex);
                         return;
@@ -77,6 +120,7 @@ public class ReplyDecoder extends ByteToMessageDecoder {
                     long l = parseRedisNumber(byteBuf);
                     out.add(new IntegerReply(l));
                     marker = null;
+                    itemDecoded(0);
                 } else if (marker == Marker.MultiBulkReply) {
                     ByteBuf byteBuf = readLine(in);
                     if (byteBuf == null) {
@@ -92,6 +136,7 @@ public class ReplyDecoder extends ByteToMessageDecoder {
                         out.add(MultiBulkReplyHeader.gen((int) l));
                     }
                     marker = null;
+                    itemDecoded(l);
                 } else if (marker == Marker.ErrorReply) {
                     ByteBuf byteBuf = readLine(in);
                     if (byteBuf == null) {
@@ -102,6 +147,7 @@ public class ReplyDecoder extends ByteToMessageDecoder {
                     ErrorReply reply = new ErrorReply(charSequence.toString());
                     out.add(reply);
                     marker = null;
+                    itemDecoded(0);
                 }
             } else {
                 return;
@@ -109,6 +155,69 @@ public class ReplyDecoder extends ByteToMessageDecoder {
         }
     }
 
+    private void itemDecoded(long children) {
+        if (passThroughMarks == null) return;
+        if (remaining > 0) {
+            remaining --;
+        }
+        if (children > 0) {
+            remaining += children;
+        }
+    }
+
+    /**
+     * 从readerIndex开始扫描一个完整的RESP回包，不移动readerIndex，扫描进度保存在passThroughOffset和passThroughRemaining中
+     * @param in in
+     * @return true if a complete frame is available
+     */
+    private boolean scanPassThroughFrame(ByteBuf in) {
+        final int readerIndex = in.readerIndex();
+        final int writerIndex = in.writerIndex();
+        while (passThroughRemaining > 0) {
+            int start = readerIndex + passThroughOffset;
+            if (writerIndex - start < EOL_LENGTH + 1) {
+                return false;
+            }
+            int lfIndex = in.indexOf(start, writerIndex, (byte) '\n');
+            if (lfIndex < 0) {
+                return false;
+            }
+            byte b = in.getByte(start);
+            int next = lfIndex + 1;
+            long children = 0;
+            if (b == Marker.BulkReply.getMarker()) {
+                long size = parseRedisNumber(in, start + 1, lfIndex - 1);
+                if (size >= 0) {
+                    if ((long) writerIndex - next < size + EOL_LENGTH) {
+                        return false;
+                    }
+                    next += (int) size + EOL_LENGTH;
+                }
+            } else if (b == Marker.MultiBulkReply.getMarker()) {
+                children = parseRedisNumber(in, start + 1, lfIndex - 1);
+            }
+            passThroughOffset = next - readerIndex;
+            passThroughRemaining --;
+            if (children > 0) {
+                passThroughRemaining += children;
+            }
+        }
+        return true;
+    }
+
+    private static long parseRedisNumber(ByteBuf in, int start, int end) {
+        boolean negative = start < end && in.getByte(start) == '-';
+        long result = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            byte value = in.getByte(i);
+            if (value < '0' || value > '9') {
+                throw new IllegalArgumentException("bad byte in number: " + value);
+            }
+            result = result * 10 + (value - '0');
+        }
+        return negative ? -result : result;
+    }
+
     private static final int POSITIVE_LONG_MAX_LENGTH = 19; // length of Long.MAX_VALUE
     private static final int EOL_LENGTH = 2;
 
@@ -33,6 +33,8 @@ public enum BuildInProxyPluginEnum {
     RATE_LIMIT_PLUGIN("rateLimitPlugin", RateLimitProxyPlugin.class, Integer.MAX_VALUE - 30000, 0),
     //Dynamic Rate Limit, configured by camellia-dashboard
     DYNAMIC_RATE_LIMIT_PLUGIN("dynamicRateLimitPlugin", DynamicRateLimitProxyPlugin.class, Integer.MAX_VALUE - 30000, 0),
+    //根据后端响应时间自适应调整并发上限，reply需要最先执行，确保并发许可被释放
+    CONCURRENCY_LIMIT_PLUGIN("concurrencyLimitPlugin", ConcurrencyLimitProxyPlugin.class, Integer.MAX_VALUE - 35000, Integer.MAX_VALUE),
     //用于拦截非法的key，直接快速失败
     TROUBLE_TRICK_KEYS_PLUGIN("troubleTrickKeysPlugin", TroubleTrickKeysProxyPlugin.class, Integer.MAX_VALUE - 40000, 0),
 
@@ -0,0 +1,340 @@
+package com.netease.nim.camellia.redis.proxy.plugin.bigkey;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.netease.nim.camellia.core.model.Resource;
+import com.netease.nim.camellia.core.util.ResourceUtil;
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import com.netease.nim.camellia.redis.proxy.enums.RedisCommand;
+import com.netease.nim.camellia.redis.proxy.info.UpstreamInfoUtils;
+import com.netease.nim.camellia.redis.proxy.monitor.PasswordMaskUtils;
+import com.netease.nim.camellia.redis.proxy.netty.GlobalRedisProxyEnv;
+import com.netease.nim.camellia.redis.proxy.reply.*;
+import com.netease.nim.camellia.redis.proxy.upstream.IUpstreamClientTemplate;
+import com.netease.nim.camellia.redis.proxy.upstream.IUpstreamClientTemplateFactory;
+import com.netease.nim.camellia.redis.proxy.upstream.IUpstreamRedisClientTemplate;
+import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnection;
+import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionAddr;
+import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionHub;
+import com.netease.nim.camellia.redis.proxy.util.Utils;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 后台大key分析，遍历bid/bgroup路由下所有后端redis的master节点（SCAN + TYPE + MEMORY USAGE），按resource输出内存占用的top-N和各类型的统计
+ * <p>
+ * 同时分析的节点数、每个节点每秒分析的key数都有限制，避免影响后端redis，分析过程中可以随时查询当前的结果
+ * <p>
+ * 同一时间只能有一个分析任务，通过PROXY BIGKEY命令或者console的/bigkey接口触发
+ * Created by caojiajun on 2024/7/29
+ */
+public class BigKeyAnalyzer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BigKeyAnalyzer.class);
+
+    private static final byte[] SCAN = RedisCommand.SCAN.raw();
+    private static final byte[] TYPE = RedisCommand.TYPE.raw();
+    private static final byte[] MEMORY = Utils.stringToBytes("MEMORY");
+    private static final byte[] USAGE = Utils.stringToBytes("USAGE");
+    private static final byte[] SAMPLES = Utils.stringToBytes("SAMPLES");
+    private static final byte[] COUNT = Utils.stringToBytes("COUNT");
+    private static final byte[] ZERO_CURSOR = Utils.stringToBytes("0");
+
+    private static volatile Task task;
+
+    /**
+     * 启动分析任务
+     * @param bid bid
+     * @param bgroup bgroup
+     * @return null if success, or error message
+     */
+    public static synchronized String start(Long bid, String bgroup) {
+        if (task != null && task.running) {
+            return "big key analyzer is running";
+        }
+        IUpstreamClientTemplateFactory factory = GlobalRedisProxyEnv.getClientTemplateFactory();
+        if (factory == null) {
+            return "upstream client template factory not init";
+        }
+        IUpstreamClientTemplate template = factory.getOrInitialize(bid, bgroup);
+        if (!(template instanceof IUpstreamRedisClientTemplate)) {
+            return "upstream not support";
+        }
+        Set<Resource> resources = ResourceUtil.getAllResources(((IUpstreamRedisClientTemplate) template).getResourceTable());
+        Task newTask = new Task(bid, bgroup, new ArrayList<>(resources));
+        task = newTask;
+        Thread thread = new DefaultThreadFactory("big-key-analyzer").newThread(newTask::run);
+        thread.start();
+        logger.info("big key analyzer start, bid = {}, bgroup = {}", bid, bgroup);
+        return null;
+    }
+
+    /**
+     * 停止分析任务
+     */
+    public static void stop() {
+        Task task = BigKeyAnalyzer.task;
+        if (task != null && task.running) {
+            task.stopped = true;
+            logger.info("big key analyzer stop, bid = {}, bgroup = {}", task.bid, task.bgroup);
+        }
+    }
+
+    /**
+     * 当前（或者最近一次）分析任务的结果
+     * @return json
+     */
+    public static JSONObject status() {
+        Task task = BigKeyAnalyzer.task;
+        if (task == null) {
+            JSONObject json = new JSONObject();
+            json.put("running", false);
+            return json;
+        }
+        return task.toJson();
+    }
+
+    private static class Task {
+        private final Long bid;
+        private final String bgroup;
+        private final List<ResourceResult> results = new ArrayList<>();
+        private final long startTime = System.currentTimeMillis();
+        private volatile long endTime = -1;
+        private volatile boolean running = true;
+        private volatile boolean stopped = false;
+
+        private final int concurrency;
+        private final int scanCount;
+        private final int keysPerSecond;
+        private final int samples;
+        private final int topN;
+
+        Task(Long bid, String bgroup, List<Resource> resources) {
+            this.bid = bid;
+            this.bgroup = bgroup;
+            this.concurrency = Math.max(1, ProxyDynamicConf.getInt("big.key.analyzer.concurrency", 2));
+            this.scanCount = Math.max(1, ProxyDynamicConf.getInt("big.key.analyzer.scan.count", 100));
+            this.keysPerSecond = ProxyDynamicConf.getInt("big.key.analyzer.node.keys.per.second", 1000);
+            this.samples = ProxyDynamicConf.getInt("big.key.analyzer.memory.usage.samples", 5);
+            this.topN = Math.max(1, ProxyDynamicConf.getInt("big.key.analyzer.top.n", 100));
+            for (Resource resource : resources) {
+                results.add(new ResourceResult(resource, topN));
+            }
+        }
+
+        void run() {
+            ExecutorService executor = Executors.newFixedThreadPool(concurrency, new DefaultThreadFactory("big-key-analyzer-worker"));
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (ResourceResult result : results) {
+                    List<RedisConnectionAddr> nodes;
+                    try {
+                        nodes = UpstreamInfoUtils.masterNodes(result.resource);
+                    } catch (Exception e) {
+                        logger.error("big key analyzer get master nodes error, resource = {}", PasswordMaskUtils.maskResource(result.resource), e);
+                        nodes = null;
+                    }
+                    if (nodes == null) {
+                        result.error = "resource not support";
+                        continue;
+                    }
+                    result.totalNodes = nodes.size();
+                    for (RedisConnectionAddr node : nodes) {
+                        futures.add(executor.submit(() -> analyze(result, node)));
+                    }
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (Exception e) {
+                logger.error("big key analyzer error, bid = {}, bgroup = {}", bid, bgroup, e);
+            } finally {
+                executor.shutdownNow();
+                endTime = System.currentTimeMillis();
+                running = false;
+                logger.info("big key analyzer end, bid = {}, bgroup = {}, stopped = {}, spend = {}ms", bid, bgroup, stopped, endTime - startTime);
+            }
+        }
+
+        private void analyze(ResourceResult result, RedisConnectionAddr node) {
+            RedisConnection connection = null;
+            try {
+                connection = RedisConnectionHub.getInstance().newConnection(result.resource, null, node);
+                if (connection == null) {
+                    result.failedNodes.incrementAndGet();
+                    return;
+                }
+                long startTime = System.currentTimeMillis();
+                long keys = 0;
+                byte[] cursor = ZERO_CURSOR;
+                do {
+                    if (stopped) return;
+                    Reply reply = connection.sendCommand(SCAN, cursor, COUNT, Utils.stringToBytes(String.valueOf(scanCount))).get(10, TimeUnit.SECONDS);
+                    if (!(reply instanceof MultiBulkReply)) {
+                        throw new IllegalStateException("scan error, reply = " + reply);
+                    }
+                    Reply[] replies = ((MultiBulkReply) reply).getReplies();
+                    cursor = ((BulkReply) replies[0]).getRaw();
+                    Reply[] keyReplies = ((MultiBulkReply) replies[1]).getReplies();
+                    if (keyReplies == null || keyReplies.length == 0) continue;
+                    //pipeline
+                    List<CompletableFuture<Reply>> typeFutures = new ArrayList<>(keyReplies.length);
+                    List<CompletableFuture<Reply>> memoryFutures = new ArrayList<>(keyReplies.length);
+                    for (Reply keyReply : keyReplies) {
+                        byte[] key = ((BulkReply) keyReply).getRaw();
+                        typeFutures.add(connection.sendCommand(TYPE, key));
+                        memoryFutures.add(connection.sendCommand(MEMORY, USAGE, key, SAMPLES, Utils.stringToBytes(String.valueOf(samples))));
+                    }
+                    for (int i=0; i<keyReplies.length; i++) {
+                        Reply typeReply = typeFutures.get(i).get(10, TimeUnit.SECONDS);
+                        Reply memoryReply = memoryFutures.get(i).get(10, TimeUnit.SECONDS);
+                        if (memoryReply instanceof ErrorReply) {
+                            throw new IllegalStateException("memory usage error, reply = " + ((ErrorReply) memoryReply).getError());
+                        }
+                        if (!(memoryReply instanceof IntegerReply) || !(typeReply instanceof StatusReply)) {
+                            //key deleted
+                            continue;
+                        }
+                        String type = ((StatusReply) typeReply).getStatus();
+                        long bytes = ((IntegerReply) memoryReply).getInteger();
+                        result.record(((BulkReply) keyReplies[i]).getRaw(), type, bytes, node);
+                    }
+                    keys += keyReplies.length;
+                    //rate limit
+                    if (keysPerSecond > 0) {
+                        long expectMillis = keys * 1000 / keysPerSecond;
+                        long spendMillis = System.currentTimeMillis() - startTime;
+                        if (expectMillis > spendMillis) {
+                            Thread.sleep(expectMillis - spendMillis);
+                        }
+                    }
+                } while (!Arrays.equals(cursor, ZERO_CURSOR));
+                result.doneNodes.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                result.failedNodes.incrementAndGet();
+                result.error = e.getMessage();
+                logger.error("big key analyzer error, resource = {}, node = {}", PasswordMaskUtils.maskResource(result.resource), PasswordMaskUtils.maskAddr(node), e);
+            } finally {
+                if (connection != null) {
+                    connection.stop(true);
+                }
+            }
+        }
+
+        JSONObject toJson() {
+            JSONObject json = new JSONObject();
+            json.put("running", running);
+            json.put("stopped", stopped);
+            json.put("bid", bid);
+            json.put("bgroup", bgroup);
+            json.put("startTime", startTime);
+            json.put("endTime", endTime);
+            JSONArray resources = new JSONArray();
+            for (ResourceResult result : results) {
+                resources.add(result.toJson());
+            }
+            json.put("resources", resources);
+            return json;
+        }
+    }
+
+    private static class ResourceResult {
+        private final Resource resource;
+        private final int topN;
+        private volatile int totalNodes;
+        private final AtomicInteger doneNodes = new AtomicInteger();
+        private final AtomicInteger failedNodes = new AtomicInteger();
+        private volatile String error;
+        private final AtomicLong scanKeys = new AtomicLong();
+        private final AtomicLong totalBytes = new AtomicLong();
+        //min-heap of top-N keys
+        private final PriorityQueue<BigKey> topKeys = new PriorityQueue<>(Comparator.comparingLong(k -> k.bytes));
+        private final Map<String, TypeStats> typeStatsMap = new HashMap<>();
+
+        ResourceResult(Resource resource, int topN) {
+            this.resource = resource;
+            this.topN = topN;
+        }
+
+        synchronized void record(byte[] key, String type, long bytes, RedisConnectionAddr node) {
+            scanKeys.incrementAndGet();
+            totalBytes.addAndGet(bytes);
+            TypeStats typeStats = typeStatsMap.computeIfAbsent(type, k -> new TypeStats());
+            typeStats.count ++;
+            typeStats.bytes += bytes;
+            if (bytes > typeStats.maxBytes) {
+                typeStats.maxBytes = bytes;
+            }
+            if (topKeys.size() < topN) {
+                topKeys.add(new BigKey(key, type, bytes, node));
+            } else if (topKeys.peek().bytes < bytes) {
+                topKeys.poll();
+                topKeys.add(new BigKey(key, type, bytes, node));
+            }
+        }
+
+        synchronized JSONObject toJson() {
+            JSONObject json = new JSONObject();
+            json.put("resource", PasswordMaskUtils.maskResource(resource));
+            json.put("totalNodes", totalNodes);
+            json.put("doneNodes", doneNodes.get());
+            json.put("failedNodes", failedNodes.get());
+            if (error != null) {
+                json.put("error", error);
+            }
+            json.put("scanKeys", scanKeys.get());
+            json.put("totalBytes", totalBytes.get());
+            JSONArray typeStatsArray = new JSONArray();
+            for (Map.Entry<String, TypeStats> entry : typeStatsMap.entrySet()) {
+                JSONObject typeStats = new JSONObject();
+                typeStats.put("type", entry.getKey());
+                typeStats.put("count", entry.getValue().count);
+                typeStats.put("bytes", entry.getValue().bytes);
+                typeStats.put("maxBytes", entry.getValue().maxBytes);
+                typeStatsArray.add(typeStats);
+            }
+            json.put("typeStats", typeStatsArray);
+            List<BigKey> list = new ArrayList<>(topKeys);
+            list.sort((o1, o2) -> Long.compare(o2.bytes, o1.bytes));
+            JSONArray topKeysArray = new JSONArray();
+            for (BigKey bigKey : list) {
+                JSONObject keyJson = new JSONObject();
+                keyJson.put("key", Utils.bytesToString(bigKey.key));
+                keyJson.put("type", bigKey.type);
+                keyJson.put("bytes", bigKey.bytes);
+                keyJson.put("node", PasswordMaskUtils.maskAddr(bigKey.node));
+                topKeysArray.add(keyJson);
+            }
+            json.put("topKeys", topKeysArray);
+            return json;
+        }
+    }
+
+    private static class TypeStats {
+        private long count;
+        private long bytes;
+        private long maxBytes;
+    }
+
+    private static class BigKey {
+        private final byte[] key;
+        private final String type;
+        private final long bytes;
+        private final RedisConnectionAddr node;
+
+        BigKey(byte[] key, String type, long bytes, RedisConnectionAddr node) {
+            this.key = key;
+            this.type = type;
+            this.bytes = bytes;
+            this.node = node;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.netease.nim.camellia.redis.proxy.plugin.bigkey;
 
 import com.netease.nim.camellia.redis.proxy.command.Command;
 import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConfSnapshot;
 import com.netease.nim.camellia.redis.proxy.enums.RedisCommand;
 import com.netease.nim.camellia.redis.proxy.enums.RedisKeyword;
 import com.netease.nim.camellia.redis.proxy.reply.*;
@@ -17,16 +18,13 @@ public class BigKeyHunter {
     private final String CALLBACK_NAME;
 
     private final BigKeyMonitorCallback bigKeyMonitorCallback;
+    private final ProxyDynamicConfSnapshot<BigKeyConf> confSnapshot = new ProxyDynamicConfSnapshot<>("big.key.monitor", BigKeyConf::new);
 
     public BigKeyHunter(BigKeyMonitorCallback bigKeyMonitorCallback) {
         this.bigKeyMonitorCallback = bigKeyMonitorCallback;
         this.CALLBACK_NAME = bigKeyMonitorCallback.getClass().getName();
     }
 
-    private boolean isEnable(Long bid, String bgroup) {
-        return ProxyDynamicConf.getBoolean("big.key.monitor.enable", bid, bgroup, true);
-    }
-
     /**
      * 校验请求
      * @param command Command
@@ -39,10 +37,8 @@ public class BigKeyHunter {
         RedisCommand.CommandType commandType = redisCommand.getCommandType();
         if (commandType == null) return;
         byte[][] objects = command.getObjects();
-        Long bid = command.getCommandContext().getBid();
-        String bgroup = command.getCommandContext().getBgroup();
-        boolean enable = isEnable(bid, bgroup);
-        if (!enable) return;
+        BigKeyConf conf = confSnapshot.get(command.getCommandContext().getBid(), command.getCommandContext().getBgroup());
+        if (!conf.enable) return;
         switch (commandType) {
             case STRING:
                 switch (redisCommand) {
@@ -51,7 +47,7 @@ public class BigKeyHunter {
                     case GETSET:
                         if (objects.length >= 3) {
                             byte[] value = objects[2];
-                            int threshold = stringSizeThreshold(bid, bgroup);
+                            int threshold = conf.stringSizeThreshold;
                             if (value != null && value.length > threshold) {
                                 BigKeyMonitor.bigKey(command, objects[1], value.length, threshold);
                                 ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackRequest(command, objects[1], value.length, threshold));
@@ -62,7 +58,7 @@ public class BigKeyHunter {
                     case PSETEX:
                         if (objects.length >= 4) {
                             byte[] value = objects[3];
-                            int threshold = stringSizeThreshold(bid, bgroup);
+                            int threshold = conf.stringSizeThreshold;
                             if (value != null && value.length > threshold) {
                                 BigKeyMonitor.bigKey(command, objects[1], value.length, threshold);
                                 ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackRequest(command, objects[1], value.length, threshold));
@@ -74,7 +70,7 @@ public class BigKeyHunter {
                         for (int i=2; i<objects.length; i+=2) {
                             //mset k1 v1 k2 v2
                             byte[] value = objects[i];
-                            int threshold = stringSizeThreshold(bid, bgroup);
+                            int threshold = conf.stringSizeThreshold;
                             if (value != null && value.length > threshold) {
                                 int index = i - 1;
                                 BigKeyMonitor.bigKey(command, objects[index], value.length, threshold);
@@ -90,7 +86,7 @@ public class BigKeyHunter {
                     case HSETNX:
                     case HMSET:
                         int size = ((objects.length - 2) / 2);
-                        int threshold = hashSizeThreshold(bid, bgroup);
+                        int threshold = conf.hashSizeThreshold;
                         if (size > threshold) {
                             BigKeyMonitor.bigKey(command, objects[1], size, threshold);
                             ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackRequest(command, objects[1], size, threshold));
@@ -102,7 +98,7 @@ public class BigKeyHunter {
                 //as zadd command support [NX|XX] [GT|LT] [CH] [INCR], so big key monitor maybe not very exact
                 if (redisCommand == RedisCommand.ZADD) {
                     int size = ((objects.length - 2) / 2);
-                    int threshold = zsetSizeThreshold(bid, bgroup);
+                    int threshold = conf.zsetSizeThreshold;
                     if (size > threshold) {
                         BigKeyMonitor.bigKey(command, objects[1], size, threshold);
                         ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackRequest(command, objects[1], size, threshold));
@@ -116,7 +112,7 @@ public class BigKeyHunter {
                     case RPUSH:
                     case RPUSHX:
                         int size = objects.length - 2;
-                        int threshold = listSizeThreshold(bid, bgroup);
+                        int threshold = conf.listSizeThreshold;
                         if (size > threshold) {
                             BigKeyMonitor.bigKey(command, objects[1], size, threshold);
                             ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackRequest(command, objects[1], size, threshold));
@@ -127,7 +123,7 @@ public class BigKeyHunter {
             case SET:
                 if (redisCommand == RedisCommand.SADD) {
                     int size = objects.length - 2;
-                    int threshold = setSizeThreshold(bid, bgroup);
+                    int threshold = conf.setSizeThreshold;
                     if (size > threshold) {
                         BigKeyMonitor.bigKey(command, objects[1], size, threshold);
                         ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackRequest(command, objects[1], size, threshold));
@@ -153,10 +149,8 @@ public class BigKeyHunter {
         if (reply == null) return;
         if (reply instanceof ErrorReply) return;
         byte[][] objects = command.getObjects();
-        Long bid = command.getCommandContext().getBid();
-        String bgroup = command.getCommandContext().getBgroup();
-        boolean enable = isEnable(bid, bgroup);
-        if (!enable) return;
+        BigKeyConf conf = confSnapshot.get(command.getCommandContext().getBid(), command.getCommandContext().getBgroup());
+        if (!conf.enable) return;
         switch (commandType) {
             case STRING:
                 switch (redisCommand) {
@@ -166,7 +160,7 @@ public class BigKeyHunter {
                     case GET:
                         if (reply instanceof BulkReply) {
                             int size = ((BulkReply) reply).getSize();
-                            int threshold = stringSizeThreshold(bid, bgroup);
+                            int threshold = conf.stringSizeThreshold;
                             if (size > threshold) {
                                 BigKeyMonitor.bigKey(command, objects[1], size, threshold);
                                 ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackReply(command, reply, objects[1], size, threshold));
@@ -178,7 +172,7 @@ public class BigKeyHunter {
                             Reply[] replies = ((MultiBulkReply) reply).getReplies();
                             if (replies != null) {
                                 int i=1;
-                                int threshold = stringSizeThreshold(bid, bgroup);
+                                int threshold = conf.stringSizeThreshold;
                                 for (Reply reply1 : replies) {
                                     if (reply1 instanceof BulkReply) {
                                         int size = ((BulkReply) reply1).getSize();
@@ -196,7 +190,7 @@ public class BigKeyHunter {
                     case STRLEN:
                         if (reply instanceof IntegerReply) {
                             Long integer = ((IntegerReply) reply).getInteger();
-                            int threshold = stringSizeThreshold(bid, bgroup);
+                            int threshold = conf.stringSizeThreshold;
                             if (integer != null && integer > threshold) {
                                 BigKeyMonitor.bigKey(command, objects[1], integer, threshold);
                                 ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackReply(command, reply, objects[1], integer, threshold));
@@ -210,7 +204,7 @@ public class BigKeyHunter {
                     case HLEN:
                         if (reply instanceof IntegerReply) {
                             Long integer = ((IntegerReply) reply).getInteger();
-                            int threshold = hashSizeThreshold(bid, bgroup);
+                            int threshold = conf.hashSizeThreshold;
                             if (integer != null && integer > threshold) {
                                 BigKeyMonitor.bigKey(command, objects[1], integer, threshold);
                                 ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackReply(command, reply, objects[1], integer, threshold));
@@ -223,7 +217,7 @@ public class BigKeyHunter {
                             Reply[] replies = ((MultiBulkReply) reply).getReplies();
                             if (replies != null) {
                                 int size = replies.length;
-                                int threshold = hashSizeThreshold(bid, bgroup);
+                                int threshold = conf.hashSizeThreshold;
                                 if (size > threshold) {
                                     BigKeyMonitor.bigKey(command, objects[1], size, threshold);
                                     ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackReply(command, reply, objects[1], size, threshold));
@@ -236,7 +230,7 @@ public class BigKeyHunter {
                             Reply[] replies = ((MultiBulkReply) reply).getReplies();
                             if (replies != null) {
                                 int size = replies.length / 2;
-                                int threshold = hashSizeThreshold(bid, bgroup);
+                                int threshold = conf.hashSizeThreshold;
                                 if (size > threshold) {
                                     BigKeyMonitor.bigKey(command, objects[1], size, threshold);
                                     ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackReply(command, reply, objects[1], size, threshold));
@@ -253,7 +247,7 @@ public class BigKeyHunter {
                     case ZLEXCOUNT:
                         if (reply instanceof IntegerReply) {
                             Long integer = ((IntegerReply) reply).getInteger();
-                            int threshold = zsetSizeThreshold(bid, bgroup);
+                            int threshold = conf.zsetSizeThreshold;
                             if (integer != null && integer > threshold) {
                                 BigKeyMonitor.bigKey(command, objects[1], integer, threshold);
                                 ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackReply(command, reply, objects[1], integer, threshold));
@@ -266,7 +260,7 @@ public class BigKeyHunter {
                             Reply[] replies = ((MultiBulkReply) reply).getReplies();
                             if (replies != null) {
                                 int size = replies.length;
-                                int threshold = zsetSizeThreshold(bid, bgroup);
+                                int threshold = conf.zsetSizeThreshold;
                                 if (size > threshold) {
                                     BigKeyMonitor.bigKey(command, objects[1], size, threshold);
                                     ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackReply(command, reply, objects[1], size, threshold));
@@ -287,7 +281,7 @@ public class BigKeyHunter {
                                     if (withScores) break;
                                 }
                                 int size = withScores ? replies.length / 2 : replies.length;
-                                int threshold = zsetSizeThreshold(bid, bgroup);
+                                int threshold = conf.zsetSizeThreshold;
                                 if (size > threshold) {
                                     BigKeyMonitor.bigKey(command, objects[1], size, threshold);
                                     ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackReply(command, reply, objects[1], size, threshold));
@@ -302,7 +296,7 @@ public class BigKeyHunter {
                     case LLEN:
                         if (reply instanceof IntegerReply) {
                             Long integer = ((IntegerReply) reply).getInteger();
-                            int threshold = listSizeThreshold(bid, bgroup);
+                            int threshold = conf.listSizeThreshold;
                             if (integer != null && integer > threshold) {
                                 BigKeyMonitor.bigKey(command, objects[1], integer, threshold);
                                 ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackReply(command, reply, objects[1], integer, threshold));
@@ -314,7 +308,7 @@ public class BigKeyHunter {
                             Reply[] replies = ((MultiBulkReply) reply).getReplies();
                             if (replies != null) {
                                 int size = replies.length;
-                                int threshold = listSizeThreshold(bid, bgroup);
+                                int threshold = conf.listSizeThreshold;
                                 if (size > threshold) {
                                     BigKeyMonitor.bigKey(command, objects[1], size, threshold);
                                     ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackReply(command, reply, objects[1], size, threshold));
@@ -329,7 +323,7 @@ public class BigKeyHunter {
                     case SCARD:
                         if (reply instanceof IntegerReply) {
                             Long integer = ((IntegerReply) reply).getInteger();
-                            int threshold = setSizeThreshold(bid, bgroup);
+                            int threshold = conf.setSizeThreshold;
                             if (integer != null && integer > threshold) {
                                 BigKeyMonitor.bigKey(command, objects[1], integer, threshold);
                                 ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackReply(command, reply, objects[1], integer, threshold));
@@ -341,7 +335,7 @@ public class BigKeyHunter {
                             Reply[] replies = ((MultiBulkReply) reply).getReplies();
                             if (replies != null) {
                                 int size = replies.length;
-                                int threshold = setSizeThreshold(bid, bgroup);
+                                int threshold = conf.setSizeThreshold;
                                 if (size > threshold) {
                                     BigKeyMonitor.bigKey(command, objects[1], size, threshold);
                                     ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> bigKeyMonitorCallback.callbackReply(command, reply, objects[1], size, threshold));
@@ -354,23 +348,21 @@ public class BigKeyHunter {
         }
     }
 
-    private int stringSizeThreshold(Long bid, String bgroup) {
-        return ProxyDynamicConf.getInt("big.key.monitor.string.threshold", bid, bgroup, 2*1024*1024);
-    }
-
-    private int hashSizeThreshold(Long bid, String bgroup) {
-        return ProxyDynamicConf.getInt("big.key.monitor.hash.threshold", bid, bgroup, 5000);
-    }
-
-    private int setSizeThreshold(Long bid, String bgroup) {
-        return ProxyDynamicConf.getInt("big.key.monitor.set.threshold", bid, bgroup, 5000);
-    }
+    private static class BigKeyConf {
+        private final boolean enable;
+        private final int stringSizeThreshold;
+        private final int hashSizeThreshold;
+        private final int setSizeThreshold;
+        private final int zsetSizeThreshold;
+        private final int listSizeThreshold;
 
-    private int zsetSizeThreshold(Long bid, String bgroup) {
-        return ProxyDynamicConf.getInt("big.key.monitor.zset.threshold", bid, bgroup, 5000);
-    }
-
-    private int listSizeThreshold(Long bid, String bgroup) {
-        return ProxyDynamicConf.getInt("big.key.monitor.list.threshold", bid, bgroup, 5000);
+        BigKeyConf(Long bid, String bgroup) {
+            this.enable = ProxyDynamicConf.getBoolean("big.key.monitor.enable", bid, bgroup, true);
+            this.stringSizeThreshold = ProxyDynamicConf.getInt("big.key.monitor.string.threshold", bid, bgroup, 2*1024*1024);
+            this.hashSizeThreshold = ProxyDynamicConf.getInt("big.key.monitor.hash.threshold", bid, bgroup, 5000);
+            this.setSizeThreshold = ProxyDynamicConf.getInt("big.key.monitor.set.threshold", bid, bgroup, 5000);
+            this.zsetSizeThreshold = ProxyDynamicConf.getInt("big.key.monitor.zset.threshold", bid, bgroup, 5000);
+            this.listSizeThreshold = ProxyDynamicConf.getInt("big.key.monitor.list.threshold", bid, bgroup, 5000);
+        }
     }
 }
@@ -0,0 +1,24 @@
+package com.netease.nim.camellia.redis.proxy.plugin.hotkey;
+
+import java.util.List;
+
+/**
+ * 热key计数器，由HotKeyHunter在每个统计周期结束时调用collect
+ * Created by caojiajun on 2024/7/27
+ */
+public interface HotKeyCounter {
+
+    /**
+     * increment the key
+     * @param key key
+     */
+    void increment(byte[] key);
+
+    /**
+     * 统计周期内计数不小于threshold的key，按计数倒序，最多maxCount个
+     * @param threshold threshold
+     * @param maxCount max hot key count
+     * @return hot keys
+     */
+    List<HotKeyInfo> collect(long threshold, int maxCount);
+}
@@ -3,8 +3,6 @@ package com.netease.nim.camellia.redis.proxy.plugin.hotkey;
 import com.netease.nim.camellia.redis.proxy.auth.IdentityInfo;
 import com.netease.nim.camellia.redis.proxy.conf.Constants;
 import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
-import com.netease.nim.camellia.tools.utils.BytesKey;
-import com.netease.nim.camellia.redis.proxy.util.LRUCounter;
 import com.netease.nim.camellia.redis.proxy.util.ExecutorUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,7 +22,7 @@ public class HotKeyHunter {
 
     private boolean enable;
     private final HotKeyMonitorCallback callback;
-    private final LRUCounter counter;
+    private final HotKeyCounter counter;
     private final IdentityInfo identityInfo;
     /**
      * 热key监控统计的时间窗口，默认1000ms
@@ -48,17 +46,25 @@ public class HotKeyHunter {
         ProxyDynamicConf.registerCallback(this::reloadHotKeyConfig);
         this.callback = callback;
         this.CALLBACK_NAME = callback.getClass().getName();
-        // LRUCounter capacity
-        int checkCacheMaxCapacity = ProxyDynamicConf.getInt("hot.key.monitor.cache.max.capacity",
-                identityInfo.getBid(), identityInfo.getBgroup(), Constants.Server.hotKeyMonitorCheckCacheMaxCapacity);
         this.checkMillis = ProxyDynamicConf.getLong("hot.key.monitor.counter.check.millis",
                 identityInfo.getBid(), identityInfo.getBgroup(), Constants.Server.hotKeyCacheCounterCheckMillis);
-        // LRUCounter
-        this.counter = new LRUCounter(checkCacheMaxCapacity,
-                checkCacheMaxCapacity, checkMillis);
+        // counter, sketch or lru
+        String counterType = ProxyDynamicConf.getString("hot.key.monitor.counter.type",
+                identityInfo.getBid(), identityInfo.getBgroup(), "sketch");
+        if (counterType.equalsIgnoreCase("lru")) {
+            int checkCacheMaxCapacity = ProxyDynamicConf.getInt("hot.key.monitor.cache.max.capacity",
+                    identityInfo.getBid(), identityInfo.getBgroup(), Constants.Server.hotKeyMonitorCheckCacheMaxCapacity);
+            this.counter = new LRUHotKeyCounter(checkCacheMaxCapacity, checkMillis);
+        } else {
+            int sketchWidth = ProxyDynamicConf.getInt("hot.key.monitor.sketch.width",
+                    identityInfo.getBid(), identityInfo.getBgroup(), 4096);
+            int tableSize = ProxyDynamicConf.getInt("hot.key.monitor.sketch.table.size",
+                    identityInfo.getBid(), identityInfo.getBgroup(), Math.max(256, maxHotKeyCount * 8));
+            this.counter = new SketchHotKeyCounter(sketchWidth, tableSize, checkThreshold);
+        }
         ExecutorUtils.scheduleAtFixedRate(this::callback, checkMillis,
                 checkMillis, TimeUnit.MILLISECONDS);
-        logger.info("HotKeyHunter init success, identityInfo = {}", identityInfo);
+        logger.info("HotKeyHunter init success, identityInfo = {}, counterType = {}", identityInfo, counterType);
     }
 
     private void reloadHotKeyConfig() {
@@ -86,21 +92,13 @@ public class HotKeyHunter {
     }
 
     private void incr(byte[] key) {
-        BytesKey bytesKey = new BytesKey(key);
-        counter.increment(bytesKey);
+        counter.increment(key);
     }
 
     private void callback() {
         try {
-            TreeSet<LRUCounter.SortedBytesKey> set = counter.getSortedCacheValue(checkThreshold);
-            if (set == null || set.isEmpty()) return;
-            List<HotKeyInfo> hotKeys = new ArrayList<>(maxHotKeyCount);
-            for (LRUCounter.SortedBytesKey sortedBytesKey : set) {
-                hotKeys.add(new HotKeyInfo(sortedBytesKey.getKey(), sortedBytesKey.getCount()));
-                if (hotKeys.size() >= maxHotKeyCount) {
-                    break;
-                }
-            }
+            List<HotKeyInfo> hotKeys = counter.collect(checkThreshold, maxHotKeyCount);
+            if (hotKeys.isEmpty()) return;
             HotKeyMonitor.hotKey(identityInfo, hotKeys, checkMillis, checkThreshold);
             ExecutorUtils.submitCallbackTask(CALLBACK_NAME, () -> callback.callback(identityInfo, hotKeys, checkMillis, checkThreshold));
         } catch (Exception e) {
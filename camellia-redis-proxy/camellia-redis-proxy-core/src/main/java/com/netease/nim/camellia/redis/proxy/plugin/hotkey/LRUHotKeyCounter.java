@@ -0,0 +1,41 @@
+package com.netease.nim.camellia.redis.proxy.plugin.hotkey;
+
+import com.netease.nim.camellia.redis.proxy.util.LRUCounter;
+import com.netease.nim.camellia.tools.utils.BytesKey;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * 基于LRUCounter的热key计数器，每个key一个计数器
+ * Created by caojiajun on 2024/7/27
+ */
+public class LRUHotKeyCounter implements HotKeyCounter {
+
+    private final LRUCounter counter;
+
+    public LRUHotKeyCounter(int capacity, long checkMillis) {
+        this.counter = new LRUCounter(capacity, capacity, checkMillis);
+    }
+
+    @Override
+    public void increment(byte[] key) {
+        counter.increment(new BytesKey(key));
+    }
+
+    @Override
+    public List<HotKeyInfo> collect(long threshold, int maxCount) {
+        TreeSet<LRUCounter.SortedBytesKey> set = counter.getSortedCacheValue(threshold);
+        if (set == null || set.isEmpty()) return Collections.emptyList();
+        List<HotKeyInfo> hotKeys = new ArrayList<>(maxCount);
+        for (LRUCounter.SortedBytesKey sortedBytesKey : set) {
+            hotKeys.add(new HotKeyInfo(sortedBytesKey.getKey(), sortedBytesKey.getCount()));
+            if (hotKeys.size() >= maxCount) {
+                break;
+            }
+        }
+        return hotKeys;
+    }
+}
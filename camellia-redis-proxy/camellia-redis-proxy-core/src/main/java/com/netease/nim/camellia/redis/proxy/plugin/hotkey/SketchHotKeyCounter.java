@@ -0,0 +1,41 @@
+package com.netease.nim.camellia.redis.proxy.plugin.hotkey;
+
+import com.netease.nim.camellia.redis.proxy.util.HeavyHitterCounter;
+import com.netease.nim.camellia.redis.proxy.util.LRUCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于HeavyHitterCounter的热key计数器，固定内存，计数时不需要为每个key分配对象
+ * <p>
+ * 估算计数达到阈值的1/16即进入候选表，上报的是进入候选表之后的精确计数，不会因为sketch的高估而误报，
+ * 进入候选表之前的少量计数会被忽略（不超过阈值的1/16）
+ * Created by caojiajun on 2024/7/27
+ */
+public class SketchHotKeyCounter implements HotKeyCounter {
+
+    private static final int ADMIT_RATIO = 16;
+
+    private final HeavyHitterCounter counter;
+
+    public SketchHotKeyCounter(int width, int tableSize, long threshold) {
+        this.counter = new HeavyHitterCounter(width, tableSize, threshold / ADMIT_RATIO);
+    }
+
+    @Override
+    public void increment(byte[] key) {
+        counter.increment(key);
+    }
+
+    @Override
+    public List<HotKeyInfo> collect(long threshold, int maxCount) {
+        counter.setAdmitThreshold(threshold / ADMIT_RATIO);
+        List<LRUCounter.SortedBytesKey> list = counter.rotate(threshold, maxCount);
+        List<HotKeyInfo> hotKeys = new ArrayList<>(list.size());
+        for (LRUCounter.SortedBytesKey sortedBytesKey : list) {
+            hotKeys.add(new HotKeyInfo(sortedBytesKey.getKey(), sortedBytesKey.getCount()));
+        }
+        return hotKeys;
+    }
+}
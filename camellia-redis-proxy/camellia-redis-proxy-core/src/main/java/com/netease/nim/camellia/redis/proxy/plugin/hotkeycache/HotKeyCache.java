@@ -1,6 +1,7 @@
 package com.netease.nim.camellia.redis.proxy.plugin.hotkeycache;
 
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.EntryWeigher;
 import com.netease.nim.camellia.tools.utils.BytesKey;
 import com.netease.nim.camellia.tools.utils.CamelliaMapUtils;
 import com.netease.nim.camellia.redis.proxy.auth.IdentityInfo;
@@ -12,6 +13,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
@@ -35,6 +37,7 @@ public class HotKeyCache {
      * LRU cache container.
      */
     private final ConcurrentLinkedHashMap<BytesKey, HotValueWrapper> cache;
+    private final long cacheCapacity;
     private final LRUCounter hotKeyCounter;
 
     /**
@@ -60,6 +63,10 @@ public class HotKeyCache {
      */
     private boolean cacheNull;
     private boolean enable;
+    /**
+     * W-TinyLFU admission, null if disabled
+     */
+    private volatile FrequencySketch sketch;
 
     /**
      * BytesKey，value is hitCount
@@ -81,17 +88,34 @@ public class HotKeyCache {
         reloadHotKeyCacheConfig();
         int cacheMaxCapacity = ProxyDynamicConf.getInt("hot.key.cache.max.capacity",
                 identityInfo.getBid(), identityInfo.getBgroup(), Constants.Server.hotKeyCacheMaxCapacity);
-        this.cache = new ConcurrentLinkedHashMap.Builder<BytesKey, HotValueWrapper>()
-                .initialCapacity(cacheMaxCapacity)
-                .maximumWeightedCapacity(cacheMaxCapacity)
-                .build();
+        // 配置了max.bytes时按key和value的估算内存大小限制缓存容量，否则按条数
+        long cacheMaxBytes = ProxyDynamicConf.getLong("hot.key.cache.max.bytes",
+                identityInfo.getBid(), identityInfo.getBgroup(), -1L);
+        ConcurrentLinkedHashMap.Builder<BytesKey, HotValueWrapper> builder = new ConcurrentLinkedHashMap.Builder<BytesKey, HotValueWrapper>()
+                .initialCapacity(cacheMaxCapacity);
+        if (cacheMaxBytes > 0) {
+            EntryWeigher<BytesKey, HotValueWrapper> weigher = (key, wrapper) -> ObjectSizeUtils.weight(ObjectSizeUtils.LRU_MAP_ENTRY
+                    + ObjectSizeUtils.bytesKey(key) + HotValueWrapper.SIZE + ObjectSizeUtils.bytes(wrapper.hotValue.getValue()));
+            builder.maximumWeightedCapacity(cacheMaxBytes).weigher(weigher);
+            this.cacheCapacity = cacheMaxBytes;
+        } else {
+            builder.maximumWeightedCapacity(cacheMaxCapacity);
+            this.cacheCapacity = cacheMaxCapacity;
+        }
+        this.cache = builder.build();
         // 热key的容量，一共计算多少热key
         int counterMaxCapacity = ProxyDynamicConf.getInt("hot.key.cache.counter.capacity",
                 identityInfo.getBid(), identityInfo.getBgroup(), Constants.Server.hotKeyCacheCounterMaxCapacity);
         // 热key的时间间隔
         long counterCheckMillis = ProxyDynamicConf.getLong("hot.key.cache.counter.check.millis",
                 identityInfo.getBid(), identityInfo.getBgroup(), Constants.Server.hotKeyCacheCounterCheckMillis);
-        this.hotKeyCounter = new LRUCounter(counterMaxCapacity, counterMaxCapacity, counterCheckMillis);
+        long counterMaxBytes = ProxyDynamicConf.getLong("hot.key.cache.counter.max.bytes",
+                identityInfo.getBid(), identityInfo.getBgroup(), -1L);
+        if (counterMaxBytes > 0) {
+            this.hotKeyCounter = new LRUCounter(counterMaxCapacity, counterMaxBytes, counterCheckMillis, true);
+        } else {
+            this.hotKeyCounter = new LRUCounter(counterMaxCapacity, counterMaxCapacity, counterCheckMillis);
+        }
         int refreshMapMaxCapacity = cacheMaxCapacity * 2;
         this.lastRefreshTimeMap = new ConcurrentLinkedHashMap.Builder<BytesKey, Long>()
                 .initialCapacity(refreshMapMaxCapacity).maximumWeightedCapacity(refreshMapMaxCapacity).build();
@@ -102,6 +126,8 @@ public class HotKeyCache {
                 identityInfo.getBid(), identityInfo.getBgroup(), Constants.Server.hotKeyCacheStatsCallbackIntervalSeconds);
         ExecutorUtils.scheduleAtFixedRate(() -> {
             try {
+                HotKeyCacheMonitor.hotKeyCacheSize(identityInfo, cache.size(), cache.weightedSize(), cacheCapacity,
+                        hotKeyCounter.size(), hotKeyCounter.weightedSize(), hotKeyCounter.capacity());
                 if (HotKeyCache.this.statsMap.isEmpty()) return;
                 ConcurrentHashMap<BytesKey, AtomicLong> statsMap = HotKeyCache.this.statsMap;
                 HotKeyCache.this.statsMap = new ConcurrentHashMap<>();
@@ -136,6 +162,10 @@ public class HotKeyCache {
         }
         BytesKey bytesKey = new BytesKey(key);
         this.hotKeyCounter.increment(bytesKey);
+        FrequencySketch sketch = this.sketch;
+        if (sketch != null) {
+            sketch.increment(bytesKey);
+        }
         HotValueWrapper wrapper = cache.get(bytesKey);
         if (wrapper != null) {
             // 过期删除
@@ -190,6 +220,10 @@ public class HotKeyCache {
         if (count == null || count < hotKeyCheckThreshold) {
             return;
         }
+        // 缓存已满时，频率不高于LRU队尾key的不准入
+        if (!admit(bytesKey)) {
+            return;
+        }
         // 建立缓存
         cache.put(bytesKey, new HotValueWrapper(new HotValue(value)));
         lastRefreshTimeMap.put(bytesKey, TimeCache.currentMillis);
@@ -199,12 +233,38 @@ public class HotKeyCache {
         }
     }
 
+    private boolean admit(BytesKey bytesKey) {
+        FrequencySketch sketch = this.sketch;
+        if (sketch == null) {
+            return true;
+        }
+        if (cache.weightedSize() < cache.capacity() || cache.containsKey(bytesKey)) {
+            return true;
+        }
+        Iterator<BytesKey> iterator = cache.ascendingKeySetWithLimit(1).iterator();
+        if (!iterator.hasNext()) {
+            return true;
+        }
+        boolean admit = sketch.admit(bytesKey, iterator.next());
+        if (!admit && logger.isDebugEnabled()) {
+            logger.debug("hotKey rejected by admission, key = {}", Utils.bytesToString(bytesKey.getKey()));
+        }
+        return admit;
+    }
+
     private void reloadHotKeyCacheConfig() {
         Long bid = identityInfo.getBid();
         String bgroup = identityInfo.getBgroup();
         this.hotKeyCheckThreshold = ProxyDynamicConf.getLong("hot.key.cache.check.threshold", bid, bgroup, Constants.Server.hotKeyCacheCounterCheckThreshold);
         this.enable = ProxyDynamicConf.getBoolean("hot.key.cache.enable", bid, bgroup, true);
         this.cacheNull = ProxyDynamicConf.getBoolean("hot.key.cache.null", bid, bgroup, Constants.Server.hotKeyCacheNeedCacheNull);
+        boolean admission = ProxyDynamicConf.getBoolean("hot.key.cache.admission.enable", bid, bgroup, false);
+        if (!admission) {
+            this.sketch = null;
+        } else if (this.sketch == null) {
+            int cacheMaxCapacity = ProxyDynamicConf.getInt("hot.key.cache.max.capacity", bid, bgroup, Constants.Server.hotKeyCacheMaxCapacity);
+            this.sketch = new FrequencySketch(cacheMaxCapacity);
+        }
     }
 
     /**
@@ -212,6 +272,10 @@ public class HotKeyCache {
      * Record the timestamp of the value.
      */
     private static class HotValueWrapper {
+        /**
+         * HotValueWrapper(24) + HotValue(16)
+         */
+        private static final int SIZE = 40;
         private final long timestamp = TimeCache.currentMillis;
         private final HotValue hotValue;
 
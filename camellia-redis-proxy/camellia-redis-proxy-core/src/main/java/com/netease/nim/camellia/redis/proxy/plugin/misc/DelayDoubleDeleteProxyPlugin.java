@@ -4,19 +4,17 @@ import com.alibaba.fastjson.JSONArray;
 import com.netease.nim.camellia.redis.proxy.command.Command;
 import com.netease.nim.camellia.redis.proxy.command.CommandContext;
 import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConfSnapshot;
 import com.netease.nim.camellia.redis.proxy.enums.RedisCommand;
 import com.netease.nim.camellia.redis.proxy.plugin.*;
 import com.netease.nim.camellia.redis.proxy.upstream.IUpstreamClientTemplate;
 import com.netease.nim.camellia.redis.proxy.util.ErrorLogCollector;
 import com.netease.nim.camellia.redis.proxy.util.ExecutorUtils;
 import com.netease.nim.camellia.redis.proxy.util.Utils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -24,19 +22,11 @@ import java.util.concurrent.TimeUnit;
  */
 public class DelayDoubleDeleteProxyPlugin implements ProxyPlugin {
 
-    private static final Logger logger = LoggerFactory.getLogger(DelayDoubleDeleteProxyPlugin.class);
-
-    private final ConcurrentHashMap<String, Set<String>> keyPrefixCacheMap = new ConcurrentHashMap<>();
+    private ProxyDynamicConfSnapshot<DoubleDelConf> confSnapshot;
 
     @Override
     public void init(ProxyBeanFactory factory) {
-        ProxyDynamicConf.registerCallback(() -> {
-            try {
-                keyPrefixCacheMap.clear();
-            } catch (Exception e) {
-                logger.error("cache clear error", e);
-            }
-        });
+        confSnapshot = new ProxyDynamicConfSnapshot<>("delay.double.del", DoubleDelConf::new);
     }
 
     @Override
@@ -66,15 +56,15 @@ public class DelayDoubleDeleteProxyPlugin implements ProxyPlugin {
             CommandContext commandContext = command.getCommandContext();
             Long bid = commandContext.getBid();
             String bgroup = commandContext.getBgroup();
-            boolean enable = ProxyDynamicConf.getBoolean("delay.double.del.enable", bid, bgroup, false);
-            if (!enable) {
+            DoubleDelConf conf = confSnapshot.get(bid, bgroup);
+            if (!conf.enable) {
                 return ProxyPluginResponse.SUCCESS;
             }
-            int delaySeconds = ProxyDynamicConf.getInt("double.del.delay.seconds", bid, bgroup, -1);
+            int delaySeconds = conf.delaySeconds;
             if (delaySeconds <= 0) {
                 return ProxyPluginResponse.SUCCESS;
             }
-            Set<String> keyPrefix = getKeyPrefix(bid, bgroup);
+            Set<String> keyPrefix = conf.keyPrefix;
             if (keyPrefix.isEmpty()) {
                 return ProxyPluginResponse.SUCCESS;
             }
@@ -118,27 +108,34 @@ public class DelayDoubleDeleteProxyPlugin implements ProxyPlugin {
         }
     }
 
-    private Set<String> getKeyPrefix(Long bid, String bgroup) {
-        String cacheKey = Utils.getCacheKey(bid, bgroup);
-        Set<String> set = keyPrefixCacheMap.get(cacheKey);
-        if (set != null) return set;
-        try {
-            String string = ProxyDynamicConf.getString("double.del.key.prefix", bid, bgroup, null);
-            set = new HashSet<>();
-            if (string != null) {
-                JSONArray array = JSONArray.parseArray(string);
-                if (array != null) {
-                    for (Object o : array) {
-                        set.add(String.valueOf(o));
+    private static class DoubleDelConf {
+        private final boolean enable;
+        private final int delaySeconds;
+        private final Set<String> keyPrefix;
+
+        DoubleDelConf(Long bid, String bgroup) {
+            this.enable = ProxyDynamicConf.getBoolean("delay.double.del.enable", bid, bgroup, false);
+            this.delaySeconds = ProxyDynamicConf.getInt("double.del.delay.seconds", bid, bgroup, -1);
+            this.keyPrefix = keyPrefix(bid, bgroup);
+        }
+
+        private static Set<String> keyPrefix(Long bid, String bgroup) {
+            Set<String> set = new HashSet<>();
+            try {
+                String string = ProxyDynamicConf.getString("double.del.key.prefix", bid, bgroup, null);
+                if (string != null) {
+                    JSONArray array = JSONArray.parseArray(string);
+                    if (array != null) {
+                        for (Object o : array) {
+                            set.add(String.valueOf(o));
+                        }
                     }
                 }
+                return set;
+            } catch (Exception e) {
+                ErrorLogCollector.collect(DelayDoubleDeleteProxyPlugin.class, "parse double.del.key.prefix error", e);
+                return new HashSet<>();
             }
-            keyPrefixCacheMap.put(cacheKey, set);
-            return set;
-        } catch (Exception e) {
-            set = new HashSet<>();
-            keyPrefixCacheMap.put(cacheKey, set);
-            return set;
         }
     }
 }
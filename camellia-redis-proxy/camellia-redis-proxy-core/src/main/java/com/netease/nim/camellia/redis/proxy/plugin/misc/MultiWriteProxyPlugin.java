@@ -132,6 +132,8 @@ public class MultiWriteProxyPlugin implements ProxyPlugin {
             if (multiWriteInfo != null && multiWriteInfo.isMultiWriteEnable()) {
                 List<String> urls = multiWriteInfo.getUrls();
                 if (urls != null && !urls.isEmpty()) {
+                    //async send after the reply may completed, so do not reference the inbound buffer
+                    command.disableZeroCopy();
                     for (String url : urls) {
                         try {
                             executor.submit(() -> {
@@ -4,6 +4,7 @@ import com.netease.nim.camellia.redis.proxy.command.Command;
 import com.netease.nim.camellia.redis.proxy.command.CommandContext;
 import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
 import com.netease.nim.camellia.redis.proxy.enums.RedisCommand;
+import com.netease.nim.camellia.redis.proxy.monitor.LatencyHistogramMonitor;
 import com.netease.nim.camellia.redis.proxy.monitor.ProxyMonitorCollector;
 import com.netease.nim.camellia.redis.proxy.monitor.SlowCommandMonitor;
 import com.netease.nim.camellia.redis.proxy.plugin.*;
@@ -87,6 +88,9 @@ public class MonitorProxyPlugin implements ProxyPlugin {
         if (startNanoTime > 0) {
             long spend = System.nanoTime() - startNanoTime;
             CommandSpendMonitor.incr(commandContext.getBid(), commandContext.getBgroup(), command.getName(), spend);
+            if (LatencyHistogramMonitor.isKeyPrefixEnable()) {
+                LatencyHistogramMonitor.keyPrefix(commandContext.getBid(), commandContext.getBgroup(), command, spend);
+            }
             if (spend > slowCommandThresholdNanoTime && !command.isBlocking()) {
                 double spendMillis = spend / 1000000.0;
                 long thresholdMillis = slowCommandThresholdNanoTime / 1000000;
@@ -0,0 +1,154 @@
+package com.netease.nim.camellia.redis.proxy.plugin.permission;
+
+import com.netease.nim.camellia.redis.proxy.command.Command;
+import com.netease.nim.camellia.redis.proxy.command.CommandContext;
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConfSnapshot;
+import com.netease.nim.camellia.redis.proxy.enums.RedisCommand;
+import com.netease.nim.camellia.redis.proxy.monitor.ConcurrencyLimitMonitor;
+import com.netease.nim.camellia.redis.proxy.netty.ChannelInfo;
+import com.netease.nim.camellia.redis.proxy.plugin.*;
+import com.netease.nim.camellia.redis.proxy.plugin.permission.model.ConcurrencyLimitConf;
+import com.netease.nim.camellia.redis.proxy.util.AdaptiveConcurrencyLimiter;
+import com.netease.nim.camellia.redis.proxy.util.ErrorLogCollector;
+import com.netease.nim.camellia.tools.utils.CamelliaMapUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 自适应并发数限制，根据后端的响应时间自动调整bid/bgroup级别的并发上限（AIMD），超过上限的请求快速失败，用于后端redis过载时的保护
+ * <p>
+ * 不需要为每个租户手动配置固定的速率上限，具体算法见AdaptiveConcurrencyLimiter
+ * Created by caojiajun on 2024/7/25
+ */
+public class ConcurrencyLimitProxyPlugin implements ProxyPlugin {
+
+    private static final ProxyPluginResponse OVERLOAD = new ProxyPluginResponse(false, "ERR upstream overload, concurrency limit exceeded");
+
+    private ProxyDynamicConfSnapshot<ConcurrencyLimitConf> confSnapshot;
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<String, Limiter>> limiterMap = new ConcurrentHashMap<>();
+    private volatile Limiter defaultLimiter;
+
+    @Override
+    public void init(ProxyBeanFactory factory) {
+        confSnapshot = new ProxyDynamicConfSnapshot<>("concurrency.limit", ConcurrencyLimitProxyPlugin::buildConf);
+    }
+
+    @Override
+    public ProxyPluginOrder order() {
+        return new ProxyPluginOrder() {
+            @Override
+            public int request() {
+                return BuildInProxyPluginEnum.CONCURRENCY_LIMIT_PLUGIN.getRequestOrder();
+            }
+
+            @Override
+            public int reply() {
+                return BuildInProxyPluginEnum.CONCURRENCY_LIMIT_PLUGIN.getReplyOrder();
+            }
+        };
+    }
+
+    @Override
+    public ProxyPluginResponse executeRequest(ProxyRequest request) {
+        try {
+            Command command = request.getCommand();
+            RedisCommand redisCommand = command.getRedisCommand();
+            //只限制带key的命令（proxy自身处理的命令都不带key），阻塞命令和pub-sub命令的响应时间不代表后端负载
+            if (redisCommand == null || command.isBlocking()) {
+                return ProxyPluginResponse.SUCCESS;
+            }
+            RedisCommand.CommandType commandType = redisCommand.getCommandType();
+            if (commandType == RedisCommand.CommandType.PUB_SUB || commandType == RedisCommand.CommandType.TRANSACTION) {
+                return ProxyPluginResponse.SUCCESS;
+            }
+            if (command.getKeys().isEmpty()) {
+                return ProxyPluginResponse.SUCCESS;
+            }
+            //订阅状态下的回包不经过CommandTask，不会走到executeReply
+            ChannelInfo channelInfo = command.getChannelInfo();
+            if (channelInfo != null && channelInfo.isInSubscribe()) {
+                return ProxyPluginResponse.SUCCESS;
+            }
+            CommandContext commandContext = command.getCommandContext();
+            Long bid = commandContext == null ? null : commandContext.getBid();
+            String bgroup = commandContext == null ? null : commandContext.getBgroup();
+            ConcurrencyLimitConf conf = confSnapshot.get(bid, bgroup);
+            if (!conf.isEnable()) {
+                return ProxyPluginResponse.SUCCESS;
+            }
+            AdaptiveConcurrencyLimiter limiter = getLimiter(bid, bgroup, conf);
+            if (!limiter.tryAcquire()) {
+                return OVERLOAD;
+            }
+            command.setConcurrencyLimiter(limiter, System.nanoTime());
+            return ProxyPluginResponse.SUCCESS;
+        } catch (Exception e) {
+            ErrorLogCollector.collect(ConcurrencyLimitProxyPlugin.class, "concurrency limit error", e);
+            return ProxyPluginResponse.SUCCESS;
+        }
+    }
+
+    @Override
+    public ProxyPluginResponse executeReply(ProxyReply reply) {
+        Command command = reply.getCommand();
+        if (command == null) {
+            return ProxyPluginResponse.SUCCESS;
+        }
+        //连接断开时未回包的命令由CommandTaskQueue.clear归还许可
+        command.releaseConcurrencyLimiter(!reply.isFromPlugin());
+        return ProxyPluginResponse.SUCCESS;
+    }
+
+    private AdaptiveConcurrencyLimiter getLimiter(Long bid, String bgroup, ConcurrencyLimitConf conf) {
+        Limiter limiter;
+        if (bid == null || bgroup == null) {
+            limiter = defaultLimiter;
+            if (limiter == null) {
+                synchronized (this) {
+                    if (defaultLimiter == null) {
+                        defaultLimiter = new Limiter(conf);
+                        ConcurrencyLimitMonitor.register(null, null, defaultLimiter.limiter);
+                    }
+                    limiter = defaultLimiter;
+                }
+            }
+        } else {
+            ConcurrentHashMap<String, Limiter> map = CamelliaMapUtils.computeIfAbsent(limiterMap, bid, k -> new ConcurrentHashMap<>());
+            limiter = CamelliaMapUtils.computeIfAbsent(map, bgroup, k -> {
+                Limiter l = new Limiter(conf);
+                ConcurrencyLimitMonitor.register(bid, bgroup, l.limiter);
+                return l;
+            });
+        }
+        if (limiter.conf != conf) {
+            limiter.conf = conf;
+            limiter.limiter.update(conf.getMinLimit(), conf.getMaxLimit(), conf.getWindowMillis(),
+                    conf.getMinSamples(), conf.getTolerance(), conf.getBackoffRatio());
+        }
+        return limiter.limiter;
+    }
+
+    private static ConcurrencyLimitConf buildConf(Long bid, String bgroup) {
+        boolean enable = ProxyDynamicConf.getBoolean("concurrency.limit.enable", bid, bgroup, true);
+        int initialLimit = ProxyDynamicConf.getInt("concurrency.limit.initial", bid, bgroup, 1000);
+        int minLimit = ProxyDynamicConf.getInt("concurrency.limit.min", bid, bgroup, 20);
+        int maxLimit = ProxyDynamicConf.getInt("concurrency.limit.max", bid, bgroup, 10000);
+        long windowMillis = ProxyDynamicConf.getLong("concurrency.limit.window.millis", bid, bgroup, 100L);
+        int minSamples = ProxyDynamicConf.getInt("concurrency.limit.window.min.samples", bid, bgroup, 20);
+        double tolerance = ProxyDynamicConf.getDouble("concurrency.limit.rtt.tolerance", bid, bgroup, 2.0);
+        double backoffRatio = ProxyDynamicConf.getDouble("concurrency.limit.backoff.ratio", bid, bgroup, 0.9);
+        return new ConcurrencyLimitConf(enable, initialLimit, minLimit, maxLimit, windowMillis, minSamples, tolerance, backoffRatio);
+    }
+
+    private static class Limiter {
+        private final AdaptiveConcurrencyLimiter limiter;
+        private volatile ConcurrencyLimitConf conf;
+
+        Limiter(ConcurrencyLimitConf conf) {
+            this.conf = conf;
+            this.limiter = new AdaptiveConcurrencyLimiter(conf.getInitialLimit(), conf.getMinLimit(), conf.getMaxLimit(),
+                    conf.getWindowMillis(), conf.getMinSamples(), conf.getTolerance(), conf.getBackoffRatio());
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package com.netease.nim.camellia.redis.proxy.plugin.permission;
 
-import com.netease.nim.camellia.redis.proxy.util.Utils;
 import com.netease.nim.camellia.tools.utils.CamelliaMapUtils;
 import com.netease.nim.camellia.redis.proxy.command.Command;
 import com.netease.nim.camellia.redis.proxy.command.CommandContext;
 import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConfSnapshot;
 import com.netease.nim.camellia.redis.proxy.plugin.*;
 import com.netease.nim.camellia.redis.proxy.plugin.permission.model.Counter;
 import com.netease.nim.camellia.redis.proxy.plugin.permission.model.RateLimitConf;
@@ -21,17 +21,13 @@ public class RateLimitProxyPlugin implements ProxyPlugin {
 
     private static final ProxyPluginResponse TOO_FREQUENCY = new ProxyPluginResponse(false, "ERR request too frequent");
 
-    private RateLimitConf rateLimitConf;
     private final Counter counter = new Counter();
-    private final ConcurrentHashMap<String, RateLimitConf> rateLimitConfMap = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Counter> counterMap = new ConcurrentHashMap<>();
+    private ProxyDynamicConfSnapshot<RateLimitConf> confSnapshot;
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<String, Counter>> counterMap = new ConcurrentHashMap<>();
 
     @Override
     public void init(ProxyBeanFactory factory) {
-        ProxyDynamicConf.registerCallback(() -> {
-            rateLimitConf = null;
-            rateLimitConfMap.clear();
-        });
+        confSnapshot = new ProxyDynamicConfSnapshot<>("rate.limit", RateLimitProxyPlugin::buildRateLimitConf);
     }
 
     @Override
@@ -54,7 +50,7 @@ public class RateLimitProxyPlugin implements ProxyPlugin {
         try {
             Command command = request.getCommand();
             CommandContext commandContext = command.getCommandContext();
-            RateLimitConf rateLimitConf = getRateLimitConf();
+            RateLimitConf rateLimitConf = confSnapshot.get();
             if (rateLimitConf.getMaxCount() == 0) {
                 return TOO_FREQUENCY;
             } else if (rateLimitConf.getMaxCount() > 0) {
@@ -66,7 +62,7 @@ public class RateLimitProxyPlugin implements ProxyPlugin {
             Long bid = commandContext.getBid();
             String bgroup = commandContext.getBgroup();
             if (bid != null && bgroup != null) {
-                RateLimitConf rateLimitConf1 = getRateLimitConf(bid, bgroup);
+                RateLimitConf rateLimitConf1 = confSnapshot.get(bid, bgroup);
                 if (rateLimitConf1.getMaxCount() == 0) {
                     return TOO_FREQUENCY;
                 } else if (rateLimitConf1.getMaxCount() > 0) {
@@ -87,32 +83,24 @@ public class RateLimitProxyPlugin implements ProxyPlugin {
         return counter;
     }
 
-    private RateLimitConf getRateLimitConf() {
-        if (this.rateLimitConf != null) {
-            return this.rateLimitConf;
-        }
-        long checkMillis = ProxyDynamicConf.getLong("rate.limit.check.millis", 1000L);
-        long maxCount = ProxyDynamicConf.getLong("rate.limit.max.count", -1L);
-        this.rateLimitConf = new RateLimitConf(checkMillis, maxCount);
-        return this.rateLimitConf;
-    }
-
     private Counter getCounter(long bid, String bgroup) {
-        String key = Utils.getCacheKey(bid, bgroup);
-        return CamelliaMapUtils.computeIfAbsent(counterMap, key, s -> new Counter());
+        ConcurrentHashMap<String, Counter> map = CamelliaMapUtils.computeIfAbsent(counterMap, bid, k -> new ConcurrentHashMap<>());
+        return CamelliaMapUtils.computeIfAbsent(map, bgroup, k -> new Counter());
     }
 
-    private RateLimitConf getRateLimitConf(long bid, String bgroup) {
-        String key = Utils.getCacheKey(bid, bgroup);
-        return CamelliaMapUtils.computeIfAbsent(rateLimitConfMap, key, str -> {
-            long checkMillis = ProxyDynamicConf.getLong(bid + "." + bgroup + ".rate.limit.check.millis", 1000L);
-            long maxCount = ProxyDynamicConf.getLong(bid + "." + bgroup + ".rate.limit.max.count", -1L);
-            if (maxCount < 0) {
-                checkMillis = ProxyDynamicConf.getLong("default.default.rate.limit.check.millis", 1000L);
-                maxCount = ProxyDynamicConf.getLong("default.default.rate.limit.max.count", -1L);
-            }
+    private static RateLimitConf buildRateLimitConf(Long bid, String bgroup) {
+        if (bid == null || bgroup == null) {
+            long checkMillis = ProxyDynamicConf.getLong("rate.limit.check.millis", 1000L);
+            long maxCount = ProxyDynamicConf.getLong("rate.limit.max.count", -1L);
             return new RateLimitConf(checkMillis, maxCount);
-        });
+        }
+        long checkMillis = ProxyDynamicConf.getLong(bid + "." + bgroup + ".rate.limit.check.millis", 1000L);
+        long maxCount = ProxyDynamicConf.getLong(bid + "." + bgroup + ".rate.limit.max.count", -1L);
+        if (maxCount < 0) {
+            checkMillis = ProxyDynamicConf.getLong("default.default.rate.limit.check.millis", 1000L);
+            maxCount = ProxyDynamicConf.getLong("default.default.rate.limit.max.count", -1L);
+        }
+        return new RateLimitConf(checkMillis, maxCount);
     }
 
 }
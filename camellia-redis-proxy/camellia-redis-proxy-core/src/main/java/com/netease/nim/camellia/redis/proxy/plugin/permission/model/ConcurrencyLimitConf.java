@@ -0,0 +1,59 @@
+package com.netease.nim.camellia.redis.proxy.plugin.permission.model;
+
+/**
+ * Created by caojiajun on 2024/7/25
+ */
+public class ConcurrencyLimitConf {
+    private final boolean enable;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowMillis;
+    private final int minSamples;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    public ConcurrencyLimitConf(boolean enable, int initialLimit, int minLimit, int maxLimit,
+                                long windowMillis, int minSamples, double tolerance, double backoffRatio) {
+        this.enable = enable;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowMillis = windowMillis;
+        this.minSamples = minSamples;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+    }
+
+    public boolean isEnable() {
+        return enable;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+}
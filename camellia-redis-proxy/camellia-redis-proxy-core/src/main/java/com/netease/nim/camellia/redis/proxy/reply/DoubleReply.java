@@ -0,0 +1,29 @@
+package com.netease.nim.camellia.redis.proxy.reply;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * RESP3 double type, converted from the RESP2 bulk string score (such as 1.5/inf/-inf) for RESP3 clients
+ * Created by caojiajun on 2024/7/26
+ */
+public class DoubleReply implements Reply {
+
+    private static final char MARKER = ',';
+
+    private final byte[] raw;
+
+    public DoubleReply(byte[] raw) {
+        this.raw = raw;
+    }
+
+    public byte[] getRaw() {
+        return raw;
+    }
+
+    @Override
+    public void write(ByteBuf byteBuf) {
+        byteBuf.writeByte(MARKER);
+        byteBuf.writeBytes(raw);
+        byteBuf.writeBytes(CRLF);
+    }
+}
@@ -21,6 +21,7 @@ public class ErrorReply implements Reply {
     public static final ErrorReply UPSTREAM_CONNECTION_CACHED_QUEUE_FULL = new ErrorReply("ERR proxy upstream connection cached queue full");
     public static final ErrorReply UPSTREAM_CONNECTION_STATUS_INVALID = new ErrorReply("ERR proxy upstream connection status invalid");
     public static final ErrorReply UPSTREAM_CONNECTION_NULL = new ErrorReply("ERR proxy upstream connection null");
+    public static final ErrorReply COMMAND_CANCELLED = new ErrorReply("ERR proxy command cancelled, client connection closed");
     public static final ErrorReply UPSTREAM_BIND_CONNECTION_NULL = new ErrorReply("ERR proxy upstream bind connection null");
     public static final ErrorReply UPSTREAM_CONNECTION_REDIS_CLUSTER_NODE_NULL = new ErrorReply("ERR proxy upstream redis cluster node null");
     public static final ErrorReply UPSTREAM_CONNECTION_REDIS_NODE_NULL = new ErrorReply("ERR proxy upstream redis node null");
@@ -0,0 +1,37 @@
+package com.netease.nim.camellia.redis.proxy.reply;
+
+import com.netease.nim.camellia.redis.proxy.util.Utils;
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+
+/**
+ * RESP3 map type, only used in replies generated by proxy (such as HELLO 3)
+ * Created by caojiajun on 2024/7/26
+ */
+public class MapReply implements Reply {
+
+    private static final char MARKER = '%';
+
+    private final Reply[] keyValues;
+
+    /**
+     * @param keyValues k1, v1, k2, v2, ...
+     */
+    public MapReply(Reply[] keyValues) {
+        this.keyValues = keyValues;
+    }
+
+    public Reply[] getKeyValues() {
+        return keyValues;
+    }
+
+    @Override
+    public void write(ByteBuf byteBuf) throws IOException {
+        byteBuf.writeByte(MARKER);
+        byteBuf.writeBytes(Utils.numToBytes(keyValues.length / 2, true));
+        for (Reply reply : keyValues) {
+            reply.write(byteBuf);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.netease.nim.camellia.redis.proxy.reply;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+
+/**
+ * 完整的RESP回包，不解析直接透传给客户端
+ * <p> a complete RESP frame from upstream, written to client as is
+ * Created by caojiajun on 2024/7/8
+ */
+public class PassThroughReply implements Reply {
+
+    private final byte[] raw;
+
+    public PassThroughReply(byte[] raw) {
+        this.raw = raw;
+    }
+
+    public byte[] getRaw() {
+        return raw;
+    }
+
+    @Override
+    public void write(ByteBuf byteBuf) throws IOException {
+        byteBuf.writeBytes(raw);
+    }
+}
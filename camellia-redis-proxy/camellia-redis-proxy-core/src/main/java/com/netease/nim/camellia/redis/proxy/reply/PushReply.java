@@ -0,0 +1,34 @@
+package com.netease.nim.camellia.redis.proxy.reply;
+
+import com.netease.nim.camellia.redis.proxy.util.Utils;
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+
+/**
+ * RESP3 push type, such as client tracking invalidation message
+ * Created by caojiajun on 2024/7/26
+ */
+public class PushReply implements Reply {
+
+    private static final char MARKER = '>';
+
+    private final Reply[] replies;
+
+    public PushReply(Reply[] replies) {
+        this.replies = replies;
+    }
+
+    public Reply[] getReplies() {
+        return replies;
+    }
+
+    @Override
+    public void write(ByteBuf byteBuf) throws IOException {
+        byteBuf.writeByte(MARKER);
+        byteBuf.writeBytes(Utils.numToBytes(replies.length, true));
+        for (Reply reply : replies) {
+            reply.write(byteBuf);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.netease.nim.camellia.redis.proxy.reply;
+
+import com.netease.nim.camellia.redis.proxy.command.Command;
+import com.netease.nim.camellia.redis.proxy.enums.RedisCommand;
+import com.netease.nim.camellia.redis.proxy.util.Utils;
+
+/**
+ * 后端始终使用RESP2协议，HELLO 3之后的连接，回包需要转换为RESP3的类型：
+ * HGETALL/CONFIG GET转换为map，SMEMBERS/SINTER/SUNION/SDIFF转换为set，
+ * ZSCORE/ZINCRBY/ZMSCORE的score转换为double，ZRANGE等命令带WITHSCORES时转换为[member, score]的数组
+ * Created by caojiajun on 2024/7/26
+ */
+public class Resp3ReplyConverter {
+
+    public static Reply convert(Command command, Reply reply) {
+        if (command == null || reply == null) {
+            return reply;
+        }
+        RedisCommand redisCommand = command.getRedisCommand();
+        if (redisCommand == null) {
+            return reply;
+        }
+        if (reply instanceof BulkReply) {
+            if (redisCommand == RedisCommand.ZSCORE || redisCommand == RedisCommand.ZINCRBY) {
+                return toDouble(reply);
+            }
+            return reply;
+        }
+        if (!(reply instanceof MultiBulkReply)) {
+            return reply;
+        }
+        Reply[] replies = ((MultiBulkReply) reply).getReplies();
+        if (replies == null) {
+            return reply;
+        }
+        switch (redisCommand) {
+            case HGETALL:
+                return toMap(reply, replies);
+            case CONFIG:
+                byte[][] objects = command.getObjects();
+                if (objects.length >= 2 && Utils.bytesToString(objects[1]).equalsIgnoreCase("get")) {
+                    return toMap(reply, replies);
+                }
+                return reply;
+            case SMEMBERS:
+            case SINTER:
+            case SUNION:
+            case SDIFF:
+                return new SetReply(replies);
+            case ZMSCORE:
+                Reply[] scores = new Reply[replies.length];
+                for (int i=0; i<replies.length; i++) {
+                    scores[i] = toDouble(replies[i]);
+                }
+                return new MultiBulkReply(scores);
+            case ZRANGE:
+            case ZREVRANGE:
+            case ZRANGEBYSCORE:
+            case ZREVRANGEBYSCORE:
+                if (replies.length % 2 != 0 || !withScores(command)) {
+                    return reply;
+                }
+                Reply[] tuples = new Reply[replies.length / 2];
+                for (int i=0; i<tuples.length; i++) {
+                    tuples[i] = new MultiBulkReply(new Reply[]{replies[i * 2], toDouble(replies[i * 2 + 1])});
+                }
+                return new MultiBulkReply(tuples);
+            default:
+                return reply;
+        }
+    }
+
+    private static Reply toMap(Reply reply, Reply[] replies) {
+        if (replies.length % 2 != 0) {
+            return reply;
+        }
+        return new MapReply(replies);
+    }
+
+    private static Reply toDouble(Reply reply) {
+        if (reply instanceof BulkReply && ((BulkReply) reply).getRaw() != null) {
+            return new DoubleReply(((BulkReply) reply).getRaw());
+        }
+        return reply;
+    }
+
+    private static boolean withScores(Command command) {
+        byte[][] objects = command.getObjects();
+        for (int i=objects.length - 1; i>=4; i--) {
+            if (Utils.bytesToString(objects[i]).equalsIgnoreCase("withscores")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
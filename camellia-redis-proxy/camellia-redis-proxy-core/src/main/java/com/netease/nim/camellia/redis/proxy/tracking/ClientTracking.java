@@ -0,0 +1,377 @@
+package com.netease.nim.camellia.redis.proxy.tracking;
+
+import com.netease.nim.camellia.redis.proxy.command.Command;
+import com.netease.nim.camellia.redis.proxy.command.CommandTask;
+import com.netease.nim.camellia.redis.proxy.command.CommandTaskQueue;
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import com.netease.nim.camellia.redis.proxy.enums.RedisCommand;
+import com.netease.nim.camellia.redis.proxy.netty.ChannelInfo;
+import com.netease.nim.camellia.redis.proxy.netty.ChannelType;
+import com.netease.nim.camellia.redis.proxy.reply.*;
+import com.netease.nim.camellia.redis.proxy.util.ErrorLogCollector;
+import com.netease.nim.camellia.redis.proxy.util.Utils;
+import com.netease.nim.camellia.tools.utils.BytesKey;
+import com.netease.nim.camellia.tools.utils.CamelliaMapUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 服务端辅助的客户端缓存（CLIENT TRACKING），需要客户端通过HELLO 3切换到RESP3
+ * <p>
+ * proxy记录每个开启了tracking的连接读过的key，当有写命令经过proxy并返回后，给读过这些key的连接推送失效消息（RESP3 push），
+ * BCAST模式下则给订阅了匹配前缀的连接推送，失效消息会和普通回包一样按顺序写入连接，保证在此前的读命令的回包之后到达
+ * <p>
+ * tracking表是proxy本地的，按bid/bgroup/db隔离，只有经过本proxy的写命令会触发失效消息，key的过期和淘汰也不会触发失效消息
+ * Created by caojiajun on 2024/7/26
+ */
+public class ClientTracking {
+
+    private static final byte[] INVALIDATE = Utils.stringToBytes("invalidate");
+
+    private static final ErrorReply RESP3_REQUIRED = new ErrorReply("ERR proxy client tracking requires RESP3, please send HELLO 3 first");
+    private static final ErrorReply REDIRECT_NOT_SUPPORT = new ErrorReply("ERR proxy client tracking REDIRECT/OPTIN/OPTOUT not support");
+    private static final ErrorReply PREFIX_REQUIRE_BCAST = new ErrorReply("ERR PREFIX option requires BCAST mode to be enabled");
+
+    private static final ConcurrentHashMap<String, Table> tables = new ConcurrentHashMap<>();
+    //开启了tracking的连接，tracking表中只记录连接id，推送时从这里查找，连接关闭后即可被回收
+    private static final ConcurrentHashMap<Long, ChannelInfo> trackingChannels = new ConcurrentHashMap<>();
+    private static final AtomicInteger trackingClients = new AtomicInteger();
+
+    private static volatile boolean resp3Enable;
+    private static volatile int maxKeys;
+
+    static {
+        reload();
+        ProxyDynamicConf.registerCallback(ClientTracking::reload);
+    }
+
+    private static void reload() {
+        resp3Enable = ProxyDynamicConf.getBoolean("client.resp3.enable", false);
+        maxKeys = ProxyDynamicConf.getInt("client.tracking.table.max.keys", 1000000);
+    }
+
+    /**
+     * 是否允许客户端通过HELLO 3切换到RESP3
+     * @return true/false
+     */
+    public static boolean isResp3Enable() {
+        return resp3Enable;
+    }
+
+    /**
+     * CLIENT TRACKING ON|OFF [PREFIX prefix [PREFIX prefix ...]] [BCAST] [NOLOOP]
+     * @param channelInfo channelInfo
+     * @param objects command args
+     * @return reply
+     */
+    public static Reply tracking(ChannelInfo channelInfo, byte[][] objects) {
+        if (objects.length < 3) {
+            return ErrorReply.SYNTAX_ERROR;
+        }
+        String onOff = Utils.bytesToString(objects[2]);
+        if (onOff.equalsIgnoreCase("off")) {
+            trackingOff(channelInfo);
+            return StatusReply.OK;
+        }
+        if (!onOff.equalsIgnoreCase("on")) {
+            return ErrorReply.SYNTAX_ERROR;
+        }
+        boolean bcast = false;
+        boolean noloop = false;
+        List<byte[]> prefixes = new ArrayList<>();
+        for (int i=3; i<objects.length; i++) {
+            String option = Utils.bytesToString(objects[i]);
+            if (option.equalsIgnoreCase("bcast")) {
+                bcast = true;
+            } else if (option.equalsIgnoreCase("noloop")) {
+                noloop = true;
+            } else if (option.equalsIgnoreCase("prefix")) {
+                if (i + 1 >= objects.length) {
+                    return ErrorReply.SYNTAX_ERROR;
+                }
+                prefixes.add(objects[++i]);
+            } else if (option.equalsIgnoreCase("redirect") || option.equalsIgnoreCase("optin") || option.equalsIgnoreCase("optout")) {
+                return REDIRECT_NOT_SUPPORT;
+            } else {
+                return ErrorReply.SYNTAX_ERROR;
+            }
+        }
+        if (!prefixes.isEmpty() && !bcast) {
+            return PREFIX_REQUIRE_BCAST;
+        }
+        if (!channelInfo.isResp3()) {
+            return RESP3_REQUIRED;
+        }
+        trackingOff(channelInfo);
+        ClientTrackingState state = getOrCreateState(channelInfo);
+        String namespace = namespace(channelInfo);
+        state.enable(bcast, prefixes, noloop, namespace);
+        trackingChannels.put(channelInfo.getId(), channelInfo);
+        if (bcast) {
+            CamelliaMapUtils.computeIfAbsent(tables, namespace, k -> new Table()).bcastClients.put(channelInfo.getId(), channelInfo);
+        }
+        trackingClients.incrementAndGet();
+        return StatusReply.OK;
+    }
+
+    /**
+     * CLIENT GETREDIR，proxy不支持REDIRECT，开启了tracking时返回0，否则返回-1
+     * @param channelInfo channelInfo
+     * @return reply
+     */
+    public static Reply getRedir(ChannelInfo channelInfo) {
+        ClientTrackingState state = channelInfo.getClientTrackingState();
+        if (state != null && state.isEnable()) {
+            return new IntegerReply(0L);
+        }
+        return new IntegerReply(-1L);
+    }
+
+    /**
+     * 连接关闭或者关闭tracking
+     * @param channelInfo channelInfo
+     */
+    public static void trackingOff(ChannelInfo channelInfo) {
+        ClientTrackingState state = channelInfo.getClientTrackingState();
+        if (state == null || !state.isEnable()) {
+            return;
+        }
+        state.disable();
+        trackingClients.decrementAndGet();
+        trackingChannels.remove(channelInfo.getId());
+        if (state.isBcast()) {
+            Table table = tables.get(state.getBcastNamespace());
+            if (table != null) {
+                table.bcastClients.remove(channelInfo.getId());
+            }
+        }
+    }
+
+    /**
+     * 命令到达proxy时（执行plugin之前，因此key是客户端视角的key）调用
+     * <p>
+     * 读命令在转发之前登记key，写命令在返回之后发送失效消息（由CommandTask回调invalidate）
+     * @param channelInfo channelInfo
+     * @param task task
+     */
+    public static void onRequest(ChannelInfo channelInfo, CommandTask task) {
+        if (trackingClients.get() <= 0) {
+            return;
+        }
+        try {
+            Command command = task.getCommand();
+            RedisCommand redisCommand = command.getRedisCommand();
+            if (redisCommand == null || redisCommand.getCommandType() == RedisCommand.CommandType.PUB_SUB) {
+                return;
+            }
+            if (redisCommand.getCommandType() == RedisCommand.CommandType.TRANSACTION) {
+                onTransaction(channelInfo, task, redisCommand);
+                return;
+            }
+            if (redisCommand.getType() == RedisCommand.Type.READ) {
+                ClientTrackingState state = channelInfo.getClientTrackingState();
+                if (state == null || !state.isEnable() || state.isBcast()) {
+                    return;
+                }
+                List<byte[]> keys = command.getKeys();
+                if (keys.isEmpty()) {
+                    return;
+                }
+                Table table = CamelliaMapUtils.computeIfAbsent(tables, namespace(channelInfo), k -> new Table());
+                for (byte[] key : keys) {
+                    table.track(key.clone(), channelInfo);
+                }
+            } else {
+                List<byte[]> keys = command.getKeys();
+                if (keys.isEmpty()) {
+                    return;
+                }
+                String namespace = namespace(channelInfo);
+                if (!tables.containsKey(namespace)) {
+                    return;
+                }
+                List<byte[]> copy = new ArrayList<>(keys.size());
+                for (byte[] key : keys) {
+                    copy.add(key.clone());
+                }
+                ClientTrackingState state = channelInfo.getClientTrackingState();
+                if (state != null && state.isInMulti()) {
+                    state.addMultiKeys(copy);
+                } else {
+                    task.setTrackingInvalidate(namespace, copy);
+                }
+            }
+        } catch (Exception e) {
+            ErrorLogCollector.collect(ClientTracking.class, "client tracking onRequest error", e);
+        }
+    }
+
+    private static void onTransaction(ChannelInfo channelInfo, CommandTask task, RedisCommand redisCommand) {
+        if (redisCommand == RedisCommand.MULTI) {
+            getOrCreateState(channelInfo).multi();
+        } else if (redisCommand == RedisCommand.EXEC || redisCommand == RedisCommand.DISCARD) {
+            ClientTrackingState state = channelInfo.getClientTrackingState();
+            if (state == null || !state.isInMulti()) {
+                return;
+            }
+            List<byte[]> keys = state.endMulti();
+            if (redisCommand == RedisCommand.EXEC && keys != null && !keys.isEmpty()) {
+                task.setTrackingInvalidate(namespace(channelInfo), keys);
+            }
+        }
+    }
+
+    /**
+     * 写命令返回后，给读过这些key的连接推送失效消息
+     * @param namespace namespace
+     * @param keys keys
+     * @param writer the connection which send the write command
+     */
+    public static void invalidate(String namespace, List<byte[]> keys, ChannelInfo writer) {
+        try {
+            Table table = tables.get(namespace);
+            if (table == null) {
+                return;
+            }
+            Map<ChannelInfo, List<byte[]>> map = new HashMap<>();
+            for (byte[] key : keys) {
+                Set<Long> clients = table.remove(key);
+                if (clients != null) {
+                    for (Long id : clients) {
+                        ChannelInfo channelInfo = trackingChannels.get(id);
+                        if (channelInfo != null) {
+                            map.computeIfAbsent(channelInfo, k -> new ArrayList<>()).add(key);
+                        }
+                    }
+                }
+                if (!table.bcastClients.isEmpty()) {
+                    for (ChannelInfo channelInfo : table.bcastClients.values()) {
+                        ClientTrackingState state = channelInfo.getClientTrackingState();
+                        if (state != null && matchPrefix(key, state.getPrefixes())) {
+                            map.computeIfAbsent(channelInfo, k -> new ArrayList<>()).add(key);
+                        }
+                    }
+                }
+            }
+            for (Map.Entry<ChannelInfo, List<byte[]>> entry : map.entrySet()) {
+                ChannelInfo channelInfo = entry.getKey();
+                ClientTrackingState state = channelInfo.getClientTrackingState();
+                if (state == null || !state.isEnable()) continue;
+                if (state.isNoloop() && channelInfo == writer) continue;
+                push(channelInfo, entry.getValue());
+            }
+        } catch (Exception e) {
+            ErrorLogCollector.collect(ClientTracking.class, "client tracking invalidate error", e);
+        }
+    }
+
+    private static void push(ChannelInfo channelInfo, List<byte[]> keys) {
+        if (channelInfo.getChannelType() == ChannelType.http || channelInfo.getCtx() == null) {
+            return;
+        }
+        if (!channelInfo.getCtx().channel().isActive() || channelInfo.isInSubscribe()) {
+            return;
+        }
+        Reply[] keyReplies = new Reply[keys.size()];
+        for (int i=0; i<keys.size(); i++) {
+            keyReplies[i] = new BulkReply(keys.get(i));
+        }
+        PushReply pushReply = new PushReply(new Reply[]{new BulkReply(INVALIDATE), new MultiBulkReply(keyReplies)});
+        CommandTaskQueue taskQueue = channelInfo.getCommandTaskQueue();
+        taskQueue.push(pushReply);
+    }
+
+    private static boolean matchPrefix(byte[] key, List<byte[]> prefixes) {
+        if (prefixes.isEmpty()) {
+            return true;
+        }
+        for (byte[] prefix : prefixes) {
+            if (startWith(key, prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startWith(byte[] key, byte[] prefix) {
+        if (key.length < prefix.length) {
+            return false;
+        }
+        for (int i=0; i<prefix.length; i++) {
+            if (key[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ClientTrackingState getOrCreateState(ChannelInfo channelInfo) {
+        ClientTrackingState state = channelInfo.getClientTrackingState();
+        if (state == null) {
+            state = new ClientTrackingState();
+            channelInfo.setClientTrackingState(state);
+        }
+        return state;
+    }
+
+    private static String namespace(ChannelInfo channelInfo) {
+        return channelInfo.getBid() + "|" + channelInfo.getBgroup() + "|" + Math.max(channelInfo.getDb(), 0);
+    }
+
+    private static class Table {
+        private final ConcurrentHashMap<BytesKey, Set<Long>> keys = new ConcurrentHashMap<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final ConcurrentHashMap<Long, ChannelInfo> bcastClients = new ConcurrentHashMap<>();
+
+        void track(byte[] key, ChannelInfo channelInfo) {
+            //add inside compute, or a concurrent remove may detach the set and the client never gets the invalidation
+            long id = channelInfo.getId();
+            keys.compute(new BytesKey(key), (k, clients) -> {
+                if (clients == null) {
+                    clients = ConcurrentHashMap.newKeySet();
+                    size.incrementAndGet();
+                }
+                clients.add(id);
+                return clients;
+            });
+            if (size.get() > maxKeys) {
+                evict();
+            }
+        }
+
+        Set<Long> remove(byte[] key) {
+            Set<Long> clients = keys.remove(new BytesKey(key));
+            if (clients != null) {
+                size.decrementAndGet();
+            }
+            return clients;
+        }
+
+        //超过上限时，随机淘汰部分key，并给读过这些key的连接推送失效消息（同redis的tracking_table_max_keys）
+        private void evict() {
+            int count = size.get() - maxKeys + Math.max(1, maxKeys / 100);
+            Iterator<Map.Entry<BytesKey, Set<Long>>> iterator = keys.entrySet().iterator();
+            Map<ChannelInfo, List<byte[]>> map = new HashMap<>();
+            while (count > 0 && iterator.hasNext()) {
+                Map.Entry<BytesKey, Set<Long>> entry = iterator.next();
+                if (keys.remove(entry.getKey(), entry.getValue())) {
+                    size.decrementAndGet();
+                    count --;
+                    for (Long id : entry.getValue()) {
+                        ChannelInfo channelInfo = trackingChannels.get(id);
+                        if (channelInfo != null) {
+                            map.computeIfAbsent(channelInfo, k -> new ArrayList<>()).add(entry.getKey().getKey());
+                        }
+                    }
+                }
+            }
+            for (Map.Entry<ChannelInfo, List<byte[]>> entry : map.entrySet()) {
+                ClientTrackingState state = entry.getKey().getClientTrackingState();
+                if (state == null || !state.isEnable()) continue;
+                push(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+}
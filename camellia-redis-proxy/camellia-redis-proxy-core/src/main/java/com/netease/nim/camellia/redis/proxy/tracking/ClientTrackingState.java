@@ -0,0 +1,76 @@
+package com.netease.nim.camellia.redis.proxy.tracking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单个客户端连接的client tracking状态
+ * Created by caojiajun on 2024/7/26
+ */
+public class ClientTrackingState {
+
+    private volatile boolean enable;
+    private boolean bcast;
+    private boolean noloop;
+    private List<byte[]> prefixes = new ArrayList<>();
+    private String bcastNamespace;
+
+    //事务中的写命令，在EXEC返回后再发送失效通知
+    private boolean inMulti;
+    private List<byte[]> multiKeys;
+
+    public boolean isEnable() {
+        return enable;
+    }
+
+    public boolean isBcast() {
+        return bcast;
+    }
+
+    public boolean isNoloop() {
+        return noloop;
+    }
+
+    public List<byte[]> getPrefixes() {
+        return prefixes;
+    }
+
+    public String getBcastNamespace() {
+        return bcastNamespace;
+    }
+
+    void enable(boolean bcast, List<byte[]> prefixes, boolean noloop, String bcastNamespace) {
+        this.bcast = bcast;
+        this.prefixes = prefixes;
+        this.noloop = noloop;
+        this.bcastNamespace = bcastNamespace;
+        this.enable = true;
+    }
+
+    void disable() {
+        this.enable = false;
+    }
+
+    boolean isInMulti() {
+        return inMulti;
+    }
+
+    void multi() {
+        this.inMulti = true;
+        this.multiKeys = null;
+    }
+
+    void addMultiKeys(List<byte[]> keys) {
+        if (multiKeys == null) {
+            multiKeys = new ArrayList<>();
+        }
+        multiKeys.addAll(keys);
+    }
+
+    List<byte[]> endMulti() {
+        List<byte[]> keys = this.multiKeys;
+        this.inMulti = false;
+        this.multiKeys = null;
+        return keys;
+    }
+}
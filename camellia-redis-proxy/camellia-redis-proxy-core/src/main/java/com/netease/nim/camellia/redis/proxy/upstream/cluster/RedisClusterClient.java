@@ -21,6 +21,7 @@ import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionA
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionHub;
 import com.netease.nim.camellia.redis.proxy.upstream.utils.CompletableFutureUtils;
 import com.netease.nim.camellia.redis.proxy.upstream.utils.PubSubUtils;
+import com.netease.nim.camellia.redis.proxy.upstream.utils.ReadHedger;
 import com.netease.nim.camellia.redis.proxy.upstream.utils.Renew;
 import com.netease.nim.camellia.redis.proxy.upstream.utils.ScanCursorCalculator;
 import com.netease.nim.camellia.redis.proxy.util.ErrorLogCollector;
@@ -31,6 +32,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Function;
 
 /**
  * Created by caojiajun on 2019/12/18.
@@ -44,6 +46,7 @@ public class RedisClusterClient implements IUpstreamClient {
     private final int maxAttempts;
     private final Resource resource;
     private final RedisClusterSlotInfo clusterSlotInfo;
+    private final ReadHedger hedger;
 
     private final String url;
     private final String userName;
@@ -59,6 +62,7 @@ public class RedisClusterClient implements IUpstreamClient {
         this.password = resource.getPassword();
         this.maxAttempts = maxAttempts;
         this.clusterSlotInfo = new RedisClusterSlotInfo(resource, this);
+        this.hedger = new ReadHedger(url);
     }
 
     public RedisClusterClient(RedissClusterSlavesResource resource, int maxAttempts) {
@@ -69,6 +73,7 @@ public class RedisClusterClient implements IUpstreamClient {
         this.password = resource.getPassword();
         this.maxAttempts = maxAttempts;
         this.clusterSlotInfo = new RedisClusterSlotInfo(resource, this);
+        this.hedger = new ReadHedger(url);
     }
 
     public RedisClusterClient(RedisClusterResource resource, int maxAttempts) {
@@ -79,6 +84,7 @@ public class RedisClusterClient implements IUpstreamClient {
         this.password = resource.getPassword();
         this.maxAttempts = maxAttempts;
         this.clusterSlotInfo = new RedisClusterSlotInfo(resource, this);
+        this.hedger = new ReadHedger(url);
     }
 
     public RedisClusterClient(RedissClusterResource resource, int maxAttempts) {
@@ -89,6 +95,7 @@ public class RedisClusterClient implements IUpstreamClient {
         this.password = resource.getPassword();
         this.maxAttempts = maxAttempts;
         this.clusterSlotInfo = new RedisClusterSlotInfo(resource, this);
+        this.hedger = new ReadHedger(url);
     }
 
     @Override
@@ -169,9 +176,8 @@ public class RedisClusterClient implements IUpstreamClient {
         if (commands.size() == 1) {
             Command command = commands.get(0);
             if (isPassThroughCommand(command)) {
-                byte[][] args = command.getObjects();
-                if (args.length >= 2) {
-                    byte[] key = args[1];
+                if (command.getObjectsLength() >= 2) {
+                    byte[] key = command.getObject(1);
                     int slot = RedisClusterCRC16Utils.getSlot(key);
                     RedisConnection connection = getConnection(slot);
                     if (connection != null) {
@@ -389,6 +395,14 @@ public class RedisClusterClient implements IUpstreamClient {
                 logger.debug("sendCommand, command = {}, key = {}, slot = {}", command.getName(), Utils.bytesToString(key), slot);
             }
             CompletableFutureWrapper futureWrapper = new CompletableFutureWrapper(this, future, command);
+            if (connection != null && clusterSlotInfo.isHedgeSupport() && hedger.isHedgeable(command)) {
+                RedisConnectionAddr addr = connection.getAddr();
+                int hedgeSlot = slot;
+                List<CompletableFuture<Reply>> primaryFutures = hedger.hedge(Collections.singletonList(command), Collections.singletonList(futureWrapper),
+                        Collections.singletonList(future), () -> clusterSlotInfo.getHedgeConnection(hedgeSlot, addr));
+                commandFlusher.sendCommand(connection, command, primaryFutures.get(0));
+                continue;
+            }
             commandFlusher.sendCommand(connection, command, futureWrapper);
         }
         commandFlusher.flush();
@@ -912,6 +926,10 @@ public class RedisClusterClient implements IUpstreamClient {
     }
 
     private void mget(Command command, RedisConnectionCommandFlusher commandFlusher, CompletableFuture<Reply> future) {
+        if (slotGroupEnable()) {
+            mgetBySlot(command, commandFlusher, future);
+            return;
+        }
         byte[][] args = command.getObjects();
         List<CompletableFuture<Reply>> futureList = new ArrayList<>();
 
@@ -956,6 +974,10 @@ public class RedisClusterClient implements IUpstreamClient {
             future.complete(new ErrorReply("wrong number of arguments for 'mset' command"));
             return;
         }
+        if (slotGroupEnable()) {
+            msetBySlot(command, commandFlusher, future);
+            return;
+        }
         List<CompletableFuture<Reply>> futureList = new ArrayList<>();
         for (int i = 1; i < args.length; i++, i++) {
             byte[] key = args[i];
@@ -978,6 +1000,10 @@ public class RedisClusterClient implements IUpstreamClient {
     }
 
     private void simpleIntegerReplyMerge(Command command, RedisConnectionCommandFlusher commandFlusher, CompletableFuture<Reply> future) {
+        if (slotGroupEnable()) {
+            simpleIntegerReplyMergeBySlot(command, commandFlusher, future);
+            return;
+        }
         byte[][] args = command.getObjects();
         List<CompletableFuture<Reply>> futureList = new ArrayList<>();
         for (int i = 1; i < args.length; i++) {
@@ -999,6 +1025,161 @@ public class RedisClusterClient implements IUpstreamClient {
         CompletableFutureUtils.allOf(futureList).thenAccept(replies -> future.complete(Utils.mergeIntegerReply(replies)));
     }
 
+    private boolean slotGroupEnable() {
+        return ProxyDynamicConf.getBoolean("redis.cluster.multi.key.slot.group.enable", true);
+    }
+
+    /**
+     * 按slot对key进行分组，保持key的原始顺序
+     * @param args args
+     * @param step 1 for keys, 2 for key-value pairs
+     * @return slot -> index of key in args
+     */
+    private static Map<Integer, List<Integer>> groupBySlot(byte[][] args, int step) {
+        Map<Integer, List<Integer>> map = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i += step) {
+            int slot = RedisClusterCRC16Utils.getSlot(args[i]);
+            List<Integer> list = map.get(slot);
+            if (list == null) {
+                list = new ArrayList<>();
+                map.put(slot, list);
+            }
+            list.add(i);
+        }
+        return map;
+    }
+
+    /**
+     * 发送同一个slot的多key命令，如果slot正在迁移导致TRYAGAIN，则降级为逐个key发送
+     */
+    private CompletableFuture<Reply> sendBySlot(RedisConnectionCommandFlusher commandFlusher, int slot, Command subCommand,
+                                                List<Command> fallbackCommands, Function<List<Reply>, Reply> merger) {
+        CompletableFuture<Reply> subFuture = new CompletableFuture<>();
+        CompletableFutureWrapper futureWrapper = new CompletableFutureWrapper(this, subFuture, subCommand);
+        commandFlusher.sendCommand(getConnection(slot), subCommand, futureWrapper);
+        if (fallbackCommands.size() <= 1) {
+            return subFuture;
+        }
+        return subFuture.thenCompose(reply -> {
+            if (!(reply instanceof ErrorReply) || !((ErrorReply) reply).getError().startsWith("TRYAGAIN")) {
+                return CompletableFuture.completedFuture(reply);
+            }
+            ErrorLogCollector.collect(RedisClusterClient.class, "TRYAGAIN, command = " + subCommand.getName() + ", slot = " + slot + ", fallback to single key command");
+            List<CompletableFuture<Reply>> futureList = new ArrayList<>(fallbackCommands.size());
+            for (Command fallbackCommand : fallbackCommands) {
+                CompletableFuture<Reply> fallbackFuture = new CompletableFuture<>();
+                RedisConnection connection = getConnection(slot);
+                if (connection == null) {
+                    fallbackFuture.complete(reply);
+                } else {
+                    connection.sendCommand(Collections.singletonList(fallbackCommand),
+                            Collections.singletonList(new CompletableFutureWrapper(this, fallbackFuture, fallbackCommand)));
+                }
+                futureList.add(fallbackFuture);
+            }
+            return CompletableFutureUtils.allOf(futureList).thenApply(merger);
+        });
+    }
+
+    private void mgetBySlot(Command command, RedisConnectionCommandFlusher commandFlusher, CompletableFuture<Reply> future) {
+        byte[][] args = command.getObjects();
+        Map<Integer, List<Integer>> slotMap = groupBySlot(args, 1);
+        List<List<Integer>> indexList = new ArrayList<>(slotMap.size());
+        List<CompletableFuture<Reply>> futureList = new ArrayList<>(slotMap.size());
+        for (Map.Entry<Integer, List<Integer>> entry : slotMap.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            byte[][] subArgs = new byte[indexes.size() + 1][];
+            subArgs[0] = RedisCommand.MGET.raw();
+            List<Command> fallbackCommands = new ArrayList<>(indexes.size());
+            for (int i = 0; i < indexes.size(); i++) {
+                byte[] key = args[indexes.get(i)];
+                subArgs[i + 1] = key;
+                fallbackCommands.add(new Command(new byte[][]{RedisCommand.GET.raw(), key}));
+            }
+            futureList.add(sendBySlot(commandFlusher, entry.getKey(), new Command(subArgs), fallbackCommands, replies -> {
+                for (Reply reply : replies) {
+                    if (reply instanceof ErrorReply) {
+                        return reply;
+                    }
+                }
+                return new MultiBulkReply(replies.toArray(new Reply[0]));
+            }));
+            indexList.add(indexes);
+        }
+        if (futureList.size() == 1) {
+            futureList.get(0).thenAccept(future::complete);
+            return;
+        }
+        CompletableFutureUtils.allOf(futureList).thenAccept(replies -> {
+            Reply[] retRelies = new Reply[args.length - 1];
+            for (int i = 0; i < replies.size(); i++) {
+                Reply reply = replies.get(i);
+                if (reply instanceof ErrorReply) {
+                    future.complete(reply);
+                    return;
+                }
+                List<Integer> indexes = indexList.get(i);
+                if (!(reply instanceof MultiBulkReply) || ((MultiBulkReply) reply).getReplies().length != indexes.size()) {
+                    future.complete(ErrorReply.INTERNAL_ERROR);
+                    return;
+                }
+                Reply[] subReplies = ((MultiBulkReply) reply).getReplies();
+                for (int j = 0; j < indexes.size(); j++) {
+                    retRelies[indexes.get(j) - 1] = subReplies[j];
+                }
+            }
+            future.complete(new MultiBulkReply(retRelies));
+        });
+    }
+
+    private void msetBySlot(Command command, RedisConnectionCommandFlusher commandFlusher, CompletableFuture<Reply> future) {
+        byte[][] args = command.getObjects();
+        Map<Integer, List<Integer>> slotMap = groupBySlot(args, 2);
+        List<CompletableFuture<Reply>> futureList = new ArrayList<>(slotMap.size());
+        for (Map.Entry<Integer, List<Integer>> entry : slotMap.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            byte[][] subArgs = new byte[indexes.size() * 2 + 1][];
+            subArgs[0] = RedisCommand.MSET.raw();
+            List<Command> fallbackCommands = new ArrayList<>(indexes.size());
+            for (int i = 0; i < indexes.size(); i++) {
+                byte[] key = args[indexes.get(i)];
+                byte[] value = args[indexes.get(i) + 1];
+                subArgs[i * 2 + 1] = key;
+                subArgs[i * 2 + 2] = value;
+                fallbackCommands.add(new Command(new byte[][]{RedisCommand.SET.raw(), key, value}));
+            }
+            futureList.add(sendBySlot(commandFlusher, entry.getKey(), new Command(subArgs), fallbackCommands, Utils::mergeStatusReply));
+        }
+        if (futureList.size() == 1) {
+            futureList.get(0).thenAccept(future::complete);
+            return;
+        }
+        CompletableFutureUtils.allOf(futureList).thenAccept(replies -> future.complete(Utils.mergeStatusReply(replies)));
+    }
+
+    private void simpleIntegerReplyMergeBySlot(Command command, RedisConnectionCommandFlusher commandFlusher, CompletableFuture<Reply> future) {
+        byte[][] args = command.getObjects();
+        Map<Integer, List<Integer>> slotMap = groupBySlot(args, 1);
+        List<CompletableFuture<Reply>> futureList = new ArrayList<>(slotMap.size());
+        for (Map.Entry<Integer, List<Integer>> entry : slotMap.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            byte[][] subArgs = new byte[indexes.size() + 1][];
+            subArgs[0] = args[0];
+            List<Command> fallbackCommands = new ArrayList<>(indexes.size());
+            for (int i = 0; i < indexes.size(); i++) {
+                byte[] key = args[indexes.get(i)];
+                subArgs[i + 1] = key;
+                fallbackCommands.add(new Command(new byte[][]{args[0], key}));
+            }
+            futureList.add(sendBySlot(commandFlusher, entry.getKey(), new Command(subArgs), fallbackCommands, Utils::mergeIntegerReply));
+        }
+        if (futureList.size() == 1) {
+            futureList.get(0).thenAccept(future::complete);
+            return;
+        }
+        CompletableFutureUtils.allOf(futureList).thenAccept(replies -> future.complete(Utils.mergeIntegerReply(replies)));
+    }
+
     private void blockingCommand(int slot, Command command, RedisConnectionCommandFlusher commandFlusher, CompletableFuture<Reply> future) {
         if (slot < 0) {
             future.complete(new ErrorReply("CROSSSLOT Keys in request don't hash to the same slot"));
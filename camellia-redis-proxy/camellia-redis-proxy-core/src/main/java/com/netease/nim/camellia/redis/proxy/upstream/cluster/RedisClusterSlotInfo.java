@@ -10,6 +10,9 @@ import com.netease.nim.camellia.redis.base.exception.CamelliaRedisException;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnection;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionAddr;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionHub;
+import com.netease.nim.camellia.redis.proxy.upstream.utils.ReadHedger;
+import com.netease.nim.camellia.redis.proxy.upstream.utils.ReadNodeSelector;
+import com.netease.nim.camellia.redis.proxy.upstream.utils.ReadNodeSelectors;
 import com.netease.nim.camellia.redis.proxy.enums.RedisCommand;
 import com.netease.nim.camellia.redis.proxy.monitor.PasswordMaskUtils;
 import com.netease.nim.camellia.redis.proxy.reply.*;
@@ -136,6 +139,46 @@ public class RedisClusterSlotInfo {
         return RedisConnectionHub.getInstance().get(redisClusterClient, node.getAddr());
     }
 
+    /**
+     * 是否支持对冲读（只有读从节点的资源支持）
+     * @return true/false
+     */
+    public boolean isHedgeSupport() {
+        return type == Type.SLAVE_ONLY || type == Type.MASTER_SLAVE;
+    }
+
+    /**
+     * 对冲读使用的连接，选择同一个slot下和首个请求不同的节点
+     *
+     * @param slot slot
+     * @param exclude addr of the first request
+     * @return connection, null if not found
+     */
+    public RedisConnection getHedgeConnection(int slot, RedisConnectionAddr exclude) {
+        try {
+            NodeWithSlaves nodeWithSlaves = nodeWithSlavesArray[slot];
+            if (nodeWithSlaves == null) {
+                return null;
+            }
+            List<Node> nodes;
+            if (type == Type.SLAVE_ONLY) {
+                nodes = nodeWithSlaves.getSlaves();
+            } else if (type == Type.MASTER_SLAVE) {
+                nodes = new ArrayList<>(nodeWithSlaves.getSlaves().size() + 1);
+                nodes.add(nodeWithSlaves.getMaster());
+                nodes.addAll(nodeWithSlaves.getSlaves());
+            } else {
+                return null;
+            }
+            Node node = ReadHedger.selectOther(nodes, Node::getAddr, exclude, this::checkValid);
+            if (node == null) return null;
+            return RedisConnectionHub.getInstance().get(redisClusterClient, node.getAddr());
+        } catch (Exception e) {
+            ErrorLogCollector.collect(RedisClusterSlotInfo.class, "getHedgeConnection error, resource = " + maskUrl + ", slot = " + slot, e);
+            return null;
+        }
+    }
+
     /**
      * get node by slot
      *
@@ -483,6 +526,16 @@ public class RedisClusterSlotInfo {
             if (masterNode == null) {
                 return selectSlavesNode(slaves);
             }
+            ReadNodeSelector selector = ReadNodeSelectors.get();
+            if (selector != null) {
+                List<Node> nodes = new ArrayList<>(slaves.size() + 1);
+                nodes.add(masterNode);
+                nodes.addAll(slaves);
+                Node node = selector.select(nodes, Node::getAddr, this::checkValid);
+                if (node != null) {
+                    return node;
+                }
+            }
             int maxLoop = slaves.size() + 1;
             int index = ThreadLocalRandom.current().nextInt(maxLoop);
             for (int i=0; i<maxLoop; i++) {
@@ -528,6 +581,13 @@ public class RedisClusterSlotInfo {
         if (slaves == null || slaves.isEmpty()) return null;
         if (slaves.size() == 1) return slaves.get(0);
         try {
+            ReadNodeSelector selector = ReadNodeSelectors.get();
+            if (selector != null) {
+                Node node = selector.select(slaves, Node::getAddr, this::checkValid);
+                if (node != null) {
+                    return node;
+                }
+            }
             int maxLoop = slaves.size();
             int index = ThreadLocalRandom.current().nextInt(maxLoop);
             for (int i=0; i<maxLoop; i++) {
@@ -9,6 +9,7 @@ import com.netease.nim.camellia.redis.proxy.enums.RedisCommand;
 import com.netease.nim.camellia.redis.proxy.monitor.PasswordMaskUtils;
 import com.netease.nim.camellia.redis.proxy.monitor.RedisConnectionMonitor;
 import com.netease.nim.camellia.redis.proxy.monitor.ProxyMonitorCollector;
+import com.netease.nim.camellia.redis.proxy.upstream.utils.ReadNodeSelectors;
 import com.netease.nim.camellia.redis.proxy.reply.*;
 import com.netease.nim.camellia.redis.proxy.util.ErrorLogCollector;
 import com.netease.nim.camellia.redis.proxy.util.ExecutorUtils;
@@ -24,6 +25,7 @@ import io.netty.util.concurrent.DefaultThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -172,10 +174,12 @@ public class RedisConnection {
                     if (config.getProxyUpstreamTlsProvider() != null && config.getResource() != null) {
                         pipeline.addLast(config.getProxyUpstreamTlsProvider().createSslHandler(config.getResource()));
                     }
-                    pipeline.addLast(new ReplyDecoder());
+                    //only accessed in channel event loop
+                    Queue<Boolean> passThroughMarks = new ArrayDeque<>();
+                    pipeline.addLast(new ReplyDecoder(passThroughMarks));
                     pipeline.addLast(new ReplyAggregateDecoder());
                     pipeline.addLast(new ReplyHandler(queue, connectionName, tcpQuickAck));
-                    pipeline.addLast(new CommandPackEncoder(RedisConnection.this, commandPackRecycler, queue));
+                    pipeline.addLast(new CommandPackEncoder(RedisConnection.this, commandPackRecycler, queue, passThroughMarks));
                 }
             });
             if (tcpQuickAck) {
@@ -365,6 +369,36 @@ public class RedisConnection {
             }
             return;
         }
+        List<Command> sendCommands = commands;
+        List<CompletableFuture<Reply>> sendFutures = completableFutureList;
+        for (int i=0; i<commands.size(); i++) {
+            Command command = commands.get(i);
+            if (command.retainZeroCopySend()) {
+                if (sendCommands != commands) {
+                    sendCommands.add(command);
+                    sendFutures.add(completableFutureList.get(i));
+                }
+                continue;
+            }
+            //客户端连接已经关闭，零拷贝参数已经被释放，命令视为取消
+            if (commands.size() != completableFutureList.size()) {
+                releaseZeroCopySend(commands.subList(0, i));
+                for (CompletableFuture<Reply> future : completableFutureList) {
+                    future.complete(ErrorReply.COMMAND_CANCELLED);
+                }
+                return;
+            }
+            if (sendCommands == commands) {
+                sendCommands = new ArrayList<>(commands.subList(0, i));
+                sendFutures = new ArrayList<>(completableFutureList.subList(0, i));
+            }
+            completableFutureList.get(i).complete(ErrorReply.COMMAND_CANCELLED);
+        }
+        if (sendCommands.isEmpty()) {
+            return;
+        }
+        commands = sendCommands;
+        completableFutureList = sendFutures;
         CommandPack pack = commandPackRecycler.newInstance(commands, completableFutureList, time());
         if (logger.isDebugEnabled()) {
             List<String> commandNames = new ArrayList<>();
@@ -382,6 +416,7 @@ public class RedisConnection {
                 } else if (status == RedisConnectionStatus.INITIALIZE) {
                     boolean success = cachedCommands.offer(pack);
                     if (!success) {
+                        releaseZeroCopySend(commands);
                         String log = connectionName + ", cachedCommands queue is full, command return NOT_AVAILABLE";
                         for (CompletableFuture<Reply> future : completableFutureList) {
                             future.complete(ErrorReply.UPSTREAM_CONNECTION_CACHED_QUEUE_FULL);
@@ -389,6 +424,7 @@ public class RedisConnection {
                         }
                     }
                 } else {
+                    releaseZeroCopySend(commands);
                     String log = connectionName + " is " + status + ", command return NOT_AVAILABLE";
                     for (CompletableFuture<Reply> future : completableFutureList) {
                         future.complete(ErrorReply.UPSTREAM_CONNECTION_STATUS_INVALID);
@@ -397,6 +433,7 @@ public class RedisConnection {
                 }
             }
         } else {
+            releaseZeroCopySend(commands);
             String log = connectionName + " is " + status + ", command return NOT_AVAILABLE";
             for (CompletableFuture<Reply> future : completableFutureList) {
                 future.complete(ErrorReply.UPSTREAM_CONNECTION_STATUS_INVALID);
@@ -412,6 +449,13 @@ public class RedisConnection {
         return addr.getUrl();
     }
 
+    //命令未能发送时，释放发送前retain的零拷贝参数
+    private void releaseZeroCopySend(List<Command> commands) {
+        for (Command command : commands) {
+            command.releaseZeroCopySend();
+        }
+    }
+
     //初始化
     private void initialize() {
         try {
@@ -542,6 +586,7 @@ public class RedisConnection {
             while (!cachedCommands.isEmpty()) {
                 CommandPack commandPack = cachedCommands.poll();
                 if (commandPack != null) {
+                    releaseZeroCopySend(commandPack.getCommands());
                     for (CompletableFuture<Reply> future : commandPack.getCompletableFutureList()) {
                         future.complete(ErrorReply.UPSTREAM_CONNECTION_NOT_AVAILABLE);
                         count2 ++;
@@ -791,7 +836,8 @@ public class RedisConnection {
 
     //获取当前时间（ns）
     private long time() {
-        if (ProxyMonitorCollector.isUpstreamRedisSpendTimeMonitorEnable() && !config.isSkipCommandSpendTimeMonitor()) {
+        if ((ProxyMonitorCollector.isUpstreamRedisSpendTimeMonitorEnable() || ReadNodeSelectors.isLatencyAware())
+                && !config.isSkipCommandSpendTimeMonitor()) {
             return System.nanoTime();
         } else {
             return -1;
@@ -28,15 +28,18 @@ import com.netease.nim.camellia.redis.proxy.upstream.kv.domain.KeyDesign;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.domain.KvConfig;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.exception.KvException;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.gc.KvGcExecutor;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.kv.AsyncKVClient;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.kv.AsyncKVClientAdapter;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.kv.DecoratorKVClient;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.kv.KVClient;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.meta.DefaultKeyMetaServer;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.meta.KeyMetaServer;
 import com.netease.nim.camellia.redis.proxy.upstream.utils.CompletableFutureUtils;
 import com.netease.nim.camellia.redis.proxy.util.ErrorLogCollector;
-import com.netease.nim.camellia.redis.proxy.util.MpscSlotHashExecutor;
+import com.netease.nim.camellia.redis.proxy.util.KeyedExecutor;
 import com.netease.nim.camellia.redis.proxy.util.BeanInitUtils;
 import com.netease.nim.camellia.redis.proxy.util.Utils;
+import com.netease.nim.camellia.tools.utils.BytesKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +48,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by caojiajun on 2024/4/17
@@ -53,10 +57,12 @@ public class RedisKvClient implements IUpstreamClient {
 
     private static final Logger logger = LoggerFactory.getLogger(RedisKvClient.class);
 
-    private MpscSlotHashExecutor executor;
+    private KeyedExecutor executor;
     private final Resource resource;
     private final String namespace;
     private Commanders commanders;
+    //key -> reply future of the last command of the key, only when the command is still in flight after leaving the key's executor slot
+    private final ConcurrentHashMap<BytesKey, CompletableFuture<Reply>> inflightMap = new ConcurrentHashMap<>();
 
     public RedisKvClient(RedisKvResource resource) {
         this.resource = resource;
@@ -184,14 +190,14 @@ public class RedisKvClient implements IUpstreamClient {
     }
 
     private void sendCommand(byte[] key, Command command, CompletableFuture<Reply> future) {
+        submit(key, command, future, false);
+    }
+
+    private void submit(byte[] key, Command command, CompletableFuture<Reply> future, boolean resumed) {
         try {
             executor.submit(key, () -> {
                 try {
-                    Reply reply = commanders.execute(command);
-                    if (reply == null) {
-                        ErrorLogCollector.collect(RedisKvClient.class, "command receive null reply, command = " + command.getName());
-                    }
-                    future.complete(reply);
+                    execute(key, command, future, resumed);
                 } catch (Exception e) {
                     ErrorLogCollector.collect(RedisKvClient.class, "send command error, command = " + command.getName(), e);
                     future.complete(ErrorReply.NOT_AVAILABLE);
@@ -203,6 +209,33 @@ public class RedisKvClient implements IUpstreamClient {
         }
     }
 
+    //run in the key's slot of the executor
+    private void execute(byte[] key, Command command, CompletableFuture<Reply> future, boolean resumed) {
+        BytesKey bytesKey = new BytesKey(key);
+        if (!resumed) {
+            CompletableFuture<Reply> inflight = inflightMap.get(bytesKey);
+            if (inflight != null && !inflight.isDone()) {
+                //the previous command of the same key is waiting for an async kv read,
+                //run this one after it in the key's slot, so the commands of a key keep their order
+                inflightMap.put(bytesKey, future);
+                future.whenComplete((r, e) -> inflightMap.remove(bytesKey, future));
+                inflight.whenComplete((r, e) -> submit(key, command, future, true));
+                return;
+            }
+        }
+        CompletableFuture<Reply> replyFuture = commanders.execute(command);
+        if (!resumed && !replyFuture.isDone()) {
+            inflightMap.put(bytesKey, future);
+            future.whenComplete((r, e) -> inflightMap.remove(bytesKey, future));
+        }
+        replyFuture.thenAccept(reply -> {
+            if (reply == null) {
+                ErrorLogCollector.collect(RedisKvClient.class, "command receive null reply, command = " + command.getName());
+            }
+            future.complete(reply);
+        });
+    }
+
     private KVClient initKVClient() {
         String className = ProxyDynamicConf.getString("kv.client.class.name", null);
         return (KVClient) GlobalRedisProxyEnv.getProxyBeanFactory().getBean(BeanInitUtils.parseClass(className));
@@ -217,7 +250,14 @@ public class RedisKvClient implements IUpstreamClient {
             logger.error("kv client get error", e);
             throw new KvException(e);
         }
+        AsyncKVClient nativeAsyncKvClient = kvClient instanceof AsyncKVClient ? (AsyncKVClient) kvClient : null;
         kvClient = new DecoratorKVClient(kvClient);
+        AsyncKVClient asyncKvClient;
+        if (nativeAsyncKvClient != null) {
+            asyncKvClient = nativeAsyncKvClient;
+        } else {
+            asyncKvClient = new AsyncKVClientAdapter(kvClient, KvExecutors.getInstance().getAsyncClientExecutor());
+        }
 
         KeyDesign keyDesign = new KeyDesign(namespace.getBytes(StandardCharsets.UTF_8));
         KvConfig kvConfig = new KvConfig(namespace);
@@ -237,7 +277,7 @@ public class RedisKvClient implements IUpstreamClient {
         WriteBuffer<Hash> hashWriteBuffer = WriteBuffer.newWriteBuffer(namespace, "hash");
         WriteBuffer<ZSet> zsetWriteBuffer = WriteBuffer.newWriteBuffer(namespace, "zset");
 
-        CommanderConfig commanderConfig = new CommanderConfig(kvClient, keyDesign, cacheConfig, kvConfig,
+        CommanderConfig commanderConfig = new CommanderConfig(kvClient, asyncKvClient, keyDesign, cacheConfig, kvConfig,
                 keyMetaServer, cacheRedisTemplate, storeRedisTemplate, gcExecutor, hashWriteBuffer, zsetWriteBuffer);
 
         return new Commanders(commanderConfig);
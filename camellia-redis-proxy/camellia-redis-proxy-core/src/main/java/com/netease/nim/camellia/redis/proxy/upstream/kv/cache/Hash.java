@@ -1,5 +1,6 @@
 package com.netease.nim.camellia.redis.proxy.upstream.kv.cache;
 
+import com.netease.nim.camellia.redis.proxy.util.ObjectSizeUtils;
 import com.netease.nim.camellia.redis.proxy.util.Utils;
 import com.netease.nim.camellia.tools.utils.BytesKey;
 
@@ -12,9 +13,15 @@ import java.util.Map;
  */
 public class Hash {
     private final Map<BytesKey, byte[]> map;
+    private long estimateSize;
 
     public Hash(Map<BytesKey, byte[]> map) {
         this.map = map;
+        long size = 64;
+        for (Map.Entry<BytesKey, byte[]> entry : map.entrySet()) {
+            size += entrySize(entry.getKey(), entry.getValue());
+        }
+        this.estimateSize = size;
     }
 
     public Hash duplicate() {
@@ -24,7 +31,7 @@ public class Hash {
     public Map<BytesKey, byte[]> hset(Map<BytesKey, byte[]> fieldMap) {
         Map<BytesKey, byte[]> existsMap = new HashMap<>();
         for (Map.Entry<BytesKey, byte[]> entry : fieldMap.entrySet()) {
-            byte[] put = map.put(entry.getKey(), entry.getValue());
+            byte[] put = hset(entry.getKey(), entry.getValue());
             if (put != null) {
                 existsMap.put(entry.getKey(), put);
             }
@@ -33,7 +40,13 @@ public class Hash {
     }
 
     public byte[] hset(BytesKey field, byte[] value) {
-        return map.put(field, value);
+        byte[] put = map.put(field, value);
+        if (put == null) {
+            estimateSize += entrySize(field, value);
+        } else {
+            estimateSize += ObjectSizeUtils.bytes(value) - ObjectSizeUtils.bytes(put);
+        }
+        return put;
     }
 
     public Map<BytesKey, byte[]> hdel(Collection<BytesKey> fields) {
@@ -41,6 +54,7 @@ public class Hash {
         for (BytesKey field : fields) {
             byte[] remove = map.remove(field);
             if (remove != null) {
+                estimateSize -= entrySize(field, remove);
                 deleteMap.put(field, remove);
             }
         }
@@ -79,4 +93,16 @@ public class Hash {
         return map;
     }
 
+    /**
+     * 估算的堆内存占用，随hset/hdel增量维护
+     * @return bytes
+     */
+    public long estimateSize() {
+        return estimateSize;
+    }
+
+    private static long entrySize(BytesKey field, byte[] value) {
+        return ObjectSizeUtils.HASH_MAP_ENTRY + ObjectSizeUtils.bytesKey(field) + ObjectSizeUtils.bytes(value);
+    }
+
 }
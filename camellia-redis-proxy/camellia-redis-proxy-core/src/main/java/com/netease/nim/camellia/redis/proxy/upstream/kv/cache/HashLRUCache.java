@@ -3,31 +3,32 @@ package com.netease.nim.camellia.redis.proxy.upstream.kv.cache;
 import com.netease.nim.camellia.redis.proxy.cluster.ClusterModeStatus;
 import com.netease.nim.camellia.redis.proxy.cluster.ProxyClusterSlotMapUtils;
 import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import com.netease.nim.camellia.redis.proxy.monitor.KvCacheMonitor;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.command.KvExecutors;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.conf.RedisKvConf;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.meta.KeyType;
 import com.netease.nim.camellia.redis.proxy.util.RedisClusterCRC16Utils;
 import com.netease.nim.camellia.tools.utils.BytesKey;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Created by caojiajun on 2024/5/21
  */
 public class HashLRUCache {
 
-    private static final Logger logger = LoggerFactory.getLogger(HashLRUCache.class);
-
     private final String namespace;
     private final HotKeyCalculator hotKeyCalculator;
+    private final SingleFlight<Map<BytesKey, byte[]>> singleFlight = new SingleFlight<>(KvExecutors.getInstance().getCommandExecutor());
 
     private SlotLRUCache<Hash> localCache;
     private SlotLRUCache<Hash> localCacheForWrite;
 
-    private int capacity;
 
     public HashLRUCache(String namespace) {
         this.namespace = namespace;
@@ -35,9 +36,14 @@ public class HashLRUCache {
         //
         rebuild();
         ProxyDynamicConf.registerCallback(this::rebuild);
+        KvCacheMonitor.registerLRUCache(namespace, "hash", () -> localCache);
+        KvCacheMonitor.registerLRUCache(namespace, "hash.write", () -> localCacheForWrite);
         //
         ClusterModeStatus.registerClusterSlotMapChangeCallback((oldSlotMap, newSlotMap) -> {
             List<Integer> removedSlots = ProxyClusterSlotMapUtils.removedSlots(oldSlotMap, newSlotMap);
+            if (!removedSlots.isEmpty()) {
+                singleFlight.clear();
+            }
             for (Integer removedSlot : removedSlots) {
                 localCache.clear(removedSlot);
                 localCacheForWrite.clear(removedSlot);
@@ -47,20 +53,8 @@ public class HashLRUCache {
 
     private void rebuild() {
         int capacity = RedisKvConf.getInt(namespace, "kv.hash.lru.cache.capacity", 100_0000);
-        if (this.capacity != capacity) {
-            if (this.localCache == null) {
-                this.localCache = new SlotLRUCache<>(capacity);
-            } else {
-                this.localCache.setCapacity(capacity);
-            }
-            if (this.localCacheForWrite == null) {
-                this.localCacheForWrite = new SlotLRUCache<>(capacity);
-            } else {
-                this.localCacheForWrite.setCapacity(capacity);
-            }
-            logger.info("hash lru cache build, namespace = {}, capacity = {}", namespace, capacity);
-        }
-        this.capacity = capacity;
+        this.localCache = SlotLRUCacheUtils.rebuild(this.localCache, namespace, "hash", capacity, 256*1024*1024L, ValueCodecs.HASH);
+        this.localCacheForWrite = SlotLRUCacheUtils.rebuild(this.localCacheForWrite, namespace, "hash.write", capacity, 256*1024*1024L, ValueCodecs.HASH);
     }
 
     public boolean isHotKey(byte[] key) {
@@ -74,7 +68,20 @@ public class HashLRUCache {
 
     public void putAllForWrite(byte[] key, byte[] cacheKey, Hash hash) {
         int slot = RedisClusterCRC16Utils.getSlot(key);
-        localCacheForWrite.put(slot, new BytesKey(cacheKey), hash);
+        BytesKey bytesKey = new BytesKey(cacheKey);
+        singleFlight.invalidate(bytesKey);
+        localCacheForWrite.put(slot, bytesKey, hash);
+    }
+
+    /**
+     * 缓存miss时回源，同一个cacheKey的并发回源只会执行一次loader，并填充一次cache
+     * <p>
+     * the returned map is shared by all waiters, it is read only
+     */
+    public CompletableFuture<Map<BytesKey, byte[]>> loadForRead(byte[] key, byte[] cacheKey, Supplier<CompletableFuture<Map<BytesKey, byte[]>>> loader) {
+        int slot = RedisClusterCRC16Utils.getSlot(key);
+        BytesKey bytesKey = new BytesKey(cacheKey);
+        return singleFlight.load(key, bytesKey, loader, map -> localCache.put(slot, bytesKey, new Hash(new HashMap<>(map))));
     }
 
     public Hash getForRead(byte[] key, byte[] cacheKey) {
@@ -84,8 +91,9 @@ public class HashLRUCache {
         if (hash == null) {
             hash = localCacheForWrite.get(slot, bytesKey);
             if (hash != null) {
-                localCache.put(slot, bytesKey, hash);
-                localCacheForWrite.remove(slot, bytesKey);
+                if (localCache.put(slot, bytesKey, hash)) {
+                    localCacheForWrite.remove(slot, bytesKey);
+                }
             }
         }
         return hash;
@@ -104,15 +112,19 @@ public class HashLRUCache {
     public Map<BytesKey, byte[]> hset(byte[] key, byte[] cacheKey, Map<BytesKey, byte[]> fieldMap) {
         int slot = RedisClusterCRC16Utils.getSlot(key);
         BytesKey bytesKey = new BytesKey(cacheKey);
+        singleFlight.invalidate(bytesKey);
         Hash hash1 = localCacheForWrite.get(slot, bytesKey);
         Map<BytesKey, byte[]> result1 = null;
         if (hash1 != null) {
             result1 = hash1.hset(fieldMap);
+            //write back, the off-heap cache holds a serialized copy
+            localCacheForWrite.put(slot, bytesKey, hash1);
         }
         Hash hash2 = localCache.get(slot, bytesKey);
         Map<BytesKey, byte[]> result2 = null;
         if (hash2 != null) {
             result2 = hash2.hset(fieldMap);
+            localCache.put(slot, bytesKey, hash2);
         }
         if (result1 != null) {
             return result1;
@@ -123,15 +135,19 @@ public class HashLRUCache {
     public Map<BytesKey, byte[]> hdel(byte[] key, byte[] cacheKey, Set<BytesKey> fields) {
         int slot = RedisClusterCRC16Utils.getSlot(key);
         BytesKey bytesKey = new BytesKey(cacheKey);
+        singleFlight.invalidate(bytesKey);
         Hash hash1 = localCacheForWrite.get(slot, bytesKey);
         Map<BytesKey, byte[]> result1 = null;
         if (hash1 != null) {
             result1 = hash1.hdel(fields);
+            //write back, the off-heap cache holds a serialized copy
+            localCacheForWrite.put(slot, bytesKey, hash1);
         }
         Hash hash2 = localCache.get(slot, bytesKey);
         Map<BytesKey, byte[]> result2 = null;
         if (hash2 != null) {
             result2 = hash2.hdel(fields);
+            localCache.put(slot, bytesKey, hash2);
         }
         if (result1 != null) {
             return result1;
@@ -142,11 +158,13 @@ public class HashLRUCache {
     public void del(byte[] key, byte[] cacheKey) {
         int slot = RedisClusterCRC16Utils.getSlot(key);
         BytesKey bytesKey = new BytesKey(cacheKey);
+        singleFlight.invalidate(bytesKey);
         localCache.remove(slot, bytesKey);
         localCacheForWrite.remove(slot, bytesKey);
     }
 
     public void clear() {
+        singleFlight.clear();
         localCache.clear();
         localCacheForWrite.clear();
     }
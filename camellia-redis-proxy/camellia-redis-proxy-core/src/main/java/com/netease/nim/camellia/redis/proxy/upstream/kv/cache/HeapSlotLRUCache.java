@@ -0,0 +1,181 @@
+package com.netease.nim.camellia.redis.proxy.upstream.kv.cache;
+
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.EntryWeigher;
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import com.netease.nim.camellia.redis.proxy.util.FrequencySketch;
+import com.netease.nim.camellia.redis.proxy.util.ObjectSizeUtils;
+import com.netease.nim.camellia.tools.utils.BytesKey;
+import com.netease.nim.camellia.tools.utils.MathUtil;
+
+import java.util.Iterator;
+
+/**
+ * 堆内的按slot分段LRU缓存，默认按条数限制容量，指定ValueCodec时按估算的字节数限制容量
+ * <p>
+ * 开启准入过滤（W-TinyLFU）后，分段已满时新key的访问频率需要高于该分段LRU队尾的key才会被写入
+ * Created by caojiajun on 2024/6/12
+ */
+public class HeapSlotLRUCache<V> implements SlotLRUCache<V> {
+
+    private final ConcurrentLinkedHashMap<BytesKey, V>[] array;
+    private final BytesKey[] victims;
+    private final int[] victimChecks;
+    private final int segmentSize;
+    private final boolean is2Power;
+    private final boolean weighted;
+    private long capacity;
+    private volatile FrequencySketch sketch;
+    private int sketchCapacity;
+
+    /**
+     * @param capacity max entries
+     */
+    public HeapSlotLRUCache(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * @param maxBytes max estimated bytes
+     * @param codec value codec, used to estimate the size of value
+     */
+    public HeapSlotLRUCache(long maxBytes, ValueCodec<V> codec) {
+        this.capacity = maxBytes;
+        this.weighted = codec != null;
+        segmentSize = ProxyDynamicConf.getInt("kv.lru.cache.segment.size", 16);
+        is2Power = MathUtil.is2Power(segmentSize);
+        array = new ConcurrentLinkedHashMap[segmentSize];
+        victims = new BytesKey[segmentSize];
+        victimChecks = new int[segmentSize];
+        for (int i = 0; i< segmentSize; i++) {
+            ConcurrentLinkedHashMap.Builder<BytesKey, V> builder = new ConcurrentLinkedHashMap.Builder<BytesKey, V>()
+                    .maximumWeightedCapacity(capacity / segmentSize);
+            if (codec != null) {
+                EntryWeigher<BytesKey, V> weigher = (key, value) -> ObjectSizeUtils.weight(ObjectSizeUtils.LRU_MAP_ENTRY
+                        + ObjectSizeUtils.bytesKey(key) + codec.estimateSize(value));
+                builder.weigher(weigher);
+            } else {
+                builder.initialCapacity((int) (capacity / segmentSize));
+            }
+            array[i] = builder.build();
+        }
+    }
+
+    @Override
+    public V get(int slot, BytesKey cacheKey) {
+        FrequencySketch sketch = this.sketch;
+        if (sketch != null) {
+            sketch.increment(cacheKey);
+        }
+        int index = MathUtil.mod(is2Power, slot, segmentSize);
+        ConcurrentLinkedHashMap<BytesKey, V> subMap = array[index];
+        return subMap.get(cacheKey);
+    }
+
+
+    @Override
+    public boolean put(int slot, BytesKey cacheKey, V value) {
+        int index = MathUtil.mod(is2Power, slot, segmentSize);
+        ConcurrentLinkedHashMap<BytesKey, V> subMap = array[index];
+        FrequencySketch sketch = this.sketch;
+        if (sketch != null && subMap.weightedSize() >= subMap.capacity() && !subMap.containsKey(cacheKey)) {
+            BytesKey victim = victim(index, subMap);
+            if (victim != null && !sketch.admit(cacheKey, victim)) {
+                return false;
+            }
+        }
+        subMap.put(cacheKey, value);
+        return true;
+    }
+
+    //ascendingKeySetWithLimit need the eviction lock, so the LRU tail is sampled and reused until evicted or after 64 checks
+    private BytesKey victim(int index, ConcurrentLinkedHashMap<BytesKey, V> subMap) {
+        BytesKey victim = victims[index];
+        int checks = victimChecks[index] + 1;
+        if (victim == null || checks >= 64 || !subMap.containsKey(victim)) {
+            Iterator<BytesKey> iterator = subMap.ascendingKeySetWithLimit(1).iterator();
+            victim = iterator.hasNext() ? iterator.next() : null;
+            victims[index] = victim;
+            checks = 0;
+        }
+        victimChecks[index] = checks;
+        return victim;
+    }
+
+    @Override
+    public void remove(int slot, BytesKey cacheKey) {
+        int index = MathUtil.mod(is2Power, slot, segmentSize);
+        ConcurrentLinkedHashMap<BytesKey, V> subMap = array[index];
+        subMap.remove(cacheKey);
+    }
+
+    @Override
+    public void clear() {
+        for (ConcurrentLinkedHashMap<BytesKey, V> subMap : array) {
+            subMap.clear();
+        }
+    }
+
+    @Override
+    public void clear(int slot) {
+        int index = MathUtil.mod(is2Power, slot, segmentSize);
+        ConcurrentLinkedHashMap<BytesKey, V> subMap = array[index];
+        subMap.clear();
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (ConcurrentLinkedHashMap<BytesKey, V> subMap : array) {
+            size += subMap.size();
+        }
+        return size;
+    }
+
+    @Override
+    public long weightedSize() {
+        long weightedSize = 0;
+        for (ConcurrentLinkedHashMap<BytesKey, V> subMap : array) {
+            weightedSize += subMap.weightedSize();
+        }
+        return weightedSize;
+    }
+
+    @Override
+    public long capacity() {
+        return capacity;
+    }
+
+    public boolean isWeighted() {
+        return weighted;
+    }
+
+    public boolean isAdmissionEnable() {
+        return sketch != null;
+    }
+
+    /**
+     * @param enable enable W-TinyLFU admission or not
+     * @param sketchCapacity expected max entries, used to build the frequency sketch
+     */
+    public void setAdmission(boolean enable, int sketchCapacity) {
+        if (!enable) {
+            this.sketch = null;
+            return;
+        }
+        if (this.sketch == null || this.sketchCapacity != sketchCapacity) {
+            this.sketch = new FrequencySketch(sketchCapacity);
+            this.sketchCapacity = sketchCapacity;
+        }
+    }
+
+    public void setCapacity(long capacity) {
+        if (this.capacity == capacity) {
+            return;
+        }
+        for (ConcurrentLinkedHashMap<BytesKey, V> subMap : array) {
+            subMap.setCapacity(capacity / segmentSize);
+        }
+        this.capacity = capacity;
+    }
+}
@@ -3,12 +3,11 @@ package com.netease.nim.camellia.redis.proxy.upstream.kv.cache;
 import com.netease.nim.camellia.redis.proxy.cluster.ClusterModeStatus;
 import com.netease.nim.camellia.redis.proxy.cluster.ProxyClusterSlotMapUtils;
 import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import com.netease.nim.camellia.redis.proxy.monitor.KvCacheMonitor;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.conf.RedisKvConf;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.meta.KeyMeta;
 import com.netease.nim.camellia.redis.proxy.util.RedisClusterCRC16Utils;
 import com.netease.nim.camellia.tools.utils.BytesKey;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.List;
 
@@ -17,10 +16,7 @@ import java.util.List;
  */
 public class KeyMetaLRUCache {
 
-    private static final Logger logger = LoggerFactory.getLogger(KeyMetaLRUCache.class);
-
     private final String namespace;
-    private int capacity;
     private SlotLRUCache<KeyMeta> localCache;
     private SlotLRUCache<Boolean> nullCache;
 
@@ -29,6 +25,8 @@ public class KeyMetaLRUCache {
         //
         rebuild();
         ProxyDynamicConf.registerCallback(this::rebuild);
+        KvCacheMonitor.registerLRUCache(namespace, "key.meta", () -> localCache);
+        KvCacheMonitor.registerLRUCache(namespace, "key.meta.null", () -> nullCache);
         //
         ClusterModeStatus.registerClusterSlotMapChangeCallback((oldSlotMap, newSlotMap) -> {
             List<Integer> removedSlots = ProxyClusterSlotMapUtils.removedSlots(oldSlotMap, newSlotMap);
@@ -41,20 +39,8 @@ public class KeyMetaLRUCache {
 
     private void rebuild() {
         int capacity = RedisKvConf.getInt(namespace, "kv.key.meta.lru.cache.capacity", 500000);
-        if (this.capacity != capacity) {
-            if (localCache == null) {
-                this.localCache = new SlotLRUCache<>(capacity);
-            } else {
-                this.localCache.setCapacity(capacity);
-            }
-            if (nullCache == null) {
-                this.nullCache = new SlotLRUCache<>(capacity);
-            } else {
-                this.nullCache.setCapacity(capacity);
-            }
-            logger.info("key meta lru cache build, capacity = {}", capacity);
-        }
-        this.capacity = capacity;
+        this.localCache = SlotLRUCacheUtils.rebuild(this.localCache, namespace, "key.meta", capacity, 64*1024*1024L, ValueCodecs.KEY_META);
+        this.nullCache = SlotLRUCacheUtils.rebuild(this.nullCache, namespace, "key.meta.null", capacity, 16*1024*1024L, ValueCodecs.BOOLEAN);
     }
 
     public ValueWrapper<KeyMeta> get(byte[] key) {
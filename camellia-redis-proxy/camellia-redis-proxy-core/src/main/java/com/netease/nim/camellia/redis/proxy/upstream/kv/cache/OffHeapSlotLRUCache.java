@@ -0,0 +1,512 @@
+package com.netease.nim.camellia.redis.proxy.upstream.kv.cache;
+
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import com.netease.nim.camellia.tools.utils.BytesKey;
+import com.netease.nim.camellia.tools.utils.MathUtil;
+import io.netty.util.internal.PlatformDependent;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 堆外的按slot分段LRU缓存，内存上限按字节计算
+ * <p>
+ * value序列化后存放在direct memory中，每个分段按page申请内存，page大小为kv.lru.cache.offheap.page.size（默认1M），
+ * 且不超过每个分段容量的1/8（容量较小时page也相应变小，保证每个分段至少可以有8个page），
+ * page会被划分给某个slab class（chunk大小按1.25倍递增），每个slab class内部按LRU淘汰，
+ * 内存达到上限且当前slab class没有可淘汰的数据时，从page最多的slab class回收一个page
+ * <p>
+ * 超过page大小的value会拆分到多个最大的chunk（一个chunk就是一个page）中存放，超过分段容量1/4的value不缓存，
+ * 拆分存放的value的命中次数和因为过大没有缓存的次数会记录在监控中（oversizeHit、oversizeDrop）
+ * <p>
+ * the key index is still on heap, only the serialized values live in direct memory
+ * Created by caojiajun on 2024/7/16
+ */
+public class OffHeapSlotLRUCache<V> implements SlotLRUCache<V> {
+
+    private static final int MIN_CHUNK_SIZE = 32;
+    private static final double GROWTH_FACTOR = 1.25;
+
+    private static final int MIN_PAGE_SIZE = 4096;
+
+    private final int segmentSize;
+    private final boolean is2Power;
+    private final ValueCodec<V> codec;
+    private final int maxPageSize;
+    private final LongAdder oversizeHit = new LongAdder();
+    private final LongAdder oversizeDrop = new LongAdder();
+    private volatile Segment[] segments;
+    private volatile int pageSize;
+    private long maxBytes;
+
+    public OffHeapSlotLRUCache(long maxBytes, ValueCodec<V> codec) {
+        this.segmentSize = ProxyDynamicConf.getInt("kv.lru.cache.segment.size", 16);
+        this.is2Power = MathUtil.is2Power(segmentSize);
+        this.codec = codec;
+        this.maxBytes = maxBytes;
+        this.maxPageSize = ProxyDynamicConf.getInt("kv.lru.cache.offheap.page.size", 1024*1024);
+        this.pageSize = pageSize(maxBytes);
+        this.segments = segments(pageSize, maxBytes);
+    }
+
+    @Override
+    public V get(int slot, BytesKey cacheKey) {
+        byte[] data = segment(slot).get(cacheKey);
+        if (data == null) {
+            return null;
+        }
+        if (data.length > pageSize) {
+            oversizeHit.increment();
+        }
+        return codec.decode(data);
+    }
+
+    @Override
+    public boolean put(int slot, BytesKey cacheKey, V value) {
+        byte[] data = codec.encode(value);
+        boolean success = segment(slot).put(cacheKey, data);
+        if (!success && data.length > pageSize) {
+            oversizeDrop.increment();
+        }
+        return success;
+    }
+
+    @Override
+    public void remove(int slot, BytesKey cacheKey) {
+        segment(slot).remove(cacheKey);
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public void clear(int slot) {
+        segment(slot).clear();
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public long weightedSize() {
+        return usedBytes();
+    }
+
+    @Override
+    public long capacity() {
+        return maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized void setMaxBytes(long maxBytes) {
+        if (this.maxBytes == maxBytes) {
+            return;
+        }
+        int pageSize = pageSize(maxBytes);
+        if (pageSize != this.pageSize) {
+            //page大小变了，重建分段
+            Segment[] old = this.segments;
+            this.segments = segments(pageSize, maxBytes);
+            this.pageSize = pageSize;
+            for (Segment segment : old) {
+                segment.clear();
+            }
+        } else {
+            for (Segment segment : segments) {
+                segment.setMaxBytes(maxBytes / segmentSize);
+            }
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * 拆分存放的value的命中次数
+     */
+    public long oversizeHitThenReset() {
+        return oversizeHit.sumThenReset();
+    }
+
+    /**
+     * 过大而没有缓存的value个数
+     */
+    public long oversizeDropThenReset() {
+        return oversizeDrop.sumThenReset();
+    }
+
+    public long usedBytes() {
+        long usedBytes = 0;
+        for (Segment segment : segments) {
+            usedBytes += segment.usedBytes();
+        }
+        return usedBytes;
+    }
+
+    private Segment segment(int slot) {
+        return segments[MathUtil.mod(is2Power, slot, segmentSize)];
+    }
+
+    private int pageSize(long maxBytes) {
+        long pageSize = Long.highestOneBit(Math.max(1, maxBytes / segmentSize / 8));
+        return (int) Math.max(MIN_PAGE_SIZE, Math.min(maxPageSize, pageSize));
+    }
+
+    private Segment[] segments(int pageSize, long maxBytes) {
+        int[] chunkSizes = chunkSizes(pageSize);
+        Segment[] segments = new Segment[segmentSize];
+        for (int i = 0; i< segmentSize; i++) {
+            segments[i] = new Segment(pageSize, chunkSizes, maxBytes / segmentSize);
+        }
+        return segments;
+    }
+
+    private static int[] chunkSizes(int pageSize) {
+        List<Integer> list = new ArrayList<>();
+        int size = MIN_CHUNK_SIZE;
+        while (size < pageSize) {
+            list.add(size);
+            size = Math.max(size + 8, ((int) (size * GROWTH_FACTOR) + 7) & ~7);
+        }
+        list.add(pageSize);
+        int[] chunkSizes = new int[list.size()];
+        for (int i=0; i<chunkSizes.length; i++) {
+            chunkSizes[i] = list.get(i);
+        }
+        return chunkSizes;
+    }
+
+    private static class Segment {
+
+        private final int pageSize;
+        private final int[] chunkSizes;
+        private final SlabClass[] slabClasses;
+        private final HashMap<BytesKey, Item> index = new HashMap<>();
+        private final List<ByteBuffer> pages = new ArrayList<>();
+        private long maxBytes;
+
+        Segment(int pageSize, int[] chunkSizes, long maxBytes) {
+            this.pageSize = pageSize;
+            this.chunkSizes = chunkSizes;
+            this.maxBytes = maxBytes;
+            this.slabClasses = new SlabClass[chunkSizes.length];
+            for (int i=0; i<chunkSizes.length; i++) {
+                slabClasses[i] = new SlabClass(chunkSizes[i]);
+            }
+        }
+
+        synchronized byte[] get(BytesKey key) {
+            Item item = index.get(key);
+            if (item == null) {
+                return null;
+            }
+            item.slabClass.unlink(item);
+            item.slabClass.linkLast(item);
+            byte[] data = new byte[item.length];
+            if (item.chunks == null) {
+                ByteBuffer buffer = pages.get(item.page).duplicate();
+                buffer.position(item.offset);
+                buffer.get(data);
+                return data;
+            }
+            int position = 0;
+            for (long chunk : item.chunks) {
+                int len = Math.min(pageSize, data.length - position);
+                ByteBuffer buffer = pages.get((int) (chunk >>> 32)).duplicate();
+                buffer.position((int) chunk);
+                buffer.get(data, position, len);
+                position += len;
+            }
+            return data;
+        }
+
+        synchronized boolean put(BytesKey key, byte[] data) {
+            Item old = index.remove(key);
+            if (old != null) {
+                free(old);
+            }
+            if (data.length > pageSize) {
+                return putChained(key, data);
+            }
+            SlabClass slabClass = slabClass(data.length);
+            long chunk = allocate(slabClass);
+            if (chunk < 0) {
+                return false;
+            }
+            Item item = new Item(key, slabClass, (int) (chunk >>> 32), (int) chunk, data.length, null);
+            ByteBuffer buffer = pages.get(item.page).duplicate();
+            buffer.position(item.offset);
+            buffer.put(data);
+            index.put(key, item);
+            slabClass.linkLast(item);
+            return true;
+        }
+
+        //超过page大小的value拆分到多个page大小的chunk中
+        private boolean putChained(BytesKey key, byte[] data) {
+            int count = (data.length + pageSize - 1) / pageSize;
+            if ((long) count * pageSize > maxBytes / 4) {
+                return false;
+            }
+            SlabClass slabClass = slabClasses[slabClasses.length - 1];
+            long[] chunks = new long[count];
+            for (int i=0; i<count; i++) {
+                long chunk = allocate(slabClass);
+                if (chunk < 0) {
+                    for (int j=0; j<i; j++) {
+                        slabClass.free.push(chunks[j]);
+                    }
+                    return false;
+                }
+                chunks[i] = chunk;
+            }
+            int position = 0;
+            for (long chunk : chunks) {
+                int len = Math.min(pageSize, data.length - position);
+                ByteBuffer buffer = pages.get((int) (chunk >>> 32)).duplicate();
+                buffer.position((int) chunk);
+                buffer.put(data, position, len);
+                position += len;
+            }
+            Item item = new Item(key, slabClass, (int) (chunks[0] >>> 32), (int) chunks[0], data.length, chunks);
+            index.put(key, item);
+            slabClass.linkLast(item);
+            return true;
+        }
+
+        synchronized void remove(BytesKey key) {
+            Item item = index.remove(key);
+            if (item != null) {
+                free(item);
+            }
+        }
+
+        synchronized void clear() {
+            index.clear();
+            for (SlabClass slabClass : slabClasses) {
+                slabClass.reset();
+            }
+            for (ByteBuffer page : pages) {
+                PlatformDependent.freeDirectBuffer(page);
+            }
+            pages.clear();
+        }
+
+        synchronized void setMaxBytes(long maxBytes) {
+            if (maxBytes < (long) pages.size() * pageSize) {
+                clear();
+            }
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized long usedBytes() {
+            return (long) pages.size() * pageSize;
+        }
+
+        synchronized int size() {
+            return index.size();
+        }
+
+        private SlabClass slabClass(int length) {
+            int i = Arrays.binarySearch(chunkSizes, length);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            return slabClasses[i];
+        }
+
+        private long allocate(SlabClass slabClass) {
+            if (!slabClass.free.isEmpty()) {
+                return slabClass.free.pop();
+            }
+            if ((long) (pages.size() + 1) * pageSize <= maxBytes) {
+                pages.add(ByteBuffer.allocateDirect(pageSize));
+                assign(pages.size() - 1, slabClass);
+                return slabClass.free.pop();
+            }
+            //evict lru of this slab class
+            Item head = slabClass.head;
+            if (head != null) {
+                index.remove(head.key);
+                free(head);
+                return slabClass.free.pop();
+            }
+            //move a page from the slab class which holds the most pages
+            SlabClass victim = null;
+            for (SlabClass c : slabClasses) {
+                if (c != slabClass && !c.pages.isEmpty() && (victim == null || c.pages.size() > victim.pages.size())) {
+                    victim = c;
+                }
+            }
+            if (victim == null) {
+                return -1;
+            }
+            int page = victim.pages.remove(victim.pages.size() - 1);
+            Item item = victim.head;
+            while (item != null) {
+                Item next = item.next;
+                if (item.onPage(page)) {
+                    index.remove(item.key);
+                    free(item);
+                }
+                item = next;
+            }
+            victim.free.removePage(page);
+            assign(page, slabClass);
+            return slabClass.free.pop();
+        }
+
+        private void assign(int page, SlabClass slabClass) {
+            slabClass.pages.add(page);
+            int count = pageSize / slabClass.chunkSize;
+            for (int i=count-1; i>=0; i--) {
+                slabClass.free.push(((long) page << 32) | ((long) i * slabClass.chunkSize));
+            }
+        }
+
+        private void free(Item item) {
+            item.slabClass.unlink(item);
+            if (item.chunks == null) {
+                item.slabClass.free.push(((long) item.page << 32) | item.offset);
+            } else {
+                for (long chunk : item.chunks) {
+                    item.slabClass.free.push(chunk);
+                }
+            }
+        }
+    }
+
+    private static class SlabClass {
+        private final int chunkSize;
+        private final List<Integer> pages = new ArrayList<>();
+        private final ChunkStack free = new ChunkStack();
+        private Item head;
+        private Item tail;
+
+        SlabClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        void linkLast(Item item) {
+            item.prev = tail;
+            item.next = null;
+            if (tail == null) {
+                head = item;
+            } else {
+                tail.next = item;
+            }
+            tail = item;
+        }
+
+        void unlink(Item item) {
+            if (item.prev == null) {
+                head = item.next;
+            } else {
+                item.prev.next = item.next;
+            }
+            if (item.next == null) {
+                tail = item.prev;
+            } else {
+                item.next.prev = item.prev;
+            }
+            item.prev = null;
+            item.next = null;
+        }
+
+        void reset() {
+            pages.clear();
+            free.clear();
+            head = null;
+            tail = null;
+        }
+    }
+
+    private static class Item {
+        private final BytesKey key;
+        private final SlabClass slabClass;
+        private final int page;
+        private final int offset;
+        private final int length;
+        private final long[] chunks;//拆分存放时的所有chunk，否则为null
+        private Item prev;
+        private Item next;
+
+        Item(BytesKey key, SlabClass slabClass, int page, int offset, int length, long[] chunks) {
+            this.key = key;
+            this.slabClass = slabClass;
+            this.page = page;
+            this.offset = offset;
+            this.length = length;
+            this.chunks = chunks;
+        }
+
+        boolean onPage(int page) {
+            if (chunks == null) {
+                return this.page == page;
+            }
+            for (long chunk : chunks) {
+                if ((int) (chunk >>> 32) == page) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * chunk = page(high 32 bits) + offset(low 32 bits)
+     */
+    private static class ChunkStack {
+        private long[] array = new long[16];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(long chunk) {
+            if (size == array.length) {
+                array = Arrays.copyOf(array, size * 2);
+            }
+            array[size ++] = chunk;
+        }
+
+        long pop() {
+            return array[-- size];
+        }
+
+        void removePage(int page) {
+            int j = 0;
+            for (int i=0; i<size; i++) {
+                if ((int) (array[i] >>> 32) != page) {
+                    array[j ++] = array[i];
+                }
+            }
+            size = j;
+        }
+
+        void clear() {
+            array = new long[16];
+            size = 0;
+        }
+    }
+}
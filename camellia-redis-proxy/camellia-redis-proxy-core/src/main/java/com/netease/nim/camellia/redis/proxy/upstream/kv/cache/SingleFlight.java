@@ -0,0 +1,124 @@
+package com.netease.nim.camellia.redis.proxy.upstream.kv.cache;
+
+import com.netease.nim.camellia.redis.proxy.util.ErrorLogCollector;
+import com.netease.nim.camellia.redis.proxy.util.KeyedExecutor;
+import com.netease.nim.camellia.tools.utils.BytesKey;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 同一个cacheKey（key+version）的并发回源合并为一次kv读取和一次cache填充
+ * <p>
+ * invalidate会使进行中的回源结果不再填充cache，并且后续请求会发起新的回源，调用方需要在修改cache之前调用
+ * <p>
+ * cache填充会提交到key所在的命令执行线程（和写命令串行），并且只有在回源期间没有invalidate（写版本号没有变化）时才会填充，
+ * 因此回源结果不会覆盖回源期间的写入
+ * Created by caojiajun on 2024/7/15
+ */
+public class SingleFlight<V> {
+
+    private static final int STAMP_SLOTS = 4096;
+
+    private final KeyedExecutor executor;
+    private final ConcurrentHashMap<BytesKey, Flight<V>> map = new ConcurrentHashMap<>();
+    //写版本号，按cacheKey的hash分段，invalidate时递增
+    private final AtomicLongArray writeStamps = new AtomicLongArray(STAMP_SLOTS);
+
+    public SingleFlight(KeyedExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param key key，用于选择cache填充的执行线程
+     * @param cacheKey cache key
+     * @param loader 回源
+     * @param filler 回源成功且期间没有invalidate时填充cache
+     * @return future
+     */
+    public CompletableFuture<V> load(byte[] key, BytesKey cacheKey, Supplier<CompletableFuture<V>> loader, Consumer<V> filler) {
+        Flight<V> flight = map.get(cacheKey);
+        if (flight != null) {
+            return flight.future;
+        }
+        Flight<V> newFlight = new Flight<>(writeStamps.get(stampIndex(cacheKey)));
+        flight = map.putIfAbsent(cacheKey, newFlight);
+        if (flight != null) {
+            return flight.future;
+        }
+        Flight<V> leader = newFlight;
+        CompletableFuture<V> future;
+        try {
+            future = loader.get();
+        } catch (Throwable e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((value, error) -> {
+            if (error != null) {
+                map.remove(cacheKey, leader);
+                leader.future.completeExceptionally(error);
+                return;
+            }
+            try {
+                executor.submit(key, () -> fill(cacheKey, leader, value, filler));
+            } catch (Exception e) {
+                //skip the fill
+                ErrorLogCollector.collect(SingleFlight.class, "submit cache fill error", e);
+                map.remove(cacheKey, leader);
+                leader.future.complete(value);
+            }
+        });
+        return leader.future;
+    }
+
+    //run in the key's thread, so it is serialized with the writes of the key
+    private void fill(BytesKey cacheKey, Flight<V> leader, V value, Consumer<V> filler) {
+        try {
+            //fill before remove, so a concurrent invalidate either sees the filled cache or skips the fill
+            synchronized (leader) {
+                if (!leader.invalid && leader.stamp == writeStamps.get(stampIndex(cacheKey))) {
+                    filler.accept(value);
+                }
+            }
+        } catch (Exception e) {
+            ErrorLogCollector.collect(SingleFlight.class, "cache fill error", e);
+        } finally {
+            map.remove(cacheKey, leader);
+            leader.future.complete(value);
+        }
+    }
+
+    public void invalidate(BytesKey cacheKey) {
+        writeStamps.incrementAndGet(stampIndex(cacheKey));
+        Flight<V> flight = map.remove(cacheKey);
+        if (flight != null) {
+            synchronized (flight) {
+                flight.invalid = true;
+            }
+        }
+    }
+
+    public void clear() {
+        for (BytesKey cacheKey : map.keySet()) {
+            invalidate(cacheKey);
+        }
+    }
+
+    private static int stampIndex(BytesKey cacheKey) {
+        return (cacheKey.hashCode() & 0x7fffffff) % STAMP_SLOTS;
+    }
+
+    private static class Flight<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private final long stamp;//回源开始时的写版本号
+        private boolean invalid;
+
+        Flight(long stamp) {
+            this.stamp = stamp;
+        }
+    }
+}
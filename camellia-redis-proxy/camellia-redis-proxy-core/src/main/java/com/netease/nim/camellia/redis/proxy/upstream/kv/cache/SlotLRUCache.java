@@ -1,67 +1,38 @@
 package com.netease.nim.camellia.redis.proxy.upstream.kv.cache;
 
-import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
-import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
 import com.netease.nim.camellia.tools.utils.BytesKey;
-import com.netease.nim.camellia.tools.utils.MathUtil;
-
 
 /**
+ * 按slot分段的LRU缓存，有堆内（HeapSlotLRUCache）和堆外（OffHeapSlotLRUCache）两种实现
  * Created by caojiajun on 2024/6/12
  */
-public class SlotLRUCache<V> {
-
-    private final ConcurrentLinkedHashMap<BytesKey, V>[] array;
-    private final int segmentSize;
-    private final boolean is2Power;
+public interface SlotLRUCache<V> {
 
-    public SlotLRUCache(int capacity) {
-        segmentSize = ProxyDynamicConf.getInt("kv.lru.cache.segment.size", 16);
-        is2Power = MathUtil.is2Power(segmentSize);
-        array = new ConcurrentLinkedHashMap[segmentSize];
-        for (int i = 0; i< segmentSize; i++) {
-            ConcurrentLinkedHashMap<BytesKey, V> subMap = new ConcurrentLinkedHashMap.Builder<BytesKey, V>()
-                    .initialCapacity(capacity / segmentSize)
-                    .maximumWeightedCapacity(capacity / segmentSize)
-                    .build();
-            array[i] = subMap;
-        }
-    }
+    V get(int slot, BytesKey cacheKey);
 
-    public V get(int slot, BytesKey cacheKey) {
-        int index = MathUtil.mod(is2Power, slot, segmentSize);
-        ConcurrentLinkedHashMap<BytesKey, V> subMap = array[index];
-        return subMap.get(cacheKey);
-    }
+    /**
+     * @return false if the value is not cached, e.g. rejected by admission filter or too large
+     */
+    boolean put(int slot, BytesKey cacheKey, V value);
 
+    void remove(int slot, BytesKey cacheKey);
 
-    public void put(int slot, BytesKey cacheKey, V value) {
-        int index = MathUtil.mod(is2Power, slot, segmentSize);
-        ConcurrentLinkedHashMap<BytesKey, V> subMap = array[index];
-        subMap.put(cacheKey, value);
-    }
+    void clear();
 
-    public void remove(int slot, BytesKey cacheKey) {
-        int index = MathUtil.mod(is2Power, slot, segmentSize);
-        ConcurrentLinkedHashMap<BytesKey, V> subMap = array[index];
-        subMap.remove(cacheKey);
-    }
+    void clear(int slot);
 
-    public void clear() {
-        for (ConcurrentLinkedHashMap<BytesKey, V> subMap : array) {
-            subMap.clear();
-        }
-    }
+    /**
+     * @return entry count
+     */
+    long size();
 
-    public void clear(int slot) {
-        int index = MathUtil.mod(is2Power, slot, segmentSize);
-        ConcurrentLinkedHashMap<BytesKey, V> subMap = array[index];
-        subMap.clear();
-    }
+    /**
+     * @return weighted size, entries for heap cache bounded by count, estimated bytes for heap cache bounded by bytes, used bytes for off-heap cache
+     */
+    long weightedSize();
 
-    public void setCapacity(int capacity) {
-        for (ConcurrentLinkedHashMap<BytesKey, V> subMap : array) {
-            subMap.setCapacity(capacity);
-        }
-    }
+    /**
+     * @return max weighted size
+     */
+    long capacity();
 }
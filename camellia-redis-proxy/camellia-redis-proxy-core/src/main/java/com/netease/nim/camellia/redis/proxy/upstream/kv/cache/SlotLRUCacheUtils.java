@@ -0,0 +1,79 @@
+package com.netease.nim.camellia.redis.proxy.upstream.kv.cache;
+
+import com.netease.nim.camellia.redis.proxy.upstream.kv.conf.RedisKvConf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Created by caojiajun on 2024/7/16
+ */
+public class SlotLRUCacheUtils {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotLRUCacheUtils.class);
+
+    /**
+     * 根据配置创建或者调整SlotLRUCache
+     * <p>
+     * kv.lru.cache.offheap.enable=true时使用堆外缓存，容量为kv.lru.cache.offheap.{name}.max.bytes，否则使用堆内缓存，
+     * 配置了kv.lru.cache.heap.{name}.max.bytes时按估算的字节数限制容量，否则容量为capacity（条数），
+     * 堆内缓存可以通过kv.lru.cache.admission.enable开启W-TinyLFU准入过滤
+     * <p>
+     * 类型切换时会清空并替换原有缓存
+     * @param cache 原有缓存，可以为null
+     * @param namespace namespace
+     * @param name cache name, such as hash/zset/key.meta
+     * @param capacity heap capacity (entries)
+     * @param defaultMaxBytes default off-heap capacity (bytes)
+     * @param codec value codec, used by off-heap cache and bytes weighted heap cache
+     * @return cache
+     */
+    public static <V> SlotLRUCache<V> rebuild(SlotLRUCache<V> cache, String namespace, String name,
+                                              int capacity, long defaultMaxBytes, ValueCodec<V> codec) {
+        boolean offHeap = RedisKvConf.getBoolean(namespace, "kv.lru.cache.offheap.enable", false);
+        if (offHeap) {
+            long maxBytes = RedisKvConf.getLong(namespace, "kv.lru.cache.offheap." + name + ".max.bytes", defaultMaxBytes);
+            if (cache instanceof OffHeapSlotLRUCache) {
+                OffHeapSlotLRUCache<V> offHeapCache = (OffHeapSlotLRUCache<V>) cache;
+                if (offHeapCache.getMaxBytes() != maxBytes) {
+                    offHeapCache.setMaxBytes(maxBytes);
+                    logger.info("{} off-heap lru cache resize, namespace = {}, max.bytes = {}", name, namespace, maxBytes);
+                }
+                return cache;
+            }
+            if (cache != null) {
+                cache.clear();
+            }
+            logger.info("{} off-heap lru cache build, namespace = {}, max.bytes = {}", name, namespace, maxBytes);
+            return new OffHeapSlotLRUCache<>(maxBytes, codec);
+        } else {
+            long maxBytes = RedisKvConf.getLong(namespace, "kv.lru.cache.heap." + name + ".max.bytes", -1);
+            boolean weighted = maxBytes > 0;
+            long heapCapacity = weighted ? maxBytes : capacity;
+            boolean admission = RedisKvConf.getBoolean(namespace, "kv.lru.cache.admission.enable", false);
+            if (cache instanceof HeapSlotLRUCache && ((HeapSlotLRUCache<V>) cache).isWeighted() == weighted) {
+                HeapSlotLRUCache<V> heapCache = (HeapSlotLRUCache<V>) cache;
+                if (heapCache.capacity() != heapCapacity) {
+                    heapCache.setCapacity(heapCapacity);
+                    logger.info("{} lru cache resize, namespace = {}, weighted = {}, capacity = {}", name, namespace, weighted, heapCapacity);
+                }
+                if (heapCache.isAdmissionEnable() != admission) {
+                    logger.info("{} lru cache admission update, namespace = {}, admission = {}", name, namespace, admission);
+                }
+                heapCache.setAdmission(admission, capacity);
+                return cache;
+            }
+            if (cache != null) {
+                cache.clear();
+            }
+            logger.info("{} lru cache build, namespace = {}, weighted = {}, capacity = {}, admission = {}", name, namespace, weighted, heapCapacity, admission);
+            HeapSlotLRUCache<V> heapCache;
+            if (weighted) {
+                heapCache = new HeapSlotLRUCache<>(maxBytes, codec);
+            } else {
+                heapCache = new HeapSlotLRUCache<>(capacity);
+            }
+            heapCache.setAdmission(admission, capacity);
+            return heapCache;
+        }
+    }
+}
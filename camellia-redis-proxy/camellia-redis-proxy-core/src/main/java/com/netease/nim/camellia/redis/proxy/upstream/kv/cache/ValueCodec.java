@@ -0,0 +1,17 @@
+package com.netease.nim.camellia.redis.proxy.upstream.kv.cache;
+
+/**
+ * 堆外缓存的value序列化，以及堆内缓存按字节数限制时的内存估算
+ * Created by caojiajun on 2024/7/16
+ */
+public interface ValueCodec<V> {
+
+    byte[] encode(V value);
+
+    V decode(byte[] data);
+
+    /**
+     * estimated heap footprint of the value, in bytes
+     */
+    long estimateSize(V value);
+}
@@ -0,0 +1,138 @@
+package com.netease.nim.camellia.redis.proxy.upstream.kv.cache;
+
+import com.netease.nim.camellia.redis.proxy.upstream.kv.meta.KeyMeta;
+import com.netease.nim.camellia.redis.proxy.util.ObjectSizeUtils;
+import com.netease.nim.camellia.tools.utils.BytesKey;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Created by caojiajun on 2024/7/16
+ */
+public class ValueCodecs {
+
+    private static final byte[] TRUE = new byte[]{1};
+    private static final byte[] FALSE = new byte[]{0};
+
+    /**
+     * count(4) + [fieldLen(4) + field + valueLen(4) + value] * count
+     */
+    public static final ValueCodec<Hash> HASH = new ValueCodec<Hash>() {
+        @Override
+        public byte[] encode(Hash value) {
+            Map<BytesKey, byte[]> map = value.hgetAll();
+            int size = 4;
+            for (Map.Entry<BytesKey, byte[]> entry : map.entrySet()) {
+                size += 8 + entry.getKey().getKey().length + entry.getValue().length;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            buffer.putInt(map.size());
+            for (Map.Entry<BytesKey, byte[]> entry : map.entrySet()) {
+                byte[] field = entry.getKey().getKey();
+                buffer.putInt(field.length);
+                buffer.put(field);
+                buffer.putInt(entry.getValue().length);
+                buffer.put(entry.getValue());
+            }
+            return buffer.array();
+        }
+
+        @Override
+        public Hash decode(byte[] data) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            int count = buffer.getInt();
+            Map<BytesKey, byte[]> map = new HashMap<>((int) (count / 0.75f) + 1);
+            for (int i=0; i<count; i++) {
+                byte[] field = new byte[buffer.getInt()];
+                buffer.get(field);
+                byte[] value = new byte[buffer.getInt()];
+                buffer.get(value);
+                map.put(new BytesKey(field), value);
+            }
+            return new Hash(map);
+        }
+
+        @Override
+        public long estimateSize(Hash value) {
+            return value.estimateSize();
+        }
+    };
+
+    /**
+     * count(4) + [memberLen(4) + member + score(8)] * count
+     */
+    public static final ValueCodec<ZSet> ZSET = new ValueCodec<ZSet>() {
+        @Override
+        public byte[] encode(ZSet value) {
+            Map<BytesKey, Double> map = value.memberMap();
+            int size = 4;
+            for (BytesKey member : map.keySet()) {
+                size += 12 + member.getKey().length;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            buffer.putInt(map.size());
+            for (Map.Entry<BytesKey, Double> entry : map.entrySet()) {
+                byte[] member = entry.getKey().getKey();
+                buffer.putInt(member.length);
+                buffer.put(member);
+                buffer.putDouble(entry.getValue());
+            }
+            return buffer.array();
+        }
+
+        @Override
+        public ZSet decode(byte[] data) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            int count = buffer.getInt();
+            Map<BytesKey, Double> map = new HashMap<>((int) (count / 0.75f) + 1);
+            for (int i=0; i<count; i++) {
+                byte[] member = new byte[buffer.getInt()];
+                buffer.get(member);
+                map.put(new BytesKey(member), buffer.getDouble());
+            }
+            return new ZSet(map);
+        }
+
+        @Override
+        public long estimateSize(ZSet value) {
+            return value.estimateSize();
+        }
+    };
+
+    public static final ValueCodec<KeyMeta> KEY_META = new ValueCodec<KeyMeta>() {
+        @Override
+        public byte[] encode(KeyMeta value) {
+            return value.toBytes();
+        }
+
+        @Override
+        public KeyMeta decode(byte[] data) {
+            return KeyMeta.fromBytes(data);
+        }
+
+        @Override
+        public long estimateSize(KeyMeta value) {
+            return 48 + ObjectSizeUtils.bytes(value.getExtra()) + ObjectSizeUtils.bytes(value.toBytes());
+        }
+    };
+
+    public static final ValueCodec<Boolean> BOOLEAN = new ValueCodec<Boolean>() {
+        @Override
+        public byte[] encode(Boolean value) {
+            return value ? TRUE : FALSE;
+        }
+
+        @Override
+        public Boolean decode(byte[] data) {
+            return data[0] == 1;
+        }
+
+        @Override
+        public long estimateSize(Boolean value) {
+            //Boolean.TRUE/FALSE is shared
+            return 0;
+        }
+    };
+}
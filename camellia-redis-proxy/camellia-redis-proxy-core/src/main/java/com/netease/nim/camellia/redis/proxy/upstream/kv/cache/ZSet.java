@@ -2,6 +2,7 @@ package com.netease.nim.camellia.redis.proxy.upstream.kv.cache;
 
 import com.netease.nim.camellia.redis.proxy.upstream.kv.command.zset.*;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.utils.BytesUtils;
+import com.netease.nim.camellia.redis.proxy.util.ObjectSizeUtils;
 import com.netease.nim.camellia.tools.utils.BytesKey;
 import com.netease.nim.camellia.tools.utils.Pair;
 
@@ -15,9 +16,15 @@ public class ZSet {
     private final Map<BytesKey, Double> memberMap;
     private List<ZSetTuple> rank = new ArrayList<>();
     private List<ZSetTuple> score = new ArrayList<>();
+    private long estimateSize;
 
     public ZSet(Map<BytesKey, Double> memberMap) {
         this.memberMap = memberMap;
+        long size = 128;
+        for (BytesKey member : memberMap.keySet()) {
+            size += memberSize(member);
+        }
+        this.estimateSize = size;
         refresh();
     }
 
@@ -26,6 +33,10 @@ public class ZSet {
         return new ZSet(map);
     }
 
+    Map<BytesKey, Double> memberMap() {
+        return memberMap;
+    }
+
     private void refresh() {
         List<ZSetTuple> list = new ArrayList<>(memberMap.size());
         for (Map.Entry<BytesKey, Double> entry : memberMap.entrySet()) {
@@ -53,6 +64,8 @@ public class ZSet {
             Double put = memberMap.put(entry.getKey(), entry.getValue());
             if (put != null) {
                 existsMap.put(entry.getKey(), put);
+            } else {
+                estimateSize += memberSize(entry.getKey());
             }
         }
         refresh();
@@ -255,6 +268,7 @@ public class ZSet {
         for (BytesKey bytesKey : members) {
             Double remove = memberMap.remove(bytesKey);
             if (remove != null) {
+                estimateSize -= memberSize(bytesKey);
                 map.put(bytesKey, remove);
             }
         }
@@ -285,6 +299,7 @@ public class ZSet {
             if (count >= start) {
                 map.put(member.getMember(), member.getScore());
                 memberMap.remove(member.getMember());
+                estimateSize -= memberSize(member.getMember());
             }
             if (count >= stop) {
                 break;
@@ -309,6 +324,7 @@ public class ZSet {
             }
             map.put(member.getMember(), member.getScore());
             memberMap.remove(member.getMember());
+            estimateSize -= memberSize(member.getMember());
         }
         if (!map.isEmpty()) {
             refresh();
@@ -325,6 +341,7 @@ public class ZSet {
             }
             map.put(member.getMember(), member.getScore());
             memberMap.remove(member.getMember());
+            estimateSize -= memberSize(member.getMember());
         }
         if (!map.isEmpty()) {
             refresh();
@@ -332,4 +349,17 @@ public class ZSet {
         return map;
     }
 
+    /**
+     * 估算的堆内存占用，随zadd/zrem增量维护
+     * @return bytes
+     */
+    public long estimateSize() {
+        return estimateSize;
+    }
+
+    //memberMap + rank list + score list, ZSetTuple is shared by the two lists
+    private static long memberSize(BytesKey member) {
+        return ObjectSizeUtils.HASH_MAP_ENTRY + ObjectSizeUtils.bytesKey(member) + ObjectSizeUtils.BOXED_NUMBER + 24 + 8;
+    }
+
 }
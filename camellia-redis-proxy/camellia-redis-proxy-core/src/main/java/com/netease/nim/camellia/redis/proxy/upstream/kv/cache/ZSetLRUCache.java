@@ -3,29 +3,29 @@ package com.netease.nim.camellia.redis.proxy.upstream.kv.cache;
 import com.netease.nim.camellia.redis.proxy.cluster.ClusterModeStatus;
 import com.netease.nim.camellia.redis.proxy.cluster.ProxyClusterSlotMapUtils;
 import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import com.netease.nim.camellia.redis.proxy.monitor.KvCacheMonitor;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.command.KvExecutors;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.command.zset.*;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.conf.RedisKvConf;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.meta.KeyType;
 import com.netease.nim.camellia.redis.proxy.util.RedisClusterCRC16Utils;
 import com.netease.nim.camellia.tools.utils.BytesKey;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Created by caojiajun on 2024/5/31
  */
 public class ZSetLRUCache {
 
-    private static final Logger logger = LoggerFactory.getLogger(ZSetLRUCache.class);
-
     private final String namespace;
     private final HotKeyCalculator hotKeyCalculator;
+    private final SingleFlight<ZSet> singleFlight = new SingleFlight<>(KvExecutors.getInstance().getCommandExecutor());
 
-    private int capacity;
     private SlotLRUCache<ZSet> localCache;
     private SlotLRUCache<ZSet> localCacheForWrite;
 
@@ -35,9 +35,14 @@ public class ZSetLRUCache {
         //
         rebuild();
         ProxyDynamicConf.registerCallback(this::rebuild);
+        KvCacheMonitor.registerLRUCache(namespace, "zset", () -> localCache);
+        KvCacheMonitor.registerLRUCache(namespace, "zset.write", () -> localCacheForWrite);
         //
         ClusterModeStatus.registerClusterSlotMapChangeCallback((oldSlotMap, newSlotMap) -> {
             List<Integer> removedSlots = ProxyClusterSlotMapUtils.removedSlots(oldSlotMap, newSlotMap);
+            if (!removedSlots.isEmpty()) {
+                singleFlight.clear();
+            }
             for (Integer removedSlot : removedSlots) {
                 localCache.clear(removedSlot);
                 localCacheForWrite.clear(removedSlot);
@@ -47,20 +52,8 @@ public class ZSetLRUCache {
 
     private void rebuild() {
         int capacity = RedisKvConf.getInt(namespace, "kv.zset.lru.cache.capacity", 100_0000);
-        if (this.capacity != capacity) {
-            if (this.localCache == null) {
-                this.localCache = new SlotLRUCache<>(capacity);
-            } else {
-                this.localCache.setCapacity(capacity);
-            }
-            if (this.localCacheForWrite == null) {
-                this.localCacheForWrite = new SlotLRUCache<>(capacity);
-            } else {
-                this.localCacheForWrite.setCapacity(capacity);
-            }
-            logger.info("zset lru cache build, namespace = {}, capacity = {}", namespace, capacity);
-        }
-        this.capacity = capacity;
+        this.localCache = SlotLRUCacheUtils.rebuild(this.localCache, namespace, "zset", capacity, 256*1024*1024L, ValueCodecs.ZSET);
+        this.localCacheForWrite = SlotLRUCacheUtils.rebuild(this.localCacheForWrite, namespace, "zset.write", capacity, 256*1024*1024L, ValueCodecs.ZSET);
     }
 
     public boolean isHotKey(byte[] key) {
@@ -69,7 +62,9 @@ public class ZSetLRUCache {
 
     public void putZSetForWrite(byte[] key, byte[] cacheKey, ZSet zSet) {
         int slot = RedisClusterCRC16Utils.getSlot(key);
-        localCacheForWrite.put(slot, new BytesKey(cacheKey), zSet);
+        BytesKey bytesKey = new BytesKey(cacheKey);
+        singleFlight.invalidate(bytesKey);
+        localCacheForWrite.put(slot, bytesKey, zSet);
     }
 
     public void putZSetForRead(byte[] key, byte[] cacheKey, ZSet zSet) {
@@ -77,6 +72,17 @@ public class ZSetLRUCache {
         localCache.put(slot, new BytesKey(cacheKey), zSet);
     }
 
+    /**
+     * 缓存miss时回源，同一个cacheKey的并发回源只会执行一次loader，并填充一次cache
+     * <p>
+     * the returned zset is shared by all waiters, it is read only, the cache holds a duplicate
+     */
+    public CompletableFuture<ZSet> loadForRead(byte[] key, byte[] cacheKey, Supplier<CompletableFuture<ZSet>> loader) {
+        int slot = RedisClusterCRC16Utils.getSlot(key);
+        BytesKey bytesKey = new BytesKey(cacheKey);
+        return singleFlight.load(key, bytesKey, loader, zSet -> localCache.put(slot, bytesKey, zSet.duplicate()));
+    }
+
     public ZSet getForRead(byte[] key, byte[] cacheKey) {
         int slot = RedisClusterCRC16Utils.getSlot(key);
         BytesKey bytesKey = new BytesKey(cacheKey);
@@ -84,8 +90,9 @@ public class ZSetLRUCache {
         if (zSet == null) {
             zSet = localCacheForWrite.get(slot, bytesKey);
             if (zSet != null) {
-                localCache.put(slot, bytesKey, zSet);
-                localCacheForWrite.remove(slot, bytesKey);
+                if (localCache.put(slot, bytesKey, zSet)) {
+                    localCacheForWrite.remove(slot, bytesKey);
+                }
             }
         }
         return zSet;
@@ -103,14 +110,18 @@ public class ZSetLRUCache {
 
     public Map<BytesKey, Double> zadd(byte[] key, byte[] cacheKey, Map<BytesKey, Double> map) {
         int slot = RedisClusterCRC16Utils.getSlot(key);
-        ZSet zSet = localCache.get(slot, new BytesKey(cacheKey));
+        BytesKey bytesKey = new BytesKey(cacheKey);
+        singleFlight.invalidate(bytesKey);
+        ZSet zSet = localCache.get(slot, bytesKey);
         Map<BytesKey, Double> result = null;
         if (zSet != null) {
             result = zSet.zadd(map);
+            localCache.put(slot, bytesKey, zSet);
         }
-        zSet = localCacheForWrite.get(slot, new BytesKey(cacheKey));
+        zSet = localCacheForWrite.get(slot, bytesKey);
         if (zSet != null) {
             result = zSet.zadd(map);
+            localCacheForWrite.put(slot, bytesKey, zSet);
         }
         return result;
     }
@@ -119,13 +130,16 @@ public class ZSetLRUCache {
         int slot = RedisClusterCRC16Utils.getSlot(key);
         Map<BytesKey, Double> result = null;
         BytesKey bytesKey = new BytesKey(cacheKey);
+        singleFlight.invalidate(bytesKey);
         ZSet zSet = localCache.get(slot, bytesKey);
         if (zSet != null) {
             result = zSet.zrem(members);
+            localCache.put(slot, bytesKey, zSet);
         }
         zSet = localCacheForWrite.get(slot, bytesKey);
         if (zSet != null) {
             result = zSet.zrem(members);
+            localCacheForWrite.put(slot, bytesKey, zSet);
         }
         return result;
     }
@@ -133,14 +147,17 @@ public class ZSetLRUCache {
     public Map<BytesKey, Double> zremrangeByRank(byte[] key, byte[] cacheKey, int start, int stop) {
         int slot = RedisClusterCRC16Utils.getSlot(key);
         BytesKey bytesKey = new BytesKey(cacheKey);
+        singleFlight.invalidate(bytesKey);
         Map<BytesKey, Double> result = null;
         ZSet zSet = localCache.get(slot, bytesKey);
         if (zSet != null) {
             result = zSet.zremrangeByRank(start, stop);
+            localCache.put(slot, bytesKey, zSet);
         }
         zSet = localCacheForWrite.get(slot, bytesKey);
         if (zSet != null) {
             result = zSet.zremrangeByRank(start, stop);
+            localCacheForWrite.put(slot, bytesKey, zSet);
         }
         return result;
     }
@@ -148,15 +165,18 @@ public class ZSetLRUCache {
     public Map<BytesKey, Double> zremrangeByScore(byte[] key, byte[] cacheKey, ZSetScore minScore, ZSetScore maxScore) {
         int slot = RedisClusterCRC16Utils.getSlot(key);
         BytesKey bytesKey = new BytesKey(cacheKey);
+        singleFlight.invalidate(bytesKey);
         Map<BytesKey, Double> result = null;
 
         ZSet zSet = localCache.get(slot, bytesKey);
         if (zSet != null) {
             result = zSet.zremrangeByScore(minScore, maxScore);
+            localCache.put(slot, bytesKey, zSet);
         }
         zSet = localCacheForWrite.get(slot, bytesKey);
         if (zSet != null) {
             result = zSet.zremrangeByScore(minScore, maxScore);
+            localCacheForWrite.put(slot, bytesKey, zSet);
         }
         return result;
     }
@@ -164,15 +184,18 @@ public class ZSetLRUCache {
     public Map<BytesKey, Double> zremrangeByLex(byte[] key, byte[] cacheKey, ZSetLex minLex, ZSetLex maxLex) {
         int slot = RedisClusterCRC16Utils.getSlot(key);
         BytesKey bytesKey = new BytesKey(cacheKey);
+        singleFlight.invalidate(bytesKey);
         Map<BytesKey, Double> result = null;
 
         ZSet zSet = localCache.get(slot, bytesKey);
         if (zSet != null) {
             result = zSet.zremrangeByLex(minLex, maxLex);
+            localCache.put(slot, bytesKey, zSet);
         }
         zSet = localCacheForWrite.get(slot, bytesKey);
         if (zSet != null) {
             result = zSet.zremrangeByLex(minLex, maxLex);
+            localCacheForWrite.put(slot, bytesKey, zSet);
         }
         return result;
     }
@@ -180,11 +203,13 @@ public class ZSetLRUCache {
     public void del(byte[] key, byte[] cacheKey) {
         int slot = RedisClusterCRC16Utils.getSlot(key);
         BytesKey bytesKey = new BytesKey(cacheKey);
+        singleFlight.invalidate(bytesKey);
         localCache.remove(slot, bytesKey);
         localCacheForWrite.remove(slot, bytesKey);
     }
 
     public void clear() {
+        singleFlight.clear();
         localCache.clear();
     }
 }
@@ -14,9 +14,10 @@ import com.netease.nim.camellia.redis.proxy.upstream.kv.domain.CacheConfig;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.domain.KeyDesign;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.domain.KvConfig;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.gc.KvGcExecutor;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.kv.AsyncKVClient;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.kv.KVClient;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.meta.KeyMetaServer;
-import com.netease.nim.camellia.redis.proxy.util.MpscSlotHashExecutor;
+import com.netease.nim.camellia.redis.proxy.util.KeyedExecutor;
 import com.netease.nim.camellia.redis.proxy.util.Utils;
 
 import java.util.List;
@@ -28,6 +29,7 @@ import java.util.concurrent.CompletableFuture;
 public abstract class Commander {
 
     protected final KVClient kvClient;
+    protected final AsyncKVClient asyncKvClient;
     protected final KeyDesign keyDesign;
     protected final CacheConfig cacheConfig;
     protected final KvConfig kvConfig;
@@ -35,12 +37,13 @@ public abstract class Commander {
     protected final RedisTemplate cacheRedisTemplate;
     protected final RedisTemplate storeRedisTemplate;
     protected final KvGcExecutor gcExecutor;
-    protected final MpscSlotHashExecutor asyncWriteExecutor = KvExecutors.getInstance().getAsyncWriteExecutor();
+    protected final KeyedExecutor asyncWriteExecutor = KvExecutors.getInstance().getAsyncWriteExecutor();
     protected final WriteBuffer<Hash> hashWriteBuffer;
     protected final WriteBuffer<ZSet> zsetWriteBuffer;
 
     public Commander(CommanderConfig commanderConfig) {
         this.kvClient = commanderConfig.getKvClient();
+        this.asyncKvClient = commanderConfig.getAsyncKvClient();
         this.keyDesign = commanderConfig.getKeyDesign();
         this.cacheConfig = commanderConfig.getCacheConfig();
         this.kvConfig = commanderConfig.getKvConfig();
@@ -58,6 +61,17 @@ public abstract class Commander {
 
     protected abstract Reply execute(Command command);
 
+    /**
+     * 默认在命令执行线程中同步执行，子类可以覆盖本方法，在最后一步访问kv存储时使用asyncKvClient，从而不阻塞命令执行线程
+     * <p>
+     * only the last step (without any cache rebuild after it) should be async, or the per-key execution order is broken
+     * @param command command
+     * @return reply
+     */
+    protected CompletableFuture<Reply> executeAsync(Command command) {
+        return CompletableFuture.completedFuture(execute(command));
+    }
+
     protected final Reply sync(CompletableFuture<Reply> future) {
         return cacheRedisTemplate.sync(future, cacheConfig.cacheTimeoutMillis());
     }
@@ -8,6 +8,7 @@ import com.netease.nim.camellia.redis.proxy.upstream.kv.domain.CacheConfig;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.domain.KeyDesign;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.domain.KvConfig;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.gc.KvGcExecutor;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.kv.AsyncKVClient;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.kv.KVClient;
 import com.netease.nim.camellia.redis.proxy.upstream.kv.meta.KeyMetaServer;
 import com.netease.nim.camellia.tools.utils.BytesKey;
@@ -20,6 +21,7 @@ import java.util.Map;
 public class CommanderConfig {
 
     private final KVClient kvClient;
+    private final AsyncKVClient asyncKvClient;
     private final KeyDesign keyDesign;
     private final CacheConfig cacheConfig;
     private final KvConfig kvConfig;
@@ -30,11 +32,12 @@ public class CommanderConfig {
     private final WriteBuffer<Hash> hashWriteBuffer;
     private final WriteBuffer<ZSet> zsetWriteBuffer;
 
-    public CommanderConfig(KVClient kvClient, KeyDesign keyDesign, CacheConfig cacheConfig,
+    public CommanderConfig(KVClient kvClient, AsyncKVClient asyncKvClient, KeyDesign keyDesign, CacheConfig cacheConfig,
                            KvConfig kvConfig, KeyMetaServer keyMetaServer,
                            RedisTemplate cacheRedisTemplate, RedisTemplate storeRedisTemplate, KvGcExecutor gcExecutor,
                            WriteBuffer<Hash> hashWriteBuffer, WriteBuffer<ZSet> zsetWriteBuffer) {
         this.kvClient = kvClient;
+        this.asyncKvClient = asyncKvClient;
         this.keyDesign = keyDesign;
         this.cacheConfig = cacheConfig;
         this.kvConfig = kvConfig;
@@ -50,6 +53,10 @@ public class CommanderConfig {
         return kvClient;
     }
 
+    public AsyncKVClient getAsyncKvClient() {
+        return asyncKvClient;
+    }
+
     public KeyDesign getKeyDesign() {
         return keyDesign;
     }
@@ -14,6 +14,8 @@ import com.netease.nim.camellia.redis.proxy.util.ErrorLogCollector;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Created by caojiajun on 2024/4/7
@@ -86,19 +88,29 @@ public class Commanders {
         map.put(commander.redisCommand(), commander);
     }
 
-    public Reply execute(Command command) {
+    public CompletableFuture<Reply> execute(Command command) {
         RedisCommand redisCommand = command.getRedisCommand();
         Commander commander = map.get(redisCommand);
         if (commander == null) {
-            return ErrorReply.NOT_SUPPORT;
+            return CompletableFuture.completedFuture(ErrorReply.NOT_SUPPORT);
         }
         try {
             if (!commander.parse(command)) {
-                return ErrorReply.argNumWrong(redisCommand);
+                return CompletableFuture.completedFuture(ErrorReply.argNumWrong(redisCommand));
             }
-            return commander.execute(command);
-        } catch (KvException | IllegalArgumentException e) {
-            ErrorLogCollector.collect(Commanders.class, redisCommand + " execute error", e);
+            CompletableFuture<Reply> future = commander.executeAsync(command);
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                return future;
+            }
+            return future.exceptionally(e -> toErrorReply(redisCommand, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+        } catch (Throwable e) {
+            return CompletableFuture.completedFuture(toErrorReply(redisCommand, e));
+        }
+    }
+
+    private Reply toErrorReply(RedisCommand redisCommand, Throwable e) {
+        ErrorLogCollector.collect(Commanders.class, redisCommand + " execute error", e);
+        if (e instanceof KvException || e instanceof IllegalArgumentException) {
             String message = e.getMessage();
             if (message != null) {
                 if (message.startsWith("ERR")) {
@@ -109,9 +121,7 @@ public class Commanders {
             } else {
                 return ErrorReply.SYNTAX_ERROR;
             }
-        } catch (Throwable e) {
-            ErrorLogCollector.collect(Commanders.class, redisCommand + " execute error", e);
-            return new ErrorReply("ERR command execute error");
         }
+        return new ErrorReply("ERR command execute error");
     }
 }
@@ -5,7 +5,9 @@ import com.netease.nim.camellia.redis.proxy.monitor.KvExecutorMonitor;
 import com.netease.nim.camellia.redis.proxy.netty.GlobalRedisProxyEnv;
 import com.netease.nim.camellia.redis.proxy.netty.NettyTransportMode;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionHub;
+import com.netease.nim.camellia.redis.proxy.util.KeyedExecutor;
 import com.netease.nim.camellia.redis.proxy.util.MpscSlotHashExecutor;
+import com.netease.nim.camellia.redis.proxy.util.WorkStealingSlotHashExecutor;
 import com.netease.nim.camellia.tools.utils.SysUtils;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.epoll.EpollEventLoopGroup;
@@ -25,8 +27,9 @@ public class KvExecutors {
 
     private static volatile KvExecutors INSTANCE;
 
-    private final MpscSlotHashExecutor commandExecutor;
-    private final MpscSlotHashExecutor asyncWriteExecutor;
+    private final KeyedExecutor commandExecutor;
+    private final KeyedExecutor asyncWriteExecutor;
+    private final KeyedExecutor asyncClientExecutor;
 
     private KvExecutors() {
         EventLoopGroup eventLoopGroup;
@@ -44,18 +47,34 @@ public class KvExecutors {
 
         Runnable workThreadInitCallback = () -> RedisConnectionHub.getInstance().updateEventLoop(eventLoopGroup.next());
 
+        //空闲线程可以偷取其他线程上的slot队列执行，相同slot的任务仍然是串行执行的
+        boolean workStealing = ProxyDynamicConf.getBoolean("kv.executor.work.stealing.enable", true);
+
         int threads1 = ProxyDynamicConf.getInt("kv.command.executor.threads", SysUtils.getCpuNum() * 4);
         int queueSize1 = ProxyDynamicConf.getInt("kv.command.executor.queue.size", 1024*128);
-        commandExecutor = new MpscSlotHashExecutor("kv-command-executor", threads1, queueSize1, new MpscSlotHashExecutor.AbortPolicy(), workThreadInitCallback);
-        logger.info("KvCommandExecutor init success, nettyWorkThreads = {}, threads = {}, queueSize = {}", nettyWorkThreads, threads1, queueSize1);
+        commandExecutor = newExecutor(workStealing, "kv-command-executor", threads1, queueSize1, workThreadInitCallback);
+        logger.info("KvCommandExecutor init success, nettyWorkThreads = {}, threads = {}, queueSize = {}, workStealing = {}", nettyWorkThreads, threads1, queueSize1, workStealing);
 
         int threads2 = ProxyDynamicConf.getInt("kv.async.write.executor.threads", SysUtils.getCpuNum() * 4);
         int queueSize2 = ProxyDynamicConf.getInt("kv.async.write.executor.queue.size", 1024*1024);
-        asyncWriteExecutor = new MpscSlotHashExecutor("kv-async-write-executor", threads2, queueSize2, new MpscSlotHashExecutor.AbortPolicy());
-        logger.info("KvAsyncWriteExecutor init success, threads = {}, queueSize = {}", threads2, queueSize2);
+        asyncWriteExecutor = newExecutor(workStealing, "kv-async-write-executor", threads2, queueSize2, null);
+        logger.info("KvAsyncWriteExecutor init success, threads = {}, queueSize = {}, workStealing = {}", threads2, queueSize2, workStealing);
+
+        int threads3 = ProxyDynamicConf.getInt("kv.async.client.executor.threads", SysUtils.getCpuNum() * 2);
+        int queueSize3 = ProxyDynamicConf.getInt("kv.async.client.executor.queue.size", 1024*128);
+        asyncClientExecutor = newExecutor(workStealing, "kv-async-client-executor", threads3, queueSize3, null);
+        logger.info("KvAsyncClientExecutor init success, threads = {}, queueSize = {}, workStealing = {}", threads3, queueSize3, workStealing);
 
         KvExecutorMonitor.register("command", commandExecutor);
         KvExecutorMonitor.register("async-write", asyncWriteExecutor);
+        KvExecutorMonitor.register("async-client", asyncClientExecutor);
+    }
+
+    private static KeyedExecutor newExecutor(boolean workStealing, String name, int threads, int queueSize, Runnable workThreadInitCallback) {
+        if (workStealing) {
+            return new WorkStealingSlotHashExecutor(name, threads, queueSize, workThreadInitCallback);
+        }
+        return new MpscSlotHashExecutor(name, threads, queueSize, new MpscSlotHashExecutor.AbortPolicy(), workThreadInitCallback);
     }
 
     public static KvExecutors getInstance() {
@@ -69,11 +88,15 @@ public class KvExecutors {
         return INSTANCE;
     }
 
-    public MpscSlotHashExecutor getCommandExecutor() {
+    public KeyedExecutor getCommandExecutor() {
         return commandExecutor;
     }
 
-    public MpscSlotHashExecutor getAsyncWriteExecutor() {
+    public KeyedExecutor getAsyncWriteExecutor() {
         return asyncWriteExecutor;
     }
+
+    public KeyedExecutor getAsyncClientExecutor() {
+        return asyncClientExecutor;
+    }
 }
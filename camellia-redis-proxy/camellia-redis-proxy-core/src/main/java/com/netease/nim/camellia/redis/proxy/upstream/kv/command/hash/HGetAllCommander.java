@@ -18,6 +18,7 @@ import com.netease.nim.camellia.tools.utils.BytesKey;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * HGETALL key
@@ -51,16 +52,21 @@ public class HGetAllCommander extends Hash0Commander {
 
     @Override
     protected Reply execute(Command command) {
+        throw new IllegalStateException(redisCommand() + " only support executeAsync");
+    }
+
+    @Override
+    protected CompletableFuture<Reply> executeAsync(Command command) {
         byte[][] objects = command.getObjects();
         byte[] key = objects[1];
 
         //meta
         KeyMeta keyMeta = keyMetaServer.getKeyMeta(key);
         if (keyMeta == null) {
-            return MultiBulkReply.EMPTY;
+            return CompletableFuture.completedFuture(MultiBulkReply.EMPTY);
         }
         if (keyMeta.getKeyType() != KeyType.hash) {
-            return ErrorReply.WRONG_TYPE;
+            return CompletableFuture.completedFuture(ErrorReply.WRONG_TYPE);
         }
 
         byte[] cacheKey = keyDesign.cacheKey(keyMeta, key);
@@ -68,25 +74,24 @@ public class HGetAllCommander extends Hash0Commander {
         WriteBufferValue<Hash> writeBufferValue = hashWriteBuffer.get(cacheKey);
         if (writeBufferValue != null) {
             KvCacheMonitor.writeBuffer(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return toReply(writeBufferValue.getValue().hgetAll());
+            return CompletableFuture.completedFuture(toReply(writeBufferValue.getValue().hgetAll()));
         }
 
         if (cacheConfig.isHashLocalCacheEnable()) {
             Hash hash = cacheConfig.getHashLRUCache().getForRead(key, cacheKey);
             if (hash != null) {
                 KvCacheMonitor.localCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-                return toReply(hash.hgetAll());
+                return CompletableFuture.completedFuture(toReply(hash.hgetAll()));
             }
         }
 
         EncodeVersion encodeVersion = keyMeta.getEncodeVersion();
         if (encodeVersion == EncodeVersion.version_0 || encodeVersion == EncodeVersion.version_1) {
             KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
-            Map<BytesKey, byte[]> map = hgetallFromKv(keyMeta, key);
             if (cacheConfig.isHashLocalCacheEnable()) {
-                cacheConfig.getHashLRUCache().putAllForRead(key, cacheKey, new Hash(map));
+                return loadLRUCacheAsync(keyMeta, key, cacheKey).thenApply(this::toReply);
             }
-            return toReply(map);
+            return hgetallFromKvAsync(keyMeta, key).thenApply(this::toReply);
         }
 
         Reply reply = checkCache(script, cacheKey, new byte[][]{hgetallCacheMillis()});
@@ -97,7 +102,7 @@ public class HGetAllCommander extends Hash0Commander {
                     cacheConfig.getHashLRUCache().putAllForRead(key, cacheKey, new Hash(toMap((MultiBulkReply) reply)));
                 }
             }
-            return reply;
+            return CompletableFuture.completedFuture(reply);
         }
         KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
 
@@ -108,10 +113,10 @@ public class HGetAllCommander extends Hash0Commander {
 
         ErrorReply errorReply = buildCache(cacheKey, map);
         if (errorReply != null) {
-            return errorReply;
+            return CompletableFuture.completedFuture(errorReply);
         }
 
-        return toReply(map);
+        return CompletableFuture.completedFuture(toReply(map));
     }
 
     private MultiBulkReply toReply(Map<BytesKey, byte[]> map) {
@@ -20,6 +20,7 @@ import com.netease.nim.camellia.redis.proxy.util.Utils;
 import com.netease.nim.camellia.tools.utils.BytesKey;
 
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * HGET key field
@@ -61,6 +62,11 @@ public class HGetCommander extends Commander {
 
     @Override
     protected Reply execute(Command command) {
+        throw new IllegalStateException(redisCommand() + " only support executeAsync");
+    }
+
+    @Override
+    protected CompletableFuture<Reply> executeAsync(Command command) {
         byte[][] objects = command.getObjects();
         byte[] key = objects[1];
         byte[] field = objects[2];
@@ -68,10 +74,10 @@ public class HGetCommander extends Commander {
         //meta
         KeyMeta keyMeta = keyMetaServer.getKeyMeta(key);
         if (keyMeta == null) {
-            return BulkReply.NIL_REPLY;
+            return CompletableFuture.completedFuture(BulkReply.NIL_REPLY);
         }
         if (keyMeta.getKeyType() != KeyType.hash) {
-            return ErrorReply.WRONG_TYPE;
+            return CompletableFuture.completedFuture(ErrorReply.WRONG_TYPE);
         }
 
         byte[] cacheKey = keyDesign.cacheKey(keyMeta, key);
@@ -80,7 +86,7 @@ public class HGetCommander extends Commander {
         if (writeBufferValue != null) {
             byte[] bytes = writeBufferValue.getValue().hget(new BytesKey(field));
             KvCacheMonitor.writeBuffer(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return new BulkReply(bytes);
+            return CompletableFuture.completedFuture(new BulkReply(bytes));
         }
 
         if (cacheConfig.isHashLocalCacheEnable()) {
@@ -88,7 +94,7 @@ public class HGetCommander extends Commander {
             Hash hash = hashLRUCache.getForRead(key, cacheKey);
             if (hash != null) {
                 KvCacheMonitor.localCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-                return new BulkReply(hash.hget(new BytesKey(field)));
+                return CompletableFuture.completedFuture(new BulkReply(hash.hget(new BytesKey(field))));
             }
         }
 
@@ -97,11 +103,12 @@ public class HGetCommander extends Commander {
         if (encodeVersion == EncodeVersion.version_0 || encodeVersion == EncodeVersion.version_1) {
             KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
             byte[] subKey = keyDesign.hashFieldSubKey(keyMeta, key, field);
-            KeyValue keyValue = kvClient.get(subKey);
-            if (keyValue == null || keyValue.getValue() == null) {
-                return BulkReply.NIL_REPLY;
-            }
-            return new BulkReply(keyValue.getValue());
+            return asyncKvClient.getAsync(subKey).thenApply(keyValue -> {
+                if (keyValue == null || keyValue.getValue() == null) {
+                    return BulkReply.NIL_REPLY;
+                }
+                return new BulkReply(keyValue.getValue());
+            });
         }
 
         byte[] hashFieldCacheKey = keyDesign.hashFieldCacheKey(keyMeta, key, field);
@@ -111,14 +118,14 @@ public class HGetCommander extends Commander {
             Reply reply = sync(cacheRedisTemplate.sendLua(script, new byte[][]{hashFieldCacheKey, cacheKey},
                     new byte[][]{field, hgetCacheMillis(), hgetallCacheMillis()}));
             if (reply instanceof ErrorReply) {
-                return reply;
+                return CompletableFuture.completedFuture(reply);
             }
             if (reply instanceof MultiBulkReply) {
                 Reply[] replies = ((MultiBulkReply) reply).getReplies();
                 String type = Utils.bytesToString(((BulkReply) replies[0]).getRaw());
                 if (type.equalsIgnoreCase("1") || type.equalsIgnoreCase("2")) {
                     KvCacheMonitor.redisCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-                    return replies[1];
+                    return CompletableFuture.completedFuture(replies[1]);
                 }
             }
         }
@@ -130,15 +137,15 @@ public class HGetCommander extends Commander {
         KeyValue keyValue = kvClient.get(subKey);
 
         if (keyValue == null || keyValue.getValue() == null) {
-            return BulkReply.NIL_REPLY;
+            return CompletableFuture.completedFuture(BulkReply.NIL_REPLY);
         }
 
         //build hget cache
         Reply reply = sync(cacheRedisTemplate.sendPSetEx(hashFieldCacheKey, cacheConfig.hgetCacheMillis(), keyValue.getValue()));
         if (reply instanceof ErrorReply) {
-            return reply;
+            return CompletableFuture.completedFuture(reply);
         }
-        return new BulkReply(keyValue.getValue());
+        return CompletableFuture.completedFuture(new BulkReply(keyValue.getValue()));
     }
 
     private byte[] hgetallCacheMillis() {
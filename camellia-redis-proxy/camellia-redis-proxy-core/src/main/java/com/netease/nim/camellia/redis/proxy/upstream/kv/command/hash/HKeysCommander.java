@@ -17,6 +17,7 @@ import com.netease.nim.camellia.tools.utils.BytesKey;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * HKEYS key
@@ -50,14 +51,19 @@ public class HKeysCommander extends Hash0Commander {
 
     @Override
     protected Reply execute(Command command) {
+        throw new IllegalStateException(redisCommand() + " only support executeAsync");
+    }
+
+    @Override
+    protected CompletableFuture<Reply> executeAsync(Command command) {
         byte[][] objects = command.getObjects();
         byte[] key = objects[1];
         KeyMeta keyMeta = keyMetaServer.getKeyMeta(key);
         if (keyMeta == null) {
-            return MultiBulkReply.EMPTY;
+            return CompletableFuture.completedFuture(MultiBulkReply.EMPTY);
         }
         if (keyMeta.getKeyType() != KeyType.hash) {
-            return ErrorReply.WRONG_TYPE;
+            return CompletableFuture.completedFuture(ErrorReply.WRONG_TYPE);
         }
 
         byte[] cacheKey = keyDesign.cacheKey(keyMeta, key);
@@ -66,14 +72,14 @@ public class HKeysCommander extends Hash0Commander {
         if (writeBufferValue != null) {
             Hash hash = writeBufferValue.getValue();
             KvCacheMonitor.writeBuffer(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return toReply(hash.hgetAll());
+            return CompletableFuture.completedFuture(toReply(hash.hgetAll()));
         }
 
         if (cacheConfig.isHashLocalCacheEnable()) {
             Hash hash = cacheConfig.getHashLRUCache().getForRead(key, cacheKey);
             if (hash != null) {
                 KvCacheMonitor.localCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-                return toReply(hash.hgetAll());
+                return CompletableFuture.completedFuture(toReply(hash.hgetAll()));
             }
         }
 
@@ -81,17 +87,16 @@ public class HKeysCommander extends Hash0Commander {
 
         if (encodeVersion == EncodeVersion.version_0 || encodeVersion == EncodeVersion.version_1) {
             KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
-            Map<BytesKey, byte[]> map = hgetallFromKv(keyMeta, key);
             if (cacheConfig.isHashLocalCacheEnable()) {
-                cacheConfig.getHashLRUCache().putAllForRead(key, cacheKey, new Hash(map));
+                return loadLRUCacheAsync(keyMeta, key, cacheKey).thenApply(this::toReply);
             }
-            return toReply(map);
+            return hgetallFromKvAsync(keyMeta, key).thenApply(this::toReply);
         }
 
         Reply reply = checkCache(script, cacheKey, new byte[][]{hgetallCacheMillis()});
         if (reply != null) {
             KvCacheMonitor.redisCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return reply;
+            return CompletableFuture.completedFuture(reply);
         }
 
         KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
@@ -103,10 +108,10 @@ public class HKeysCommander extends Hash0Commander {
 
         ErrorReply errorReply = buildCache(cacheKey, map);
         if (errorReply != null) {
-            return errorReply;
+            return CompletableFuture.completedFuture(errorReply);
         }
 
-        return toReply(map);
+        return CompletableFuture.completedFuture(toReply(map));
     }
 
     private MultiBulkReply toReply(Map<BytesKey, byte[]> map) {
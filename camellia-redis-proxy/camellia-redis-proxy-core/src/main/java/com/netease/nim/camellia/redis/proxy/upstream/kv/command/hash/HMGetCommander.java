@@ -20,6 +20,7 @@ import com.netease.nim.camellia.tools.utils.BytesKey;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * HMGET key field [field ...]
@@ -60,6 +61,11 @@ public class HMGetCommander extends Commander {
 
     @Override
     protected Reply execute(Command command) {
+        throw new IllegalStateException(redisCommand() + " only support executeAsync");
+    }
+
+    @Override
+    protected CompletableFuture<Reply> executeAsync(Command command) {
         byte[][] objects = command.getObjects();
         byte[] key = objects[1];
 
@@ -68,10 +74,10 @@ public class HMGetCommander extends Commander {
         if (keyMeta == null) {
             Reply[] replies = new Reply[objects.length - 2];
             Arrays.fill(replies, BulkReply.NIL_REPLY);
-            return new MultiBulkReply(replies);
+            return CompletableFuture.completedFuture(new MultiBulkReply(replies));
         }
         if (keyMeta.getKeyType() != KeyType.hash) {
-            return ErrorReply.WRONG_TYPE;
+            return CompletableFuture.completedFuture(ErrorReply.WRONG_TYPE);
         }
 
         byte[][] fields = new byte[objects.length - 2][];
@@ -82,14 +88,14 @@ public class HMGetCommander extends Commander {
         WriteBufferValue<Hash> writeBufferValue = hashWriteBuffer.get(cacheKey);
         if (writeBufferValue != null) {
             KvCacheMonitor.writeBuffer(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return toReply2(fields, writeBufferValue.getValue().hgetAll());
+            return CompletableFuture.completedFuture(toReply2(fields, writeBufferValue.getValue().hgetAll()));
         }
 
         if (cacheConfig.isHashLocalCacheEnable()) {
             Hash hash = cacheConfig.getHashLRUCache().getForRead(key, cacheKey);
             if (hash != null) {
                 KvCacheMonitor.localCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-                return toReply2(fields, hash.hgetAll());
+                return CompletableFuture.completedFuture(toReply2(fields, hash.hgetAll()));
             }
         }
 
@@ -102,28 +108,29 @@ public class HMGetCommander extends Commander {
                 subKeys[i-2] = keyDesign.hashFieldSubKey(keyMeta, key, objects[i]);
                 list.add(new BytesKey(subKeys[i-2]));
             }
-            List<KeyValue> keyValues = kvClient.batchGet(subKeys);
-            Map<BytesKey, byte[]> map = new HashMap<>();
-            for (KeyValue keyValue : keyValues) {
-                map.put(new BytesKey(keyValue.getKey()), keyValue.getValue());
-            }
-            Reply[] replies = new Reply[list.size()];
-            for (int i=0; i<replies.length; i++) {
-                BytesKey bytesKey = list.get(i);
-                byte[] bytes = map.get(bytesKey);
-                if (bytes == null) {
-                    replies[i] = BulkReply.NIL_REPLY;
-                } else {
-                    replies[i] = new BulkReply(bytes);
+            return asyncKvClient.batchGetAsync(subKeys).thenApply(keyValues -> {
+                Map<BytesKey, byte[]> map = new HashMap<>();
+                for (KeyValue keyValue : keyValues) {
+                    map.put(new BytesKey(keyValue.getKey()), keyValue.getValue());
                 }
-            }
-            return new MultiBulkReply(replies);
+                Reply[] replies = new Reply[list.size()];
+                for (int i=0; i<replies.length; i++) {
+                    BytesKey bytesKey = list.get(i);
+                    byte[] bytes = map.get(bytesKey);
+                    if (bytes == null) {
+                        replies[i] = BulkReply.NIL_REPLY;
+                    } else {
+                        replies[i] = new BulkReply(bytes);
+                    }
+                }
+                return new MultiBulkReply(replies);
+            });
         }
 
         {
             Reply reply = sync(cacheRedisTemplate.sendLua(script1, new byte[][]{cacheKey}, fields));
             if (reply instanceof ErrorReply) {
-                return reply;
+                return CompletableFuture.completedFuture(reply);
             }
             if (reply instanceof MultiBulkReply) {
                 Reply[] replies = ((MultiBulkReply) reply).getReplies();
@@ -131,7 +138,7 @@ public class HMGetCommander extends Commander {
                 if (type.equalsIgnoreCase("1")) {
                     cacheRedisTemplate.sendPExpire(key, cacheConfig.hgetallCacheMillis());
                     KvCacheMonitor.redisCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-                    return replies[1];
+                    return CompletableFuture.completedFuture(replies[1]);
                 }
             }
         }
@@ -149,7 +156,7 @@ public class HMGetCommander extends Commander {
                 byte[] field = fields[i];
                 Reply reply = replyList.get(i);
                 if (reply instanceof ErrorReply) {
-                    return reply;
+                    return CompletableFuture.completedFuture(reply);
                 }
                 if (reply instanceof MultiBulkReply) {
                     Reply[] replies = ((MultiBulkReply) reply).getReplies();
@@ -163,7 +170,7 @@ public class HMGetCommander extends Commander {
             }
             if (cacheMissingFields.isEmpty()) {
                 KvCacheMonitor.redisCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-                return toReply1(fields, hitMap);
+                return CompletableFuture.completedFuture(toReply1(fields, hitMap));
             }
 
             KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
@@ -197,11 +204,11 @@ public class HMGetCommander extends Commander {
                 List<Reply> cacheSetReplies = sync(cacheRedisTemplate.sendCommand(commands));
                 for (Reply cacheSetReply : cacheSetReplies) {
                     if (cacheSetReply instanceof ErrorReply) {
-                        return cacheSetReply;
+                        return CompletableFuture.completedFuture(cacheSetReply);
                     }
                 }
             }
-            return toReply1(fields, hitMap);
+            return CompletableFuture.completedFuture(toReply1(fields, hitMap));
         }
     }
 
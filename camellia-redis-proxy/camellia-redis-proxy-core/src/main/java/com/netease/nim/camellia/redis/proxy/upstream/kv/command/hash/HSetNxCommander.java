@@ -20,6 +20,7 @@ import com.netease.nim.camellia.redis.proxy.upstream.kv.utils.BytesUtils;
 import com.netease.nim.camellia.tools.utils.BytesKey;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -143,7 +144,7 @@ public class HSetNxCommander extends Hash0Commander {
                     }
                     return IntegerReply.REPLY_0;
                 } else {
-                    hash.hset(filedKey, value);
+                    hashLRUCache.hset(key, cacheKey, Collections.singletonMap(filedKey, value));
                     cacheCheck = cache_hit_not_exists;
                 }
             }
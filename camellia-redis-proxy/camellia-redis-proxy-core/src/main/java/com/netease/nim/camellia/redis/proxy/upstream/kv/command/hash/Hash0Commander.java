@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Created by caojiajun on 2024/5/15
@@ -52,6 +53,47 @@ public abstract class Hash0Commander extends Commander {
         return map;
     }
 
+    /**
+     * 本地缓存miss时回源并填充本地缓存，同一个key的并发回源会合并为一次kv scan
+     * <p>
+     * the returned map is shared by all waiters, do not modify it
+     */
+    protected final CompletableFuture<Map<BytesKey, byte[]>> loadLRUCacheAsync(KeyMeta keyMeta, byte[] key, byte[] cacheKey) {
+        return cacheConfig.getHashLRUCache().loadForRead(key, cacheKey, () -> hgetallFromKvAsync(keyMeta, key));
+    }
+
+    protected final CompletableFuture<Map<BytesKey, byte[]>> hgetallFromKvAsync(KeyMeta keyMeta, byte[] key) {
+        CompletableFuture<Map<BytesKey, byte[]>> future = new CompletableFuture<>();
+        byte[] prefix = keyDesign.hashFieldSubKey(keyMeta, key, new byte[0]);
+        hgetallFromKvAsync(key, prefix, prefix, new HashMap<>(), future);
+        return future;
+    }
+
+    private void hgetallFromKvAsync(byte[] key, byte[] startKey, byte[] prefix, Map<BytesKey, byte[]> map, CompletableFuture<Map<BytesKey, byte[]>> future) {
+        int limit = kvConfig.scanBatch();
+        int hashMaxSize = kvConfig.hashMaxSize();
+        asyncKvClient.scanByPrefixAsync(startKey, prefix, limit, Sort.ASC, false).whenComplete((scan, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+                return;
+            }
+            byte[] nextStartKey = startKey;
+            for (KeyValue keyValue : scan) {
+                byte[] field = keyDesign.decodeHashFieldBySubKey(keyValue.getKey(), key);
+                map.put(new BytesKey(field), keyValue.getValue());
+                nextStartKey = keyValue.getKey();
+                if (map.size() >= hashMaxSize) {
+                    break;
+                }
+            }
+            if (scan.size() < limit || map.size() >= hashMaxSize) {
+                future.complete(map);
+                return;
+            }
+            hgetallFromKvAsync(key, nextStartKey, prefix, map, future);
+        });
+    }
+
     protected final ErrorReply buildCache(byte[] cacheKey, Map<BytesKey, byte[]> map) {
         if (map.isEmpty()) {
             return null;
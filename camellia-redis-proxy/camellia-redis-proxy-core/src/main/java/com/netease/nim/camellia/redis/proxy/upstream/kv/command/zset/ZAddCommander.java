@@ -122,10 +122,10 @@ public class ZAddCommander extends ZSet0Commander {
                     if (hotKey) {
                         zSet = loadLRUCache(keyMeta, key);
                         if (zSet != null) {
+                            map = zSet.zadd(memberMap);
                             //
                             zSetLRUCache.putZSetForWrite(key, cacheKey, zSet);
                             //
-                            map = zSet.zadd(memberMap);
                         }
                     }
                 } else {
@@ -20,6 +20,7 @@ import com.netease.nim.camellia.redis.proxy.upstream.kv.utils.ScriptReplyUtils;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ZCOUNT key min max
@@ -52,14 +53,19 @@ public class ZCountCommander extends ZSet0Commander {
 
     @Override
     protected Reply execute(Command command) {
+        throw new IllegalStateException(redisCommand() + " only support executeAsync");
+    }
+
+    @Override
+    protected CompletableFuture<Reply> executeAsync(Command command) {
         byte[][] objects = command.getObjects();
         byte[] key = objects[1];
         KeyMeta keyMeta = keyMetaServer.getKeyMeta(key);
         if (keyMeta == null) {
-            return IntegerReply.REPLY_0;
+            return CompletableFuture.completedFuture(IntegerReply.REPLY_0);
         }
         if (keyMeta.getKeyType() != KeyType.zset) {
-            return ErrorReply.WRONG_TYPE;
+            return CompletableFuture.completedFuture(ErrorReply.WRONG_TYPE);
         }
 
         ZSetScore minScore;
@@ -68,10 +74,10 @@ public class ZCountCommander extends ZSet0Commander {
             minScore = ZSetScore.fromBytes(objects[2]);
             maxScore = ZSetScore.fromBytes(objects[3]);
         } catch (Exception e) {
-            return ErrorReply.SYNTAX_ERROR;
+            return CompletableFuture.completedFuture(ErrorReply.SYNTAX_ERROR);
         }
         if (minScore.getScore() > maxScore.getScore()) {
-            return IntegerReply.REPLY_0;
+            return CompletableFuture.completedFuture(IntegerReply.REPLY_0);
         }
 
         byte[] cacheKey = keyDesign.cacheKey(keyMeta, key);
@@ -81,7 +87,7 @@ public class ZCountCommander extends ZSet0Commander {
             ZSet zSet = bufferValue.getValue();
             int zcount = zSet.zcount(minScore, maxScore);
             KvCacheMonitor.writeBuffer(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return IntegerReply.parse(zcount);
+            return CompletableFuture.completedFuture(IntegerReply.parse(zcount));
         }
 
         if (cacheConfig.isZSetLocalCacheEnable()) {
@@ -94,21 +100,15 @@ public class ZCountCommander extends ZSet0Commander {
             if (zSet != null) {
                 int zcount = zSet.zcount(minScore, maxScore);
                 KvCacheMonitor.localCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-                return IntegerReply.parse(zcount);
+                return CompletableFuture.completedFuture(IntegerReply.parse(zcount));
             }
 
-            if (hotKey) {
-                zSet = loadLRUCache(keyMeta, key);
-                if (zSet != null) {
-                    //
-                    zSetLRUCache.putZSetForRead(key, cacheKey, zSet);
-                    //
-                    int zcount = zSet.zcount(minScore, maxScore);
-
-                    KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
-
+            if (hotKey && isLRUCacheLoadable(keyMeta)) {
+                KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
+                return loadLRUCacheAsync(keyMeta, key, cacheKey).thenApply(loaded -> {
+                    int zcount = loaded.zcount(minScore, maxScore);
                     return IntegerReply.parse(zcount);
-                }
+                });
             }
         }
 
@@ -116,7 +116,7 @@ public class ZCountCommander extends ZSet0Commander {
         if (encodeVersion == EncodeVersion.version_0) {
             int count = zcountFromKv(keyMeta, key, minScore, maxScore);
             KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return IntegerReply.parse(count);
+            return CompletableFuture.completedFuture(IntegerReply.parse(count));
         }
 
         if (encodeVersion == EncodeVersion.version_1 || encodeVersion == EncodeVersion.version_2) {
@@ -124,19 +124,19 @@ public class ZCountCommander extends ZSet0Commander {
             reply = ScriptReplyUtils.check(reply);
             if (reply != null) {
                 KvCacheMonitor.redisCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-                return reply;
+                return CompletableFuture.completedFuture(reply);
             }
             int count = zcountFromKv(keyMeta, key, minScore, maxScore);
             KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return IntegerReply.parse(count);
+            return CompletableFuture.completedFuture(IntegerReply.parse(count));
         }
 
         if (encodeVersion == EncodeVersion.version_3) {
             KvCacheMonitor.redisCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return sync(storeRedisTemplate.sendCommand(new Command(new byte[][]{RedisCommand.ZCOUNT.raw(), cacheKey, objects[2], objects[3]})));
+            return CompletableFuture.completedFuture(sync(storeRedisTemplate.sendCommand(new Command(new byte[][]{RedisCommand.ZCOUNT.raw(), cacheKey, objects[2], objects[3]}))));
         }
 
-        return ErrorReply.INTERNAL_ERROR;
+        return CompletableFuture.completedFuture(ErrorReply.INTERNAL_ERROR);
     }
 
     private int zcountFromKv(KeyMeta keyMeta, byte[] key, ZSetScore minScore, ZSetScore maxScore) {
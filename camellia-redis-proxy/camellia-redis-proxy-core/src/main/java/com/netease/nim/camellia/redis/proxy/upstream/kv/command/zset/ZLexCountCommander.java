@@ -20,6 +20,7 @@ import com.netease.nim.camellia.redis.proxy.upstream.kv.utils.ScriptReplyUtils;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ZLEXCOUNT key min max
@@ -52,19 +53,24 @@ public class ZLexCountCommander extends ZSet0Commander {
 
     @Override
     protected Reply execute(Command command) {
+        throw new IllegalStateException(redisCommand() + " only support executeAsync");
+    }
+
+    @Override
+    protected CompletableFuture<Reply> executeAsync(Command command) {
         byte[][] objects = command.getObjects();
         byte[] key = objects[1];
         KeyMeta keyMeta = keyMetaServer.getKeyMeta(key);
         if (keyMeta == null) {
-            return IntegerReply.REPLY_0;
+            return CompletableFuture.completedFuture(IntegerReply.REPLY_0);
         }
         if (keyMeta.getKeyType() != KeyType.zset) {
-            return ErrorReply.WRONG_TYPE;
+            return CompletableFuture.completedFuture(ErrorReply.WRONG_TYPE);
         }
 
         EncodeVersion encodeVersion = keyMeta.getEncodeVersion();
         if (encodeVersion == EncodeVersion.version_3) {
-            return ErrorReply.COMMAND_NOT_SUPPORT_IN_CURRENT_KV_ENCODE_VERSION;
+            return CompletableFuture.completedFuture(ErrorReply.COMMAND_NOT_SUPPORT_IN_CURRENT_KV_ENCODE_VERSION);
         }
 
         ZSetLex minLex;
@@ -73,13 +79,13 @@ public class ZLexCountCommander extends ZSet0Commander {
             minLex = ZSetLex.fromLex(objects[2]);
             maxLex = ZSetLex.fromLex(objects[3]);
             if (minLex == null || maxLex == null) {
-                return new ErrorReply("ERR min or max not valid string range item");
+                return CompletableFuture.completedFuture(new ErrorReply("ERR min or max not valid string range item"));
             }
         } catch (Exception e) {
-            return ErrorReply.SYNTAX_ERROR;
+            return CompletableFuture.completedFuture(ErrorReply.SYNTAX_ERROR);
         }
         if (minLex.isMax() || maxLex.isMin()) {
-            return IntegerReply.REPLY_0;
+            return CompletableFuture.completedFuture(IntegerReply.REPLY_0);
         }
 
         byte[] cacheKey = keyDesign.cacheKey(keyMeta, key);
@@ -89,7 +95,7 @@ public class ZLexCountCommander extends ZSet0Commander {
             ZSet zSet = bufferValue.getValue();
             int zcount = zSet.zlexcount(minLex, maxLex);
             KvCacheMonitor.writeBuffer(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return IntegerReply.parse(zcount);
+            return CompletableFuture.completedFuture(IntegerReply.parse(zcount));
         }
 
         if (cacheConfig.isZSetLocalCacheEnable()) {
@@ -102,27 +108,21 @@ public class ZLexCountCommander extends ZSet0Commander {
             if (zSet != null) {
                 int zcount = zSet.zlexcount(minLex, maxLex);
                 KvCacheMonitor.localCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-                return IntegerReply.parse(zcount);
+                return CompletableFuture.completedFuture(IntegerReply.parse(zcount));
             }
 
-            if (hotKey) {
-                zSet = loadLRUCache(keyMeta, key);
-                if (zSet != null) {
-                    //
-                    zSetLRUCache.putZSetForRead(key, cacheKey, zSet);
-                    //
-                    int zcount = zSet.zlexcount(minLex, maxLex);
-
-                    KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
-
+            if (hotKey && isLRUCacheLoadable(keyMeta)) {
+                KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
+                return loadLRUCacheAsync(keyMeta, key, cacheKey).thenApply(loaded -> {
+                    int zcount = loaded.zlexcount(minLex, maxLex);
                     return IntegerReply.parse(zcount);
-                }
+                });
             }
         }
 
         if (encodeVersion == EncodeVersion.version_0 || encodeVersion == EncodeVersion.version_2) {
             KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return IntegerReply.parse(zrangeByLexFromKv(keyMeta, key, minLex, maxLex));
+            return CompletableFuture.completedFuture(IntegerReply.parse(zrangeByLexFromKv(keyMeta, key, minLex, maxLex)));
         }
 
         if (encodeVersion == EncodeVersion.version_1) {
@@ -130,13 +130,13 @@ public class ZLexCountCommander extends ZSet0Commander {
             reply = ScriptReplyUtils.check(reply);
             if (reply != null) {
                 KvCacheMonitor.redisCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-                return reply;
+                return CompletableFuture.completedFuture(reply);
             }
             KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return IntegerReply.parse(zrangeByLexFromKv(keyMeta, key, minLex, maxLex));
+            return CompletableFuture.completedFuture(IntegerReply.parse(zrangeByLexFromKv(keyMeta, key, minLex, maxLex)));
         }
 
-        return ErrorReply.INTERNAL_ERROR;
+        return CompletableFuture.completedFuture(ErrorReply.INTERNAL_ERROR);
     }
 
     private int zrangeByLexFromKv(KeyMeta keyMeta, byte[] key, ZSetLex minLex, ZSetLex maxLex) {
@@ -21,6 +21,7 @@ import com.netease.nim.camellia.tools.utils.BytesKey;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ZRANGEBYLEX key min max [LIMIT offset count]
@@ -53,20 +54,25 @@ public class ZRangeByLexCommander extends ZRange0Commander {
 
     @Override
     protected Reply execute(Command command) {
+        throw new IllegalStateException(redisCommand() + " only support executeAsync");
+    }
+
+    @Override
+    protected CompletableFuture<Reply> executeAsync(Command command) {
         byte[][] objects = command.getObjects();
         byte[] key = objects[1];
         KeyMeta keyMeta = keyMetaServer.getKeyMeta(key);
         if (keyMeta == null) {
-            return MultiBulkReply.EMPTY;
+            return CompletableFuture.completedFuture(MultiBulkReply.EMPTY);
         }
         if (keyMeta.getKeyType() != KeyType.zset) {
-            return ErrorReply.WRONG_TYPE;
+            return CompletableFuture.completedFuture(ErrorReply.WRONG_TYPE);
         }
 
         EncodeVersion encodeVersion = keyMeta.getEncodeVersion();
 
         if (encodeVersion == EncodeVersion.version_3) {
-            return ErrorReply.COMMAND_NOT_SUPPORT_IN_CURRENT_KV_ENCODE_VERSION;
+            return CompletableFuture.completedFuture(ErrorReply.COMMAND_NOT_SUPPORT_IN_CURRENT_KV_ENCODE_VERSION);
         }
 
         ZSetLex minLex;
@@ -76,14 +82,14 @@ public class ZRangeByLexCommander extends ZRange0Commander {
             minLex = ZSetLex.fromLex(objects[2]);
             maxLex = ZSetLex.fromLex(objects[3]);
             if (minLex == null || maxLex == null) {
-                return new ErrorReply("ERR min or max not valid string range item");
+                return CompletableFuture.completedFuture(new ErrorReply("ERR min or max not valid string range item"));
             }
             limit = ZSetLimit.fromBytes(objects, 4);
         } catch (Exception e) {
-            return ErrorReply.SYNTAX_ERROR;
+            return CompletableFuture.completedFuture(ErrorReply.SYNTAX_ERROR);
         }
         if (minLex.isMax() || maxLex.isMin()) {
-            return MultiBulkReply.EMPTY;
+            return CompletableFuture.completedFuture(MultiBulkReply.EMPTY);
         }
 
         byte[] cacheKey = keyDesign.cacheKey(keyMeta, key);
@@ -93,7 +99,7 @@ public class ZRangeByLexCommander extends ZRange0Commander {
             ZSet zSet = bufferValue.getValue();
             List<ZSetTuple> list = zSet.zrangeByLex(minLex, maxLex, limit);
             KvCacheMonitor.writeBuffer(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return ZSetTupleUtils.toReply(list, false);
+            return CompletableFuture.completedFuture(ZSetTupleUtils.toReply(list, false));
         }
 
         if (cacheConfig.isZSetLocalCacheEnable()) {
@@ -105,37 +111,31 @@ public class ZRangeByLexCommander extends ZRange0Commander {
             if (zSet != null) {
                 List<ZSetTuple> list = zSet.zrangeByLex(minLex, maxLex, limit);
                 KvCacheMonitor.localCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-                return ZSetTupleUtils.toReply(list, false);
+                return CompletableFuture.completedFuture(ZSetTupleUtils.toReply(list, false));
             }
 
-            if (hotKey) {
-                zSet = loadLRUCache(keyMeta, key);
-                if (zSet != null) {
-                    //
-                    zSetLRUCache.putZSetForRead(key, cacheKey, zSet);
-                    //
-                    List<ZSetTuple> list = zSet.zrangeByLex(minLex, maxLex, limit);
-
-                    KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
-
+            if (hotKey && isLRUCacheLoadable(keyMeta)) {
+                KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
+                return loadLRUCacheAsync(keyMeta, key, cacheKey).thenApply(loaded -> {
+                    List<ZSetTuple> list = loaded.zrangeByLex(minLex, maxLex, limit);
                     return ZSetTupleUtils.toReply(list, false);
-                }
+                });
             }
         }
 
         if (encodeVersion == EncodeVersion.version_0 || encodeVersion == EncodeVersion.version_2) {
             KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return zrangeByLexVersion0OrVersion2(keyMeta, key, minLex, maxLex, limit);
+            return CompletableFuture.completedFuture(zrangeByLexVersion0OrVersion2(keyMeta, key, minLex, maxLex, limit));
         }
 
         byte[][] args = new byte[objects.length - 2][];
         System.arraycopy(objects, 2, args, 0, args.length);
 
         if (encodeVersion == EncodeVersion.version_1) {
-            return zrangeVersion1(keyMeta, key, cacheKey, args, script, true);
+            return CompletableFuture.completedFuture(zrangeVersion1(keyMeta, key, cacheKey, args, script, true));
         }
 
-        return ErrorReply.INTERNAL_ERROR;
+        return CompletableFuture.completedFuture(ErrorReply.INTERNAL_ERROR);
     }
 
     private Reply zrangeByLexVersion0OrVersion2(KeyMeta keyMeta, byte[] key, ZSetLex minLex, ZSetLex maxLex, ZSetLimit limit) {
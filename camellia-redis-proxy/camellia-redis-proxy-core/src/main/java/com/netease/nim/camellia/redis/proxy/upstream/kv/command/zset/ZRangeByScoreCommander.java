@@ -21,6 +21,7 @@ import com.netease.nim.camellia.tools.utils.BytesKey;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ZRANGEBYSCORE key min max [WITHSCORES] [LIMIT offset count]
@@ -53,14 +54,19 @@ public class ZRangeByScoreCommander extends ZRange0Commander {
 
     @Override
     protected Reply execute(Command command) {
+        throw new IllegalStateException(redisCommand() + " only support executeAsync");
+    }
+
+    @Override
+    protected CompletableFuture<Reply> executeAsync(Command command) {
         byte[][] objects = command.getObjects();
         byte[] key = objects[1];
         KeyMeta keyMeta = keyMetaServer.getKeyMeta(key);
         if (keyMeta == null) {
-            return MultiBulkReply.EMPTY;
+            return CompletableFuture.completedFuture(MultiBulkReply.EMPTY);
         }
         if (keyMeta.getKeyType() != KeyType.zset) {
-            return ErrorReply.WRONG_TYPE;
+            return CompletableFuture.completedFuture(ErrorReply.WRONG_TYPE);
         }
         boolean withScores = ZSetWithScoresUtils.isWithScores(objects, 4);
 
@@ -72,10 +78,10 @@ public class ZRangeByScoreCommander extends ZRange0Commander {
             maxScore = ZSetScore.fromBytes(objects[3]);
             limit = ZSetLimit.fromBytes(objects, 4);
         } catch (Exception e) {
-            return ErrorReply.SYNTAX_ERROR;
+            return CompletableFuture.completedFuture(ErrorReply.SYNTAX_ERROR);
         }
         if (minScore.getScore() > maxScore.getScore()) {
-            return MultiBulkReply.EMPTY;
+            return CompletableFuture.completedFuture(MultiBulkReply.EMPTY);
         }
 
         byte[] cacheKey = keyDesign.cacheKey(keyMeta, key);
@@ -85,7 +91,7 @@ public class ZRangeByScoreCommander extends ZRange0Commander {
             ZSet zSet = bufferValue.getValue();
             List<ZSetTuple> list = zSet.zrangebyscore(minScore, maxScore, limit);
             KvCacheMonitor.writeBuffer(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return ZSetTupleUtils.toReply(list, withScores);
+            return CompletableFuture.completedFuture(ZSetTupleUtils.toReply(list, withScores));
         }
 
         if (cacheConfig.isZSetLocalCacheEnable()) {
@@ -98,45 +104,39 @@ public class ZRangeByScoreCommander extends ZRange0Commander {
             if (zSet != null) {
                 List<ZSetTuple> list = zSet.zrangebyscore(minScore, maxScore, limit);
                 KvCacheMonitor.localCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-                return ZSetTupleUtils.toReply(list, withScores);
+                return CompletableFuture.completedFuture(ZSetTupleUtils.toReply(list, withScores));
             }
 
-            if (hotKey) {
-                zSet = loadLRUCache(keyMeta, key);
-                if (zSet != null) {
-                    //
-                    zSetLRUCache.putZSetForRead(key, cacheKey, zSet);
-                    //
-                    List<ZSetTuple> list = zSet.zrangebyscore(minScore, maxScore, limit);
-
-                    KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
-
+            if (hotKey && isLRUCacheLoadable(keyMeta)) {
+                KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
+                return loadLRUCacheAsync(keyMeta, key, cacheKey).thenApply(loaded -> {
+                    List<ZSetTuple> list = loaded.zrangebyscore(minScore, maxScore, limit);
                     return ZSetTupleUtils.toReply(list, withScores);
-                }
+                });
             }
         }
 
         EncodeVersion encodeVersion = keyMeta.getEncodeVersion();
         if (encodeVersion == EncodeVersion.version_0) {
             KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return zrangeByScoreVersion0(keyMeta, key, minScore, maxScore, limit, withScores);
+            return CompletableFuture.completedFuture(zrangeByScoreVersion0(keyMeta, key, minScore, maxScore, limit, withScores));
         }
 
         if (encodeVersion == EncodeVersion.version_3) {
             KvCacheMonitor.redisCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return zrangeVersion3(keyMeta, key, cacheKey, objects, withScores);
+            return CompletableFuture.completedFuture(zrangeVersion3(keyMeta, key, cacheKey, objects, withScores));
         }
 
         byte[][] args = new byte[objects.length - 2][];
         System.arraycopy(objects, 2, args, 0, args.length);
 
         if (encodeVersion == EncodeVersion.version_1) {
-            return zrangeVersion1(keyMeta, key, cacheKey, args, script, true);
+            return CompletableFuture.completedFuture(zrangeVersion1(keyMeta, key, cacheKey, args, script, true));
         }
         if (encodeVersion == EncodeVersion.version_2) {
-            return zrangeVersion2(keyMeta, key, cacheKey, args, withScores, script, true);
+            return CompletableFuture.completedFuture(zrangeVersion2(keyMeta, key, cacheKey, args, withScores, script, true));
         }
-        return ErrorReply.INTERNAL_ERROR;
+        return CompletableFuture.completedFuture(ErrorReply.INTERNAL_ERROR);
     }
 
     private Reply zrangeByScoreVersion0(KeyMeta keyMeta, byte[] key, ZSetScore minScore, ZSetScore maxScore, ZSetLimit limit, boolean withScores) {
@@ -22,6 +22,7 @@ import com.netease.nim.camellia.tools.utils.BytesKey;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ZRANGE key start stop [WITHSCORES]
@@ -54,18 +55,23 @@ public class ZRangeCommander extends ZRange0Commander {
 
     @Override
     protected Reply execute(Command command) {
+        throw new IllegalStateException(redisCommand() + " only support executeAsync");
+    }
+
+    @Override
+    protected CompletableFuture<Reply> executeAsync(Command command) {
         byte[][] objects = command.getObjects();
         byte[] key = objects[1];
         KeyMeta keyMeta = keyMetaServer.getKeyMeta(key);
         if (keyMeta == null) {
-            return MultiBulkReply.EMPTY;
+            return CompletableFuture.completedFuture(MultiBulkReply.EMPTY);
         }
         if (keyMeta.getKeyType() != KeyType.zset) {
-            return ErrorReply.WRONG_TYPE;
+            return CompletableFuture.completedFuture(ErrorReply.WRONG_TYPE);
         }
         boolean withScores = ZSetWithScoresUtils.isWithScores(objects, 4);
         if (objects.length == 5 && !withScores) {
-            return ErrorReply.SYNTAX_ERROR;
+            return CompletableFuture.completedFuture(ErrorReply.SYNTAX_ERROR);
         }
 
         int start = (int) Utils.bytesToNum(objects[2]);
@@ -78,7 +84,7 @@ public class ZRangeCommander extends ZRange0Commander {
             ZSet zSet = bufferValue.getValue();
             List<ZSetTuple> list = zSet.zrange(start, stop);
             KvCacheMonitor.writeBuffer(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return ZSetTupleUtils.toReply(list, withScores);
+            return CompletableFuture.completedFuture(ZSetTupleUtils.toReply(list, withScores));
         }
 
         if (cacheConfig.isZSetLocalCacheEnable()) {
@@ -91,21 +97,15 @@ public class ZRangeCommander extends ZRange0Commander {
             if (zSet != null) {
                 List<ZSetTuple> list = zSet.zrange(start, stop);
                 KvCacheMonitor.localCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-                return ZSetTupleUtils.toReply(list, withScores);
+                return CompletableFuture.completedFuture(ZSetTupleUtils.toReply(list, withScores));
             }
 
-            if (hotKey) {
-                zSet = loadLRUCache(keyMeta, key);
-                if (zSet != null) {
-                    //
-                    zSetLRUCache.putZSetForRead(key, cacheKey, zSet);
-                    //
-                    List<ZSetTuple> list = zSet.zrange(start, stop);
-
-                    KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
-
+            if (hotKey && isLRUCacheLoadable(keyMeta)) {
+                KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
+                return loadLRUCacheAsync(keyMeta, key, cacheKey).thenApply(loaded -> {
+                    List<ZSetTuple> list = loaded.zrange(start, stop);
                     return ZSetTupleUtils.toReply(list, withScores);
-                }
+                });
             }
         }
 
@@ -113,25 +113,25 @@ public class ZRangeCommander extends ZRange0Commander {
 
         if (encodeVersion == EncodeVersion.version_0) {
             KvCacheMonitor.kvStore(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return zrangeVersion0(keyMeta, key, start, stop, withScores);
+            return CompletableFuture.completedFuture(zrangeVersion0(keyMeta, key, start, stop, withScores));
         }
 
         if (encodeVersion == EncodeVersion.version_3) {
             KvCacheMonitor.redisCache(cacheConfig.getNamespace(), redisCommand().strRaw());
-            return zrangeVersion3(keyMeta, key, cacheKey, objects, withScores);
+            return CompletableFuture.completedFuture(zrangeVersion3(keyMeta, key, cacheKey, objects, withScores));
         }
 
         byte[][] args = new byte[objects.length - 2][];
         System.arraycopy(objects, 2, args, 0, args.length);
 
         if (encodeVersion == EncodeVersion.version_1) {
-            return zrangeVersion1(keyMeta, key, cacheKey, args, script, true);
+            return CompletableFuture.completedFuture(zrangeVersion1(keyMeta, key, cacheKey, args, script, true));
         }
         if (encodeVersion == EncodeVersion.version_2) {
-            return zrangeVersion2(keyMeta, key, cacheKey, args, withScores, script, true);
+            return CompletableFuture.completedFuture(zrangeVersion2(keyMeta, key, cacheKey, args, withScores, script, true));
         }
 
-        return ErrorReply.INTERNAL_ERROR;
+        return CompletableFuture.completedFuture(ErrorReply.INTERNAL_ERROR);
     }
 
     private Reply zrangeVersion0(KeyMeta keyMeta, byte[] key, int start, int stop, boolean withScores) {
@@ -102,10 +102,10 @@ public class ZRemCommander extends ZSet0Commander {
             if (hotKey && localCacheResult == null) {
                 ZSet zSet = loadLRUCache(keyMeta, key);
                 if (zSet != null) {
+                    localCacheResult = zSet.zrem(members);
                     //
                     zSetLRUCache.putZSetForWrite(key, cacheKey, zSet);
                     //
-                    localCacheResult = zSet.zrem(members);
 
                     if (localCacheResult != null && localCacheResult.isEmpty()) {
                         return IntegerReply.REPLY_0;
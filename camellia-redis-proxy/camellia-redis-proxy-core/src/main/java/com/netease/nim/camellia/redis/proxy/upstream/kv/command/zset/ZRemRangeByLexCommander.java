@@ -127,10 +127,10 @@ public class ZRemRangeByLexCommander extends ZRemRange0Commander {
             if (hotKey && localCacheResult == null) {
                 ZSet zSet = loadLRUCache(keyMeta, key);
                 if (zSet != null) {
+                    localCacheResult = zSet.zremrangeByLex(minLex, maxLex);
                     //
                     zSetLRUCache.putZSetForWrite(key, cacheKey, zSet);
                     //
-                    localCacheResult = zSet.zremrangeByLex(minLex, maxLex);
 
                     if (localCacheResult != null && localCacheResult.isEmpty()) {
                         return IntegerReply.REPLY_0;
@@ -103,10 +103,10 @@ public class ZRemRangeByRankCommander extends ZRemRange0Commander {
             if (hotKey && localCacheResult == null) {
                 ZSet zSet = loadLRUCache(keyMeta, key);
                 if (zSet != null) {
+                    localCacheResult = zSet.zremrangeByRank(start, stop);
                     //
                     zSetLRUCache.putZSetForWrite(key, cacheKey, zSet);
                     //
-                    localCacheResult = zSet.zremrangeByRank(start, stop);
                     if (localCacheResult != null && localCacheResult.isEmpty()) {
                         return IntegerReply.REPLY_0;
                     }
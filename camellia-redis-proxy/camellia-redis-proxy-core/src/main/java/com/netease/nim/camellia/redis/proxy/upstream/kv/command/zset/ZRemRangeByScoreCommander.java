@@ -114,10 +114,10 @@ public class ZRemRangeByScoreCommander extends ZRemRange0Commander {
             if (hotKey && localCacheResult == null) {
                 ZSet zSet = loadLRUCache(keyMeta, key);
                 if (zSet != null) {
+                    localCacheResult = zSet.zremrangeByScore(minScore, maxScore);
                     //
                     zSetLRUCache.putZSetForWrite(key, cacheKey, zSet);
                     //
-                    localCacheResult = zSet.zremrangeByScore(minScore, maxScore);
                     if (localCacheResult != null && localCacheResult.isEmpty()) {
                         return IntegerReply.REPLY_0;
                     }
@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Created by caojiajun on 2024/6/3
@@ -24,9 +25,13 @@ public abstract class ZSet0Commander extends Commander {
         super(commanderConfig);
     }
 
-    protected final ZSet loadLRUCache(KeyMeta keyMeta, byte[] key) {
+    protected final boolean isLRUCacheLoadable(KeyMeta keyMeta) {
         EncodeVersion encodeVersion = keyMeta.getEncodeVersion();
-        if (encodeVersion == EncodeVersion.version_0 || encodeVersion == EncodeVersion.version_1 || encodeVersion == EncodeVersion.version_2) {
+        return encodeVersion == EncodeVersion.version_0 || encodeVersion == EncodeVersion.version_1 || encodeVersion == EncodeVersion.version_2;
+    }
+
+    protected final ZSet loadLRUCache(KeyMeta keyMeta, byte[] key) {
+        if (isLRUCacheLoadable(keyMeta)) {
             List<ZSetTuple> list = zrangeAllFromKv(keyMeta, key);
             Map<BytesKey, Double> memberMap = new HashMap<>(list.size());
             for (ZSetTuple tuple : list) {
@@ -37,6 +42,56 @@ public abstract class ZSet0Commander extends Commander {
         return null;
     }
 
+    /**
+     * 本地缓存miss时回源并填充本地缓存，同一个key的并发回源会合并为一次kv scan
+     * <p>
+     * the returned zset is shared by all waiters, only read it
+     */
+    protected final CompletableFuture<ZSet> loadLRUCacheAsync(KeyMeta keyMeta, byte[] key, byte[] cacheKey) {
+        if (isLRUCacheLoadable(keyMeta)) {
+            return cacheConfig.getZSetLRUCache().loadForRead(key, cacheKey, () -> zrangeAllFromKvAsync(keyMeta, key).thenApply(list -> {
+                Map<BytesKey, Double> memberMap = new HashMap<>(list.size());
+                for (ZSetTuple tuple : list) {
+                    memberMap.put(tuple.getMember(), tuple.getScore());
+                }
+                return new ZSet(memberMap);
+            }));
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    protected final CompletableFuture<List<ZSetTuple>> zrangeAllFromKvAsync(KeyMeta keyMeta, byte[] key) {
+        CompletableFuture<List<ZSetTuple>> future = new CompletableFuture<>();
+        byte[] prefix = keyDesign.zsetMemberSubKey1(keyMeta, key, new byte[0]);
+        zrangeAllFromKvAsync(key, prefix, prefix, new ArrayList<>(), future);
+        return future;
+    }
+
+    private void zrangeAllFromKvAsync(byte[] key, byte[] startKey, byte[] prefix, List<ZSetTuple> list, CompletableFuture<List<ZSetTuple>> future) {
+        int limit = kvConfig.scanBatch();
+        int zsetMaxSize = kvConfig.zsetMaxSize();
+        asyncKvClient.scanByPrefixAsync(startKey, prefix, limit, Sort.ASC, false).whenComplete((scan, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+                return;
+            }
+            byte[] nextStartKey = startKey;
+            for (KeyValue keyValue : scan) {
+                byte[] member = keyDesign.decodeZSetMemberBySubKey1(keyValue.getKey(), key);
+                list.add(new ZSetTuple(new BytesKey(member), Utils.bytesToDouble(keyValue.getValue())));
+                nextStartKey = keyValue.getKey();
+                if (list.size() >= zsetMaxSize) {
+                    break;
+                }
+            }
+            if (scan.size() < limit || list.size() >= zsetMaxSize) {
+                future.complete(list);
+                return;
+            }
+            zrangeAllFromKvAsync(key, nextStartKey, prefix, list, future);
+        });
+    }
+
     protected final List<ZSetTuple> zrangeAllFromKv(KeyMeta keyMeta, byte[] key) {
         List<ZSetTuple> list = new ArrayList<>();
         byte[] startKey = keyDesign.zsetMemberSubKey1(keyMeta, key, new byte[0]);
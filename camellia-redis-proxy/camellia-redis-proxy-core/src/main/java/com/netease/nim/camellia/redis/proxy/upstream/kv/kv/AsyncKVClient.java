@@ -0,0 +1,94 @@
+package com.netease.nim.camellia.redis.proxy.upstream.kv.kv;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * async variant of {@link KVClient}
+ * <p>
+ * a KVClient which also implements AsyncKVClient will be used directly, otherwise {@link AsyncKVClientAdapter} will be used
+ * Created by caojiajun on 2024/7/12
+ */
+public interface AsyncKVClient {
+
+    /**
+     * put with ttl
+     * @param key key
+     * @param value value
+     * @param ttl ttl
+     * @return future
+     */
+    CompletableFuture<Void> putAsync(byte[] key, byte[] value, long ttl);
+
+    /**
+     * put without ttl
+     * @param key key
+     * @param value value
+     * @return future
+     */
+    CompletableFuture<Void> putAsync(byte[] key, byte[] value);
+
+    /**
+     * batch put without ttl
+     * @param list k-v list
+     * @return future
+     */
+    CompletableFuture<Void> batchPutAsync(List<KeyValue> list);
+
+    /**
+     * get
+     * @param key key
+     * @return k-v, or null
+     */
+    CompletableFuture<KeyValue> getAsync(byte[] key);
+
+    /**
+     * batch exists keys
+     * @param keys keys
+     * @return true/false array
+     */
+    CompletableFuture<boolean[]> existsAsync(byte[]... keys);
+
+    /**
+     * batch get keys
+     * @param keys keys
+     * @return k-v list
+     */
+    CompletableFuture<List<KeyValue>> batchGetAsync(byte[]... keys);
+
+    /**
+     * delete
+     * @param key key
+     * @return future
+     */
+    CompletableFuture<Void> deleteAsync(byte[] key);
+
+    /**
+     * batch delete
+     * @param keys keys
+     * @return future
+     */
+    CompletableFuture<Void> batchDeleteAsync(byte[]... keys);
+
+    /**
+     * scan k-v list with prefix
+     * @param startKey start key
+     * @param prefix prefix
+     * @param limit limit
+     * @param sort sort
+     * @param includeStartKey include start key
+     * @return k-v list
+     */
+    CompletableFuture<List<KeyValue>> scanByPrefixAsync(byte[] startKey, byte[] prefix, int limit, Sort sort, boolean includeStartKey);
+
+    /**
+     * scan k-v list with start and end
+     * @param startKey start key
+     * @param endKey end key
+     * @param limit limit
+     * @param sort sort
+     * @param includeStartKey include start key
+     * @return k-v list
+     */
+    CompletableFuture<List<KeyValue>> scanByStartEndAsync(byte[] startKey, byte[] endKey, int limit, Sort sort, boolean includeStartKey);
+}
@@ -0,0 +1,112 @@
+package com.netease.nim.camellia.redis.proxy.upstream.kv.kv;
+
+import com.netease.nim.camellia.redis.proxy.util.KeyedExecutor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 把阻塞的KVClient适配成AsyncKVClient，阻塞调用会在独立的线程池中执行，相同key的请求会在同一个线程中按顺序执行
+ * <p>
+ * adapt a blocking KVClient to AsyncKVClient
+ * Created by caojiajun on 2024/7/12
+ */
+public class AsyncKVClientAdapter implements AsyncKVClient {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final KVClient kvClient;
+    private final KeyedExecutor executor;
+
+    public AsyncKVClientAdapter(KVClient kvClient, KeyedExecutor executor) {
+        this.kvClient = kvClient;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(byte[] key, byte[] value, long ttl) {
+        return submit(key, () -> {
+            kvClient.put(key, value, ttl);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(byte[] key, byte[] value) {
+        return submit(key, () -> {
+            kvClient.put(key, value);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> batchPutAsync(List<KeyValue> list) {
+        byte[] hashKey = list.isEmpty() ? EMPTY : list.get(0).getKey();
+        return submit(hashKey, () -> {
+            kvClient.batchPut(list);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<KeyValue> getAsync(byte[] key) {
+        return submit(key, () -> kvClient.get(key));
+    }
+
+    @Override
+    public CompletableFuture<boolean[]> existsAsync(byte[]... keys) {
+        return submit(hashKey(keys), () -> kvClient.exists(keys));
+    }
+
+    @Override
+    public CompletableFuture<List<KeyValue>> batchGetAsync(byte[]... keys) {
+        return submit(hashKey(keys), () -> kvClient.batchGet(keys));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(byte[] key) {
+        return submit(key, () -> {
+            kvClient.delete(key);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> batchDeleteAsync(byte[]... keys) {
+        return submit(hashKey(keys), () -> {
+            kvClient.batchDelete(keys);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<KeyValue>> scanByPrefixAsync(byte[] startKey, byte[] prefix, int limit, Sort sort, boolean includeStartKey) {
+        return submit(prefix, () -> kvClient.scanByPrefix(startKey, prefix, limit, sort, includeStartKey));
+    }
+
+    @Override
+    public CompletableFuture<List<KeyValue>> scanByStartEndAsync(byte[] startKey, byte[] endKey, int limit, Sort sort, boolean includeStartKey) {
+        return submit(startKey, () -> kvClient.scanByStartEnd(startKey, endKey, limit, sort, includeStartKey));
+    }
+
+    private byte[] hashKey(byte[][] keys) {
+        return keys.length == 0 ? EMPTY : keys[0];
+    }
+
+    private <T> CompletableFuture<T> submit(byte[] hashKey, Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.submit(hashKey, () -> {
+                try {
+                    future.complete(supplier.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -7,6 +7,9 @@ import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionA
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionHub;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionStatus;
 import com.netease.nim.camellia.redis.proxy.upstream.standalone.AbstractSimpleRedisClient;
+import com.netease.nim.camellia.redis.proxy.upstream.utils.ReadHedger;
+import com.netease.nim.camellia.redis.proxy.upstream.utils.ReadNodeSelector;
+import com.netease.nim.camellia.redis.proxy.upstream.utils.ReadNodeSelectors;
 import com.netease.nim.camellia.redis.proxy.upstream.utils.Renew;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -119,6 +122,13 @@ public abstract class AbstractRedisProxiesClient extends AbstractSimpleRedisClie
             if (originalList.size() == 1) {
                 return originalList.get(0);
             }
+            ReadNodeSelector selector = ReadNodeSelectors.get();
+            if (selector != null) {
+                RedisConnectionAddr addr = selector.select(originalList, node -> node, node -> getStatus(node) == RedisConnectionStatus.VALID);
+                if (addr != null) {
+                    return addr;
+                }
+            }
             int retry = originalList.size();
             while (retry-- > 0) {
                 if (dynamicList.isEmpty()) {
@@ -149,6 +159,11 @@ public abstract class AbstractRedisProxiesClient extends AbstractSimpleRedisClie
         }
     }
 
+    @Override
+    protected RedisConnectionAddr getHedgeAddr(RedisConnectionAddr primary) {
+        return ReadHedger.selectOther(originalList, node -> node, primary, node -> getStatus(node) == RedisConnectionStatus.VALID);
+    }
+
     @Override
     public void renew() {
         if (renew != null) {
@@ -9,6 +9,9 @@ import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionStatus;
 import com.netease.nim.camellia.redis.proxy.upstream.standalone.AbstractSimpleRedisClient;
 import com.netease.nim.camellia.redis.proxy.upstream.utils.HostAndPort;
+import com.netease.nim.camellia.redis.proxy.upstream.utils.ReadNodeSelector;
+import com.netease.nim.camellia.redis.proxy.upstream.utils.ReadNodeSelectors;
+import com.netease.nim.camellia.redis.proxy.upstream.utils.ReadHedger;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionAddr;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionHub;
 import com.netease.nim.camellia.redis.proxy.monitor.PasswordMaskUtils;
@@ -263,6 +266,16 @@ public class RedisSentinelSlavesClient extends AbstractSimpleRedisClient {
             if (masterAddr != null) {
                 if (slaves.isEmpty()) return masterAddr;
                 try {
+                    ReadNodeSelector selector = ReadNodeSelectors.get();
+                    if (selector != null) {
+                        List<RedisConnectionAddr> nodes = new ArrayList<>(slaves.size() + 1);
+                        nodes.add(masterAddr);
+                        nodes.addAll(slaves);
+                        RedisConnectionAddr addr = selector.select(nodes, node -> node, node -> getStatus(node) == RedisConnectionStatus.VALID);
+                        if (addr != null) {
+                            return addr;
+                        }
+                    }
                     int maxLoop = slaves.size() + 1;
                     int index = ThreadLocalRandom.current().nextInt(maxLoop);
                     for (int i=0; i<maxLoop; i++) {
@@ -300,6 +313,13 @@ public class RedisSentinelSlavesClient extends AbstractSimpleRedisClient {
                 if (slaves.isEmpty()) return null;
                 if (slaves.size() == 1) return slaves.get(0);
                 try {
+                    ReadNodeSelector selector = ReadNodeSelectors.get();
+                    if (selector != null) {
+                        RedisConnectionAddr addr = selector.select(slaves, node -> node, node -> getStatus(node) == RedisConnectionStatus.VALID);
+                        if (addr != null) {
+                            return addr;
+                        }
+                    }
                     int maxLoop = slaves.size();
                     int index = ThreadLocalRandom.current().nextInt(maxLoop);
                     for (int i=0; i<maxLoop; i++) {
@@ -330,6 +350,19 @@ public class RedisSentinelSlavesClient extends AbstractSimpleRedisClient {
         return null;
     }
 
+    @Override
+    protected RedisConnectionAddr getHedgeAddr(RedisConnectionAddr primary) {
+        List<RedisConnectionAddr> nodes;
+        if (masterAddr != null) {
+            nodes = new ArrayList<>(slaves.size() + 1);
+            nodes.add(masterAddr);
+            nodes.addAll(slaves);
+        } else {
+            nodes = slaves;
+        }
+        return ReadHedger.selectOther(nodes, node -> node, primary, node -> getStatus(node) == RedisConnectionStatus.VALID);
+    }
+
     @Override
     public Resource getResource() {
         return resource;
@@ -15,6 +15,7 @@ import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnection;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionAddr;
 import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionHub;
 import com.netease.nim.camellia.redis.proxy.upstream.utils.PubSubUtils;
+import com.netease.nim.camellia.redis.proxy.upstream.utils.ReadHedger;
 import com.netease.nim.camellia.redis.proxy.util.ErrorLogCollector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,15 +36,30 @@ public abstract class AbstractSimpleRedisClient implements IUpstreamClient {
     private final ConcurrentLinkedHashMap<String, RedisConnectionAddr> cache = new ConcurrentLinkedHashMap.Builder<String, RedisConnectionAddr>()
             .initialCapacity(128).maximumWeightedCapacity(10240).build();
 
+    private ReadHedger hedger;
+
     public abstract RedisConnectionAddr getAddr();
     public abstract Resource getResource();
 
+    /**
+     * 对冲读使用的另一个读节点，默认不支持对冲读
+     * @param primary 首个请求使用的节点
+     * @return addr, null if not support
+     */
+    protected RedisConnectionAddr getHedgeAddr(RedisConnectionAddr primary) {
+        return null;
+    }
+
     private RedisConnectionAddr getAddr(int db) {
         RedisConnectionAddr addr = getAddr();
         if (addr == null) {
             renew();
             return null;
         }
+        return toDbAddr(addr, db);
+    }
+
+    private RedisConnectionAddr toDbAddr(RedisConnectionAddr addr, int db) {
         if (db < 0 || db == addr.getDb()) {
             return addr;
         }
@@ -322,6 +338,18 @@ public abstract class AbstractSimpleRedisClient implements IUpstreamClient {
         }
         RedisConnection connection = RedisConnectionHub.getInstance().get(this, addr);
         if (connection != null) {
+            ReadHedger hedger = getHedger();
+            if (hedger.isHedgeable(commands) && getHedgeAddr(addr) != null) {
+                List<CompletableFuture<Reply>> primaryFutures = hedger.hedge(commands, completableFutureList, completableFutureList, () -> {
+                    RedisConnectionAddr hedgeAddr = getHedgeAddr(addr);
+                    if (hedgeAddr == null) {
+                        return null;
+                    }
+                    return RedisConnectionHub.getInstance().get(this, toDbAddr(hedgeAddr, db));
+                });
+                connection.sendCommand(commands, primaryFutures);
+                return;
+            }
             connection.sendCommand(commands, completableFutureList);
         } else {
             renew();
@@ -333,6 +361,13 @@ public abstract class AbstractSimpleRedisClient implements IUpstreamClient {
         }
     }
 
+    private ReadHedger getHedger() {
+        if (hedger == null) {
+            hedger = new ReadHedger(getResource().getUrl());
+        }
+        return hedger;
+    }
+
     @Override
     public void renew() {
         //do nothing
@@ -0,0 +1,63 @@
+package com.netease.nim.camellia.redis.proxy.upstream.utils;
+
+import com.netease.nim.camellia.redis.proxy.monitor.UpstreamRedisSpendTimeMonitor;
+import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionAddr;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * power of two choices：随机选择两个节点，选择 EWMA * (在途请求数 + 1) 更低的那个
+ * <p>
+ * 没有采样的节点（新节点或者长时间没有请求被清理掉的节点）EWMA视为和另一个节点相同，此时只比较在途请求数，
+ * 快节点的在途请求堆积后慢节点也会分到流量，从而被重新探测，避免慢节点恢复后一直分不到流量
+ * Created by caojiajun on 2024/7/19
+ */
+public class EwmaP2cReadNodeSelector implements ReadNodeSelector {
+
+    @Override
+    public <T> T select(List<T> candidates, Function<T, RedisConnectionAddr> addrFunc, Predicate<T> validFunc) {
+        int size = candidates.size();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(size);
+        int j = random.nextInt(size - 1);
+        if (j >= i) {
+            j ++;
+        }
+        T node1 = candidates.get(i);
+        T node2 = candidates.get(j);
+        boolean valid1 = validFunc.test(node1);
+        boolean valid2 = validFunc.test(node2);
+        T selected;
+        if (valid1 && valid2) {
+            RedisConnectionAddr addr1 = addrFunc.apply(node1);
+            RedisConnectionAddr addr2 = addrFunc.apply(node2);
+            double ewma1 = UpstreamRedisSpendTimeMonitor.ewmaSpendNanos(addr1);
+            double ewma2 = UpstreamRedisSpendTimeMonitor.ewmaSpendNanos(addr2);
+            if (ewma1 < 0) ewma1 = Math.max(ewma2, 0);
+            if (ewma2 < 0) ewma2 = Math.max(ewma1, 0);
+            double score1 = (ewma1 + 1) * (UpstreamRedisSpendTimeMonitor.inflight(addr1) + 1);
+            double score2 = (ewma2 + 1) * (UpstreamRedisSpendTimeMonitor.inflight(addr2) + 1);
+            selected = score1 <= score2 ? node1 : node2;
+        } else if (valid1) {
+            selected = node1;
+        } else if (valid2) {
+            selected = node2;
+        } else {
+            selected = null;
+            for (int k=0; k<size; k++) {
+                T node = candidates.get((i + k) % size);
+                if (validFunc.test(node)) {
+                    selected = node;
+                    break;
+                }
+            }
+        }
+        if (selected != null) {
+            UpstreamRedisSpendTimeMonitor.readNodeSelect(addrFunc.apply(selected));
+        }
+        return selected;
+    }
+}
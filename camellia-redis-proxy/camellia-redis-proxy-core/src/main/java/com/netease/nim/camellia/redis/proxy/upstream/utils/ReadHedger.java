@@ -0,0 +1,318 @@
+package com.netease.nim.camellia.redis.proxy.upstream.utils;
+
+import com.netease.nim.camellia.redis.proxy.command.Command;
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import com.netease.nim.camellia.redis.proxy.enums.RedisCommand;
+import com.netease.nim.camellia.redis.proxy.monitor.UpstreamHedgeMonitor;
+import com.netease.nim.camellia.redis.proxy.netty.ChannelInfo;
+import com.netease.nim.camellia.redis.proxy.reply.ErrorReply;
+import com.netease.nim.camellia.redis.proxy.reply.Reply;
+import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnection;
+import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionAddr;
+import com.netease.nim.camellia.redis.proxy.util.ErrorLogCollector;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 对冲读（hedged request），用于多读节点的资源（redis-sentinel-slaves、redis-cluster-slaves、redis-proxies等）
+ * <p>
+ * 只读命令发出后，如果超过最近一段时间响应时间的指定分位值（upstream.read.hedge.percentile，默认95）仍未返回，
+ * 则把相同命令发送给另外一个读节点，使用先返回的结果，用于降低单节点抖动导致的长尾延迟
+ * <p>
+ * 对冲请求的数量不超过请求数的upstream.read.hedge.max.ratio（默认0.05），对冲请求返回的错误会被忽略，以首个请求的结果为准
+ * Created by caojiajun on 2024/7/24
+ */
+public class ReadHedger {
+
+    private static final HashedWheelTimer timer = new HashedWheelTimer(new DefaultThreadFactory("camellia-read-hedge-timer"), 1, TimeUnit.MILLISECONDS, 1024);
+
+    private static final int BUCKETS = 128;
+    private static final long MIN_SAMPLES = 100;
+
+    private static volatile boolean enable;
+    private static volatile double percentile;
+    private static volatile double maxRatio;
+    private static volatile long minDelayNanos;
+    private static volatile long windowNanos;
+
+    static {
+        reload();
+        ProxyDynamicConf.registerCallback(ReadHedger::reload);
+    }
+
+    private static void reload() {
+        enable = ProxyDynamicConf.getBoolean("upstream.read.hedge.enable", false);
+        percentile = Math.min(99.99, Math.max(1, ProxyDynamicConf.getDouble("upstream.read.hedge.percentile", 95)));
+        maxRatio = ProxyDynamicConf.getDouble("upstream.read.hedge.max.ratio", 0.05);
+        minDelayNanos = ProxyDynamicConf.getLong("upstream.read.hedge.min.delay.millis", 1) * 1000000L;
+        windowNanos = Math.max(1, ProxyDynamicConf.getLong("upstream.read.hedge.window.seconds", 10)) * 1000000000L;
+    }
+
+    private final String resource;
+    //按延迟分桶的计数（微秒，每个2的幂次区间分4个桶），每个统计窗口结束时计算分位值
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private volatile long delayNanos = -1;
+
+    public ReadHedger(String resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * 是否可以对冲：开启了对冲，且所有命令都是单key的只读命令
+     * @param commands commands
+     * @return true/false
+     */
+    public boolean isHedgeable(List<Command> commands) {
+        if (!enable) return false;
+        for (Command command : commands) {
+            if (!isHedgeable(command)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否可以对冲：开启了对冲，且是单key的只读命令（不包括scan类命令，因为cursor在不同节点上不通用）
+     * @param command command
+     * @return true/false
+     */
+    public boolean isHedgeable(Command command) {
+        if (!enable) return false;
+        RedisCommand redisCommand = command.getRedisCommand();
+        if (redisCommand == null || redisCommand.getType() != RedisCommand.Type.READ) return false;
+        if (redisCommand.getCommandKeyType() != RedisCommand.CommandKeyType.SIMPLE_SINGLE) return false;
+        if (command.isBlocking()) return false;
+        ChannelInfo channelInfo = command.getChannelInfo();
+        if (channelInfo != null && channelInfo.getBindConnection() != null) return false;
+        return !redisCommand.strRaw().endsWith("scan");
+    }
+
+    /**
+     * 对冲发送，调用方使用返回的future发送首个请求
+     * @param commands commands
+     * @param futures future to complete by the first request
+     * @param userFutures future of client, complete by the hedged request, may be same as futures
+     * @param hedgeConnection supply the connection of another read node, may return null
+     * @return futures for the first request
+     */
+    public List<CompletableFuture<Reply>> hedge(List<Command> commands, List<CompletableFuture<Reply>> futures,
+                                                List<CompletableFuture<Reply>> userFutures, Supplier<RedisConnection> hedgeConnection) {
+        long startTime = System.nanoTime();
+        requests.addAndGet(commands.size());
+        long delayNanos = Math.max(this.delayNanos, minDelayNanos);
+        HedgeTimeout hedgeTimeout = this.delayNanos > 0 ? new HedgeTimeout(futures.size()) : null;
+        List<CompletableFuture<Reply>> primaryFutures = new ArrayList<>(futures.size());
+        for (CompletableFuture<Reply> future : futures) {
+            primaryFutures.add(new PrimaryFuture(this, future, startTime, hedgeTimeout));
+        }
+        if (hedgeTimeout != null) {
+            for (Command command : commands) {
+                //命令可能在回包之后再次发送，不能使用零拷贝的参数
+                command.disableZeroCopy();
+            }
+            hedgeTimeout.timeout = timer.newTimeout(timeout -> sendHedge(commands, userFutures, hedgeConnection), delayNanos, TimeUnit.NANOSECONDS);
+            if (hedgeTimeout.pending.get() <= 0) {
+                hedgeTimeout.cancel();
+            }
+        }
+        return primaryFutures;
+    }
+
+    /**
+     * 随机选择一个和首个请求不同的可用节点，用于发送对冲请求
+     * @param nodes nodes
+     * @param addrFunc node to addr
+     * @param primary addr of the first request
+     * @param valid valid check
+     * @return node, null if not found
+     */
+    public static <T> T selectOther(List<T> nodes, Function<T, RedisConnectionAddr> addrFunc, RedisConnectionAddr primary, Predicate<T> valid) {
+        int size = nodes.size();
+        if (size <= 1) {
+            return null;
+        }
+        int start = ThreadLocalRandom.current().nextInt(size);
+        for (int i=0; i<size; i++) {
+            try {
+                T node = nodes.get((start + i) % size);
+                RedisConnectionAddr addr = addrFunc.apply(node);
+                if (addr == null) continue;
+                if (primary != null && addr.getHost().equals(primary.getHost()) && addr.getPort() == primary.getPort()) continue;
+                if (valid.test(node)) {
+                    return node;
+                }
+            } catch (Exception e) {
+                //nodes list maybe update
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private void sendHedge(List<Command> commands, List<CompletableFuture<Reply>> userFutures, Supplier<RedisConnection> hedgeConnection) {
+        try {
+            List<Command> pendingCommands = new ArrayList<>(commands.size());
+            List<CompletableFuture<Reply>> hedgeFutures = new ArrayList<>(commands.size());
+            for (int i=0; i<commands.size(); i++) {
+                CompletableFuture<Reply> userFuture = userFutures.get(i);
+                if (!userFuture.isDone()) {
+                    pendingCommands.add(commands.get(i));
+                    hedgeFutures.add(new HedgeFuture(resource, userFuture));
+                }
+            }
+            if (pendingCommands.isEmpty()) {
+                return;
+            }
+            if (hedges.get() + pendingCommands.size() > requests.get() * maxRatio) {
+                UpstreamHedgeMonitor.skip(resource);
+                return;
+            }
+            RedisConnection connection = hedgeConnection.get();
+            if (connection == null || !connection.isValid()) {
+                return;
+            }
+            hedges.addAndGet(pendingCommands.size());
+            UpstreamHedgeMonitor.hedge(resource, pendingCommands.size());
+            connection.sendCommand(pendingCommands, hedgeFutures);
+        } catch (Exception e) {
+            ErrorLogCollector.collect(ReadHedger.class, "send hedge error", e);
+        }
+    }
+
+    private void record(long spendNanos) {
+        long us = spendNanos / 1000;
+        int index;
+        if (us < 4) {
+            index = (int) Math.max(us, 0);
+        } else {
+            int b = 63 - Long.numberOfLeadingZeros(us);
+            index = Math.min(BUCKETS - 1, (b - 1) * 4 + (int) ((us >>> (b - 2)) & 3));
+        }
+        buckets.incrementAndGet(index);
+        long start = windowStart.get();
+        long now = System.nanoTime();
+        if (now - start > windowNanos && windowStart.compareAndSet(start, now)) {
+            rotate();
+        }
+    }
+
+    private void rotate() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i=0; i<BUCKETS; i++) {
+            counts[i] = buckets.getAndSet(i, 0);
+            total += counts[i];
+        }
+        requests.set(0);
+        hedges.set(0);
+        if (total < MIN_SAMPLES) {
+            delayNanos = -1;
+            UpstreamHedgeMonitor.delay(resource, -1);
+            return;
+        }
+        long target = (long) Math.ceil(total * percentile / 100.0);
+        long sum = 0;
+        for (int i=0; i<BUCKETS; i++) {
+            sum += counts[i];
+            if (sum >= target) {
+                delayNanos = upperBoundMicros(i) * 1000L;
+                UpstreamHedgeMonitor.delay(resource, delayNanos);
+                return;
+            }
+        }
+    }
+
+    private static long upperBoundMicros(int index) {
+        if (index < 4) {
+            return index + 1;
+        }
+        int b = index / 4 + 1;
+        int sub = index % 4;
+        return (long) (4 + sub + 1) << (b - 2);
+    }
+
+    //所有首个请求都返回后取消对冲的定时任务，避免timer中堆积无用的任务
+    private static class HedgeTimeout {
+        private final AtomicInteger pending;
+        private volatile Timeout timeout;
+
+        HedgeTimeout(int pending) {
+            this.pending = new AtomicInteger(pending);
+        }
+
+        void done() {
+            if (pending.decrementAndGet() == 0) {
+                cancel();
+            }
+        }
+
+        void cancel() {
+            Timeout timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+    }
+
+    private static class PrimaryFuture extends CompletableFuture<Reply> {
+        private final ReadHedger hedger;
+        private final CompletableFuture<Reply> future;
+        private final long startTime;
+        private final HedgeTimeout hedgeTimeout;
+
+        PrimaryFuture(ReadHedger hedger, CompletableFuture<Reply> future, long startTime, HedgeTimeout hedgeTimeout) {
+            this.hedger = hedger;
+            this.future = future;
+            this.startTime = startTime;
+            this.hedgeTimeout = hedgeTimeout;
+        }
+
+        @Override
+        public boolean complete(Reply reply) {
+            hedger.record(System.nanoTime() - startTime);
+            if (hedgeTimeout != null) {
+                hedgeTimeout.done();
+            }
+            return future.complete(reply);
+        }
+    }
+
+    private static class HedgeFuture extends CompletableFuture<Reply> {
+        private final String resource;
+        private final CompletableFuture<Reply> future;
+
+        HedgeFuture(String resource, CompletableFuture<Reply> future) {
+            this.resource = resource;
+            this.future = future;
+        }
+
+        @Override
+        public boolean complete(Reply reply) {
+            if (reply instanceof ErrorReply) {
+                return false;
+            }
+            boolean win = future.complete(reply);
+            if (win) {
+                UpstreamHedgeMonitor.win(resource);
+            }
+            return win;
+        }
+    }
+}
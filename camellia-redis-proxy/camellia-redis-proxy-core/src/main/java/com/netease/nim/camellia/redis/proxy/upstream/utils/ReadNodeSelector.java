@@ -0,0 +1,23 @@
+package com.netease.nim.camellia.redis.proxy.upstream.utils;
+
+import com.netease.nim.camellia.redis.proxy.upstream.connection.RedisConnectionAddr;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 读写分离场景下选择读节点（redis-cluster-slaves、redis-sentinel-slaves、redis-proxies）
+ * Created by caojiajun on 2024/7/19
+ */
+public interface ReadNodeSelector {
+
+    /**
+     * select a read node
+     * @param candidates candidates, size >= 2
+     * @param addrFunc node to addr
+     * @param validFunc node is valid or not
+     * @return node, null if no valid node, the caller will fallback to random
+     */
+    <T> T select(List<T> candidates, Function<T, RedisConnectionAddr> addrFunc, Predicate<T> validFunc);
+}
@@ -0,0 +1,67 @@
+package com.netease.nim.camellia.redis.proxy.upstream.utils;
+
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * upstream.read.node.selector，默认random（随机选择有效节点），可选ewma-p2c，或者自定义ReadNodeSelector的实现类全类名
+ * Created by caojiajun on 2024/7/19
+ */
+public class ReadNodeSelectors {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadNodeSelectors.class);
+
+    private static String config;
+    private static volatile ReadNodeSelector selector;
+    private static volatile long ewmaDecayNanos = 10000L * 1000000L;
+
+    static {
+        reload();
+        ProxyDynamicConf.registerCallback(ReadNodeSelectors::reload);
+    }
+
+    private static void reload() {
+        ewmaDecayNanos = Math.max(1L, ProxyDynamicConf.getLong("upstream.read.node.ewma.decay.millis", 10000L)) * 1000000L;
+        String config = ProxyDynamicConf.getString("upstream.read.node.selector", "random");
+        if (config.equals(ReadNodeSelectors.config)) {
+            return;
+        }
+        try {
+            ReadNodeSelector selector;
+            if (config.equalsIgnoreCase("random")) {
+                selector = null;
+            } else if (config.equalsIgnoreCase("ewma-p2c")) {
+                selector = new EwmaP2cReadNodeSelector();
+            } else {
+                selector = (ReadNodeSelector) Class.forName(config).getConstructor().newInstance();
+            }
+            ReadNodeSelectors.selector = selector;
+            ReadNodeSelectors.config = config;
+            logger.info("upstream.read.node.selector update to {}", config);
+        } catch (Exception e) {
+            logger.error("upstream.read.node.selector init error, config = {}", config, e);
+        }
+    }
+
+    /**
+     * @return selector, null means random
+     */
+    public static ReadNodeSelector get() {
+        return selector;
+    }
+
+    /**
+     * EWMA的衰减周期
+     */
+    public static long ewmaDecayNanos() {
+        return ewmaDecayNanos;
+    }
+
+    /**
+     * 是否需要采集后端的响应时间
+     */
+    public static boolean isLatencyAware() {
+        return selector != null;
+    }
+}
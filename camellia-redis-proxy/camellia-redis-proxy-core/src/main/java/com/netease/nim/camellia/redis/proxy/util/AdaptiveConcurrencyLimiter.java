@@ -0,0 +1,140 @@
+package com.netease.nim.camellia.redis.proxy.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于响应时间自适应调整的并发数限制（AIMD）
+ * <p>
+ * 每个统计窗口计算平均响应时间，并和基准响应时间（近似于无负载时的响应时间，取窗口平均值的最小值并缓慢上浮）比较：
+ * 超过基准的tolerance倍时认为后端已经饱和，并发上限乘以backoffRatio（乘性减），
+ * 否则如果窗口内的最大并发数达到了上限的一半，则并发上限加1（加性增）
+ * <p>
+ * 超过并发上限的请求直接拒绝，避免请求在后端堆积
+ * Created by caojiajun on 2024/7/25
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BASE_RTT_DRIFT = 0.01;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final LongAdder rttSum = new LongAdder();
+    private final LongAdder rttCount = new LongAdder();
+    private final LongAdder reject = new LongAdder();
+    private volatile int maxInflight;
+    private volatile int limit;
+    private volatile double rttNanos = -1;
+    private volatile double baseRttNanos = -1;
+
+    private volatile int minLimit;
+    private volatile int maxLimit;
+    private volatile long windowNanos;
+    private volatile int minSamples;
+    private volatile double tolerance;
+    private volatile double backoffRatio;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long windowMillis,
+                                      int minSamples, double tolerance, double backoffRatio) {
+        update(minLimit, maxLimit, windowMillis, minSamples, tolerance, backoffRatio);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+    }
+
+    /**
+     * 更新参数，当前的并发上限会被调整到[minLimit, maxLimit]之间
+     */
+    public void update(int minLimit, int maxLimit, long windowMillis, int minSamples, double tolerance, double backoffRatio) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.windowNanos = Math.max(1, windowMillis) * 1000000L;
+        this.minSamples = Math.max(1, minSamples);
+        this.tolerance = Math.max(1.0, tolerance);
+        this.backoffRatio = Math.max(0.1, Math.min(1.0, backoffRatio));
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, limit));
+    }
+
+    /**
+     * 尝试获取一个并发许可，成功后必须调用release
+     * @return success or not
+     */
+    public boolean tryAcquire() {
+        int current = inflight.incrementAndGet();
+        if (current > limit) {
+            inflight.decrementAndGet();
+            reject.increment();
+            return false;
+        }
+        if (current > maxInflight) {
+            maxInflight = current;
+        }
+        return true;
+    }
+
+    /**
+     * 释放许可
+     * @param rttNanos 响应时间，小于0表示不计入统计（如请求被其他plugin拦截）
+     */
+    public void release(long rttNanos) {
+        inflight.decrementAndGet();
+        if (rttNanos >= 0) {
+            rttSum.add(rttNanos);
+            rttCount.increment();
+        }
+        long start = windowStart.get();
+        long now = System.nanoTime();
+        if (now - start > windowNanos && windowStart.compareAndSet(start, now)) {
+            adjust();
+        }
+    }
+
+    private void adjust() {
+        long count = rttCount.sumThenReset();
+        long sum = rttSum.sumThenReset();
+        int windowMaxInflight = maxInflight;
+        maxInflight = inflight.get();
+        if (count < minSamples) {
+            return;
+        }
+        double rtt = (double) sum / count;
+        this.rttNanos = rtt;
+        double base = baseRttNanos;
+        if (base <= 0 || rtt < base) {
+            baseRttNanos = rtt;
+            base = rtt;
+        }
+        if (rtt > base * tolerance) {
+            //过载时基准不上浮，否则并发上限会随着基准缓慢回升
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+            return;
+        }
+        baseRttNanos = base * (1 - BASE_RTT_DRIFT) + rtt * BASE_RTT_DRIFT;
+        if (windowMaxInflight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public double getRttMs() {
+        return rttNanos < 0 ? -1 : rttNanos / 1000000.0;
+    }
+
+    public double getBaseRttMs() {
+        return baseRttNanos < 0 ? -1 : baseRttNanos / 1000000.0;
+    }
+
+    /**
+     * 被拒绝的请求数，并重置
+     * @return reject count
+     */
+    public long getRejectThenReset() {
+        return reject.sumThenReset();
+    }
+}
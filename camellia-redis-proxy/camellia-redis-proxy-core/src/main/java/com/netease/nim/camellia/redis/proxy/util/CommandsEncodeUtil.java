@@ -3,6 +3,7 @@ package com.netease.nim.camellia.redis.proxy.util;
 import com.netease.nim.camellia.redis.proxy.command.Command;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
 
 import java.util.List;
 
@@ -59,6 +60,11 @@ public class CommandsEncodeUtil {
     }
 
     public static ByteBuf encode(ByteBufAllocator alloc, List<Command> commands) {
+        for (Command command : commands) {
+            if (command.hasZeroCopyObjects()) {
+                return encodeZeroCopy(alloc, commands);
+            }
+        }
         int serializedSize = 0;
         for (Command command : commands) {
             serializedSize += serializedSize(command.getObjects());
@@ -74,6 +80,34 @@ public class CommandsEncodeUtil {
         return buf;
     }
 
+    /**
+     * 零拷贝参数直接作为CompositeByteBuf的组件写出，其他部分仍然拷贝到ioBuffer中
+     * <p> the zero-copy args are added as components of a CompositeByteBuf, the reference retained before send is consumed here
+     */
+    private static ByteBuf encodeZeroCopy(ByteBufAllocator alloc, List<Command> commands) {
+        CompositeByteBuf composite = alloc.compositeDirectBuffer(Integer.MAX_VALUE);
+        ByteBuf buf = alloc.ioBuffer();
+        for (Command command : commands) {
+            ByteBuf[] zeroCopyObjects = command.pollZeroCopySend() ? command.getZeroCopyObjects() : null;
+            int length = command.getObjectsLength();
+            writeParamCount(buf, length);
+            for (int i = 0; i < length; i++) {
+                ByteBuf zeroCopyObject = zeroCopyObjects == null ? null : zeroCopyObjects[i];
+                if (zeroCopyObject == null) {
+                    writeParam(buf, command.getObject(i));
+                    continue;
+                }
+                buf.writeByte('$').writeBytes(toBytes(zeroCopyObject.readableBytes())).writeBytes(CRLF);
+                composite.addComponent(true, buf);
+                composite.addComponent(true, zeroCopyObject.duplicate());
+                buf = alloc.ioBuffer();
+                buf.writeBytes(CRLF);
+            }
+        }
+        composite.addComponent(true, buf);
+        return composite;
+    }
+
     private static void writeParamCount(ByteBuf buf, int paramCount) {
         buf.writeByte('*').writeBytes(toBytes(paramCount)).writeBytes(CRLF);
     }
@@ -0,0 +1,182 @@
+package com.netease.nim.camellia.redis.proxy.util;
+
+import com.netease.nim.camellia.tools.utils.BytesKey;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * W-TinyLFU的准入过滤器，Count-Min Sketch（4bit计数器，每个key对应4个计数器）+ doorkeeper布隆过滤器
+ * <p>
+ * 只访问过一次的key只会记录在doorkeeper中，不占用sketch，记录次数达到sampleSize（10倍容量）后所有计数器减半并清空doorkeeper，以便感知访问频率的变化
+ * <p>
+ * 新key只有在估算频率高于即将被淘汰的key时才会被准入，from <a href="https://arxiv.org/abs/1512.00727">TinyLFU</a>
+ * <p>
+ * the counters are updated with cas, concurrent reset may lose a few increments, which is acceptable for an estimate
+ * Created by caojiajun on 2024/7/18
+ */
+public class FrequencySketch {
+
+    private static final long[] SEED = new long[] {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final AtomicLongArray doorkeeper;
+    private final int doorkeeperMask;
+    private final int sampleSize;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean resetting = new AtomicBoolean();
+
+    /**
+     * @param capacity expected max entries of the cache
+     */
+    public FrequencySketch(int capacity) {
+        int length = tableSizeFor(Math.max(capacity, 64));
+        this.table = new AtomicLongArray(length);
+        this.tableMask = length - 1;
+        //8 bits per entry
+        this.doorkeeper = new AtomicLongArray(length / 8);
+        this.doorkeeperMask = length * 8 - 1;
+        this.sampleSize = (int) Math.min(10L * length, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 记录一次访问
+     */
+    public void increment(BytesKey key) {
+        int hash = spread(key.hashCode());
+        if (setDoorkeeper(hash)) {
+            //first seen in this period
+            onAdd();
+            return;
+        }
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i=0; i<4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added) {
+            onAdd();
+        }
+    }
+
+    /**
+     * 估算的访问频率，最大16
+     */
+    public int frequency(BytesKey key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i=0; i<4; i++) {
+            int offset = (start + i) << 2;
+            int count = (int) ((table.get(indexOf(hash, i)) >>> offset) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return containsDoorkeeper(hash) ? frequency + 1 : frequency;
+    }
+
+    /**
+     * 新key的频率高于淘汰候选key时才准入
+     * @param candidate the key to put
+     * @param victim the key which will be evicted
+     * @return admit or not
+     */
+    public boolean admit(BytesKey candidate, BytesKey victim) {
+        return frequency(candidate) > frequency(victim);
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        while (true) {
+            long value = table.get(index);
+            if ((value & mask) == mask) {
+                return false;
+            }
+            if (table.compareAndSet(index, value, value + (1L << offset))) {
+                return true;
+            }
+        }
+    }
+
+    private boolean setDoorkeeper(int hash) {
+        boolean added = false;
+        for (int i=0; i<2; i++) {
+            int bit = doorkeeperBit(hash, i);
+            int index = bit >>> 6;
+            long mask = 1L << bit;
+            while (true) {
+                long value = doorkeeper.get(index);
+                if ((value & mask) != 0) {
+                    break;
+                }
+                if (doorkeeper.compareAndSet(index, value, value | mask)) {
+                    added = true;
+                    break;
+                }
+            }
+        }
+        return added;
+    }
+
+    private boolean containsDoorkeeper(int hash) {
+        for (int i=0; i<2; i++) {
+            int bit = doorkeeperBit(hash, i);
+            if ((doorkeeper.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void onAdd() {
+        if (size.incrementAndGet() >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        if (!resetting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (int i=0; i<table.length(); i++) {
+                long value = table.get(i);
+                table.set(i, (value >>> 1) & RESET_MASK);
+            }
+            for (int i=0; i<doorkeeper.length(); i++) {
+                doorkeeper.set(i, 0L);
+            }
+            size.set(size.get() / 2);
+        } finally {
+            resetting.set(false);
+        }
+    }
+
+    private int indexOf(int item, int i) {
+        long hash = (item + SEED[i]) * SEED[i];
+        hash += (hash >>> 32);
+        return ((int) hash) & tableMask;
+    }
+
+    private int doorkeeperBit(int hash, int i) {
+        int h = i == 0 ? hash : Integer.rotateLeft(hash * 0x9e3779b9, 16);
+        return h & doorkeeperMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = 1;
+        while (n < capacity && n < (1 << 30)) {
+            n <<= 1;
+        }
+        return n;
+    }
+}
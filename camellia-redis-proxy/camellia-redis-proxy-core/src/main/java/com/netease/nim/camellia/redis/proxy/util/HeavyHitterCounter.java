@@ -0,0 +1,227 @@
+package com.netease.nim.camellia.redis.proxy.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定内存的heavy-hitters计数器（Count-Min Sketch + top-K候选表），用于热key统计
+ * <p>
+ * 每个key先在候选表中查找，命中则直接计数；未命中则在Count-Min Sketch中计数，估算值达到准入阈值后进入候选表，
+ * 候选表只记录进入之后的精确计数（不继承sketch的估算值），因此hash冲突导致的高估只影响准入，不会导致误报，
+ * 候选表满时替换探测范围内计数最小的候选（类似Space-Saving）
+ * <p>
+ * 计数过程不需要为每个key分配对象，只有进入候选表时才会分配一次，
+ * 统计窗口使用两组sketch/候选表交替，rotate时切换，并清空上上个窗口（已经没有写入）的数据
+ * Created by caojiajun on 2024/7/27
+ */
+public class HeavyHitterCounter {
+
+    private static final int DEPTH = 4;
+    private static final int PROBE = 8;
+
+    private final int width;
+    private final int widthMask;
+    private final int tableMask;
+    private volatile long admitThreshold;
+
+    private volatile Window active;
+    private Window standby;
+
+    /**
+     * @param width sketch width of each row, will be rounded up to power of 2
+     * @param tableSize candidate table size, will be rounded up to power of 2
+     * @param admitThreshold estimated count to enter the candidate table, hits before admission are not counted
+     */
+    public HeavyHitterCounter(int width, int tableSize, long admitThreshold) {
+        this.width = roundUp(width);
+        this.widthMask = this.width - 1;
+        int size = roundUp(tableSize);
+        this.tableMask = size - 1;
+        this.admitThreshold = Math.max(1, admitThreshold);
+        this.active = new Window(this.width * DEPTH, size);
+        this.standby = new Window(this.width * DEPTH, size);
+    }
+
+    public void setAdmitThreshold(long admitThreshold) {
+        this.admitThreshold = Math.max(1, admitThreshold);
+    }
+
+    /**
+     * increment the key
+     * @param key key
+     */
+    public void increment(byte[] key) {
+        Window window = this.active;
+        int hash = hash(key);
+        int index = hash & tableMask;
+        for (int i=0; i<PROBE; i++) {
+            Entry entry = window.table.get((index + i) & tableMask);
+            if (entry == null) {
+                //候选总是插入到探测范围内的第一个空位，遇到空位说明不在候选表中
+                break;
+            }
+            if (entry.hash == hash && Arrays.equals(entry.key, key)) {
+                entry.count.increment();
+                return;
+            }
+        }
+        //conservative update，只增加最小的计数，减少hash冲突导致的高估
+        long min = Long.MAX_VALUE;
+        for (int i=0; i<DEPTH; i++) {
+            long count = window.sketch.get(cell(hash, i));
+            if (count < min) {
+                min = count;
+            }
+        }
+        long estimate = min + 1;
+        for (int i=0; i<DEPTH; i++) {
+            int cell = cell(hash, i);
+            long count = window.sketch.get(cell);
+            while (count < estimate) {
+                if (window.sketch.compareAndSet(cell, count, estimate)) {
+                    break;
+                }
+                count = window.sketch.get(cell);
+            }
+        }
+        if (estimate >= admitThreshold) {
+            admit(window, key, hash, index, estimate);
+        }
+    }
+
+    private void admit(Window window, byte[] key, int hash, int index, long estimate) {
+        Entry newEntry = null;
+        int minSlot = -1;
+        Entry minEntry = null;
+        long minCount = Long.MAX_VALUE;
+        for (int i=0; i<PROBE; i++) {
+            int slot = (index + i) & tableMask;
+            Entry entry = window.table.get(slot);
+            if (entry == null) {
+                if (newEntry == null) {
+                    newEntry = new Entry(key.clone(), hash);
+                }
+                if (window.table.compareAndSet(slot, null, newEntry)) {
+                    return;
+                }
+                entry = window.table.get(slot);
+            }
+            if (entry.hash == hash && Arrays.equals(entry.key, key)) {
+                entry.count.increment();
+                return;
+            }
+            long count = entry.count.sum();
+            if (count < minCount) {
+                minCount = count;
+                minSlot = slot;
+                minEntry = entry;
+            }
+        }
+        //estimate is only used to decide the replacement, the new candidate counts from 1
+        if (minEntry != null && minCount < estimate) {
+            if (newEntry == null) {
+                newEntry = new Entry(key.clone(), hash);
+            }
+            window.table.compareAndSet(minSlot, minEntry, newEntry);
+        }
+    }
+
+    /**
+     * 结束当前统计窗口，返回窗口内计数不小于threshold的key（按计数倒序）
+     * <p>
+     * 只能单线程调用
+     * @param threshold threshold
+     * @param maxCount max result count
+     * @return sorted keys
+     */
+    public List<LRUCounter.SortedBytesKey> rotate(long threshold, int maxCount) {
+        Window next = this.standby;
+        next.clear();
+        Window current = this.active;
+        this.active = next;
+        this.standby = current;
+        List<LRUCounter.SortedBytesKey> list = new ArrayList<>();
+        for (int i=0; i<current.table.length(); i++) {
+            Entry entry = current.table.get(i);
+            if (entry == null) continue;
+            long count = entry.count.sum();
+            if (count >= threshold) {
+                list.add(new LRUCounter.SortedBytesKey(entry.key, count));
+            }
+        }
+        if (list.isEmpty()) {
+            return list;
+        }
+        Collections.sort(list);
+        if (list.size() > maxCount) {
+            return new ArrayList<>(list.subList(0, maxCount));
+        }
+        return list;
+    }
+
+    private int cell(int hash, int row) {
+        return row * width + (mix(hash + row * 0x9E3779B9) & widthMask);
+    }
+
+    private static int hash(byte[] key) {
+        int h = 0x811C9DC5;
+        for (byte b : key) {
+            h ^= b;
+            h *= 0x01000193;
+        }
+        return mix(h);
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int roundUp(int n) {
+        int size = 1;
+        while (size < n && size < (1 << 30)) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static class Window {
+        private final AtomicLongArray sketch;
+        private final AtomicReferenceArray<Entry> table;
+
+        Window(int sketchSize, int tableSize) {
+            this.sketch = new AtomicLongArray(sketchSize);
+            this.table = new AtomicReferenceArray<>(tableSize);
+        }
+
+        void clear() {
+            for (int i=0; i<sketch.length(); i++) {
+                sketch.lazySet(i, 0);
+            }
+            for (int i=0; i<table.length(); i++) {
+                table.lazySet(i, null);
+            }
+        }
+    }
+
+    private static class Entry {
+        private final byte[] key;
+        private final int hash;
+        private final LongAdder count = new LongAdder();
+
+        Entry(byte[] key, int hash) {
+            this.key = key;
+            this.hash = hash;
+            this.count.increment();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.netease.nim.camellia.redis.proxy.util;
+
+import com.netease.nim.camellia.tools.executor.CamelliaExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * 按key保证执行顺序的线程池，相同key（相同slot）的任务按提交顺序串行执行
+ * Created by caojiajun on 2024/7/23
+ */
+public interface KeyedExecutor extends CamelliaExecutor {
+
+    /**
+     * 提交一个无返回结果的任务
+     * @param key key
+     * @param runnable task
+     * @return future
+     */
+    Future<Void> submit(byte[] key, Runnable runnable);
+
+    /**
+     * 提交一个有返回结果的任务
+     * @param key key
+     * @param callable task
+     * @return future
+     */
+    <T> Future<T> submit(byte[] key, Callable<T> callable);
+
+    default Future<Void> submit(String key, Runnable runnable) {
+        return submit(key.getBytes(StandardCharsets.UTF_8), runnable);
+    }
+
+    default <T> Future<T> submit(String key, Callable<T> callable) {
+        return submit(key.getBytes(StandardCharsets.UTF_8), callable);
+    }
+
+    /**
+     * 线程数
+     * @return pool size
+     */
+    int getPoolSize();
+
+    /**
+     * 等待执行的任务数
+     * @return pending
+     */
+    int getQueueSize();
+}
@@ -1,6 +1,7 @@
 package com.netease.nim.camellia.redis.proxy.util;
 
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.EntryWeigher;
 import com.netease.nim.camellia.tools.utils.BytesKey;
 
 import java.util.Map;
@@ -23,11 +24,30 @@ public class LRUCounter {
      * 过期时间
      */
     private final long expireMillis;
+    private final long capacity;
 
     public LRUCounter(int initialCapacity, long capacity, long expireMillis) {
-        this.cache = new ConcurrentLinkedHashMap.Builder<BytesKey, Counter>().initialCapacity(initialCapacity)
-                .maximumWeightedCapacity(capacity).build();
+        this(initialCapacity, capacity, expireMillis, false);
+    }
+
+    /**
+     * @param initialCapacity initialCapacity
+     * @param capacity max entries, or max estimated bytes if bytesWeighted is true
+     * @param expireMillis expireMillis
+     * @param bytesWeighted 按key的估算内存大小计算权重
+     */
+    public LRUCounter(int initialCapacity, long capacity, long expireMillis, boolean bytesWeighted) {
+        ConcurrentLinkedHashMap.Builder<BytesKey, Counter> builder = new ConcurrentLinkedHashMap.Builder<BytesKey, Counter>()
+                .initialCapacity(initialCapacity)
+                .maximumWeightedCapacity(capacity);
+        if (bytesWeighted) {
+            EntryWeigher<BytesKey, Counter> weigher = (key, counter) -> ObjectSizeUtils.weight(ObjectSizeUtils.LRU_MAP_ENTRY
+                    + ObjectSizeUtils.bytesKey(key) + Counter.SIZE);
+            builder.weigher(weigher);
+        }
+        this.cache = builder.build();
         this.expireMillis = expireMillis;
+        this.capacity = capacity;
     }
 
     /**
@@ -92,6 +112,21 @@ public class LRUCounter {
         return treeSet;
     }
 
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * @return entries, or estimated bytes if bytes weighted
+     */
+    public long weightedSize() {
+        return cache.weightedSize();
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
     public static class SortedBytesKey implements Comparable<SortedBytesKey> {
         private final byte[] key;
         private final long count;
@@ -116,6 +151,10 @@ public class LRUCounter {
     }
 
     private static class Counter {
+        /**
+         * Counter(24) + LongAdder(24) + AtomicBoolean(16)
+         */
+        private static final int SIZE = 64;
         private volatile long timestamp = TimeCache.currentMillis;
         private final LongAdder count = new LongAdder();
         private final AtomicBoolean lock = new AtomicBoolean();
@@ -0,0 +1,323 @@
+package com.netease.nim.camellia.redis.proxy.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HDR风格的对数线性直方图，用于耗时分位值统计
+ * <p>
+ * 小于2^(subBucketBits+1)的值每个值一个桶，之后每个2的幂次区间再平分为2^subBucketBits个桶，
+ * 因此相对误差不超过1/2^subBucketBits（subBucketBits=5时约3%，=6时约1.6%），值的范围为[0, Integer.MAX_VALUE]，超过的计入最后一个桶
+ * <p>
+ * 桶数为(32-subBucketBits)*2^subBucketBits（subBucketBits=6时1664个），每个桶只是AtomicLongArray中的一个long，
+ * 可以通过snapshot导出，snapshot之间可以合并（跨线程、跨proxy），也可以编码成紧凑的字节数组（只记录非0的桶）
+ * <p>
+ * record时某个桶出现CAS冲突，才为这个桶单独分配一个LongAdder，之后这个桶的计数写入LongAdder，
+ * snapshot时合并，从而只有被并发写的桶（通常是少数几个耗时集中的桶）占用额外的内存
+ * <p>
+ * 值的单位由调用方决定，合并时需要保证单位和subBucketBits一致
+ * Created by caojiajun on 2024/7/30
+ */
+public class LatencyHistogram {
+
+    private static final byte VERSION = 1;
+
+    private final int subBucketBits;
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLongArray counts;
+    //cas冲突过的桶，计数改为写入LongAdder
+    private final AtomicReferenceArray<LongAdder> contended;
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram() {
+        this(5);
+    }
+
+    public LatencyHistogram(int subBucketBits) {
+        if (subBucketBits < 1 || subBucketBits > 10) {
+            throw new IllegalArgumentException("subBucketBits should between 1 and 10");
+        }
+        this.subBucketBits = subBucketBits;
+        this.counts = new AtomicLongArray(bucketCount(subBucketBits));
+        this.contended = new AtomicReferenceArray<>(bucketCount(subBucketBits));
+    }
+
+    /**
+     * 记录一个值，小于0的值会被忽略
+     * @param value value
+     */
+    public void record(long value) {
+        if (value < 0) return;
+        int index = index(subBucketBits, value);
+        LongAdder adder = contended.get(index);
+        if (adder != null) {
+            adder.increment();
+        } else {
+            long count = counts.get(index);
+            if (!counts.compareAndSet(index, count, count + 1)) {
+                adder = new LongAdder();
+                if (!contended.compareAndSet(index, null, adder)) {
+                    adder = contended.get(index);
+                }
+                adder.increment();
+            }
+        }
+        sum.add(value);
+        updateMax(value);
+    }
+
+    /**
+     * 合并一个snapshot
+     * @param snapshot snapshot
+     */
+    public void merge(Snapshot snapshot) {
+        if (snapshot.subBucketBits != subBucketBits) {
+            throw new IllegalArgumentException("subBucketBits not match");
+        }
+        for (int i=0; i<snapshot.counts.length; i++) {
+            if (snapshot.counts[i] > 0) {
+                counts.addAndGet(i, snapshot.counts[i]);
+            }
+        }
+        sum.add(snapshot.sum);
+        updateMax(snapshot.max);
+    }
+
+    public void reset() {
+        for (int i=0; i<counts.length(); i++) {
+            counts.set(i, 0);
+            LongAdder adder = contended.get(i);
+            if (adder != null) {
+                adder.reset();
+            }
+        }
+        max.set(0);
+        sum.reset();
+    }
+
+    public Snapshot snapshot() {
+        long[] array = new long[counts.length()];
+        for (int i=0; i<array.length; i++) {
+            array[i] = counts.get(i);
+            LongAdder adder = contended.get(i);
+            if (adder != null) {
+                array[i] += adder.sum();
+            }
+        }
+        return new Snapshot(subBucketBits, array, sum.sum(), max.get());
+    }
+
+    public Snapshot snapshotAndReset() {
+        long[] array = new long[counts.length()];
+        for (int i=0; i<array.length; i++) {
+            array[i] = counts.getAndSet(i, 0);
+            LongAdder adder = contended.get(i);
+            if (adder != null) {
+                array[i] += adder.sumThenReset();
+            }
+        }
+        return new Snapshot(subBucketBits, array, sum.sumThenReset(), max.getAndSet(0));
+    }
+
+    public int getSubBucketBits() {
+        return subBucketBits;
+    }
+
+    private void updateMax(long value) {
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                break;
+            }
+        }
+    }
+
+    private static int bucketCount(int subBucketBits) {
+        return (32 - subBucketBits) << subBucketBits;
+    }
+
+    private static int index(int subBucketBits, long value) {
+        if (value > Integer.MAX_VALUE) {
+            return bucketCount(subBucketBits) - 1;
+        }
+        if (value < (2L << subBucketBits)) {
+            return (int) value;
+        }
+        int b = 63 - Long.numberOfLeadingZeros(value);
+        return ((b - subBucketBits) << subBucketBits) + (int) (value >>> (b - subBucketBits));
+    }
+
+    private static long lowerBound(int subBucketBits, int index) {
+        if (index < (2 << subBucketBits)) {
+            return index;
+        }
+        int shift = (index >> subBucketBits) - 1;
+        long mantissa = (1L << subBucketBits) + (index & ((1 << subBucketBits) - 1));
+        return mantissa << shift;
+    }
+
+    private static long bucketWidth(int subBucketBits, int index) {
+        if (index < (2 << subBucketBits)) {
+            return 1;
+        }
+        return 1L << ((index >> subBucketBits) - 1);
+    }
+
+    /**
+     * 直方图的快照，不可变，可以合并、编码
+     */
+    public static class Snapshot {
+        private final int subBucketBits;
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(int subBucketBits, long[] counts, long sum, long max) {
+            this.subBucketBits = subBucketBits;
+            this.counts = counts;
+            this.sum = sum;
+            this.max = max;
+            long count = 0;
+            for (long c : counts) {
+                count += c;
+            }
+            this.count = count;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : sum / (double) count;
+        }
+
+        /**
+         * 分位值，桶内按线性插值，不超过max
+         * @param quantile 0.0-1.0
+         * @return value, 0 if empty
+         */
+        public long getValueAtQuantile(double quantile) {
+            if (count == 0) return 0;
+            if (quantile >= 1.0) return max;
+            long rank = Math.max(1, (long) Math.ceil(count * quantile));
+            long c = 0;
+            for (int i=0; i<counts.length; i++) {
+                long current = counts[i];
+                if (current == 0) continue;
+                c += current;
+                if (c >= rank) {
+                    long offset = rank - (c - current);
+                    long value = lowerBound(subBucketBits, i) + (long) (bucketWidth(subBucketBits, i) * (offset / (double) current));
+                    return Math.min(value, max);
+                }
+            }
+            return max;
+        }
+
+        public QuantileCollector.QuantileValue toQuantileValue() {
+            return new QuantileCollector.QuantileValue(getValueAtQuantile(0.5), getValueAtQuantile(0.75),
+                    getValueAtQuantile(0.90), getValueAtQuantile(0.95), getValueAtQuantile(0.99), getValueAtQuantile(0.999), max);
+        }
+
+        /**
+         * 合并两个snapshot，返回一个新的snapshot
+         * @param other other
+         * @return new snapshot
+         */
+        public Snapshot merge(Snapshot other) {
+            if (other.subBucketBits != subBucketBits) {
+                throw new IllegalArgumentException("subBucketBits not match");
+            }
+            long[] array = new long[counts.length];
+            for (int i=0; i<array.length; i++) {
+                array[i] = counts[i] + other.counts[i];
+            }
+            return new Snapshot(subBucketBits, array, sum + other.sum, Math.max(max, other.max));
+        }
+
+        /**
+         * 紧凑编码：version + subBucketBits + varint(sum) + varint(max) + 若干个[varint(和上一个非0桶的下标差), varint(count)]
+         * @return bytes
+         */
+        public byte[] encode() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+            out.write(VERSION);
+            out.write(subBucketBits);
+            writeVarLong(out, sum);
+            writeVarLong(out, max);
+            int last = -1;
+            for (int i=0; i<counts.length; i++) {
+                if (counts[i] == 0) continue;
+                writeVarLong(out, i - last);
+                writeVarLong(out, counts[i]);
+                last = i;
+            }
+            return out.toByteArray();
+        }
+
+        public String encodeToString() {
+            return Base64.getEncoder().encodeToString(encode());
+        }
+
+        public static Snapshot decode(byte[] data) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("unknown histogram version " + version);
+            }
+            int subBucketBits = buffer.get();
+            if (subBucketBits < 1 || subBucketBits > 10) {
+                throw new IllegalArgumentException("illegal subBucketBits " + subBucketBits);
+            }
+            long sum = readVarLong(buffer);
+            long max = readVarLong(buffer);
+            long[] counts = new long[bucketCount(subBucketBits)];
+            int index = -1;
+            while (buffer.hasRemaining()) {
+                index += (int) readVarLong(buffer);
+                counts[index] = readVarLong(buffer);
+            }
+            return new Snapshot(subBucketBits, counts, sum, max);
+        }
+
+        public static Snapshot decode(String data) {
+            return decode(Base64.getDecoder().decode(data));
+        }
+
+        private static void writeVarLong(ByteArrayOutputStream out, long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private static long readVarLong(ByteBuffer buffer) {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+            }
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.netease.nim.camellia.redis.proxy.util;
 
-import com.netease.nim.camellia.tools.executor.CamelliaExecutor;
 import com.netease.nim.camellia.tools.executor.CamelliaExecutorMonitor;
 import com.netease.nim.camellia.tools.utils.MathUtil;
 import io.netty.util.concurrent.FastThreadLocalThread;
@@ -18,7 +17,7 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * Created by caojiajun on 2024/6/6
  */
-public class MpscSlotHashExecutor implements CamelliaExecutor {
+public class MpscSlotHashExecutor implements KeyedExecutor {
 
     private static final Logger logger = LoggerFactory.getLogger(MpscSlotHashExecutor.class);
     private static final RejectedExecutionHandler defaultRejectedPolicy = new AbortPolicy();
@@ -77,6 +76,7 @@ public class MpscSlotHashExecutor implements CamelliaExecutor {
      * @param runnable 无返回结果的任务
      * @return 任务结果
      */
+    @Override
     public Future<Void> submit(byte[] key, Runnable runnable) {
         int index = hashIndex(key);
         FutureTask<Void> task = new FutureTask<>(runnable, null);
@@ -93,6 +93,7 @@ public class MpscSlotHashExecutor implements CamelliaExecutor {
      * @param runnable 无返回结果的任务
      * @return 任务结果
      */
+    @Override
     public Future<Void> submit(String key, Runnable runnable) {
         return submit(key.getBytes(StandardCharsets.UTF_8), runnable);
     }
@@ -103,6 +104,7 @@ public class MpscSlotHashExecutor implements CamelliaExecutor {
      * @param callable 有返回结果的任务
      * @return 任务结果
      */
+    @Override
     public <T> Future<T> submit(byte[] key, Callable<T> callable) {
         int index = hashIndex(key);
         FutureTask<T> task = new FutureTask<>(callable);
@@ -119,6 +121,7 @@ public class MpscSlotHashExecutor implements CamelliaExecutor {
      * @param callable 有返回结果的任务
      * @return 任务结果
      */
+    @Override
     public <T> Future<T> submit(String key, Callable<T> callable) {
         return submit(key.getBytes(StandardCharsets.UTF_8), callable);
     }
@@ -128,6 +131,7 @@ public class MpscSlotHashExecutor implements CamelliaExecutor {
         return name;
     }
 
+    @Override
     public int getPoolSize() {
         return poolSize;
     }
@@ -156,6 +160,7 @@ public class MpscSlotHashExecutor implements CamelliaExecutor {
      * 获取等待队列的大小
      * @return 大小
      */
+    @Override
     public int getQueueSize() {
         int queueSize = 0;
         for (WorkThread workThread : workThreads) {
@@ -0,0 +1,49 @@
+package com.netease.nim.camellia.redis.proxy.util;
+
+import com.netease.nim.camellia.tools.utils.BytesKey;
+
+/**
+ * 估算对象占用的堆内存（按64位jvm开启压缩指针估算），用于按字节数限制缓存大小
+ * Created by caojiajun on 2024/7/17
+ */
+public class ObjectSizeUtils {
+
+    /**
+     * HashMap.Node(32) + table slot(4, load factor 0.75)
+     */
+    public static final int HASH_MAP_ENTRY = 40;
+
+    /**
+     * ConcurrentLinkedHashMap Node + WeightedValue + ConcurrentHashMap.Node
+     */
+    public static final int LRU_MAP_ENTRY = 88;
+
+    public static final int BOXED_NUMBER = 16;
+
+    public static int align(long size) {
+        long aligned = (size + 7) & ~7L;
+        return aligned > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) aligned;
+    }
+
+    public static int bytes(int length) {
+        return align(16L + length);
+    }
+
+    public static int bytes(byte[] bytes) {
+        return bytes == null ? 0 : bytes(bytes.length);
+    }
+
+    public static int bytesKey(BytesKey bytesKey) {
+        return 24 + bytes(bytesKey.getKey());
+    }
+
+    /**
+     * 缓存条目的权重，至少为1
+     */
+    public static int weight(long size) {
+        if (size <= 0) {
+            return 1;
+        }
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+}
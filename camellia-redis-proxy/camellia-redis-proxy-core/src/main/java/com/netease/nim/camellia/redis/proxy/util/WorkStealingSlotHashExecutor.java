@@ -0,0 +1,286 @@
+package com.netease.nim.camellia.redis.proxy.util;
+
+import com.netease.nim.camellia.tools.executor.CamelliaExecutorMonitor;
+import com.netease.nim.camellia.tools.utils.MathUtil;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 支持work-stealing的slot hash线程池
+ * <p>
+ * 每个slot有一个独立的任务队列（actor），同一个slot的任务按提交顺序串行执行（因此同一个key的任务也是串行的），
+ * slot队列有任务时会被调度到固定的home线程的就绪队列中，空闲线程会从其他线程的就绪队列尾部偷取整个slot队列执行，
+ * 从而避免某个热点key或者慢请求阻塞同一个线程上的其他slot
+ * <p>
+ * 每个slot队列每次最多连续执行batch个任务，之后重新排队，避免某个slot长时间占用线程
+ * Created by caojiajun on 2024/7/23
+ */
+public class WorkStealingSlotHashExecutor implements KeyedExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkStealingSlotHashExecutor.class);
+
+    private static final int BATCH = 64;
+
+    private final String name;
+    private final int poolSize;
+    private final int queueSize;
+    private final int maxPending;
+    private final Worker[] workers;
+    private final SlotQueue[] slotQueues;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Worker> idleWorkers = new ConcurrentLinkedQueue<>();
+    private final AtomicLong workerIdGen = new AtomicLong(1);
+
+    public WorkStealingSlotHashExecutor(String name, int poolSize, int queueSize) {
+        this(name, poolSize, queueSize, null);
+    }
+
+    public WorkStealingSlotHashExecutor(String name, int poolSize, int queueSize, Runnable workThreadInitCallback) {
+        this.name = CamelliaExecutorMonitor.genExecutorName(name);
+        this.poolSize = poolSize;
+        this.queueSize = queueSize;
+        //queueSize和MpscSlotHashExecutor一样是每个线程的队列大小，任务不再固定在某个线程上排队，因此总的排队上限是poolSize * queueSize
+        this.maxPending = (int) Math.min((long) poolSize * queueSize, Integer.MAX_VALUE);
+        this.workers = new Worker[poolSize];
+        for (int i=0; i<poolSize; i++) {
+            workers[i] = new Worker(i, workThreadInitCallback);
+        }
+        boolean poolSizeIs2Power = MathUtil.is2Power(poolSize);
+        this.slotQueues = new SlotQueue[RedisClusterCRC16Utils.SLOT_SIZE];
+        for (int i=0; i<slotQueues.length; i++) {
+            slotQueues[i] = new SlotQueue(workers[MathUtil.mod(poolSizeIs2Power, i, poolSize)]);
+        }
+        for (Worker worker : workers) {
+            worker.start();
+        }
+        logger.info("WorkStealingSlotHashExecutor start success, name = {}, poolSize = {}, queueSize = {}, maxPending = {}", name, poolSize, queueSize, maxPending);
+    }
+
+    @Override
+    public Future<Void> submit(byte[] key, Runnable runnable) {
+        FutureTask<Void> task = new FutureTask<>(runnable, null);
+        submit0(key, task);
+        return task;
+    }
+
+    @Override
+    public <T> Future<T> submit(byte[] key, Callable<T> callable) {
+        FutureTask<T> task = new FutureTask<>(callable);
+        submit0(key, task);
+        return task;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    @Override
+    public int getQueueSize() {
+        return pending.get();
+    }
+
+    /**
+     * 统计各个工作线程的执行情况，并重置
+     * @return stats of workers
+     */
+    public List<WorkerStats> collectWorkerStats() {
+        List<WorkerStats> list = new ArrayList<>(workers.length);
+        for (Worker worker : workers) {
+            WorkerStats stats = new WorkerStats();
+            stats.index = worker.index;
+            stats.ready = worker.readyQueue.size();
+            stats.count = worker.count.sumThenReset();
+            long spendNanos = worker.spendNanos.sumThenReset();
+            stats.avgSpendMs = stats.count == 0 ? 0 : spendNanos / 1000000.0 / stats.count;
+            stats.maxSpendMs = worker.maxSpendNanos.getAndSet(0) / 1000000.0;
+            stats.steal = worker.steal.sumThenReset();
+            list.add(stats);
+        }
+        return list;
+    }
+
+    private void submit0(byte[] key, FutureTask<?> task) {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new RejectedExecutionException("Task " + task + " rejected from " + name);
+        }
+        SlotQueue slotQueue = slotQueues[RedisClusterCRC16Utils.getSlot(key)];
+        slotQueue.tasks.offer(task);
+        if (slotQueue.size.getAndIncrement() == 0) {
+            schedule(slotQueue.home, slotQueue);
+        }
+    }
+
+    private void schedule(Worker worker, SlotQueue slotQueue) {
+        worker.readyQueue.offerLast(slotQueue);
+        if (worker.idle.compareAndSet(true, false)) {
+            LockSupport.unpark(worker);
+            return;
+        }
+        //home线程忙，唤醒一个空闲线程来偷取
+        Worker idleWorker;
+        while ((idleWorker = idleWorkers.poll()) != null) {
+            idleWorker.inIdleQueue.set(false);
+            if (idleWorker.idle.compareAndSet(true, false)) {
+                LockSupport.unpark(idleWorker);
+                return;
+            }
+        }
+    }
+
+    private static class SlotQueue {
+        private final Worker home;
+        private final ConcurrentLinkedQueue<FutureTask<?>> tasks = new ConcurrentLinkedQueue<>();
+        //size > 0 means the slot queue is in some ready queue or running
+        private final AtomicInteger size = new AtomicInteger();
+
+        SlotQueue(Worker home) {
+            this.home = home;
+        }
+    }
+
+    public static class WorkerStats {
+        private int index;
+        private int ready;
+        private long count;
+        private double avgSpendMs;
+        private double maxSpendMs;
+        private long steal;
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getReady() {
+            return ready;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getAvgSpendMs() {
+            return avgSpendMs;
+        }
+
+        public double getMaxSpendMs() {
+            return maxSpendMs;
+        }
+
+        public long getSteal() {
+            return steal;
+        }
+    }
+
+    private class Worker extends FastThreadLocalThread {
+
+        private final int index;
+        private final Runnable initCallback;
+        private final ConcurrentLinkedDeque<SlotQueue> readyQueue = new ConcurrentLinkedDeque<>();
+        private final AtomicBoolean idle = new AtomicBoolean(false);
+        private final AtomicBoolean inIdleQueue = new AtomicBoolean(false);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder spendNanos = new LongAdder();
+        private final AtomicLong maxSpendNanos = new AtomicLong();
+        private final LongAdder steal = new LongAdder();
+
+        Worker(int index, Runnable initCallback) {
+            this.index = index;
+            this.initCallback = initCallback;
+            setName("work-stealing-slot-hash-executor-" + name + "-" + workerIdGen.getAndIncrement());
+        }
+
+        @Override
+        public void run() {
+            if (initCallback != null) {
+                initCallback.run();
+            }
+            while (true) {
+                try {
+                    SlotQueue slotQueue = next();
+                    if (slotQueue != null) {
+                        execute(slotQueue);
+                        continue;
+                    }
+                    idle.set(true);
+                    if (inIdleQueue.compareAndSet(false, true)) {
+                        idleWorkers.offer(this);
+                    }
+                    //double check after publish idle, avoid lost wakeup
+                    slotQueue = next();
+                    if (slotQueue != null) {
+                        idle.set(false);
+                        execute(slotQueue);
+                        continue;
+                    }
+                    LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(1));
+                    idle.set(false);
+                } catch (Exception e) {
+                    logger.error("WorkStealingSlotHashExecutor execute task error, name = {}", name, e);
+                }
+            }
+        }
+
+        private SlotQueue next() {
+            SlotQueue slotQueue = readyQueue.pollFirst();
+            if (slotQueue != null) {
+                return slotQueue;
+            }
+            int start = ThreadLocalRandom.current().nextInt(workers.length);
+            for (int i=0; i<workers.length; i++) {
+                Worker victim = workers[(start + i) % workers.length];
+                if (victim == this) continue;
+                slotQueue = victim.readyQueue.pollLast();
+                if (slotQueue != null) {
+                    steal.increment();
+                    return slotQueue;
+                }
+            }
+            return null;
+        }
+
+        private void execute(SlotQueue slotQueue) {
+            int executed = 0;
+            while (true) {
+                FutureTask<?> task = slotQueue.tasks.poll();
+                pending.decrementAndGet();
+                long startTime = System.nanoTime();
+                try {
+                    task.run();
+                } finally {
+                    long spend = System.nanoTime() - startTime;
+                    count.increment();
+                    spendNanos.add(spend);
+                    if (spend > maxSpendNanos.get()) {
+                        maxSpendNanos.set(spend);
+                    }
+                }
+                if (slotQueue.size.decrementAndGet() == 0) {
+                    return;
+                }
+                executed ++;
+                if (executed >= BATCH) {
+                    //still has tasks, requeue to keep fairness between slots
+                    schedule(this, slotQueue);
+                    return;
+                }
+            }
+        }
+    }
+}
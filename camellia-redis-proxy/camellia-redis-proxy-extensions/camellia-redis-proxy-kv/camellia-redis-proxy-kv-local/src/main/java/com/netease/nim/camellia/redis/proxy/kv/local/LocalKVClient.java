@@ -0,0 +1,586 @@
+package com.netease.nim.camellia.redis.proxy.kv.local;
+
+import com.netease.nim.camellia.redis.proxy.conf.ProxyDynamicConf;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.exception.KvException;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.kv.AsyncKVClient;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.kv.KVClient;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.kv.KeyValue;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.kv.Sort;
+import com.netease.nim.camellia.redis.proxy.upstream.kv.utils.BytesUtils;
+import com.netease.nim.camellia.tools.executor.CamelliaThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 单机内嵌的kv存储，不依赖外部的分布式kv
+ * <p>
+ * 数据以追加写的方式写入内存映射的segment文件，key的有序索引常驻内存（skip list），
+ * 启动时重放segment文件重建索引，后台线程会把垃圾比例超过阈值的segment中的有效数据搬迁到新的segment后删除旧文件，
+ * 过期的key由后台线程定期从索引中清理，并计入所在segment的垃圾
+ * <p>
+ * 这是一个类似bitcask的结构（追加写的日志 + 内存索引），而不是LSM-tree/B-tree，限制如下：
+ * 1、所有key（以及每个key约80字节的索引开销）都常驻堆内存，key的总量受限于堆大小
+ * 2、每个segment有一个segmentSize/128字节的key布隆过滤器（64MB的segment对应512KB），用于compact时判断tombstone能否丢弃
+ * 3、value在内存映射的文件中，数据文件的总大小受限于磁盘和虚拟内存
+ * <p>
+ * an in-process bitcask-like kv storage, values are appended to memory-mapped segment files, the ordered key index is kept in memory
+ * Created by caojiajun on 2024/7/11
+ */
+public class LocalKVClient implements KVClient, AsyncKVClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKVClient.class);
+
+    private final File dir;
+    private final int segmentSize;
+    private final boolean syncWrite;
+
+    private final ConcurrentSkipListMap<byte[], Location> index = new ConcurrentSkipListMap<>(BytesUtils::compare);
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Object writeLock = new Object();
+    private volatile Segment active;
+
+    private final ScheduledExecutorService scheduler;
+
+    public LocalKVClient() {
+        try {
+            this.dir = new File(ProxyDynamicConf.getString("kv.local.data.dir", "./camellia-kv-local"));
+            this.segmentSize = (int) Math.min(ProxyDynamicConf.getLong("kv.local.segment.size", 64*1024*1024L), 1024*1024*1024L);
+            this.syncWrite = ProxyDynamicConf.getBoolean("kv.local.sync.write.enable", false);
+            if (!dir.exists() && !dir.mkdirs()) {
+                throw new IOException("mkdirs " + dir.getAbsolutePath() + " fail");
+            }
+            recover();
+        } catch (Exception e) {
+            logger.error("LocalKVClient init error", e);
+            throw new KvException(e);
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CamelliaThreadFactory("camellia-kv-local", true));
+        long flushIntervalMillis = ProxyDynamicConf.getLong("kv.local.flush.interval.millis", 1000L);
+        scheduler.scheduleAtFixedRate(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        int compactIntervalSeconds = ProxyDynamicConf.getInt("kv.local.compact.interval.seconds", 60);
+        scheduler.scheduleAtFixedRate(this::compact, compactIntervalSeconds, compactIntervalSeconds, TimeUnit.SECONDS);
+        int expireSweepIntervalSeconds = ProxyDynamicConf.getInt("kv.local.expire.sweep.interval.seconds", 10);
+        scheduler.scheduleAtFixedRate(this::expireSweep, expireSweepIntervalSeconds, expireSweepIntervalSeconds, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+        logger.info("LocalKVClient init success, dir = {}, segmentSize = {}, segments = {}, keys = {}",
+                dir.getAbsolutePath(), segmentSize, segments.size(), index.size());
+    }
+
+    @Override
+    public boolean supportTTL() {
+        return true;
+    }
+
+    @Override
+    public void put(byte[] key, byte[] value, long ttl) {
+        synchronized (writeLock) {
+            write(key, value, System.currentTimeMillis() + ttl);
+            afterWrite();
+        }
+    }
+
+    @Override
+    public void put(byte[] key, byte[] value) {
+        synchronized (writeLock) {
+            write(key, value, 0);
+            afterWrite();
+        }
+    }
+
+    @Override
+    public void batchPut(List<KeyValue> list) {
+        synchronized (writeLock) {
+            for (KeyValue keyValue : list) {
+                write(keyValue.getKey(), keyValue.getValue(), 0);
+            }
+            afterWrite();
+        }
+    }
+
+    @Override
+    public KeyValue get(byte[] key) {
+        Location location = index.get(key);
+        if (location == null || location.isExpire(System.currentTimeMillis())) {
+            return null;
+        }
+        return new KeyValue(key, location.segment.readValue(location.offset));
+    }
+
+    @Override
+    public boolean exists(byte[] key) {
+        Location location = index.get(key);
+        return location != null && !location.isExpire(System.currentTimeMillis());
+    }
+
+    @Override
+    public boolean[] exists(byte[]... keys) {
+        long now = System.currentTimeMillis();
+        boolean[] exists = new boolean[keys.length];
+        for (int i=0; i<keys.length; i++) {
+            Location location = index.get(keys[i]);
+            exists[i] = location != null && !location.isExpire(now);
+        }
+        return exists;
+    }
+
+    @Override
+    public List<KeyValue> batchGet(byte[]... keys) {
+        long now = System.currentTimeMillis();
+        List<KeyValue> list = new ArrayList<>(keys.length);
+        for (byte[] key : keys) {
+            Location location = index.get(key);
+            if (location == null || location.isExpire(now)) {
+                continue;
+            }
+            list.add(new KeyValue(key, location.segment.readValue(location.offset)));
+        }
+        return list;
+    }
+
+    @Override
+    public void delete(byte[] key) {
+        synchronized (writeLock) {
+            write(key, null, 0);
+            afterWrite();
+        }
+    }
+
+    @Override
+    public void batchDelete(byte[]... keys) {
+        synchronized (writeLock) {
+            for (byte[] key : keys) {
+                write(key, null, 0);
+            }
+            afterWrite();
+        }
+    }
+
+    @Override
+    public boolean supportCheckAndDelete() {
+        return true;
+    }
+
+    @Override
+    public void checkAndDelete(byte[] key, byte[] value) {
+        synchronized (writeLock) {
+            Location location = index.get(key);
+            if (location == null || location.isExpire(System.currentTimeMillis())) {
+                return;
+            }
+            if (Arrays.equals(location.segment.readValue(location.offset), value)) {
+                write(key, null, 0);
+                afterWrite();
+            }
+        }
+    }
+
+    @Override
+    public boolean supportReverseScan() {
+        return true;
+    }
+
+    @Override
+    public List<KeyValue> scanByPrefix(byte[] startKey, byte[] prefix, int limit, Sort sort, boolean includeStartKey) {
+        long now = System.currentTimeMillis();
+        List<KeyValue> list = new ArrayList<>();
+        for (Map.Entry<byte[], Location> entry : prefixView(startKey, sort, includeStartKey).entrySet()) {
+            byte[] key = entry.getKey();
+            if (!BytesUtils.startWith(key, prefix)) {
+                break;
+            }
+            Location location = entry.getValue();
+            if (location.isExpire(now)) {
+                continue;
+            }
+            list.add(new KeyValue(key, location.segment.readValue(location.offset)));
+            if (list.size() >= limit) {
+                break;
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public long countByPrefix(byte[] startKey, byte[] prefix, boolean includeStartKey) {
+        long now = System.currentTimeMillis();
+        long count = 0;
+        for (Map.Entry<byte[], Location> entry : prefixView(startKey, Sort.ASC, includeStartKey).entrySet()) {
+            if (!BytesUtils.startWith(entry.getKey(), prefix)) {
+                break;
+            }
+            if (!entry.getValue().isExpire(now)) {
+                count ++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<KeyValue> scanByStartEnd(byte[] startKey, byte[] endKey, int limit, Sort sort, boolean includeStartKey) {
+        long now = System.currentTimeMillis();
+        List<KeyValue> list = new ArrayList<>();
+        for (Map.Entry<byte[], Location> entry : rangeView(startKey, endKey, sort, includeStartKey).entrySet()) {
+            Location location = entry.getValue();
+            if (location.isExpire(now)) {
+                continue;
+            }
+            list.add(new KeyValue(entry.getKey(), location.segment.readValue(location.offset)));
+            if (list.size() >= limit) {
+                break;
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public long countByStartEnd(byte[] startKey, byte[] endKey, boolean includeStartKey) {
+        long now = System.currentTimeMillis();
+        long count = 0;
+        for (Location location : rangeView(startKey, endKey, Sort.ASC, includeStartKey).values()) {
+            if (!location.isExpire(now)) {
+                count ++;
+            }
+        }
+        return count;
+    }
+
+    //all the operations are local and non-blocking (except page faults), so async api just runs in the caller thread
+
+    @Override
+    public CompletableFuture<Void> putAsync(byte[] key, byte[] value, long ttl) {
+        return wrap(() -> {
+            put(key, value, ttl);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(byte[] key, byte[] value) {
+        return wrap(() -> {
+            put(key, value);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> batchPutAsync(List<KeyValue> list) {
+        return wrap(() -> {
+            batchPut(list);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<KeyValue> getAsync(byte[] key) {
+        return wrap(() -> get(key));
+    }
+
+    @Override
+    public CompletableFuture<boolean[]> existsAsync(byte[]... keys) {
+        return wrap(() -> exists(keys));
+    }
+
+    @Override
+    public CompletableFuture<List<KeyValue>> batchGetAsync(byte[]... keys) {
+        return wrap(() -> batchGet(keys));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(byte[] key) {
+        return wrap(() -> {
+            delete(key);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> batchDeleteAsync(byte[]... keys) {
+        return wrap(() -> {
+            batchDelete(keys);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<KeyValue>> scanByPrefixAsync(byte[] startKey, byte[] prefix, int limit, Sort sort, boolean includeStartKey) {
+        return wrap(() -> scanByPrefix(startKey, prefix, limit, sort, includeStartKey));
+    }
+
+    @Override
+    public CompletableFuture<List<KeyValue>> scanByStartEndAsync(byte[] startKey, byte[] endKey, int limit, Sort sort, boolean includeStartKey) {
+        return wrap(() -> scanByStartEnd(startKey, endKey, limit, sort, includeStartKey));
+    }
+
+    private <T> CompletableFuture<T> wrap(Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(supplier.get());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    //same as hbase, reverse scan starts from startKey and goes down
+    private NavigableMap<byte[], Location> prefixView(byte[] startKey, Sort sort, boolean includeStartKey) {
+        if (sort == Sort.ASC) {
+            return index.tailMap(startKey, includeStartKey);
+        } else {
+            return index.headMap(startKey, includeStartKey).descendingMap();
+        }
+    }
+
+    //same as hbase, endKey is exclusive, and startKey is the upper bound when reverse scan
+    private NavigableMap<byte[], Location> rangeView(byte[] startKey, byte[] endKey, Sort sort, boolean includeStartKey) {
+        int compare = BytesUtils.compare(startKey, endKey);
+        if (sort == Sort.ASC) {
+            if (compare >= 0) {
+                return Collections.emptyNavigableMap();
+            }
+            return index.subMap(startKey, includeStartKey, endKey, false);
+        } else {
+            if (compare <= 0) {
+                return Collections.emptyNavigableMap();
+            }
+            return index.subMap(endKey, false, startKey, includeStartKey).descendingMap();
+        }
+    }
+
+    //must be called under writeLock, value == null means delete
+    private void write(byte[] key, byte[] value, long expireTime) {
+        if (value == null && !index.containsKey(key)) {
+            return;
+        }
+        Segment segment = segmentFor(Segment.recordSize(key, value));
+        int offset = segment.append(key, value, expireTime);
+        int recordLen = segment.recordLen(offset);
+        Location old;
+        if (value == null) {
+            old = index.remove(key);
+            segment.addGarbage(recordLen);
+        } else {
+            old = index.put(key, new Location(segment, offset, recordLen, expireTime));
+        }
+        if (old != null) {
+            old.segment.addGarbage(old.recordLen);
+        }
+    }
+
+    private void afterWrite() {
+        if (syncWrite) {
+            active.flush();
+        }
+    }
+
+    //must be called under writeLock
+    private Segment segmentFor(int recordSize) {
+        Segment segment = active;
+        if (segment != null && segment.hasRemaining(recordSize)) {
+            return segment;
+        }
+        long id = 0;
+        if (segment != null) {
+            segment.flush();
+            id = segment.getId() + 1;
+        }
+        try {
+            Segment newSegment = Segment.open(dir, id, Math.max(segmentSize, recordSize + 4));
+            segments.put(id, newSegment);
+            active = newSegment;
+            return newSegment;
+        } catch (IOException e) {
+            throw new KvException(e);
+        }
+    }
+
+    private void recover() throws IOException {
+        File[] files = dir.listFiles();
+        List<Long> ids = new ArrayList<>();
+        if (files != null) {
+            for (File file : files) {
+                long id = Segment.parseId(file.getName());
+                if (id >= 0) {
+                    ids.add(id);
+                }
+            }
+        }
+        Collections.sort(ids);
+        long now = System.currentTimeMillis();
+        for (Long id : ids) {
+            Segment segment = Segment.open(dir, id, segmentSize);
+            segments.put(id, segment);
+            replay(segment, now);
+            active = segment;
+        }
+        if (active == null) {
+            segmentFor(0);
+        }
+    }
+
+    private void replay(Segment segment, long now) {
+        int offset = 0;
+        int recordLen;
+        while ((recordLen = segment.checkRecord(offset)) > 0) {
+            byte[] key = segment.readKey(offset);
+            Location old;
+            if (segment.isTombstone(offset)) {
+                old = index.remove(key);
+                segment.addGarbage(recordLen);
+            } else {
+                segment.markKey(key);
+                Location location = new Location(segment, offset, recordLen, segment.expireTime(offset));
+                if (location.isExpire(now)) {
+                    old = index.remove(key);
+                    segment.addGarbage(recordLen);
+                } else {
+                    old = index.put(key, location);
+                }
+            }
+            if (old != null) {
+                old.segment.addGarbage(old.recordLen);
+            }
+            offset += recordLen;
+        }
+        segment.recoverWritePosition(offset);
+    }
+
+    private void flush() {
+        try {
+            Segment segment = active;
+            if (segment != null) {
+                segment.flush();
+            }
+        } catch (Exception e) {
+            logger.error("flush error", e);
+        }
+    }
+
+    /**
+     * remove the expired keys from the index, and count them as the garbage of the segment
+     */
+    private void expireSweep() {
+        try {
+            long now = System.currentTimeMillis();
+            int removed = 0;
+            List<Map.Entry<byte[], Location>> expired = new ArrayList<>();
+            for (Map.Entry<byte[], Location> entry : index.entrySet()) {
+                if (entry.getValue().isExpire(now)) {
+                    expired.add(entry);
+                }
+                if (expired.size() >= 1024) {
+                    removed += removeExpired(expired);
+                    expired.clear();
+                }
+            }
+            removed += removeExpired(expired);
+            if (removed > 0) {
+                logger.info("LocalKVClient expire sweep, removed = {}, keys = {}", removed, index.size());
+            }
+        } catch (Exception e) {
+            logger.error("expire sweep error", e);
+        }
+    }
+
+    private int removeExpired(List<Map.Entry<byte[], Location>> expired) {
+        if (expired.isEmpty()) return 0;
+        int removed = 0;
+        synchronized (writeLock) {
+            for (Map.Entry<byte[], Location> entry : expired) {
+                Location location = entry.getValue();
+                //the record itself has the expire time, so no tombstone is needed
+                if (index.remove(entry.getKey(), location)) {
+                    location.segment.addGarbage(location.recordLen);
+                    removed ++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private void compact() {
+        try {
+            double garbageRatio = ProxyDynamicConf.getDouble("kv.local.compact.garbage.ratio", 0.5);
+            for (Segment segment : segments.values()) {
+                if (segment == active || segment.garbageRatio() < garbageRatio) {
+                    continue;
+                }
+                compact(segment);
+            }
+        } catch (Exception e) {
+            logger.error("compact error", e);
+        }
+    }
+
+    private void compact(Segment segment) {
+        long startTime = System.currentTimeMillis();
+        //tombstone should be kept if any older segment may contain the key, or the deleted key will come back after replay
+        Collection<Segment> olderSegments = segments.headMap(segment.getId(), false).values();
+        int end = segment.getWritePosition();
+        int offset = 0;
+        int moved = 0;
+        int tombstones = 0;
+        while (offset < end) {
+            int recordLen = segment.recordLen(offset);
+            byte[] key = segment.readKey(offset);
+            synchronized (writeLock) {
+                long now = System.currentTimeMillis();
+                Location location = index.get(key);
+                if (location != null && location.segment == segment && location.offset == offset) {
+                    if (location.isExpire(now)) {
+                        index.remove(key);
+                        if (mayContainKey(olderSegments, key)) {
+                            appendTombstone(key);
+                            tombstones ++;
+                        }
+                    } else {
+                        byte[] value = segment.readValue(offset);
+                        Segment target = segmentFor(recordLen);
+                        int newOffset = target.append(key, value, location.expireTime);
+                        index.put(key, new Location(target, newOffset, recordLen, location.expireTime));
+                        moved ++;
+                    }
+                } else if (location == null
+                        && (segment.isTombstone(offset) || segment.expireTime(offset) > 0 && segment.expireTime(offset) <= now)
+                        && mayContainKey(olderSegments, key)) {
+                    appendTombstone(key);
+                    tombstones ++;
+                }
+            }
+            offset += recordLen;
+        }
+        synchronized (writeLock) {
+            active.flush();
+            segments.remove(segment.getId());
+        }
+        segment.delete();
+        logger.info("LocalKVClient compact segment = {}, moved = {}, tombstones = {}, spend = {}ms",
+                segment.getId(), moved, tombstones, System.currentTimeMillis() - startTime);
+    }
+
+    //must be called under writeLock
+    private boolean mayContainKey(Collection<Segment> segments, byte[] key) {
+        for (Segment segment : segments) {
+            if (segment.mayContainKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //must be called under writeLock
+    private void appendTombstone(byte[] key) {
+        Segment target = segmentFor(Segment.recordSize(key, null));
+        int offset = target.append(key, null, 0);
+        target.addGarbage(target.recordLen(offset));
+    }
+}
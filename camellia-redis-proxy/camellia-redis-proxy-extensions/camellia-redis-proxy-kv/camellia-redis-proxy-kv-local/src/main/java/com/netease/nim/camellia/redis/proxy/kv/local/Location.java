@@ -0,0 +1,24 @@
+package com.netease.nim.camellia.redis.proxy.kv.local;
+
+/**
+ * 内存索引的value，指向segment中的一条record
+ * Created by caojiajun on 2024/7/11
+ */
+class Location {
+
+    final Segment segment;
+    final int offset;
+    final int recordLen;
+    final long expireTime;
+
+    Location(Segment segment, int offset, int recordLen, long expireTime) {
+        this.segment = segment;
+        this.offset = offset;
+        this.recordLen = recordLen;
+        this.expireTime = expireTime;
+    }
+
+    boolean isExpire(long now) {
+        return expireTime > 0 && expireTime <= now;
+    }
+}
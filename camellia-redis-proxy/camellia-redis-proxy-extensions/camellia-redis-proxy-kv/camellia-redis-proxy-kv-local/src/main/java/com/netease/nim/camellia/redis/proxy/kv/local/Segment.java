@@ -0,0 +1,255 @@
+package com.netease.nim.camellia.redis.proxy.kv.local;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * 一个内存映射的追加写数据文件
+ * <p>
+ * record = recordLen(4) + crc(4) + keyLen(4) + valueLen(4, -1 means tombstone) + expireTime(8) + key + value
+ * <p>
+ * recordLen == 0 means the end of the segment, crc is computed from keyLen to the end of the record
+ * Created by caojiajun on 2024/7/11
+ */
+class Segment {
+
+    static final int HEADER_SIZE = 24;
+    static final int TOMBSTONE = -1;
+
+    private final long id;
+    private final File file;
+    private final int capacity;
+    private final MappedByteBuffer buffer;
+
+    //only modified by writer (under LocalKVClient write lock)
+    private volatile int writePosition;
+    private volatile long garbageBytes;
+    //bloom filter of the keys put into this segment (tombstones excluded), accessed under LocalKVClient write lock
+    private final long[] keyFilter;
+
+    private Segment(long id, File file, int capacity, MappedByteBuffer buffer) {
+        this.id = id;
+        this.file = file;
+        this.capacity = capacity;
+        this.buffer = buffer;
+        //1 bit per 16 bytes of the segment, e.g. 512KB for a 64MB segment
+        this.keyFilter = new long[Math.max(capacity / 1024, 16)];
+    }
+
+    static Segment open(File dir, long id, int capacity) throws IOException {
+        File file = new File(dir, fileName(id));
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (raf.length() > capacity) {
+                capacity = (int) raf.length();
+            } else if (raf.length() < capacity) {
+                raf.setLength(capacity);
+            }
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            return new Segment(id, file, capacity, buffer);
+        }
+    }
+
+    static String fileName(long id) {
+        return String.format("segment-%020d.data", id);
+    }
+
+    static long parseId(String fileName) {
+        if (!fileName.startsWith("segment-") || !fileName.endsWith(".data")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fileName.substring("segment-".length(), fileName.length() - ".data".length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static int recordSize(byte[] key, byte[] value) {
+        return HEADER_SIZE + key.length + (value == null ? 0 : value.length);
+    }
+
+    long getId() {
+        return id;
+    }
+
+    int getWritePosition() {
+        return writePosition;
+    }
+
+    long getGarbageBytes() {
+        return garbageBytes;
+    }
+
+    void addGarbage(int bytes) {
+        garbageBytes += bytes;
+    }
+
+    double garbageRatio() {
+        int position = writePosition;
+        if (position == 0) return 0;
+        return garbageBytes / (double) position;
+    }
+
+    boolean hasRemaining(int recordSize) {
+        //keep 4 bytes for the end mark
+        return writePosition + recordSize + 4 <= capacity;
+    }
+
+    /**
+     * append a record, value == null means tombstone
+     * @return offset of the record
+     */
+    int append(byte[] key, byte[] value, long expireTime) {
+        int offset = writePosition;
+        int recordLen = recordSize(key, value);
+        int valueLen = value == null ? TOMBSTONE : value.length;
+        ByteBuffer buf = buffer.duplicate();
+        buf.position(offset + 8);
+        buf.putInt(key.length);
+        buf.putInt(valueLen);
+        buf.putLong(expireTime);
+        buf.put(key);
+        if (value != null) {
+            buf.put(value);
+        }
+        buf.position(offset + 8);
+        buf.limit(offset + recordLen);
+        CRC32 crc32 = new CRC32();
+        crc32.update(buf);
+        buffer.putInt(offset + 4, (int) crc32.getValue());
+        //recordLen is written last, so a half written record is treated as the end of segment
+        buffer.putInt(offset, recordLen);
+        writePosition = offset + recordLen;
+        if (value != null) {
+            markKey(key);
+        }
+        return offset;
+    }
+
+    /**
+     * add the key to the key filter, called when append or replay a non-tombstone record
+     */
+    void markKey(byte[] key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long bits = keyFilter.length * 64L;
+        for (int i=0; i<3; i++) {
+            int bit = (int) (((h1 + i * h2) & 0x7fffffffL) % bits);
+            keyFilter[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @return false if the segment never contains a non-tombstone record of the key
+     */
+    boolean mayContainKey(byte[] key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long bits = keyFilter.length * 64L;
+        for (int i=0; i<3; i++) {
+            int bit = (int) (((h1 + i * h2) & 0x7fffffffL) % bits);
+            if ((keyFilter[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //fnv-1a 64
+    private static long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    byte[] readKey(int offset) {
+        int keyLen = buffer.getInt(offset + 8);
+        byte[] key = new byte[keyLen];
+        ByteBuffer buf = buffer.duplicate();
+        buf.position(offset + HEADER_SIZE);
+        buf.get(key);
+        return key;
+    }
+
+    byte[] readValue(int offset) {
+        int keyLen = buffer.getInt(offset + 8);
+        int valueLen = buffer.getInt(offset + 12);
+        if (valueLen == TOMBSTONE) {
+            return null;
+        }
+        byte[] value = new byte[valueLen];
+        ByteBuffer buf = buffer.duplicate();
+        buf.position(offset + HEADER_SIZE + keyLen);
+        buf.get(value);
+        return value;
+    }
+
+    int recordLen(int offset) {
+        return buffer.getInt(offset);
+    }
+
+    boolean isTombstone(int offset) {
+        return buffer.getInt(offset + 12) == TOMBSTONE;
+    }
+
+    long expireTime(int offset) {
+        return buffer.getLong(offset + 16);
+    }
+
+    /**
+     * check the record at offset, used when replay
+     * @return record length, or -1 if reach the end or the record is broken
+     */
+    int checkRecord(int offset) {
+        if (offset + HEADER_SIZE > capacity) {
+            return -1;
+        }
+        int recordLen = buffer.getInt(offset);
+        if (recordLen < HEADER_SIZE || offset + recordLen > capacity) {
+            return -1;
+        }
+        int keyLen = buffer.getInt(offset + 8);
+        int valueLen = buffer.getInt(offset + 12);
+        if (keyLen < 0 || HEADER_SIZE + keyLen + Math.max(valueLen, 0) != recordLen) {
+            return -1;
+        }
+        ByteBuffer buf = buffer.duplicate();
+        buf.position(offset + 8);
+        buf.limit(offset + recordLen);
+        CRC32 crc32 = new CRC32();
+        crc32.update(buf);
+        if ((int) crc32.getValue() != buffer.getInt(offset + 4)) {
+            return -1;
+        }
+        return recordLen;
+    }
+
+    void recoverWritePosition(int position) {
+        this.writePosition = position;
+        if (position + 4 <= capacity) {
+            //clear the broken tail
+            buffer.putInt(position, 0);
+        }
+    }
+
+    void flush() {
+        buffer.force();
+    }
+
+    void delete() {
+        //the mapped buffer will be unmapped by gc, readers holding this segment still work on linux
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+}
@@ -66,6 +66,7 @@ public class CamelliaRedisProxyUtil {
         serverProperties.setUdsPath(properties.getUdsPath());
         serverProperties.setCommandDecodeMaxBatchSize(netty.getCommandDecodeMaxBatchSize());
         serverProperties.setCommandDecodeBufferInitializerSize(netty.getCommandDecodeBufferInitializerSize());
+        serverProperties.setCommandDecodeZeroCopyThreshold(netty.getCommandDecodeZeroCopyThreshold());
         serverProperties.setTcpNoDelay(netty.isTcpNoDelay());
         serverProperties.setSoBacklog(netty.getSoBacklog());
         serverProperties.setSoRcvbuf(netty.getSoRcvbuf());
@@ -24,6 +24,7 @@ public class NettyProperties {
     private int writeBufferWaterMarkHigh = Constants.Server.writeBufferWaterMarkHigh;
     private int commandDecodeMaxBatchSize = Constants.Server.commandDecodeMaxBatchSize;
     private int commandDecodeBufferInitializerSize = Constants.Server.commandDecodeBufferInitializerSize;
+    private int commandDecodeZeroCopyThreshold = Constants.Server.commandDecodeZeroCopyThreshold;
 
     public int getBossThread() {
         return bossThread;
@@ -144,4 +145,12 @@ public class NettyProperties {
     public void setCommandDecodeBufferInitializerSize(int commandDecodeBufferInitializerSize) {
         this.commandDecodeBufferInitializerSize = commandDecodeBufferInitializerSize;
     }
+
+    public int getCommandDecodeZeroCopyThreshold() {
+        return commandDecodeZeroCopyThreshold;
+    }
+
+    public void setCommandDecodeZeroCopyThreshold(int commandDecodeZeroCopyThreshold) {
+        this.commandDecodeZeroCopyThreshold = commandDecodeZeroCopyThreshold;
+    }
 }